@@ -42,11 +42,13 @@ public class SourceDirCallGraph {
   }
 
   /**
-   * Usage: SourceDirCallGraph -sourceDir file_path -mainClass class_name
+   * Usage: SourceDirCallGraph -sourceDir file_path -mainClass class_name [-threads n]
    *
    * <p>If given -mainClass, uses main() method of class_name as entrypoint. Class name should start
    * with an 'L'.
    *
+   * <p>If given -threads, parses and translates the source files on n threads.
+   *
    * <p>Example args: -sourceDir /tmp/srcTest -mainClass LFoo
    */
   public static void main(String[] args)
@@ -78,6 +80,10 @@ public class SourceDirCallGraph {
     String sourceDir = p.getProperty("sourceDir");
     String mainClass = p.getProperty("mainClass");
     AnalysisScope scope = new JavaSourceAnalysisScope();
+    String threads = p.getProperty("threads");
+    if (threads != null) {
+      scope.setNumberOfLoaderThreads(Integer.parseInt(threads));
+    }
     // add standard libraries to scope
     scope.addStdLibs(false, ClassLoaderReference.Primordial);
     // add the source directory
@@ -31,6 +31,7 @@ public class ECJClassLoaderFactory extends ClassLoaderFactoryImpl {
       throws IOException {
     if (classLoaderReference.equals(JavaSourceAnalysisScope.SOURCE)) {
       ClassLoaderImpl cl = makeSourceLoader(classLoaderReference, cha, parent);
+      cl.setNumberOfThreads(scope.getNumberOfLoaderThreads());
       cl.init(scope.getModules(classLoaderReference));
       return cl;
     } else {
@@ -42,6 +42,7 @@ import com.ibm.wala.cast.java.loader.JavaSourceLoaderImpl;
 import com.ibm.wala.cast.java.translator.Java2IRTranslator;
 import com.ibm.wala.cast.java.translator.SourceModuleTranslator;
 import com.ibm.wala.cast.java.translator.jdt.JDTJava2CAstTranslator;
+import com.ibm.wala.cast.tree.CAstEntity;
 import com.ibm.wala.cast.tree.CAstSourcePositionMap.Position;
 import com.ibm.wala.cast.tree.impl.AbstractSourcePosition;
 import com.ibm.wala.classLoader.DirectoryTreeModule;
@@ -54,6 +55,7 @@ import com.ibm.wala.core.java11.JrtModule;
 import com.ibm.wala.ipa.callgraph.AnalysisScope;
 import com.ibm.wala.ssa.SSAOptions;
 import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.config.StringFilter;
 import com.ibm.wala.util.io.TemporaryFile;
@@ -64,10 +66,12 @@ import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
@@ -161,15 +165,32 @@ public class ECJSourceModuleTranslator implements SourceModuleTranslator {
   private final class ECJAstToIR extends FileASTRequestor {
     private final Map<String, ModuleEntry> sourceMap;
 
-    private ECJAstToIR(Map<String, ModuleEntry> sourceMap) {
+    /**
+     * if not null, the CAst of each parsed file is kept here, by path, rather than translated to IR
+     * right away
+     */
+    private final Map<String, CAstEntity> parsedEntities;
+
+    private ECJAstToIR(
+        Map<String, ModuleEntry> sourceMap, Map<String, CAstEntity> parsedEntities) {
       this.sourceMap = sourceMap;
+      this.parsedEntities = parsedEntities;
+    }
+
+    private void translateToIR(String source, CAstEntity entity) {
+      final Java2IRTranslator java2ir = makeIRTranslator();
+      java2ir.translate(sourceMap.get(source), entity);
     }
 
     @Override
     public void acceptAST(String source, CompilationUnit ast) {
       JDTJava2CAstTranslator<Position> jdt2cast = makeCAstTranslator(ast, source);
-      final Java2IRTranslator java2ir = makeIRTranslator();
-      java2ir.translate(sourceMap.get(source), jdt2cast.translateToCAst());
+      CAstEntity entity = jdt2cast.translateToCAst();
+      if (parsedEntities == null) {
+        translateToIR(source, entity);
+      } else {
+        parsedEntities.put(source, entity);
+      }
 
       if (!"true".equals(System.getProperty("wala.jdt.quiet"))) {
         IProblem[] problems = ast.getProblems();
@@ -268,6 +289,66 @@ public class ECJSourceModuleTranslator implements SourceModuleTranslator {
     }
 
     String[] sourceFiles = sources.toArray(new String[0]);
+    int numberOfThreads = Math.min(sourceLoader.getNumberOfThreads(), sourceFiles.length);
+    if (numberOfThreads <= 1) {
+      makeParser()
+          .createASTs(
+              sourceFiles,
+              null,
+              new String[0],
+              new ECJAstToIR(sourceMap, null),
+              new NullProgressMonitor());
+      return;
+    }
+
+    // parse and translate contiguous batches of files to CAst, so that files of a package mostly
+    // share a parser, each on its own thread
+    String[][] batches = new String[numberOfThreads][];
+    for (int i = 0; i < numberOfThreads; i++) {
+      batches[i] =
+          Arrays.copyOfRange(
+              sourceFiles,
+              i * sourceFiles.length / numberOfThreads,
+              (i + 1) * sourceFiles.length / numberOfThreads);
+    }
+    Map<String, CAstEntity> parsedEntities = new ConcurrentHashMap<>();
+    ECJAstToIR requestor = new ECJAstToIR(sourceMap, parsedEntities);
+    try {
+      ThreadPoolUtil.run(
+          numberOfThreads,
+          () ->
+              Arrays.stream(batches)
+                  .parallel()
+                  .forEach(
+                      batch ->
+                          makeParser()
+                              .createASTs(
+                                  batch,
+                                  null,
+                                  new String[0],
+                                  requestor,
+                                  new NullProgressMonitor())));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while translating source files", e);
+    }
+
+    // the IR translator defines classes in the source loader, so generate IR on this thread, in
+    // the order of the source files, whichever batch finished first
+    for (String source : sourceFiles) {
+      CAstEntity entity = parsedEntities.remove(source);
+      if (entity != null) {
+        requestor.translateToIR(source, entity);
+      }
+    }
+  }
+
+  /**
+   * make a parser that resolves bindings against the libraries and source directories of the
+   * scope. Parsers are not thread safe, so each batch of files gets its own, and each parser binds
+   * whatever it needs from the files of other batches itself.
+   */
+  private ASTParser makeParser() {
     @SuppressWarnings("deprecation")
     final ASTParser parser = ASTParser.newParser(AST.JLS8);
     parser.setResolveBindings(true);
@@ -279,8 +360,7 @@ public class ECJSourceModuleTranslator implements SourceModuleTranslator {
     Hashtable<String, String> options = JavaCore.getOptions();
     options.put(JavaCore.COMPILER_SOURCE, "11");
     parser.setCompilerOptions(options);
-    parser.createASTs(
-        sourceFiles, null, new String[0], new ECJAstToIR(sourceMap), new NullProgressMonitor());
+    return parser;
   }
 
   protected Java2IRTranslator makeIRTranslator() {
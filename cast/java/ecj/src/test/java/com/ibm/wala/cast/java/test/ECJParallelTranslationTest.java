@@ -0,0 +1,90 @@
+package com.ibm.wala.cast.java.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.ir.ssa.AstIRFactory;
+import com.ibm.wala.cast.java.client.ECJJavaSourceAnalysisEngine;
+import com.ibm.wala.cast.java.ipa.callgraph.JavaSourceAnalysisScope;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.IRFactory;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests parsing and translating Java source files with ECJ on several threads. */
+public class ECJParallelTranslationTest {
+
+  private static final int NUMBER_OF_CLASSES = 12;
+
+  /** each class calls a method of the next one, so that bindings cross batches of files */
+  private static void writeSources(Path dir) throws IOException {
+    for (int i = 0; i < NUMBER_OF_CLASSES; i++) {
+      String next = "C" + ((i + 1) % NUMBER_OF_CLASSES);
+      Files.writeString(
+          dir.resolve("C" + i + ".java"),
+          "public class C"
+              + i
+              + " {\n"
+              + "  public int f("
+              + next
+              + " next) { return next.g() + "
+              + i
+              + "; }\n"
+              + "  public int g() { return "
+              + i
+              + "; }\n"
+              + "}\n");
+    }
+  }
+
+  /** the IR of each source method, by signature */
+  private static Map<String, String> translate(Path dir, int numberOfThreads) throws IOException {
+    ECJJavaSourceAnalysisEngine engine =
+        new ECJJavaSourceAnalysisEngine(SSAOptions.defaultOptions()) {
+          @Override
+          protected AnalysisScope makeSourceAnalysisScope() {
+            AnalysisScope scope = super.makeSourceAnalysisScope();
+            scope.setNumberOfLoaderThreads(numberOfThreads);
+            return scope;
+          }
+        };
+    IRTests.populateScope(engine, List.of(dir), IRTests.rtJar);
+    engine.buildAnalysisScope();
+    IClassHierarchy cha = engine.buildClassHierarchy();
+
+    IRFactory<IMethod> irFactory = AstIRFactory.makeDefaultFactory();
+    Map<String, String> irs = new TreeMap<>();
+    for (IClass klass :
+        Iterator2Iterable.make(
+            cha.getLoader(JavaSourceAnalysisScope.SOURCE).iterateAllClasses())) {
+      for (IMethod method : klass.getDeclaredMethods()) {
+        irs.put(
+            method.getSignature(),
+            irFactory
+                .makeIR(method, Everywhere.EVERYWHERE, SSAOptions.defaultOptions())
+                .getControlFlowGraph()
+                .toString());
+      }
+    }
+    return irs;
+  }
+
+  @Test
+  public void testParallelMatchesSequential(@TempDir Path dir) throws IOException {
+    writeSources(dir);
+    Map<String, String> sequential = translate(dir, 1);
+    assertThat(sequential).containsKey("C0.f(LC1;)I");
+    assertThat(translate(dir, 4)).isEqualTo(sequential);
+  }
+}
@@ -24,6 +24,7 @@ import com.ibm.wala.cast.js.loader.JavaScriptLoader;
 import com.ibm.wala.cast.js.loader.JavaScriptLoaderFactory;
 import com.ibm.wala.cast.js.translator.CAstRhinoTranslatorFactory;
 import com.ibm.wala.cast.js.translator.JavaScriptTranslatorFactory;
+import com.ibm.wala.cast.loader.CAstCache;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.classLoader.Module;
@@ -56,6 +57,28 @@ public class NodejsCallGraphBuilderUtil extends JSCallGraphUtil {
 
   public static PropagationCallGraphBuilder makeCGBuilder(File workingDir, File mainFile)
       throws IOException, IllegalArgumentException, WalaException {
+    return makeCGBuilder(workingDir, mainFile, false);
+  }
+
+  /**
+   * @param lazyTranslation if true, IR for nested functions, closures included, is only generated
+   *     once the call graph builder reaches them, which saves time and memory for large dependency
+   *     trees
+   */
+  public static PropagationCallGraphBuilder makeCGBuilder(
+      File workingDir, File mainFile, boolean lazyTranslation)
+      throws IOException, IllegalArgumentException, WalaException {
+    return makeCGBuilder(workingDir, mainFile, lazyTranslation, null);
+  }
+
+  /**
+   * @param castCache if not null, the CAst of files that have not changed since they were stored
+   *     in castCache is taken from it instead of being parsed again, which speeds up analyzing the
+   *     same project repeatedly as it is edited
+   */
+  public static PropagationCallGraphBuilder makeCGBuilder(
+      File workingDir, File mainFile, boolean lazyTranslation, CAstCache castCache)
+      throws IOException, IllegalArgumentException, WalaException {
     JavaScriptTranslatorFactory translatorFactory = new CAstRhinoTranslatorFactory();
     JSCallGraphUtil.setTranslatorFactory(translatorFactory);
 
@@ -66,6 +89,8 @@ public class NodejsCallGraphBuilderUtil extends JSCallGraphUtil {
     IAnalysisCacheView cache = new AnalysisCacheImpl(irFactory);
 
     JavaScriptLoaderFactory loaders = new JavaScriptLoaderFactory(translatorFactory, null);
+    loaders.setLazyTranslation(lazyTranslation);
+    loaders.setCAstCache(castCache);
 
     SourceFileModule mainSourceModule =
         CAstCallGraphUtil.makeSourceModule(mainFile.toURI().toURL(), mainFile.getName());
@@ -0,0 +1,66 @@
+package com.ibm.wala.cast.js.nodejs.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.js.nodejs.NodejsCallGraphBuilderUtil;
+import com.ibm.wala.cast.loader.CAstCache;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a JavaScript loader given CAst from a {@link CAstCache} builds the same call graph as
+ * from freshly parsed files, so that translating cached entities to IR does not change them.
+ */
+public class NodejsCAstCacheTest {
+
+  private static Set<String> callGraphEdges(
+      File file, boolean lazyTranslation, CAstCache castCache) throws Exception {
+    PropagationCallGraphBuilder builder =
+        NodejsCallGraphBuilderUtil.makeCGBuilder(
+            file.getParentFile(), file, lazyTranslation, castCache);
+    CallGraph CG = builder.makeCallGraph(builder.getOptions());
+    Set<String> edges = new HashSet<>();
+    for (CGNode node : CG) {
+      String caller = node.getMethod().getDeclaringClass().getName().toString();
+      for (CGNode callee : Iterator2Iterable.make(CG.getSuccNodes(node))) {
+        edges.add(caller + " -> " + callee.getMethod().getDeclaringClass().getName());
+      }
+    }
+    return edges;
+  }
+
+  private void checkCachedMatchesFresh(boolean lazyTranslation) throws Exception {
+    File file =
+        new File(
+            getClass()
+                .getClassLoader()
+                .getResource("NodejsRequireTargetSelectorResolve/requireSimple/index.js")
+                .toURI());
+    Set<String> fresh = callGraphEdges(file, lazyTranslation, null);
+    assertThat(fresh)
+        .anyMatch(edge -> edge.endsWith(" -> Lmod/nodejsModule/moduleSource/SomeClass/hello"));
+
+    CAstCache cache = new CAstCache();
+    assertThat(callGraphEdges(file, lazyTranslation, cache)).isEqualTo(fresh);
+    int hits = cache.getHitCount();
+    // the second build reuses the entities that the first one translated to IR
+    assertThat(callGraphEdges(file, lazyTranslation, cache)).isEqualTo(fresh);
+    assertThat(cache.getHitCount()).isGreaterThan(hits);
+  }
+
+  @Test
+  public void testCachedMatchesFresh() throws Exception {
+    checkCachedMatchesFresh(false);
+  }
+
+  @Test
+  public void testCachedMatchesFreshWithLazyTranslation() throws Exception {
+    checkCachedMatchesFresh(true);
+  }
+}
@@ -13,10 +13,15 @@ package com.ibm.wala.cast.js.nodejs.test;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.ibm.wala.cast.js.nodejs.NodejsCallGraphBuilderUtil;
+import com.ibm.wala.cast.js.types.JavaScriptTypes;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader;
+import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder;
 import java.io.File;
 import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -43,6 +48,43 @@ public class NodejsRequireTargetSelectorResolveTest {
     assertThat(cgString).doesNotContain("?");
   }
 
+  @Test
+  public void testRequireSimpleLazyTranslation() throws Exception {
+    URL fileUrl =
+        getClass()
+            .getClassLoader()
+            .getResource("NodejsRequireTargetSelectorResolve/requireSimple/index.js");
+    File file = new File(fileUrl.toURI());
+
+    CallGraphFunctions lazy = callGraphFunctions(file, true);
+    assertThat(lazy.functions()).contains("Lmod/nodejsModule/moduleSource/SomeClass/hello");
+    // most functions, closures included, are allocated but never called, and never translated
+    assertThat(lazy.untranslatedFunctions()).isGreaterThan(lazy.functions().size() / 2);
+    CallGraphFunctions eager = callGraphFunctions(file, false);
+    assertThat(eager.untranslatedFunctions()).isZero();
+    assertThat(lazy.functions()).isEqualTo(eager.functions());
+  }
+
+  /**
+   * @param functions the functions in the call graph
+   * @param untranslatedFunctions the number of functions whose IR was never generated
+   */
+  private record CallGraphFunctions(Set<String> functions, int untranslatedFunctions) {}
+
+  private static CallGraphFunctions callGraphFunctions(File file, boolean lazyTranslation)
+      throws Exception {
+    PropagationCallGraphBuilder builder =
+        NodejsCallGraphBuilderUtil.makeCGBuilder(file.getParentFile(), file, lazyTranslation);
+    CallGraph CG = builder.makeCallGraph(builder.getOptions());
+    Set<String> functions = new HashSet<>();
+    for (CGNode node : CG) {
+      functions.add(node.getMethod().getDeclaringClass().getName().toString());
+    }
+    CAstAbstractModuleLoader loader =
+        (CAstAbstractModuleLoader) builder.getClassHierarchy().getLoader(JavaScriptTypes.jsLoader);
+    return new CallGraphFunctions(functions, loader.getNumberOfDeferredFunctions());
+  }
+
   @Test
   public void testRequireStaticCircular() throws Exception {
     URL fileUrl =
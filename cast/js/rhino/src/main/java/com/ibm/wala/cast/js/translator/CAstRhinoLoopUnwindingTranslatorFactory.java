@@ -26,6 +26,6 @@ public class CAstRhinoLoopUnwindingTranslatorFactory
 
   @Override
   protected TranslatorToCAst translateInternal(CAst Ast, SourceModule M, String N) {
-    return new CAstRhinoTranslator(M, true);
+    return new CAstRhinoTranslator(Ast, M, true);
   }
 }
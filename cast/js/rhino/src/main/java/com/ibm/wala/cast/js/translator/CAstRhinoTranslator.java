@@ -11,11 +11,20 @@
 package com.ibm.wala.cast.js.translator;
 
 import com.ibm.wala.cast.ir.translator.RewritingTranslatorToCAst;
+import com.ibm.wala.cast.tree.CAst;
 import com.ibm.wala.cast.tree.impl.CAstImpl;
 import com.ibm.wala.classLoader.ModuleEntry;
 
 public class CAstRhinoTranslator extends RewritingTranslatorToCAst {
   public CAstRhinoTranslator(ModuleEntry m, boolean replicateForDoLoops) {
-    super(m, new RhinoToAstTranslator(new CAstImpl(), m, m.getName(), replicateForDoLoops));
+    this(new CAstImpl(), m, replicateForDoLoops);
+  }
+
+  /**
+   * @param ast the factory for the CAst of m, e.g. the one a {@link
+   *     com.ibm.wala.cast.loader.CAstAbstractModuleLoader} shares between its modules
+   */
+  public CAstRhinoTranslator(CAst ast, ModuleEntry m, boolean replicateForDoLoops) {
+    super(m, new RhinoToAstTranslator(ast, m, m.getName(), replicateForDoLoops));
   }
 }
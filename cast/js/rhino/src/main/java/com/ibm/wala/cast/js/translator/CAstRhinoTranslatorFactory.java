@@ -18,6 +18,6 @@ public class CAstRhinoTranslatorFactory implements JavaScriptTranslatorFactory {
 
   @Override
   public TranslatorToCAst make(CAst ast, ModuleEntry M) {
-    return new CAstRhinoTranslator(M, false);
+    return new CAstRhinoTranslator(ast, M, false);
   }
 }
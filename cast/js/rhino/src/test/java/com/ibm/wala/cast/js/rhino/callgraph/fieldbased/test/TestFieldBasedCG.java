@@ -10,11 +10,18 @@
  */
 package com.ibm.wala.cast.js.rhino.callgraph.fieldbased.test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.js.html.DefaultSourceExtractor;
+import com.ibm.wala.cast.js.util.CallGraph2JSON;
 import com.ibm.wala.cast.js.util.FieldBasedCGUtil.BuilderType;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.PlatformUtil;
 import com.ibm.wala.util.WalaException;
+import java.net.URL;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -215,4 +222,21 @@ public class TestFieldBasedCG extends AbstractFieldBasedTest {
     runTest(
         "tests/field-based/bad_new_function_call.js", List.of(), BuilderType.OPTIMISTIC_WORKLIST);
   }
+
+  @Test
+  public void testParallelMatchesSequential() throws WalaException, CancelException {
+    URL url = TestFieldBasedCG.class.getClassLoader().getResource("tests/field-based/callbacks.js");
+    CallGraph2JSON cg2JSON = new CallGraph2JSON(false);
+    for (BuilderType builderType : BuilderType.values()) {
+      util.setNumberOfThreads(1);
+      Map<String, Map<String, Set<String>>> sequential =
+          cg2JSON.extractEdges(
+              util.buildCG(url, builderType, false, DefaultSourceExtractor.factory).callGraph());
+      util.setNumberOfThreads(4);
+      Map<String, Map<String, Set<String>>> parallel =
+          cg2JSON.extractEdges(
+              util.buildCG(url, builderType, false, DefaultSourceExtractor.factory).callGraph());
+      assertThat(parallel).as(builderType.toString()).isEqualTo(sequential);
+    }
+  }
 }
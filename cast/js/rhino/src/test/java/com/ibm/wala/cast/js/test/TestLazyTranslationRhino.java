@@ -0,0 +1,141 @@
+package com.ibm.wala.cast.js.test;
+
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.getPrologueFile;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.makeHierarchy;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.makeLoaders;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.setTranslatorFactory;
+import static com.ibm.wala.cast.js.util.JSCallGraphBuilderUtil.makeSourceModules;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.ipa.callgraph.CAstCallGraphUtil;
+import com.ibm.wala.cast.ir.ssa.AstIRFactory;
+import com.ibm.wala.cast.js.loader.JavaScriptLoader;
+import com.ibm.wala.cast.js.loader.JavaScriptLoaderFactory;
+import com.ibm.wala.cast.js.translator.CAstRhinoTranslatorFactory;
+import com.ibm.wala.cast.js.types.JavaScriptTypes;
+import com.ibm.wala.cast.loader.AstMethod;
+import com.ibm.wala.cast.loader.AstMethod.LexicalInformation;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader.DynamicCodeBody;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.IRFactory;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.util.collections.Pair;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that generating the IR of nested functions, closures included, only when it is requested
+ * gives the same IR and lexical information as generating it along with the enclosing functions,
+ * and that whether a function has lexical parents is known before its IR is generated.
+ */
+public class TestLazyTranslationRhino {
+
+  private static final String[] SCRIPTS = {
+    "simple.js",
+    "functions.js",
+    "nested.js",
+    "closures_shared_node.js",
+    "simple-lexical.js",
+    "try-finally-crash.js",
+    "jquery_spec_test.js"
+  };
+
+  @BeforeEach
+  public void setUp() {
+    setTranslatorFactory(new CAstRhinoTranslatorFactory());
+  }
+
+  /**
+   * @return the lexical information of method, independent of the order of its exposed names
+   */
+  private static Set<String> describe(LexicalInformation info) {
+    Set<String> result = new TreeSet<>();
+    Pair<String, String>[] names = info.getExposedNames();
+    if (names != null) {
+      int[] exitUses = info.getExitExposedUses();
+      for (int i = 0; i < names.length; i++) {
+        result.add(names[i] + " at exit " + exitUses[i]);
+      }
+    }
+    if (info.getScopingParents() != null) {
+      result.add("parents " + Arrays.toString(info.getScopingParents()));
+    }
+    return result;
+  }
+
+  /**
+   * @param deferredFunctions the number of functions whose IR generation was still deferred once
+   *     the class hierarchy was built
+   * @param irs the instructions and lexical information of each function, by signature
+   */
+  private record Translation(int deferredFunctions, Map<String, String> irs) {}
+
+  private static Translation translate(boolean lazyTranslation)
+      throws IOException, ClassHierarchyException {
+    JavaScriptLoaderFactory loaders = makeLoaders(null);
+    loaders.setLazyTranslation(lazyTranslation);
+    List<Module> modules = new ArrayList<>();
+    for (String script : SCRIPTS) {
+      modules.add(makeSourceModules("tests", script)[0]);
+    }
+    modules.add(getPrologueFile("prologue.js"));
+    AnalysisScope scope =
+        CAstCallGraphUtil.makeScope(modules.toArray(new Module[0]), loaders, JavaScriptLoader.JS);
+    IClassHierarchy cha = makeHierarchy(scope, loaders);
+    int deferredFunctions =
+        ((CAstAbstractModuleLoader) cha.getLoader(JavaScriptTypes.jsLoader))
+            .getNumberOfDeferredFunctions();
+
+    // ask before any IR is generated, as call graph builders do when functions are allocated
+    Map<IClass, Boolean> hasLexicalParents = new HashMap<>();
+    for (IClass cls : cha) {
+      if (cls instanceof DynamicCodeBody body) {
+        hasLexicalParents.put(cls, body.hasLexicalParents());
+      }
+    }
+
+    IRFactory<IMethod> factory = AstIRFactory.makeDefaultFactory();
+    Map<String, String> irs = new TreeMap<>();
+    for (IClass cls : cha) {
+      for (IMethod method : cls.getDeclaredMethods()) {
+        if (method instanceof AstMethod astMethod) {
+          IR ir = factory.makeIR(method, Everywhere.EVERYWHERE, SSAOptions.defaultOptions());
+          irs.put(
+              method.getSignature(),
+              Arrays.toString(ir.getInstructions())
+                  + describe(astMethod.lexicalInfo())
+                  + " lexical parents "
+                  + hasLexicalParents.get(cls));
+        }
+      }
+    }
+    return new Translation(deferredFunctions, irs);
+  }
+
+  @Test
+  public void testLazyTranslationMatchesEager() throws IOException, ClassHierarchyException {
+    Translation eager = translate(false);
+    assertThat(eager.deferredFunctions()).isZero();
+    Translation lazy = translate(true);
+    // closures are deferred too, not only functions that access no enclosing names
+    assertThat(lazy.deferredFunctions()).isGreaterThan(eager.irs().size() / 2);
+    assertThat(lazy.irs()).isEqualTo(eager.irs());
+  }
+}
@@ -0,0 +1,94 @@
+package com.ibm.wala.cast.js.test;
+
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.getPrologueFile;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.makeHierarchy;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.makeLoaders;
+import static com.ibm.wala.cast.js.ipa.callgraph.JSCallGraphUtil.setTranslatorFactory;
+import static com.ibm.wala.cast.js.util.JSCallGraphBuilderUtil.makeSourceModules;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.ipa.callgraph.CAstCallGraphUtil;
+import com.ibm.wala.cast.ir.ssa.AstIRFactory;
+import com.ibm.wala.cast.js.loader.JavaScriptLoader;
+import com.ibm.wala.cast.js.loader.JavaScriptLoaderFactory;
+import com.ibm.wala.cast.js.translator.CAstRhinoTranslatorFactory;
+import com.ibm.wala.cast.loader.AstMethod;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.IRFactory;
+import com.ibm.wala.ssa.SSAOptions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that translating JavaScript files to CAst on several threads gives the same functions and
+ * IR as translating them on one.
+ */
+public class TestParallelTranslationRhino {
+
+  private static final String[] SCRIPTS = {
+    "simple.js",
+    "functions.js",
+    "objects.js",
+    "forin.js",
+    "nested.js",
+    "closures_shared_node.js",
+    "try-finally-crash.js",
+    "jquery_spec_test.js"
+  };
+
+  @BeforeEach
+  public void setUp() {
+    setTranslatorFactory(new CAstRhinoTranslatorFactory());
+  }
+
+  /**
+   * @return the instructions of the IR of each function in {@link #SCRIPTS}, by signature
+   */
+  private static Map<String, String> translate(int numberOfThreads)
+      throws IOException, ClassHierarchyException {
+    JavaScriptLoaderFactory loaders = makeLoaders(null);
+    loaders.setNumberOfTranslatorThreads(numberOfThreads);
+    List<Module> modules = new ArrayList<>();
+    for (String script : SCRIPTS) {
+      modules.add(makeSourceModules("tests", script)[0]);
+    }
+    modules.add(getPrologueFile("prologue.js"));
+    AnalysisScope scope =
+        CAstCallGraphUtil.makeScope(modules.toArray(new Module[0]), loaders, JavaScriptLoader.JS);
+    IClassHierarchy cha = makeHierarchy(scope, loaders);
+
+    IRFactory<IMethod> factory = AstIRFactory.makeDefaultFactory();
+    Map<String, String> irs = new TreeMap<>();
+    for (IClass cls : cha) {
+      for (IMethod method : cls.getDeclaredMethods()) {
+        if (method instanceof AstMethod) {
+          IR ir = factory.makeIR(method, Everywhere.EVERYWHERE, SSAOptions.defaultOptions());
+          irs.put(method.getSignature(), Arrays.toString(ir.getInstructions()));
+        }
+      }
+    }
+    return irs;
+  }
+
+  @Test
+  public void testSeveralThreadsTranslateAsOne() throws IOException, ClassHierarchyException {
+    Map<String, String> sequential = translate(1);
+    assertThat(sequential).hasSizeGreaterThan(SCRIPTS.length);
+    for (int i = 0; i < 3; i++) {
+      assertThat(translate(4)).isEqualTo(sequential);
+    }
+  }
+}
@@ -106,6 +106,7 @@ public abstract class FieldBasedCallGraphBuilder {
 
   protected FlowGraph flowGraphFactory() {
     FlowGraphBuilder builder = new FlowGraphBuilder(cha, cache, supportFullPointerAnalysis);
+    builder.setNumberOfThreads(options.getNumberOfSolverThreads());
     return builder.buildFlowGraph();
   }
 
@@ -76,6 +76,7 @@ public class WorklistBasedOptimisticCallgraphBuilder extends FieldBasedCallGraph
   @Override
   public FlowGraph buildFlowGraph(IProgressMonitor monitor) throws CancelException {
     builder = new FlowGraphBuilder(cha, cache, false);
+    builder.setNumberOfThreads(options.getNumberOfSolverThreads());
     return builder.buildFlowGraph();
   }
 
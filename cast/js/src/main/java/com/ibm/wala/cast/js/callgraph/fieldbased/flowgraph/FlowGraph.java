@@ -59,6 +59,7 @@ import com.ibm.wala.ssa.SSANewInstruction;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.CompoundIterator;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
@@ -66,15 +67,18 @@ import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.MapUtil;
 import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.graph.Graph;
-import com.ibm.wala.util.graph.GraphReachability;
 import com.ibm.wala.util.graph.GraphSlicer;
 import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.ReachabilityIndex;
 import com.ibm.wala.util.graph.impl.ExtensionGraph;
 import com.ibm.wala.util.graph.impl.InvertedGraph;
 import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
 import com.ibm.wala.util.graph.traverse.DFS;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.OrdinalSet;
 import com.ibm.wala.util.intset.OrdinalSetMapping;
+import com.ibm.wala.util.intset.SparseIntSet;
 import java.io.Serial;
 import java.util.Collection;
 import java.util.Iterator;
@@ -98,11 +102,35 @@ public class FlowGraph implements Iterable<Vertex> {
 
   // the transitive closure of the inverse of this.graph,
   // but without paths going through the Unknown vertex
-  private GraphReachability<Vertex, FuncVertex> optimistic_closure;
+  private Closure<FuncVertex> optimistic_closure;
+
+  // how many threads may compute closures
+  private int numberOfThreads = 1;
 
   public FlowGraph() {
+    this(new VertexFactory());
+  }
+
+  /**
+   * Creates an empty flow graph whose vertices are built by the given factory, such as a fragment
+   * of another flow graph that is later {@linkplain #addAll(FlowGraph) added} to it.
+   */
+  public FlowGraph(VertexFactory factory) {
     this.graph = new SlowSparseNumberedGraph<>(1);
-    this.factory = new VertexFactory();
+    this.factory = factory;
+  }
+
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads may compute the sets of vertices that reach other
+   *     vertices
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
   }
 
   // (re-)compute optimistic_closure
@@ -112,34 +140,52 @@ public class FlowGraph implements Iterable<Vertex> {
     optimistic_closure = computeClosure(graph, monitor, FuncVertex.class);
   }
 
-  private static <T> GraphReachability<Vertex, T> computeClosure(
-      NumberedGraph<Vertex> graph, IProgressMonitor monitor, final Class<?> type)
+  private <T> Closure<T> computeClosure(
+      Graph<Vertex> flowgraph, IProgressMonitor monitor, final Class<?> type)
       throws CancelException {
-    // prune flowgraph by taking out 'unknown' vertex
-    Graph<Vertex> pruned_flowgraph =
-        GraphSlicer.prune(
-            graph,
-            t ->
-                t.accept(
-                    new AbstractVertexVisitor<>() {
-                      @Override
-                      public Boolean visitVertex() {
-                        return true;
-                      }
+    MutableMapping<T> domain = MutableMapping.make();
+    // prune flowgraph by taking out 'unknown' vertex, and invert it to find the vertices of the
+    // type that reach each vertex
+    ReachabilityIndex<Vertex> index =
+        new ReachabilityIndex<>(
+            new InvertedGraph<>(GraphSlicer.prune(flowgraph, FlowGraph::isKnown)),
+            v -> {
+              if (type.isInstance(v)) {
+                @SuppressWarnings("unchecked")
+                T t = (T) v;
+                return SparseIntSet.singleton(domain.add(t));
+              }
+              return null;
+            });
+    index.solve(numberOfThreads, monitor);
+    return new Closure<>(index, domain);
+  }
 
-                      @Override
-                      public Boolean visitUnknownVertex(UnknownVertex unknownVertex) {
-                        return false;
-                      }
-                    }));
+  private static boolean isKnown(Vertex v) {
+    return v.accept(
+        new AbstractVertexVisitor<>() {
+          @Override
+          public Boolean visitVertex() {
+            return true;
+          }
 
-    // compute transitive closure
-    GraphReachability<Vertex, T> optimistic_closure =
-        new GraphReachability<>(new InvertedGraph<>(pruned_flowgraph), type::isInstance);
+          @Override
+          public Boolean visitUnknownVertex(UnknownVertex unknownVertex) {
+            return false;
+          }
+        });
+  }
 
-    optimistic_closure.solve(monitor);
+  /** The vertices of some type that reach each vertex, as indices in a domain. */
+  private record Closure<T>(ReachabilityIndex<Vertex> index, MutableMapping<T> domain) {
 
-    return optimistic_closure;
+    OrdinalSet<T> getReachingSet(Object v) {
+      if (!index.containsNode(v)) {
+        return OrdinalSet.empty();
+      }
+      IntSet set = index.getReachableFacts(v);
+      return set.isEmpty() ? OrdinalSet.empty() : new OrdinalSet<>(set, domain);
+    }
   }
 
   public VertexFactory getVertexFactory() {
@@ -155,8 +201,26 @@ public class FlowGraph implements Iterable<Vertex> {
     if (!graph.containsNode(to)) graph.addNode(to);
 
     if (!graph.hasEdge(from, to)) {
-      optimistic_closure = null;
       graph.addEdge(from, to);
+      if (optimistic_closure != null && isKnown(from) && isKnown(to)) {
+        // the closure is over the inverted graph
+        optimistic_closure.index().addEdge(to, from);
+      }
+    }
+  }
+
+  /**
+   * Adds all edges of another flow graph, which must share the {@linkplain #getVertexFactory()
+   * vertex factory} of this one.
+   */
+  public void addAll(FlowGraph fragment) {
+    if (fragment.factory != factory) {
+      throw new IllegalArgumentException("flow graphs have different vertex factories");
+    }
+    for (Vertex from : fragment.graph) {
+      for (Vertex to : Iterator2Iterable.make(fragment.graph.getSuccNodes(from))) {
+        addEdge(from, to);
+      }
     }
   }
 
@@ -169,7 +233,7 @@ public class FlowGraph implements Iterable<Vertex> {
     if (!graph.containsNode(dest)) return OrdinalSet.empty();
 
     compute_optimistic_closure(monitor);
-    return optimistic_closure.getReachableSet(dest);
+    return optimistic_closure.getReachingSet(dest);
   }
 
   public Iterator<Vertex> getSucc(Vertex v) {
@@ -189,7 +253,7 @@ public class FlowGraph implements Iterable<Vertex> {
       private final Map<Pair<PrototypeField, ObjectVertex>, @NonNull PrototypeFieldVertex> proto =
           HashMapFactory.make();
 
-      private GraphReachability<Vertex, ObjectVertex> pointerAnalysis;
+      private Closure<ObjectVertex> pointerAnalysis;
 
       private final ExtensionGraph<Vertex> dataflow = new ExtensionGraph<>(graph);
 
@@ -253,7 +317,7 @@ public class FlowGraph implements Iterable<Vertex> {
       @Override
       public OrdinalSet<ObjectVertex> getPointsToSet(PointerKey key) {
         if (dataflow.containsNode((Vertex) key)) {
-          return pointerAnalysis.getReachableSet(key);
+          return pointerAnalysis.getReachingSet(key);
         } else {
           return OrdinalSet.empty();
         }
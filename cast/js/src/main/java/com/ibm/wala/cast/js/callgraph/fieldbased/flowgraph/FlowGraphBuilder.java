@@ -48,9 +48,13 @@ import com.ibm.wala.ssa.SSAPutInstruction;
 import com.ibm.wala.ssa.SSAReturnInstruction;
 import com.ibm.wala.ssa.SSAThrowInstruction;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.intset.EmptyIntSet;
 import com.ibm.wala.util.intset.IntSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Class for building intra-procedural flow graphs for a given class hierarchy.
@@ -62,6 +66,11 @@ public class FlowGraphBuilder {
   private final IAnalysisCacheView cache;
   private final boolean supportFullPointerAnalysis;
 
+  /** functions are visited in batches of at most this many per thread */
+  private static final int MAX_BATCHES_PER_THREAD = 4;
+
+  private int numberOfThreads = 1;
+
   public FlowGraphBuilder(
       IClassHierarchy cha, IAnalysisCacheView cache, boolean supportPointerAnalysis) {
     this.cha = cha;
@@ -81,6 +90,7 @@ public class FlowGraphBuilder {
    */
   public FlowGraph buildFlowGraph() {
     FlowGraph flowgraph = new FlowGraph();
+    flowgraph.setNumberOfThreads(numberOfThreads);
 
     addPrimitives(flowgraph);
 
@@ -89,14 +99,70 @@ public class FlowGraphBuilder {
     return flowgraph;
   }
 
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads {@link #visitProgram(FlowGraph)} may use to visit
+   *     functions
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
+  /**
+   * Visits all functions in the class hierarchy.
+   *
+   * <p>With more than one {@linkplain #setNumberOfThreads(int) thread}, the functions are split
+   * into consecutive batches, each of which is visited into a fragment of the flow graph that
+   * shares its vertex factory. The fragments are then added to the flow graph in order, so the
+   * result does not depend on thread scheduling.
+   */
   public void visitProgram(FlowGraph flowgraph) {
+    List<IMethod> functions = new ArrayList<>();
     for (IClass klass : cha) {
       for (IMethod method : klass.getDeclaredMethods()) {
         if (method.getDescriptor().equals(AstMethodReference.fnDesc)) {
-          visitFunction(flowgraph, method);
+          functions.add(method);
         }
       }
     }
+
+    if (numberOfThreads == 1 || functions.size() < 2) {
+      for (IMethod method : functions) {
+        visitFunction(flowgraph, method);
+      }
+      return;
+    }
+
+    int batches = Math.min(functions.size(), numberOfThreads * MAX_BATCHES_PER_THREAD);
+    FlowGraph[] fragments = new FlowGraph[batches];
+    try {
+      ThreadPoolUtil.run(
+          numberOfThreads,
+          () ->
+              IntStream.range(0, batches)
+                  .parallel()
+                  .forEach(
+                      b -> {
+                        FlowGraph fragment = new FlowGraph(flowgraph.getVertexFactory());
+                        int from = (int) ((long) functions.size() * b / batches);
+                        int to = (int) ((long) functions.size() * (b + 1) / batches);
+                        for (IMethod method : functions.subList(from, to)) {
+                          visitFunction(fragment, method);
+                        }
+                        fragments[b] = fragment;
+                      }));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while building flow graph", e);
+    }
+
+    for (FlowGraph fragment : fragments) {
+      flowgraph.addAll(fragment);
+    }
   }
 
   public void visitFunction(FlowGraph flowgraph, IMethod method) {
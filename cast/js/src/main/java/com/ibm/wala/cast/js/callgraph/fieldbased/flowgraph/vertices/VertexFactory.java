@@ -15,50 +15,49 @@ import com.ibm.wala.classLoader.CallSiteReference;
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.types.TypeReference;
-import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.Pair;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A vertex factory is associated with a flow graph. It manages its vertex set, making sure that
  * vertices aren't unnecessarily created twice.
  *
+ * <p>A vertex factory is safe for concurrent use, so that the flow graphs of different functions
+ * can be built in parallel.
+ *
  * @author mschaefer
  */
 public class VertexFactory {
   private final Map<Pair<FuncVertex, CallSiteReference>, CallVertex> callVertexCache =
-      HashMapFactory.make();
+      new ConcurrentHashMap<>();
   private final Map<Pair<FuncVertex, CallSiteReference>, ReflectiveCallVertex>
-      reflectiveCallVertexCache = HashMapFactory.make();
-  private final Map<IClass, FuncVertex> funcVertexCache = HashMapFactory.make();
+      reflectiveCallVertexCache = new ConcurrentHashMap<>();
+  private final Map<IClass, FuncVertex> funcVertexCache = new ConcurrentHashMap<>();
   private final Map<Pair<FuncVertex, Integer>, ParamVertex> paramVertexCache =
-      HashMapFactory.make();
-  private final Map<String, PropVertex> propVertexCache = HashMapFactory.make();
-  private final Map<FuncVertex, RetVertex> retVertexCache = HashMapFactory.make();
-  private final Map<FuncVertex, ArgVertex> argVertexCache = HashMapFactory.make();
-  private final Map<Pair<FuncVertex, Integer>, VarVertex> varVertexCache = HashMapFactory.make();
+      new ConcurrentHashMap<>();
+  private final Map<String, PropVertex> propVertexCache = new ConcurrentHashMap<>();
+  private final Map<FuncVertex, RetVertex> retVertexCache = new ConcurrentHashMap<>();
+  private final Map<FuncVertex, ArgVertex> argVertexCache = new ConcurrentHashMap<>();
+  private final Map<Pair<FuncVertex, Integer>, VarVertex> varVertexCache =
+      new ConcurrentHashMap<>();
   private final Map<Pair<String, String>, LexicalVarVertex> lexicalAccessVertexCache =
-      HashMapFactory.make();
+      new ConcurrentHashMap<>();
   private final Map<Pair<IMethod, Integer>, CreationSiteVertex> creationSites =
-      HashMapFactory.make();
+      new ConcurrentHashMap<>();
 
   public CallVertex makeCallVertex(FuncVertex func, JavaScriptInvoke invoke) {
     CallSiteReference site = invoke.getCallSite();
     Pair<FuncVertex, CallSiteReference> key = Pair.make(func, site);
-    CallVertex value = callVertexCache.get(key);
-    if (value == null) callVertexCache.put(key, value = new CallVertex(func, site, invoke));
-    return value;
+    return callVertexCache.computeIfAbsent(key, k -> new CallVertex(func, site, invoke));
   }
 
   public ReflectiveCallVertex makeReflectiveCallVertex(FuncVertex func, JavaScriptInvoke invoke) {
     CallSiteReference site = invoke.getCallSite();
     Pair<FuncVertex, CallSiteReference> key = Pair.make(func, site);
-    ReflectiveCallVertex value = reflectiveCallVertexCache.get(key);
-    if (value == null) {
-      reflectiveCallVertexCache.put(key, value = new ReflectiveCallVertex(func, site, invoke));
-    }
-    return value;
+    return reflectiveCallVertexCache.computeIfAbsent(
+        key, k -> new ReflectiveCallVertex(func, site, invoke));
   }
 
   public Iterable<CallVertex> getCallVertices() {
@@ -68,11 +67,8 @@ public class VertexFactory {
   public CreationSiteVertex makeCreationSiteVertex(
       IMethod method, int instruction, TypeReference createdType) {
     Pair<IMethod, Integer> key = Pair.make(method, instruction);
-    CreationSiteVertex value = creationSites.get(key);
-    if (value == null) {
-      creationSites.put(key, value = new CreationSiteVertex(method, instruction, createdType));
-    }
-    return value;
+    return creationSites.computeIfAbsent(
+        key, k -> new CreationSiteVertex(method, instruction, createdType));
   }
 
   public Collection<CreationSiteVertex> creationSites() {
@@ -80,9 +76,7 @@ public class VertexFactory {
   }
 
   public FuncVertex makeFuncVertex(IClass klass) {
-    FuncVertex value = funcVertexCache.get(klass);
-    if (value == null) funcVertexCache.put(klass, value = new FuncVertex(klass));
-    return value;
+    return funcVertexCache.computeIfAbsent(klass, FuncVertex::new);
   }
 
   public Collection<FuncVertex> getFuncVertices() {
@@ -91,15 +85,11 @@ public class VertexFactory {
 
   public ParamVertex makeParamVertex(FuncVertex func, int index) {
     Pair<FuncVertex, Integer> key = Pair.make(func, index);
-    ParamVertex value = paramVertexCache.get(key);
-    if (value == null) paramVertexCache.put(key, value = new ParamVertex(func, index));
-    return value;
+    return paramVertexCache.computeIfAbsent(key, k -> new ParamVertex(func, index));
   }
 
   public PropVertex makePropVertex(String name) {
-    PropVertex value = propVertexCache.get(name);
-    if (value == null) propVertexCache.put(name, value = new PropVertex(name));
-    return value;
+    return propVertexCache.computeIfAbsent(name, PropVertex::new);
   }
 
   public Iterable<PropVertex> getPropVertices() {
@@ -107,9 +97,7 @@ public class VertexFactory {
   }
 
   public RetVertex makeRetVertex(FuncVertex func) {
-    RetVertex value = retVertexCache.get(func);
-    if (value == null) retVertexCache.put(func, value = new RetVertex(func));
-    return value;
+    return retVertexCache.computeIfAbsent(func, RetVertex::new);
   }
 
   public Iterable<RetVertex> getRetVertices() {
@@ -117,9 +105,7 @@ public class VertexFactory {
   }
 
   public ArgVertex makeArgVertex(FuncVertex func) {
-    ArgVertex value = argVertexCache.get(func);
-    if (value == null) argVertexCache.put(func, value = new ArgVertex(func));
-    return value;
+    return argVertexCache.computeIfAbsent(func, ArgVertex::new);
   }
 
   public Iterable<ArgVertex> getArgVertices() {
@@ -132,9 +118,7 @@ public class VertexFactory {
 
   public VarVertex makeVarVertex(FuncVertex func, int valueNumber) {
     Pair<FuncVertex, Integer> key = Pair.make(func, valueNumber);
-    VarVertex value = varVertexCache.get(key);
-    if (value == null) varVertexCache.put(key, value = new VarVertex(func, valueNumber));
-    return value;
+    return varVertexCache.computeIfAbsent(key, k -> new VarVertex(func, valueNumber));
   }
 
   public Iterable<VarVertex> getVarVertices() {
@@ -143,10 +127,7 @@ public class VertexFactory {
 
   public LexicalVarVertex makeLexicalAccessVertex(String definer, String name) {
     Pair<String, String> key = Pair.make(definer, name);
-    LexicalVarVertex value = lexicalAccessVertexCache.get(key);
-    if (value == null)
-      lexicalAccessVertexCache.put(key, value = new LexicalVarVertex(definer, name));
-    return value;
+    return lexicalAccessVertexCache.computeIfAbsent(key, k -> new LexicalVarVertex(definer, name));
   }
 
   private final GlobalVertex global = GlobalVertex.instance();
@@ -21,7 +21,7 @@ import com.ibm.wala.cast.js.translator.JSAstTranslator;
 import com.ibm.wala.cast.js.translator.JavaScriptTranslatorFactory;
 import com.ibm.wala.cast.js.types.JavaScriptMethods;
 import com.ibm.wala.cast.js.types.JavaScriptTypes;
-import com.ibm.wala.cast.loader.AstMethod.DebuggingInformation;
+import com.ibm.wala.cast.loader.CAstCache;
 import com.ibm.wala.cast.tree.CAstEntity;
 import com.ibm.wala.cast.tree.CAstNode;
 import com.ibm.wala.cast.tree.impl.CAstImpl;
@@ -29,8 +29,6 @@ import com.ibm.wala.cast.tree.rewrite.CAstRewriterFactory;
 import com.ibm.wala.cast.tree.visit.CAstVisitor;
 import com.ibm.wala.cast.types.AstMethodReference;
 import com.ibm.wala.cast.util.CAstPrinter;
-import com.ibm.wala.cfg.AbstractCFG;
-import com.ibm.wala.cfg.IBasicBlock;
 import com.ibm.wala.classLoader.ClassLoaderFactory;
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.classLoader.Module;
@@ -46,9 +44,7 @@ import com.ibm.wala.ipa.callgraph.impl.ClassHierarchyMethodTargetSelector;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
 import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
-import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.ssa.SSAOptions;
-import com.ibm.wala.ssa.SymbolTable;
 import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.TypeName;
 import com.ibm.wala.types.TypeReference;
@@ -62,7 +58,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 
 public class JSCallGraphUtil extends com.ibm.wala.cast.ipa.callgraph.CAstCallGraphUtil {
@@ -198,28 +193,10 @@ public class JSCallGraphUtil extends com.ibm.wala.cast.ipa.callgraph.CAstCallGra
       AstTranslator toIR =
           new JSAstTranslator(cl, ssaOptions) {
             @Override
-            protected void defineFunction(
-                CAstEntity N,
-                WalkContext definingContext,
-                AbstractCFG<SSAInstruction, ? extends IBasicBlock<SSAInstruction>> cfg,
-                SymbolTable symtab,
-                boolean hasCatchBlock,
-                Map<IBasicBlock<SSAInstruction>, Set<TypeReference>> caughtTypes,
-                boolean hasMonitorOp,
-                AstLexicalInformation LI,
-                DebuggingInformation debugInfo) {
-              String fnName = 'L' + composeEntityName(definingContext, N);
-              names.add(fnName);
-              super.defineFunction(
-                  N,
-                  definingContext,
-                  cfg,
-                  symtab,
-                  hasCatchBlock,
-                  caughtTypes,
-                  hasMonitorOp,
-                  LI,
-                  debugInfo);
+            protected void declareFunction(CAstEntity N, WalkContext context) {
+              // functions may only be declared here, if the loader defers their translation
+              names.add('L' + composeEntityName(context, N));
+              super.declareFunction(N, context);
             }
 
             @Override
@@ -237,9 +214,26 @@ public class JSCallGraphUtil extends com.ibm.wala.cast.ipa.callgraph.CAstCallGra
               }
             }
           };
-      CAstEntity tree;
+      if (cl.isLazyTranslation()) {
+        cl.deferFunctions(toIR);
+      }
+      CAstCache castCache = cl.getCAstCache();
+      String key = null;
+      String digest = null;
+      CAstEntity tree = null;
+      if (castCache != null) {
+        // translated without the loader's preprocessor, so kept apart from the loader's own entries
+        key = "additional:" + CAstCache.key(M);
+        digest = CAstCache.digest(M);
+        tree = castCache.get(key, digest);
+      }
       try {
-        tree = toCAst.translateToCAst();
+        if (tree == null) {
+          tree = toCAst.translateToCAst();
+          if (castCache != null) {
+            castCache.put(key, digest, tree);
+          }
+        }
         if (DEBUG) {
           CAstPrinter.printTo(tree, new PrintWriter(System.err));
         }
@@ -304,8 +298,20 @@ public class JSCallGraphUtil extends com.ibm.wala.cast.ipa.callgraph.CAstCallGra
       return true;
     }
 
+    /**
+     * @return a new stream from {@link #getURL()} if there is one, since the contents may be read
+     *     more than once, e.g. to check them against a {@link CAstCache} before translating them;
+     *     otherwise the stream given to the constructor
+     */
     @Override
     public InputStream getInputStream() {
+      if (url != null) {
+        try {
+          return url.openStream();
+        } catch (IOException e) {
+          // fall back to the stream given to the constructor
+        }
+      }
       return stream;
     }
 
@@ -14,6 +14,7 @@ import com.ibm.wala.cast.ipa.callgraph.ScopeMappingInstanceKeys;
 import com.ibm.wala.cast.js.loader.JavaScriptLoader;
 import com.ibm.wala.cast.js.types.JavaScriptTypes;
 import com.ibm.wala.cast.loader.AstMethod.LexicalParent;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader.DynamicCodeBody;
 import com.ibm.wala.cast.loader.CAstAbstractModuleLoader.DynamicMethodObject;
 import com.ibm.wala.cast.types.AstMethodReference;
 import com.ibm.wala.classLoader.IClass;
@@ -55,7 +56,14 @@ public class JavaScriptScopeMappingInstanceKeys extends ScopeMappingInstanceKeys
 
   @Override
   protected boolean needsScopeMappingKey(InstanceKey base) {
-    return cha.isSubclassOf(base.concreteType(), codeBody) && getParents(base).length > 0;
+    IClass type = base.concreteType();
+    if (!cha.isSubclassOf(type, codeBody)) {
+      return false;
+    }
+    // ask the code body itself, so as not to generate its IR before it is called, if it is lazy
+    return type instanceof DynamicCodeBody body
+        ? body.hasLexicalParents()
+        : getParents(base).length > 0;
   }
 
   @Override
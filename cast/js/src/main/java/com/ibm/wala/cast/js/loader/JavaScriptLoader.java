@@ -833,8 +833,13 @@ public class JavaScriptLoader extends CAstAbstractModuleLoader {
       CAstSourcePositionMap.Position sourcePosition,
       CAstEntity entity,
       WalkContext context) {
+    TypeName typeName = TypeName.string2TypeName(name);
+    IClass existing = redeclareCodeBody(typeName, entity, context);
+    if (existing != null) {
+      return existing;
+    }
     return new DynamicCodeBody(
-        TypeReference.findOrCreate(JavaScriptTypes.jsLoader, TypeName.string2TypeName(name)),
+        TypeReference.findOrCreate(JavaScriptTypes.jsLoader, typeName),
         P,
         this,
         sourcePosition,
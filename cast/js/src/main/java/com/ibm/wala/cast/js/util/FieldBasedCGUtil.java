@@ -28,6 +28,7 @@ import com.ibm.wala.classLoader.Module;
 import com.ibm.wala.classLoader.SourceModule;
 import com.ibm.wala.classLoader.SourceURLModule;
 import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
 import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
 import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
@@ -36,6 +37,7 @@ import com.ibm.wala.ssa.SSAOptions;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.NullProgressMonitor;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.WalaException;
 import java.io.IOException;
 import java.net.URL;
@@ -99,10 +101,32 @@ public class FieldBasedCGUtil {
 
   private final JavaScriptTranslatorFactory translatorFactory;
 
+  private int numberOfThreads = 1;
+
   public FieldBasedCGUtil(JavaScriptTranslatorFactory translatorFactory) {
     this.translatorFactory = translatorFactory;
   }
 
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads may build the flow graph and compute its closure; see
+   *     {@link AnalysisOptions#setNumberOfSolverThreads(int)}
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
+  private JSAnalysisOptions makeOptions(
+      CAstAnalysisScope scope, IClassHierarchy cha, Iterable<Entrypoint> roots) {
+    JSAnalysisOptions options = JSCallGraphUtil.makeOptions(scope, cha, roots);
+    options.setNumberOfSolverThreads(numberOfThreads);
+    return options;
+  }
+
   public CallGraphResult buildCG(
       URL url,
       BuilderType builderType,
@@ -228,7 +252,7 @@ public class FieldBasedCGUtil {
     IAnalysisCacheView cache = new AnalysisCacheImpl(AstIRFactory.makeDefaultFactory());
     final FieldBasedCallGraphBuilder builder =
         builderType.fieldBasedCallGraphBuilderFactory(
-            cha, JSCallGraphUtil.makeOptions(scope, cha, roots), cache, supportFullPointerAnalysis);
+            cha, makeOptions(scope, cha, roots), cache, supportFullPointerAnalysis);
     return builder.buildCallGraph(roots, monitor);
   }
 
@@ -248,7 +272,7 @@ public class FieldBasedCGUtil {
     final FieldBasedCallGraphBuilder builder =
         new WorklistBasedOptimisticCallgraphBuilder(
             cha,
-            JSCallGraphUtil.makeOptions(scope, cha, roots),
+            makeOptions(scope, cha, roots),
             cache,
             supportFullPointerAnalysis,
             bound);
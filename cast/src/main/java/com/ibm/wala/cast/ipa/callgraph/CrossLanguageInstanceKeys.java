@@ -80,4 +80,9 @@ public class CrossLanguageInstanceKeys implements InstanceKeyFactory {
   public InstanceKey getInstanceKeyForMetadataObject(Object obj, TypeReference objType) {
     return getSelector(objType).getInstanceKeyForMetadataObject(obj, objType);
   }
+
+  @Override
+  public void invalidate(CGNode node) {
+    languageSelectors.values().forEach(factory -> factory.invalidate(node));
+  }
 }
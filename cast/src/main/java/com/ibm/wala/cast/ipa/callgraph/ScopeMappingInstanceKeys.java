@@ -184,6 +184,11 @@ public abstract class ScopeMappingInstanceKeys implements InstanceKeyFactory {
     return basic.getInstanceKeyForMetadataObject(obj, objType);
   }
 
+  @Override
+  public void invalidate(CGNode node) {
+    basic.invalidate(node);
+  }
+
   public ScopeMappingInstanceKeys(PropagationCallGraphBuilder builder, InstanceKeyFactory basic) {
     this.basic = basic;
     this.builder = builder;
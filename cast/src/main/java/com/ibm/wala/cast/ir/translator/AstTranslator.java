@@ -28,6 +28,7 @@ import com.ibm.wala.cast.ir.ssa.CAstUnaryOp;
 import com.ibm.wala.cast.ir.ssa.EachElementGetInstruction;
 import com.ibm.wala.cast.ir.ssa.EachElementHasNextInstruction;
 import com.ibm.wala.cast.ir.ssa.SSAConversion;
+import com.ibm.wala.cast.ir.translator.ExposedNamesCollector.EnclosingNameAccess;
 import com.ibm.wala.cast.loader.AstMethod;
 import com.ibm.wala.cast.loader.AstMethod.DebuggingInformation;
 import com.ibm.wala.cast.loader.AstMethod.LexicalInformation;
@@ -3531,6 +3532,14 @@ public abstract class AstTranslator extends CAstVisitor<AstTranslator.WalkContex
     if (n.getAST() == null) {
       // presumably abstract
       declareFunction(n, context);
+    } else if (deferredFunctionHandler != null
+        && n != translationRoot
+        && containsOnlyFunctions(n)) {
+      // the handler declares the function, and generates its code later
+      boolean hasScopingParents = exposeEnclosingNames(n, context);
+      deferredFunctionHandler.defer(
+          new DeferredFunction(n, context, exposedNames, hasScopingParents));
+      return true;
     } else {
       declareFunction(n, context);
       initFunctionEntity(n, codeContext);
@@ -3737,6 +3746,142 @@ public abstract class AstTranslator extends CAstVisitor<AstTranslator.WalkContex
   protected Map<CAstEntity, Set<String>> entity2ExposedNames;
   protected Map<CAstEntity, Set<Pair<CAstEntity, String>>> entity2WrittenNames;
 
+  /** the names found by the collector run for the current translation */
+  private ExposedNamesCollector exposedNames;
+
+  /** the entity passed to the current call of {@link #translate(CAstEntity, WalkContext)} */
+  private CAstEntity translationRoot;
+
+  /**
+   * receives nested functions whose code generation is deferred; see {@link
+   * #setDeferredFunctionHandler(DeferredFunctionHandler)}
+   */
+  public interface DeferredFunctionHandler {
+    /**
+     * called instead of generating code for function. The handler must at least call {@link
+     * DeferredFunction#declare()}, and can later generate its code by calling {@link
+     * DeferredFunction#translate()}.
+     */
+    void defer(DeferredFunction function);
+  }
+
+  /**
+   * a nested function whose code generation has been deferred, along with what is needed to
+   * generate it later as if it had been generated with its enclosing entities
+   */
+  public final class DeferredFunction {
+    private final CAstEntity function;
+
+    private final WalkContext context;
+
+    /** the names found for the translation that deferred function, including enclosing ones */
+    private final ExposedNamesCollector exposedNames;
+
+    private final boolean hasScopingParents;
+
+    private DeferredFunction(
+        CAstEntity function,
+        WalkContext context,
+        ExposedNamesCollector exposedNames,
+        boolean hasScopingParents) {
+      this.function = function;
+      this.context = context;
+      this.exposedNames = exposedNames;
+      this.hasScopingParents = hasScopingParents;
+    }
+
+    public CAstEntity getFunction() {
+      return function;
+    }
+
+    /**
+     * @return true if the lexical information generated for the function will name scoping parents,
+     *     i.e. if it or a function nested in it accesses names declared by enclosing functions
+     */
+    public boolean hasScopingParents() {
+      return hasScopingParents;
+    }
+
+    /** declare the function and all functions nested in it, without generating any code */
+    public void declare() {
+      declareFunctions(function, context);
+    }
+
+    /** generate code for the function, deferring the functions nested in it in turn */
+    public void translate() {
+      AstTranslator.this.translate(function, context, exposedNames);
+    }
+  }
+
+  private DeferredFunctionHandler deferredFunctionHandler;
+
+  /**
+   * @param handler if not null, nested functions that contain only other functions are handed to
+   *     handler rather than translated to IR along with their parents.
+   */
+  public void setDeferredFunctionHandler(DeferredFunctionHandler handler) {
+    this.deferredFunctionHandler = handler;
+  }
+
+  private static boolean containsOnlyFunctions(CAstEntity n) {
+    if (n.getKind() != CAstEntity.FUNCTION_ENTITY) {
+      return false;
+    }
+    for (Collection<CAstEntity> children : n.getAllScopedEntities().values()) {
+      for (CAstEntity child : children) {
+        if (!containsOnlyFunctions(child)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * look up the names that n, visited in context, accesses but does not declare, and record those
+   * declared by enclosing entities as exposed, as translating n would. Code for the enclosing
+   * entities can then be generated before n's.
+   *
+   * @return true if n accesses a name declared by an enclosing entity, so that n will have scoping
+   *     parents once translated
+   */
+  private boolean exposeEnclosingNames(CAstEntity n, WalkContext context) {
+    Set<EnclosingNameAccess> accesses = exposedNames.getEntity2EnclosingNameAccesses().get(n);
+    if (accesses == null) {
+      return false;
+    }
+    boolean exposed = false;
+    for (EnclosingNameAccess access : accesses) {
+      Symbol S = context.currentScope().lookup(access.name());
+      if (S == null || !access.isDeclared() || context.currentScope().isGlobal(S)) {
+        continue;
+      }
+      Scope definingScope = S.getDefiningScope();
+      CAstEntity E = definingScope.getEntity();
+      String name = access.name();
+      boolean isWrite = access.isWrite();
+      addExposedName(E, E, name, definingScope.lookup(name).valueNumber(), isWrite, context);
+      markExposedInEnclosingEntities(
+          context, name, definingScope, makeType(S.type()), E, context.getEntityName(E), isWrite);
+      exposed = true;
+    }
+    return exposed;
+  }
+
+  /**
+   * declare function, visited in context, and all functions nested in it, without generating any
+   * code
+   */
+  public void declareFunctions(CAstEntity function, WalkContext context) {
+    declareFunction(function, context);
+    WalkContext codeContext = makeCodeContext(context, function);
+    for (Collection<CAstEntity> children : function.getAllScopedEntities().values()) {
+      for (CAstEntity child : children) {
+        declareFunctions(child, codeContext);
+      }
+    }
+  }
+
   protected int processFunctionExpr(CAstNode n, WalkContext context) {
     CAstEntity fn = (CAstEntity) n.getChild(0).getValue();
     declareFunction(fn, context);
@@ -5438,9 +5583,28 @@ public abstract class AstTranslator extends CAstVisitor<AstTranslator.WalkContex
     if (liftDeclarationsForLexicalScoping()) {
       exposedNamesCollector.run(N);
     }
+    translate(N, context, exposedNamesCollector);
+  }
+
+  private void translate(
+      CAstEntity N, WalkContext context, ExposedNamesCollector exposedNamesCollector) {
+    // a deferred function may be translated while another translation is in progress
+    ExposedNamesCollector outerNames = exposedNames;
+    CAstEntity outerRoot = translationRoot;
+    exposedNames = exposedNamesCollector;
     entity2ExposedNames = exposedNamesCollector.getEntity2ExposedNames();
     entity2WrittenNames = exposedNamesCollector.getEntity2WrittenNames();
-    walkEntities(N, context);
+    translationRoot = N;
+    try {
+      walkEntities(N, context);
+    } finally {
+      exposedNames = outerNames;
+      translationRoot = outerRoot;
+      if (outerNames != null) {
+        entity2ExposedNames = outerNames.getEntity2ExposedNames();
+        entity2WrittenNames = outerNames.getEntity2WrittenNames();
+      }
+    }
   }
 
   protected void doIsFieldDefined(WalkContext context, int result, int ref, CAstNode f) {
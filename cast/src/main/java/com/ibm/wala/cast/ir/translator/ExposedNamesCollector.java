@@ -16,8 +16,10 @@ import com.ibm.wala.cast.tree.CAstSourcePositionMap;
 import com.ibm.wala.cast.tree.CAstSymbol;
 import com.ibm.wala.cast.tree.visit.CAstVisitor;
 import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.MapUtil;
 import com.ibm.wala.util.collections.Pair;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,6 +39,13 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
   private final Map<CAstEntity, Set<Pair<CAstEntity, String>>> entity2WrittenNames =
       HashMapFactory.make();
 
+  /**
+   * for each entity, the accesses by its code, or the code of entities nested in it, to names that
+   * it does not declare, in the order they are first visited
+   */
+  private final Map<CAstEntity, Set<EnclosingNameAccess>> entity2EnclosingNameAccesses =
+      HashMapFactory.make();
+
   public Map<CAstEntity, Set<String>> getEntity2ExposedNames() {
     return entity2ExposedNames;
   }
@@ -45,7 +54,33 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
     return entity2WrittenNames;
   }
 
-  record EntityContext(CAstEntity top) implements CAstVisitor.Context {
+  /**
+   * @return for each entity, the accesses by its code, or the code of entities nested in it, to
+   *     names that it does not declare, in the order they are first visited. These are the names
+   *     its enclosing entities must look up, and expose if they declare them, when code for the
+   *     entity is generated on its own.
+   */
+  public Map<CAstEntity, Set<EnclosingNameAccess>> getEntity2EnclosingNameAccesses() {
+    return entity2EnclosingNameAccesses;
+  }
+
+  /**
+   * a read or write of a name that the accessing entity does not declare
+   *
+   * @param isDeclared is the name declared by an enclosing entity, rather than e.g. a global?
+   */
+  public record EnclosingNameAccess(String name, boolean isWrite, boolean isDeclared) {}
+
+  /**
+   * @param parentScopeNames names that code in this context reads from the scope enclosing top,
+   *     even if top declares them, as in the initializer of a declaration that shadows them
+   */
+  record EntityContext(CAstEntity top, Set<String> parentScopeNames)
+      implements CAstVisitor.Context {
+
+    EntityContext(CAstEntity top) {
+      this(top, Set.of());
+    }
 
     @Override
     public CAstSourcePositionMap getSourceMap() {
@@ -100,10 +135,17 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
     MapUtil.findOrCreateSet(entity2DeclaredNames, c.top()).add(nm);
   }
 
-  private void checkForLexicalAccess(Context c, String nm, boolean isWrite) {
+  @Override
+  protected EntityContext makeSpecialParentContext(EntityContext context, CAstNode n) {
+    Set<String> names = HashSetFactory.make(context.parentScopeNames());
+    names.add((String) n.getChild(0).getValue());
+    return new EntityContext(context.top(), names);
+  }
+
+  private void checkForLexicalAccess(EntityContext c, String nm, boolean isWrite) {
     CAstEntity entity = c.top();
     final Set<String> entityNames = entity2DeclaredNames.get(entity);
-    if (entityNames == null || !entityNames.contains(nm)) {
+    if (entityNames == null || !entityNames.contains(nm) || c.parentScopeNames().contains(nm)) {
       CAstEntity declaringEntity = null;
       CAstEntity curEntity = getParent(entity);
       while (curEntity != null) {
@@ -122,6 +164,10 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
           MapUtil.findOrCreateSet(entity2WrittenNames, declaringEntity).add(Pair.make(entity, nm));
         }
       }
+      EnclosingNameAccess access = new EnclosingNameAccess(nm, isWrite, declaringEntity != null);
+      for (CAstEntity e = entity; e != declaringEntity; e = getParent(e)) {
+        entity2EnclosingNameAccesses.computeIfAbsent(e, k -> new LinkedHashSet<>()).add(access);
+      }
     }
   }
 
@@ -139,7 +185,9 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
       boolean pre,
       EntityContext c,
       CAstVisitor<EntityContext> visitor) {
-    checkForLexicalAccess(c, (String) n.getChild(0).getValue(), true);
+    String nm = (String) n.getChild(0).getValue();
+    checkForLexicalAccess(c, nm, false);
+    checkForLexicalAccess(c, nm, true);
   }
 
   @Override
@@ -148,6 +196,40 @@ public class ExposedNamesCollector extends CAstVisitor<ExposedNamesCollector.Ent
     checkForLexicalAccess(c, (String) n.getChild(0).getValue(), true);
   }
 
+  @Override
+  protected void leaveSwitchValue(
+      CAstNode n, EntityContext c, CAstVisitor<EntityContext> visitor) {
+    // translators visit the case labels, which are kept in the control flow map
+    for (Object label : c.top().getControlFlow().getTargetLabels(n)) {
+      if (label instanceof CAstNode labelNode) {
+        visitor.visit(labelNode, c, visitor);
+      }
+    }
+  }
+
+  @Override
+  protected void leaveObjectRef(CAstNode n, EntityContext c, CAstVisitor<EntityContext> visitor) {
+    // translators visit the field of a reference when they generate the access
+    visitor.visit(n.getChild(1), c, visitor);
+  }
+
+  @Override
+  protected void leaveObjectRefAssign(
+      CAstNode n, CAstNode v, CAstNode a, EntityContext c, CAstVisitor<EntityContext> visitor) {
+    visitor.visit(n.getChild(1), c, visitor);
+  }
+
+  @Override
+  protected void leaveObjectRefAssignOp(
+      CAstNode n,
+      CAstNode v,
+      CAstNode a,
+      boolean pre,
+      EntityContext c,
+      CAstVisitor<EntityContext> visitor) {
+    visitor.visit(n.getChild(1), c, visitor);
+  }
+
   @Override
   protected boolean doVisit(CAstNode n, EntityContext context, CAstVisitor<EntityContext> visitor) {
     // assume unknown node types don't do anything relevant to exposed names.
@@ -78,8 +78,15 @@ public abstract class AstFunctionClass implements IClass, ClassConstants {
     return false;
   }
 
+  /**
+   * hook for subclasses that generate the code body on demand; called before {@link #functionBody}
+   * is read by the methods of {@link IClass}. By default, do nothing
+   */
+  protected void ensureCodeBody() {}
+
   @Override
   public boolean isAbstract() {
+    ensureCodeBody();
     return functionBody == null;
   }
 
@@ -128,6 +135,7 @@ public abstract class AstFunctionClass implements IClass, ClassConstants {
 
   @Override
   public IMethod getMethod(Selector selector) {
+    ensureCodeBody();
     if (selector.equals(AstMethodReference.fnSelector)
         || selector.equals(functionBody.getSelector())) {
       return functionBody;
@@ -182,6 +190,7 @@ public abstract class AstFunctionClass implements IClass, ClassConstants {
 
   @Override
   public Collection<IMethod> getDeclaredMethods() {
+    ensureCodeBody();
     if (functionBody != null) {
       return Collections.singleton(functionBody);
     } else {
@@ -217,6 +226,7 @@ public abstract class AstFunctionClass implements IClass, ClassConstants {
 
   @Override
   public Collection<IMethod> getAllMethods() {
+    ensureCodeBody();
     return Collections.singleton(functionBody);
   }
 
@@ -231,6 +241,7 @@ public abstract class AstFunctionClass implements IClass, ClassConstants {
   }
 
   public AstMethod getCodeBody() {
+    ensureCodeBody();
     return functionBody;
   }
 }
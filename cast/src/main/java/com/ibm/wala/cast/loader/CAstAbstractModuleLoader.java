@@ -12,6 +12,7 @@ package com.ibm.wala.cast.loader;
 
 import com.ibm.wala.cast.ir.translator.AstTranslator;
 import com.ibm.wala.cast.ir.translator.AstTranslator.AstLexicalInformation;
+import com.ibm.wala.cast.ir.translator.AstTranslator.DeferredFunction;
 import com.ibm.wala.cast.ir.translator.AstTranslator.WalkContext;
 import com.ibm.wala.cast.ir.translator.TranslatorToCAst;
 import com.ibm.wala.cast.ir.translator.TranslatorToIR;
@@ -21,6 +22,7 @@ import com.ibm.wala.cast.tree.CAstEntity;
 import com.ibm.wala.cast.tree.CAstQualifier;
 import com.ibm.wala.cast.tree.CAstSourcePositionMap;
 import com.ibm.wala.cast.tree.impl.CAstImpl;
+import com.ibm.wala.cast.tree.impl.CompactCAstImpl;
 import com.ibm.wala.cast.types.AstMethodReference;
 import com.ibm.wala.cast.util.CAstPrinter;
 import com.ibm.wala.cfg.AbstractCFG;
@@ -38,9 +40,11 @@ import com.ibm.wala.ipa.summaries.SummaryClassShellLoader;
 import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.ssa.SymbolTable;
 import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.Selector;
 import com.ibm.wala.types.TypeName;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.types.annotations.Annotation;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.debug.Assertions;
@@ -51,12 +55,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * abstract class loader that performs CAst and IR generation for relevant entities in a list of
@@ -67,6 +73,24 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
 
   private static final boolean DEBUG = false;
 
+  /** how many threads may translate module entries to CAst */
+  private int numberOfThreads = 1;
+
+  /** should IR generation for nested functions wait until their code is requested? */
+  private boolean lazyTranslation = false;
+
+  /** serializes deferred translations, since IR translators are not thread safe */
+  private final Object translationLock = new Object();
+
+  /** the deferred translation that declares the code bodies currently being created, if any */
+  private LazyTranslation declaring;
+
+  /** CAst of unchanged module entries from earlier loaders, if any */
+  private CAstCache castCache;
+
+  /** should CAst be made by a {@link CompactCAstImpl} rather than a {@link CAstImpl}? */
+  private boolean compactCAst = false;
+
   public CAstAbstractModuleLoader(IClassHierarchy cha, IClassLoader parent) {
     super(cha, parent);
   }
@@ -113,19 +137,207 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
    */
   protected void finishTranslation() {}
 
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads {@link #init(List)} may use to translate module entries
+   *     to CAst. The translators returned by {@link #getTranslatorToCAst(CAst, ModuleEntry, List)}
+   *     must then be safe to run concurrently with each other. IR is still generated on one thread.
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
+  public CAstCache getCAstCache() {
+    return castCache;
+  }
+
+  /**
+   * @param castCache if not null, {@link #init(List)} takes the CAst of module entries whose
+   *     contents are unchanged from castCache instead of translating them again, and stores the CAst
+   *     of the others in it
+   */
+  public void setCAstCache(CAstCache castCache) {
+    this.castCache = castCache;
+  }
+
+  public boolean isCompactCAst() {
+    return compactCAst;
+  }
+
+  /**
+   * @param compactCAst if true, {@link #init(List)} hands a {@link CompactCAstImpl} to the CAst
+   *     translators, which keeps the trees in arrays and so takes less memory for large sources,
+   *     such as minified JavaScript bundles. The factory frees no node while any of its trees is
+   *     reachable, e.g. from a code body or a {@link CAstCache}, so the nodes that translators
+   *     discard stay in memory as long as the CAst they keep.
+   */
+  public void setCompactCAst(boolean compactCAst) {
+    this.compactCAst = compactCAst;
+  }
+
+  public boolean isLazyTranslation() {
+    return lazyTranslation;
+  }
+
+  /**
+   * @param lazyTranslation if true, and the translator returned by {@link #initTranslator(Set)} is
+   *     an {@link AstTranslator}, {@link #init(List)} only declares nested functions that contain
+   *     no types or scripts. Their IR is generated the first time their code body is requested,
+   *     after which the translator no longer refers to their CAst.
+   */
+  public void setLazyTranslation(boolean lazyTranslation) {
+    this.lazyTranslation = lazyTranslation;
+  }
+
+  /**
+   * @return the number of functions declared by this loader whose IR generation was deferred and
+   *     has not happened yet, see {@link #setLazyTranslation(boolean)}
+   */
+  public int getNumberOfDeferredFunctions() {
+    int count = 0;
+    for (IClass type : types.values()) {
+      if (type instanceof DynamicCodeBody body && body.lazyTranslation != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * make xlator hand nested functions to this loader, which declares them and generates their IR
+   * on demand. {@link #init(List)} does this for its own translator when {@link
+   * #isLazyTranslation()}; other code that runs a translator for this loader may call it too.
+   */
+  public void deferFunctions(final AstTranslator xlator) {
+    xlator.setDeferredFunctionHandler(
+        function -> {
+          LazyTranslation outer = declaring;
+          declaring = new LazyTranslation(function);
+          try {
+            function.declare();
+          } finally {
+            declaring = outer;
+          }
+        });
+  }
+
+  /**
+   * find the code body for name that a deferred translation declared for entity, so that it is
+   * updated rather than replaced when the declaration is repeated, e.g. when the enclosing function
+   * is translated after the class hierarchy has been built.
+   *
+   * @return the existing code body, or null if a new one should be made
+   */
+  protected DynamicCodeBody redeclareCodeBody(
+      TypeName name, CAstEntity entity, WalkContext context) {
+    if (types.get(name) instanceof DynamicCodeBody body
+        && body.lazyTranslation != null
+        && body.entity == entity) {
+      body.translationContext = context;
+      if (declaring != null) {
+        body.lazyTranslation = declaring;
+      }
+      return body;
+    }
+    return null;
+  }
+
+  /** IR generation for a function, run at most once on demand */
+  private final class LazyTranslation {
+    private DeferredFunction function;
+
+    private boolean running;
+
+    private LazyTranslation(DeferredFunction function) {
+      this.function = function;
+    }
+
+    /**
+     * @return the function whose IR generation is pending, or null if it has happened
+     */
+    private DeferredFunction pending() {
+      synchronized (translationLock) {
+        return function;
+      }
+    }
+
+    /**
+     * generate IR for the function unless that has already happened
+     *
+     * @return false if this translation is in progress on the current thread
+     */
+    private boolean run() {
+      synchronized (translationLock) {
+        if (running) {
+          return false;
+        }
+        if (function != null) {
+          running = true;
+          try {
+            function.translate();
+          } finally {
+            running = false;
+            function = null;
+          }
+        }
+        return true;
+      }
+    }
+  }
+
   @Override
   public void init(final List<Module> modules) {
 
-    final CAst ast = new CAstImpl();
+    final CAst ast = compactCAst ? new CompactCAstImpl() : new CAstImpl();
 
     // convert everything to CAst
-    final Set<Pair<CAstEntity, ModuleEntry>> topLevelEntities = new LinkedHashSet<>();
+    final List<ModuleEntry> entries = new ArrayList<>();
     for (Module module : modules) {
-      translateModuleToCAst(module, ast, topLevelEntities, modules);
+      collectModuleEntries(module, entries);
+    }
+    final CAstTranslation[] translations = new CAstTranslation[entries.size()];
+    if (numberOfThreads == 1 || entries.size() < 2) {
+      for (int i = 0; i < translations.length; i++) {
+        translations[i] = translateModuleEntryToCAst(entries.get(i), ast, modules);
+      }
+    } else {
+      try {
+        ThreadPoolUtil.run(
+            numberOfThreads,
+            () ->
+                IntStream.range(0, translations.length)
+                    .parallel()
+                    .forEach(
+                        i ->
+                            translations[i] =
+                                translateModuleEntryToCAst(entries.get(i), ast, modules)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while translating modules to CAst", e);
+      }
+    }
+
+    // merge the results in module order, so that IR is generated in the same order either way
+    final Set<Pair<CAstEntity, ModuleEntry>> topLevelEntities = new LinkedHashSet<>();
+    for (int i = 0; i < translations.length; i++) {
+      CAstTranslation translation = translations[i];
+      if (!translation.warnings.isEmpty()) {
+        addMessages(entries.get(i), translation.warnings);
+      }
+      if (translation.entity != null) {
+        topLevelEntities.add(Pair.make(translation.entity, entries.get(i)));
+      }
     }
 
     // generate IR as needed
     final TranslatorToIR xlatorToIR = initTranslator(topLevelEntities);
+    if (lazyTranslation && xlatorToIR instanceof AstTranslator astTranslator) {
+      deferFunctions(astTranslator);
+    }
 
     for (Pair<CAstEntity, ModuleEntry> p : topLevelEntities) {
       if (shouldTranslate(p.fst)) {
@@ -148,38 +360,54 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
     finishTranslation();
   }
 
+  /** the result of translating one module entry to CAst */
+  private static final class CAstTranslation {
+    /** the translated entity, or null if translation failed */
+    private CAstEntity entity;
+
+    /** problems found while translating */
+    private final Set<Warning> warnings = new LinkedHashSet<>();
+  }
+
   /**
-   * translate moduleEntry to CAst and store result in topLevelEntities
+   * translate moduleEntry to CAst
    *
    * @param modules all modules in the analysis
    */
-  private void translateModuleEntryToCAst(
-      ModuleEntry moduleEntry,
-      CAst ast,
-      Set<Pair<CAstEntity, ModuleEntry>> topLevelEntities,
-      List<Module> modules) {
+  private CAstTranslation translateModuleEntryToCAst(
+      ModuleEntry moduleEntry, CAst ast, List<Module> modules) {
+    CAstTranslation result = new CAstTranslation();
     try {
-      if (moduleEntry.isModuleFile()) {
-        // nested module
-        translateModuleToCAst(moduleEntry.asModule(), ast, topLevelEntities, modules);
-      } else {
-        TranslatorToCAst xlatorToCAst = getTranslatorToCAst(ast, moduleEntry, modules);
+      String key = null;
+      String digest = null;
+      if (castCache != null) {
+        key = CAstCache.key(moduleEntry);
+        digest = CAstCache.digest(moduleEntry);
+        CAstEntity cached = castCache.get(key, digest);
+        if (cached != null) {
+          result.entity = cached;
+          return result;
+        }
+      }
 
-        try {
-          final CAstEntity fileEntity = xlatorToCAst.translateToCAst();
+      TranslatorToCAst xlatorToCAst = getTranslatorToCAst(ast, moduleEntry, modules);
 
-          if (DEBUG) {
-            CAstPrinter.printTo(fileEntity, new PrintWriter(System.err));
-          }
-          topLevelEntities.add(Pair.make(fileEntity, moduleEntry));
+      try {
+        final CAstEntity fileEntity = xlatorToCAst.translateToCAst();
 
-        } catch (TranslatorToCAst.Error e) {
-          addMessages(moduleEntry, e.warning);
+        if (DEBUG) {
+          CAstPrinter.printTo(fileEntity, new PrintWriter(System.err));
         }
+        result.entity = fileEntity;
+        if (castCache != null) {
+          castCache.put(key, digest, fileEntity);
+        }
+
+      } catch (TranslatorToCAst.Error e) {
+        result.warnings.addAll(e.warning);
       }
     } catch (final IOException e) {
-      addMessage(
-          moduleEntry,
+      result.warnings.add(
           new Warning(Warning.SEVERE) {
             @Override
             public String getMsg() {
@@ -190,8 +418,7 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
       final ByteArrayOutputStream s = new ByteArrayOutputStream();
       PrintStream ps = new PrintStream(s);
       e.printStackTrace(ps);
-      addMessage(
-          moduleEntry,
+      result.warnings.add(
           new Warning(Warning.SEVERE) {
             @Override
             public String getMsg() {
@@ -199,27 +426,28 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
             }
           });
     }
+    return result;
   }
 
-  /**
-   * translate all relevant entities in the module to CAst, storing the results in topLevelEntities
-   *
-   * @param modules all modules in the analysis
-   */
-  private void translateModuleToCAst(
-      Module module,
-      CAst ast,
-      Set<Pair<CAstEntity, ModuleEntry>> topLevelEntities,
-      List<Module> modules) {
+  /** add the entries of module to entries, replacing nested modules with their entries */
+  private static void collectModuleEntries(Module module, List<ModuleEntry> entries) {
     for (ModuleEntry me : Iterator2Iterable.make(module.getEntries())) {
-      translateModuleEntryToCAst(me, ast, topLevelEntities, modules);
+      if (me.isModuleFile()) {
+        // nested module
+        collectModuleEntries(me.asModule(), entries);
+      } else {
+        entries.add(me);
+      }
     }
   }
 
   public class DynamicCodeBody extends AstFunctionClass {
-    private final WalkContext translationContext;
+    private WalkContext translationContext;
     private final CAstEntity entity;
 
+    /** generates the code body, or the code that declares it again, if that is still pending */
+    private volatile LazyTranslation lazyTranslation;
+
     public DynamicCodeBody(
         TypeReference codeName,
         TypeReference parent,
@@ -231,6 +459,58 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
       types.put(codeName.getName(), this);
       this.translationContext = context;
       this.entity = entity;
+      this.lazyTranslation = declaring;
+    }
+
+    @Override
+    protected void ensureCodeBody() {
+      LazyTranslation translation = lazyTranslation;
+      // translating an enclosing function may defer this one again, with a new translation
+      while (functionBody == null
+          && translation != null
+          && translation.run()
+          && translation != lazyTranslation) {
+        translation = lazyTranslation;
+      }
+    }
+
+    @Override
+    public IMethod getMethod(Selector selector) {
+      // the code body always has the function selector, so looking up other methods, e.g. the
+      // finalizer when the function is allocated, need not generate it
+      if (lazyTranslation != null && !selector.equals(AstMethodReference.fnSelector)) {
+        return getSuperclass().getMethod(selector);
+      }
+      return super.getMethod(selector);
+    }
+
+    @Override
+    public boolean isAbstract() {
+      // a function whose code body is still to be generated will get one, so allocating it, as
+      // call graph builders do for every function expression they reach, need not generate it
+      return lazyTranslation == null && super.isAbstract();
+    }
+
+    /**
+     * @return true if the code body has lexical parents, see {@link
+     *     DynamicMethodObject#getParents()}. Unlike looking at the code body itself, this does not
+     *     generate it if that is still pending.
+     */
+    public boolean hasLexicalParents() {
+      LazyTranslation translation = lazyTranslation;
+      // the pending translation may be that of an enclosing function, which defers this one again
+      while (translation != null) {
+        DeferredFunction function = translation.pending();
+        if (function != null && function.getFunction() == entity) {
+          return function.hasScopingParents();
+        }
+        if (!translation.run() || translation == lazyTranslation) {
+          break;
+        }
+        translation = lazyTranslation;
+      }
+      IMethod code = getMethod(AstMethodReference.fnSelector);
+      return code instanceof DynamicMethodObject method && method.getParents().length > 0;
     }
 
     @Override
@@ -240,6 +520,7 @@ public abstract class CAstAbstractModuleLoader extends CAstAbstractLoader
 
     public IMethod setCodeBody(DynamicMethodObject codeBody) {
       this.functionBody = codeBody;
+      this.lazyTranslation = null;
       codeBody.entity = entity;
       codeBody.translationContext = translationContext;
       return codeBody;
@@ -0,0 +1,112 @@
+package com.ibm.wala.cast.loader;
+
+import com.ibm.wala.cast.tree.CAstEntity;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.classLoader.SourceModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A cache of the CAst translated from source files, keyed by file name and URL and checked against
+ * a SHA-256 digest of the file's contents.
+ *
+ * <p>A {@link CAstAbstractModuleLoader} that is given a cache with {@link
+ * CAstAbstractModuleLoader#setCAstCache(CAstCache)} reuses the CAst of every module entry whose
+ * contents have not changed since the cache last saw it, and only runs its CAst translator on the
+ * others. IR is still generated for every entry, since it belongs to the loader. Sharing one cache
+ * between the loaders of successive analyses in the same process, as a server that re-analyzes a
+ * project whenever a file is edited does, thus skips parsing the unchanged files.
+ *
+ * <p>Translated CAst refers to translator-specific types, symbols and source positions, so the
+ * cache lives in memory and is not persisted. It keeps only the most recent translation of each
+ * file name. A cache must only be shared between loaders that translate files the same way, i.e.
+ * that use the same translator factory and rewriters.
+ */
+public class CAstCache {
+
+  private record Translation(String digest, CAstEntity entity) {}
+
+  private final Map<String, Translation> translations = new ConcurrentHashMap<>();
+
+  private final AtomicInteger hits = new AtomicInteger();
+
+  /**
+   * @return the key under which the CAst of entry is cached: its name, qualified by its URL if it
+   *     has one
+   */
+  public static String key(ModuleEntry entry) {
+    if (entry instanceof SourceModule sourceModule && sourceModule.getURL() != null) {
+      return entry.getName() + '@' + sourceModule.getURL();
+    }
+    return entry.getName();
+  }
+
+  /**
+   * @return a digest of the contents of entry
+   */
+  public static String digest(ModuleEntry entry) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    try (InputStream in = new DigestInputStream(entry.getInputStream(), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * @return the CAst last stored under key, if the contents it was translated from had the given
+   *     digest, or null
+   */
+  public @Nullable CAstEntity get(String key, String digest) {
+    Translation translation = translations.get(key);
+    if (translation == null || !translation.digest().equals(digest)) {
+      return null;
+    }
+    hits.incrementAndGet();
+    return translation.entity();
+  }
+
+  /**
+   * store entity under key, as the CAst translated from contents with the given digest, replacing
+   * any CAst stored for earlier contents
+   */
+  public void put(String key, String digest, CAstEntity entity) {
+    translations.put(key, new Translation(digest, entity));
+  }
+
+  /** forget the CAst stored under key, e.g. because the file was deleted */
+  public void remove(String key) {
+    translations.remove(key);
+  }
+
+  public void clear() {
+    translations.clear();
+  }
+
+  /**
+   * @return the number of files with cached CAst
+   */
+  public int size() {
+    return translations.size();
+  }
+
+  /**
+   * @return how many times {@link #get(String, String)} has found CAst
+   */
+  public int getHitCount() {
+    return hits.get();
+  }
+}
@@ -16,6 +16,7 @@ import com.ibm.wala.ipa.callgraph.AnalysisScope;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ipa.summaries.BypassSyntheticClassLoader;
 import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.debug.Assertions;
 
 /**
@@ -30,11 +31,64 @@ public abstract class SingleClassLoaderFactory implements ClassLoaderFactory {
   /** Support synthetic classes */
   private IClassLoader syntheticLoader;
 
+  /** should the loader generate IR for functions only when it is requested? */
+  private boolean lazyTranslation = false;
+
+  /**
+   * @param lazyTranslation passed to {@link CAstAbstractModuleLoader#setLazyTranslation(boolean)}
+   *     when the loader is created
+   */
+  public void setLazyTranslation(boolean lazyTranslation) {
+    this.lazyTranslation = lazyTranslation;
+  }
+
+  /** CAst kept from earlier loaders, if any */
+  private CAstCache castCache;
+
+  /**
+   * @param castCache passed to {@link CAstAbstractModuleLoader#setCAstCache(CAstCache)} when the
+   *     loader is created
+   */
+  public void setCAstCache(CAstCache castCache) {
+    this.castCache = castCache;
+  }
+
+  /** should the loader keep CAst in arrays? */
+  private boolean compactCAst = false;
+
+  /**
+   * @param compactCAst passed to {@link CAstAbstractModuleLoader#setCompactCAst(boolean)} when the
+   *     loader is created
+   */
+  public void setCompactCAst(boolean compactCAst) {
+    this.compactCAst = compactCAst;
+  }
+
+  /** how many threads the loader may use to translate module entries to CAst */
+  private int numberOfTranslatorThreads = 1;
+
+  /**
+   * @param numberOfTranslatorThreads passed to {@link
+   *     CAstAbstractModuleLoader#setNumberOfThreads(int)} when the loader is created; 1 (the
+   *     default) translates sequentially. Use more only if the language's translators are safe to
+   *     run concurrently.
+   * @throws IllegalArgumentException if numberOfTranslatorThreads is not positive
+   */
+  public void setNumberOfTranslatorThreads(int numberOfTranslatorThreads) {
+    this.numberOfTranslatorThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfTranslatorThreads);
+  }
+
   @Override
   public IClassLoader getLoader(
       ClassLoaderReference classLoaderReference, IClassHierarchy cha, AnalysisScope scope) {
     if (THE_LOADER == null) {
       THE_LOADER = makeTheLoader(cha);
+      if (THE_LOADER instanceof CAstAbstractModuleLoader moduleLoader) {
+        moduleLoader.setNumberOfThreads(numberOfTranslatorThreads);
+        moduleLoader.setLazyTranslation(lazyTranslation);
+        moduleLoader.setCAstCache(castCache);
+        moduleLoader.setCompactCAst(compactCAst);
+      }
       try {
         THE_LOADER.init(scope.getModules(getTheReference()));
       } catch (java.io.IOException e) {
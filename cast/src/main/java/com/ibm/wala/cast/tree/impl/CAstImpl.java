@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An implementation of CAst, i.e. a simple factory for creating capa ast nodes. This class simply
@@ -28,11 +29,11 @@ import java.util.List;
  * @author Julian Dolby (dolby@us.ibm.com)
  */
 public class CAstImpl implements CAst {
-  private int nextID = 0;
+  private final AtomicInteger nextID = new AtomicInteger();
 
   @Override
   public String makeUnique() {
-    return "id" + nextID++;
+    return "id" + nextID.getAndIncrement();
   }
 
   protected static class CAstNodeImpl implements CAstNode {
@@ -0,0 +1,347 @@
+package com.ibm.wala.cast.tree.impl;
+
+import com.ibm.wala.cast.tree.CAst;
+import com.ibm.wala.cast.tree.CAstNode;
+import com.ibm.wala.cast.tree.rewrite.CAstRewriter;
+import com.ibm.wala.cast.tree.visit.CAstVisitor;
+import com.ibm.wala.cast.util.CAstPrinter;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An implementation of CAst that keeps the structure of the trees it makes in arrays, rather than
+ * in a list of children per node as {@link CAstImpl} does. Every node made by {@link
+ * #makeNode(int, List)} gets an int id, and the ids of the children of all nodes are stored one
+ * after the other in a single array of ints. The node objects handed out are small canonical
+ * handles that hold only their id and kind, so they work with {@link CAstVisitor}, {@link
+ * CAstRewriter} and the maps of the front ends like any other nodes; {@link #getId(CAstNode)} lets
+ * side tables keep per-node data in primitive arrays indexed by id instead of in hash maps.
+ *
+ * <p>Constants are made as by {@link CAstImpl}, since a handle would be no smaller than a constant
+ * node. Constants and other children that were not made by this factory are stored in a separate
+ * array, and referred to by negative ids.
+ *
+ * <p>Nodes may be made concurrently by several threads. The arrays are split into chunks that are
+ * never copied once allocated, so reading a tree never needs a lock.
+ *
+ * <p>Nothing is ever freed: every node keeps all nodes of its factory reachable, including nodes
+ * that were made and then discarded, such as those replaced by a {@link CAstRewriter}. A factory
+ * should therefore be used for CAst that is dropped at the same time, e.g. the CAst of the modules
+ * of one class loader, and holding on to any one of its nodes, as a {@link
+ * com.ibm.wala.cast.loader.CAstCache} does for every file, keeps the CAst of all of them.
+ */
+public class CompactCAstImpl implements CAst {
+  private static final int CHUNK_BITS = 12;
+
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final AtomicInteger nextID = new AtomicInteger();
+
+  /** the nodes made by this factory, by id */
+  private volatile Segment[] segments = new Segment[0];
+
+  /** the ids of the children of all nodes */
+  private volatile int[][] children = new int[0][];
+
+  /** the children that were not made by this factory; child id -1 - i refers to the ith one */
+  private volatile CAstNode[][] others = new CAstNode[0][];
+
+  /** the number of nodes made so far; guarded by this */
+  private int nodeCount;
+
+  /** the number of child ids stored so far; guarded by this */
+  private int childCount;
+
+  /** the number of other children stored so far; guarded by this */
+  private int otherCount;
+
+  /** one chunk of nodes, with the position and number of the children of each */
+  private static final class Segment {
+    private final Node[] nodes = new Node[CHUNK_SIZE];
+
+    private final int[] firstChild = new int[CHUNK_SIZE];
+
+    private final int[] childCount = new int[CHUNK_SIZE];
+  }
+
+  /** a node made by this factory; all the state other than its kind lives in the factory */
+  static final class Node implements CAstNode {
+    final CompactCAstImpl ast;
+
+    final int id;
+
+    private final int kind;
+
+    private Node(CompactCAstImpl ast, int id, int kind) {
+      this.ast = ast;
+      this.id = id;
+      this.kind = kind;
+    }
+
+    @Override
+    public int getKind() {
+      return kind;
+    }
+
+    @Override
+    public Object getValue() {
+      return null;
+    }
+
+    @Override
+    public CAstNode getChild(int n) {
+      return ast.getChild(id, n);
+    }
+
+    @Override
+    public int getChildCount() {
+      return ast.getChildCount(id);
+    }
+
+    @Override
+    public List<CAstNode> getChildren() {
+      return new ChildList(this);
+    }
+
+    @Override
+    public String toString() {
+      return id + ":" + CAstPrinter.print(this);
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  /** a read-only view of the children of a node */
+  private static final class ChildList extends AbstractList<CAstNode> implements RandomAccess {
+    private final Node node;
+
+    private final int size;
+
+    private ChildList(Node node) {
+      this.node = node;
+      this.size = node.getChildCount();
+    }
+
+    @Override
+    public CAstNode get(int index) {
+      return node.getChild(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  @Override
+  public String makeUnique() {
+    return "id" + nextID.getAndIncrement();
+  }
+
+  /**
+   * @return the id of n, if it was made by {@link #makeNode(int, List)} of this factory, or -1
+   */
+  public int getId(CAstNode n) {
+    return (n instanceof Node node && node.ast == this) ? node.id : -1;
+  }
+
+  /**
+   * @return the node with the given id
+   * @throws IndexOutOfBoundsException if no node with that id has been made
+   */
+  public CAstNode getNode(int id) {
+    Segment[] s = segments;
+    if (id < 0 || (id >>> CHUNK_BITS) >= s.length) {
+      throw new IndexOutOfBoundsException("no node with id " + id);
+    }
+    Node node = s[id >>> CHUNK_BITS].nodes[id & CHUNK_MASK];
+    if (node == null) {
+      throw new IndexOutOfBoundsException("no node with id " + id);
+    }
+    return node;
+  }
+
+  /**
+   * @return the number of nodes made by {@link #makeNode(int, List)} so far; their ids are less
+   *     than this
+   */
+  public synchronized int getNodeCount() {
+    return nodeCount;
+  }
+
+  private int getChildCount(int id) {
+    return segments[id >>> CHUNK_BITS].childCount[id & CHUNK_MASK];
+  }
+
+  private CAstNode getChild(int id, int n) {
+    Segment segment = segments[id >>> CHUNK_BITS];
+    Objects.checkIndex(n, segment.childCount[id & CHUNK_MASK]);
+    int at = segment.firstChild[id & CHUNK_MASK] + n;
+    int child = children[at >>> CHUNK_BITS][at & CHUNK_MASK];
+    if (child >= 0) {
+      return segments[child >>> CHUNK_BITS].nodes[child & CHUNK_MASK];
+    } else {
+      int other = -1 - child;
+      return others[other >>> CHUNK_BITS][other & CHUNK_MASK];
+    }
+  }
+
+  /** store the id of c as the next child id, adding c to the other children if need be */
+  private void addChild(CAstNode c) {
+    int child;
+    if (c instanceof Node node && node.ast == this) {
+      child = node.id;
+    } else {
+      CAstNode[][] o = others;
+      if ((otherCount >>> CHUNK_BITS) == o.length) {
+        o = Arrays.copyOf(o, o.length + 1);
+        o[o.length - 1] = new CAstNode[CHUNK_SIZE];
+        others = o;
+      }
+      o[otherCount >>> CHUNK_BITS][otherCount & CHUNK_MASK] = c;
+      child = -1 - otherCount++;
+    }
+    int[][] cs = children;
+    if ((childCount >>> CHUNK_BITS) == cs.length) {
+      cs = Arrays.copyOf(cs, cs.length + 1);
+      cs[cs.length - 1] = new int[CHUNK_SIZE];
+      children = cs;
+    }
+    cs[childCount >>> CHUNK_BITS][childCount & CHUNK_MASK] = child;
+    childCount++;
+  }
+
+  @Override
+  public synchronized CAstNode makeNode(final int kind, final List<CAstNode> cs) {
+    int id = nodeCount;
+    Segment[] s = segments;
+    if ((id >>> CHUNK_BITS) == s.length) {
+      s = Arrays.copyOf(s, s.length + 1);
+      s[s.length - 1] = new Segment();
+      segments = s;
+    }
+    Segment segment = s[id >>> CHUNK_BITS];
+
+    int first = childCount;
+    for (int i = 0; i < cs.size(); i++) {
+      CAstNode c = cs.get(i);
+      assert c != null
+          : "argument "
+              + i
+              + " is null for node kind "
+              + kind
+              + " ["
+              + CAstPrinter.entityKindAsString(kind)
+              + ']';
+      addChild(c);
+    }
+
+    Node node = new Node(this, id, kind);
+    segment.firstChild[id & CHUNK_MASK] = first;
+    segment.childCount[id & CHUNK_MASK] = cs.size();
+    segment.nodes[id & CHUNK_MASK] = node;
+    nodeCount = id + 1;
+    return node;
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode c1, CAstNode[] cs) {
+    List<CAstNode> children = new ArrayList<>(cs.length + 1);
+    children.add(c1);
+    children.addAll(Arrays.asList(cs));
+    return makeNode(kind, children);
+  }
+
+  @Override
+  public CAstNode makeNode(int kind) {
+    return makeNode(kind, Collections.emptyList());
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode c1) {
+    return makeNode(kind, Collections.singletonList(c1));
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode c1, CAstNode c2) {
+    return makeNode(kind, Arrays.asList(c1, c2));
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode c1, CAstNode c2, CAstNode c3) {
+    return makeNode(kind, Arrays.asList(c1, c2, c3));
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode c1, CAstNode c2, CAstNode c3, CAstNode c4) {
+    return makeNode(kind, Arrays.asList(c1, c2, c3, c4));
+  }
+
+  @Override
+  public CAstNode makeNode(
+      int kind, CAstNode c1, CAstNode c2, CAstNode c3, CAstNode c4, CAstNode c5) {
+    return makeNode(kind, Arrays.asList(c1, c2, c3, c4, c5));
+  }
+
+  @Override
+  public CAstNode makeNode(
+      int kind, CAstNode c1, CAstNode c2, CAstNode c3, CAstNode c4, CAstNode c5, CAstNode c6) {
+    return makeNode(kind, Arrays.asList(c1, c2, c3, c4, c5, c6));
+  }
+
+  @Override
+  public CAstNode makeNode(int kind, CAstNode... cs) {
+    return makeNode(kind, Arrays.asList(cs));
+  }
+
+  @Override
+  public CAstNode makeConstant(final Object value) {
+    return new CAstImpl.CAstValueImpl(value);
+  }
+
+  @Override
+  public CAstNode makeConstant(boolean value) {
+    return makeConstant(value ? Boolean.TRUE : Boolean.FALSE);
+  }
+
+  @Override
+  public CAstNode makeConstant(char value) {
+    return makeConstant(Character.valueOf(value));
+  }
+
+  @Override
+  public CAstNode makeConstant(short value) {
+    return makeConstant(Short.valueOf(value));
+  }
+
+  @Override
+  public CAstNode makeConstant(int value) {
+    return makeConstant(Integer.valueOf(value));
+  }
+
+  @Override
+  public CAstNode makeConstant(long value) {
+    return makeConstant(Long.valueOf(value));
+  }
+
+  @Override
+  public CAstNode makeConstant(float value) {
+    return makeConstant(Float.valueOf(value));
+  }
+
+  @Override
+  public CAstNode makeConstant(double value) {
+    return makeConstant(Double.valueOf(value));
+  }
+}
@@ -0,0 +1,70 @@
+package com.ibm.wala.cast.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.loader.CAstCache;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.SourceFileModule;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests reusing the CAst of unchanged files through a {@link CAstCache}. */
+public class CAstCacheTest {
+
+  private static List<Module> makeModules(Path dir) {
+    List<Module> modules = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      String name = "file" + i + ".js";
+      modules.add(new SourceFileModule(dir.resolve(name).toFile(), name, null));
+    }
+    return modules;
+  }
+
+  /**
+   * @return a loader using cache, which adds the name of each file it parses to translatedToCAst
+   */
+  private static TestModuleLoader makeLoader(CAstCache cache, List<String> translatedToCAst) {
+    TestModuleLoader loader =
+        new TestModuleLoader(
+            m -> {
+              translatedToCAst.add(m.getName());
+              return TestModuleLoader.emptyScript(m);
+            });
+    loader.setCAstCache(cache);
+    return loader;
+  }
+
+  @Test
+  public void testOnlyChangedFilesAreTranslated(@TempDir Path dir) throws IOException {
+    for (int i = 0; i < 10; i++) {
+      Files.writeString(dir.resolve("file" + i + ".js"), "var x = " + i + ";");
+    }
+    CAstCache cache = new CAstCache();
+
+    List<String> firstTranslated = Collections.synchronizedList(new ArrayList<>());
+    TestModuleLoader first = makeLoader(cache, firstTranslated);
+    first.init(makeModules(dir));
+    assertThat(firstTranslated).hasSize(10);
+    assertThat(cache.size()).isEqualTo(10);
+
+    Files.writeString(dir.resolve("file3.js"), "var x = 42;");
+    List<String> secondTranslated = Collections.synchronizedList(new ArrayList<>());
+    TestModuleLoader second = makeLoader(cache, secondTranslated);
+    second.init(makeModules(dir));
+    assertThat(secondTranslated).isEqualTo(List.of("file3.js"));
+    assertThat(cache.getHitCount()).isEqualTo(9);
+    for (String name : first.entities.keySet()) {
+      if (name.equals("file3.js")) {
+        assertThat(second.entities.get(name)).isNotSameAs(first.entities.get(name));
+      } else {
+        assertThat(second.entities.get(name)).isSameAs(first.entities.get(name));
+      }
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.ibm.wala.cast.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.wala.cast.tree.CAst;
+import com.ibm.wala.cast.tree.CAstNode;
+import com.ibm.wala.cast.tree.impl.CAstImpl;
+import com.ibm.wala.cast.tree.impl.CAstOperator;
+import com.ibm.wala.cast.tree.impl.CompactCAstImpl;
+import com.ibm.wala.cast.tree.rewrite.CAstCloner;
+import com.ibm.wala.cast.tree.rewrite.CAstRewriter.Rewrite;
+import com.ibm.wala.cast.util.CAstPrinter;
+import com.ibm.wala.util.collections.HashMapFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Tests making and rewriting CAst with a {@link CompactCAstImpl}. */
+public class CompactCAstImplTest {
+
+  /** a loop that sums i into x, numbered by n so that trees made from different n differ */
+  private static CAstNode makeTree(CAst ast, int n) {
+    return ast.makeNode(
+        CAstNode.BLOCK_STMT,
+        ast.makeNode(
+            CAstNode.DECL_STMT,
+            ast.makeConstant("x"),
+            ast.makeConstant(n),
+            ast.makeNode(CAstNode.EMPTY)),
+        ast.makeNode(
+            CAstNode.LOOP,
+            ast.makeNode(
+                CAstNode.BINARY_EXPR,
+                CAstOperator.OP_LT,
+                ast.makeNode(CAstNode.VAR, ast.makeConstant("i")),
+                ast.makeConstant(10)),
+            ast.makeNode(
+                CAstNode.ASSIGN_POST_OP,
+                ast.makeNode(CAstNode.VAR, ast.makeConstant("x")),
+                ast.makeNode(CAstNode.VAR, ast.makeConstant("i")),
+                CAstOperator.OP_ADD)),
+        ast.makeNode(CAstNode.RETURN, ast.makeNode(CAstNode.VAR, ast.makeConstant("x"))));
+  }
+
+  @Test
+  public void testSameTreeAsCAstImpl() {
+    CAstNode expected = makeTree(new CAstImpl(), 0);
+    CAstNode tree = makeTree(new CompactCAstImpl(), 0);
+    assertThat(CAstPrinter.print(tree)).isEqualTo(CAstPrinter.print(expected));
+    assertThat(tree.getChildCount()).isEqualTo(3);
+    assertThat(tree.getChildren()).hasSize(3);
+    assertThat(tree.getChildren().get(1)).isSameAs(tree.getChild(1));
+    assertThatThrownBy(() -> tree.getChild(3)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void testIdsAndForeignChildren() {
+    CompactCAstImpl ast = new CompactCAstImpl();
+    CAstNode constant = ast.makeConstant(1);
+    CAstNode foreign = new CAstImpl().makeNode(CAstNode.EMPTY);
+    CAstNode leaf = ast.makeNode(CAstNode.EMPTY);
+    CAstNode node = ast.makeNode(CAstNode.BLOCK_STMT, constant, leaf, foreign);
+    assertThat(ast.getId(leaf)).isEqualTo(0);
+    assertThat(ast.getId(node)).isEqualTo(1);
+    assertThat(ast.getId(constant)).isEqualTo(-1);
+    assertThat(ast.getId(foreign)).isEqualTo(-1);
+    assertThat(ast.getNodeCount()).isEqualTo(2);
+    assertThat(ast.getNode(1)).isSameAs(node);
+    assertThat(node.getChild(0)).isSameAs(constant);
+    assertThat(node.getChild(1)).isSameAs(leaf);
+    assertThat(node.getChild(2)).isSameAs(foreign);
+    assertThatThrownBy(() -> ast.getNode(2)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  /** {@link CAstCloner} copies compact trees, and makes compact trees from others */
+  @Test
+  public void testClone() {
+    CAstNode expected = makeTree(new CAstImpl(), 0);
+    CompactCAstImpl ast = new CompactCAstImpl();
+    Rewrite copy =
+        new CAstCloner(ast).copy(expected, null, null, null, HashMapFactory.make(), null);
+    assertThat(ast.getId(copy.newRoot())).isNotEqualTo(-1);
+    assertThat(CAstPrinter.print(copy.newRoot())).isEqualTo(CAstPrinter.print(expected));
+
+    Rewrite back =
+        new CAstCloner(new CAstImpl())
+            .copy(copy.newRoot(), null, null, null, HashMapFactory.make(), null);
+    assertThat(CAstPrinter.print(back.newRoot())).isEqualTo(CAstPrinter.print(expected));
+  }
+
+  /** nodes made on several threads at once have the children they were made with */
+  @Test
+  public void testConcurrentConstruction() {
+    CompactCAstImpl ast = new CompactCAstImpl();
+    List<CAstNode> trees = new ArrayList<>();
+    IntStream.range(0, 2000).parallel().mapToObj(i -> makeTree(ast, i)).forEachOrdered(trees::add);
+    for (int i = 0; i < trees.size(); i++) {
+      assertThat(CAstPrinter.print(trees.get(i)))
+          .isEqualTo(CAstPrinter.print(makeTree(new CAstImpl(), i)));
+    }
+  }
+}
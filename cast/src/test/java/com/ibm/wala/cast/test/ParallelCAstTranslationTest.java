@@ -0,0 +1,72 @@
+package com.ibm.wala.cast.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.cast.ir.translator.TranslatorToCAst;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.classLoader.SourceFileModule;
+import com.ibm.wala.core.util.warnings.Warning;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests translating the modules of a {@link CAstAbstractModuleLoader} on several threads. */
+public class ParallelCAstTranslationTest {
+
+  private static List<Module> makeModules(Path dir) throws IOException {
+    List<Module> modules = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String name = (i % 7 == 0 ? "bad" : "good") + i + ".js";
+      File file = Files.createFile(dir.resolve(name)).toFile();
+      modules.add(new SourceFileModule(file, name, null));
+    }
+    return modules;
+  }
+
+  private static List<String> translate(List<Module> modules, int numberOfThreads) {
+    TestModuleLoader loader =
+        new TestModuleLoader(
+            m -> {
+              if (m.getName().startsWith("bad")) {
+                throw new TranslatorToCAst.Error(
+                    Set.of(
+                        new Warning(Warning.SEVERE) {
+                          @Override
+                          public String getMsg() {
+                            return "cannot parse " + m.getName();
+                          }
+                        }));
+              }
+              return TestModuleLoader.emptyScript(m);
+            });
+    loader.setNumberOfThreads(numberOfThreads);
+    loader.init(modules);
+    for (Module m : modules) {
+      ModuleEntry entry = (ModuleEntry) m;
+      Set<Warning> messages = loader.getMessages(entry);
+      if (entry.getName().startsWith("bad")) {
+        assertThat(messages).hasSize(1);
+      } else {
+        assertThat(messages).isNull();
+      }
+    }
+    return new ArrayList<>(loader.entities.keySet());
+  }
+
+  /** Entities are handed to the IR translator in module order, whatever the number of threads. */
+  @Test
+  public void testParallelMatchesSequential(@TempDir Path dir) throws IOException {
+    List<Module> modules = makeModules(dir);
+    List<String> sequential = translate(modules, 1);
+    assertThat(sequential).hasSize(85).startsWith("good1.js", "good2.js");
+    assertThat(translate(modules, 4)).isEqualTo(sequential);
+  }
+}
@@ -0,0 +1,113 @@
+package com.ibm.wala.cast.test;
+
+import com.ibm.wala.cast.ir.translator.AbstractScriptEntity;
+import com.ibm.wala.cast.ir.translator.TranslatorToCAst;
+import com.ibm.wala.cast.ir.translator.TranslatorToIR;
+import com.ibm.wala.cast.loader.CAstAbstractModuleLoader;
+import com.ibm.wala.cast.tree.CAst;
+import com.ibm.wala.cast.tree.CAstEntity;
+import com.ibm.wala.cast.tree.CAstSourcePositionMap.Position;
+import com.ibm.wala.cast.tree.rewrite.CAstRewriter.CopyKey;
+import com.ibm.wala.cast.tree.rewrite.CAstRewriter.RewriteContext;
+import com.ibm.wala.cast.tree.rewrite.CAstRewriterFactory;
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.ssa.SSAInstructionFactory;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.collections.Pair;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A loader for testing how {@link CAstAbstractModuleLoader} translates modules to CAst. A hook
+ * translates each file to CAst, and the top-level entities that the loader would translate to IR
+ * are recorded instead.
+ */
+class TestModuleLoader extends CAstAbstractModuleLoader {
+
+  /** Translates one file to CAst; called on the loader's translator threads. */
+  @FunctionalInterface
+  interface FileTranslator {
+    CAstEntity translate(ModuleEntry m) throws TranslatorToCAst.Error;
+  }
+
+  private final FileTranslator translator;
+
+  /** the top-level entities handed to the IR translator, by file name, in the order handed over */
+  final Map<String, CAstEntity> entities = new LinkedHashMap<>();
+
+  TestModuleLoader(FileTranslator translator) {
+    super(null, null);
+    this.translator = translator;
+  }
+
+  /**
+   * @return an empty script named after m
+   */
+  static CAstEntity emptyScript(ModuleEntry m) {
+    return new AbstractScriptEntity(m.getName(), null) {
+      @Override
+      public Position getPosition() {
+        return null;
+      }
+
+      @Override
+      public Position getNamePosition() {
+        return null;
+      }
+
+      @Override
+      public Position getPosition(int arg) {
+        return null;
+      }
+    };
+  }
+
+  @Override
+  public Language getLanguage() {
+    return JavaLanguage.get();
+  }
+
+  @Override
+  public ClassLoaderReference getReference() {
+    return ClassLoaderReference.Application;
+  }
+
+  @Override
+  public SSAInstructionFactory getInstructionFactory() {
+    return JavaLanguage.get().instructionFactory();
+  }
+
+  @Override
+  protected TranslatorToCAst getTranslatorToCAst(CAst ast, ModuleEntry m, List<Module> modules) {
+    return new TranslatorToCAst() {
+      @Override
+      public <C extends RewriteContext<K>, K extends CopyKey<K>> void addRewriter(
+          CAstRewriterFactory<C, K> factory, boolean prepend) {}
+
+      @Override
+      public CAstEntity translateToCAst() throws Error {
+        return translator.translate(m);
+      }
+    };
+  }
+
+  @Override
+  protected boolean shouldTranslate(CAstEntity entity) {
+    return false;
+  }
+
+  @Override
+  protected TranslatorToIR initTranslator(Set<Pair<CAstEntity, ModuleEntry>> topLevelEntities) {
+    for (Pair<CAstEntity, ModuleEntry> p : topLevelEntities) {
+      entities.put(p.snd.getName(), p.fst);
+    }
+    return (entity, module) -> {
+      throw new UnsupportedOperationException("not needed for this test");
+    };
+  }
+}
@@ -70,6 +70,7 @@ dependencies {
   testImplementation(libs.json.unit.assertj)
   testImplementation(libs.jspecify)
   testImplementation(libs.junit.jupiter.api)
+  testImplementation(libs.junit.jupiter.params)
   testImplementation(testFixtures(projects.util))
   testRuntimeOnly(sourceSets["testSubjects"].output.classesDirs)
   // add the testSubjects source files to enable SourceMapTest to pass
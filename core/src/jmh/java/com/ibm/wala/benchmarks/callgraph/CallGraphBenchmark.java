@@ -1,7 +1,15 @@
 package com.ibm.wala.benchmarks.callgraph;
 
 import com.ibm.wala.core.tests.callGraph.CallGraphTest;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
 import com.ibm.wala.util.CancelException;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
@@ -51,4 +59,22 @@ public class CallGraphBenchmark {
       throws CancelException, ClassHierarchyException, IllegalArgumentException, IOException {
     new CallGraphTest().testHelloAllEntrypoints();
   }
+
+  /**
+   * The workload of {@link #testHelloAllEntrypoints()}, but with {@link
+   * AnalysisOptions#setUseDifferencePropagation(boolean) difference propagation} turned on, so that
+   * the two scores can be compared side by side.
+   */
+  @Benchmark
+  public void testHelloAllEntrypointsDifferencePropagation()
+      throws CancelException, ClassHierarchyException, IllegalArgumentException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    AnalysisOptions options =
+        CallGraphTestUtil.makeAnalysisOptions(scope, new AllApplicationEntrypoints(scope, cha));
+    options.setUseDifferencePropagation(true);
+    CallGraphTest.doCallGraphs(options, new AnalysisCacheImpl(), cha);
+  }
 }
@@ -0,0 +1,80 @@
+package com.ibm.wala.benchmarks.callgraph;
+
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH macrobenchmark for the pointer analysis solver as a function of {@linkplain
+ * AnalysisOptions#setNumberOfSolverThreads(int) solver threads}.
+ *
+ * <p>Each invocation builds a 0-1-CFA call graph from all application entrypoints of the {@code
+ * hello} test subject, the same workload as {@link CallGraphBenchmark}. The analysis scope and
+ * class hierarchy are built once per trial, in {@link #setup()}, so the measured time is call graph
+ * construction alone. Compare the results across {@link #threads} values to see how the solver
+ * scales.
+ *
+ * <p>Like {@link CallGraphBenchmark}, this uses {@link Mode#SingleShotTime single-shot time mode}
+ * and treats each fork as an independent sample. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(4)
+@Measurement(iterations = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+public class ConcurrentSolverBenchmark {
+
+  /** Number of threads the solver may use. */
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  private AnalysisScope scope;
+
+  private ClassHierarchy cha;
+
+  private Iterable<Entrypoint> entrypoints;
+
+  @Setup(Level.Trial)
+  public void setup() throws ClassHierarchyException, IOException {
+    scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    cha = ClassHierarchyFactory.make(scope);
+    entrypoints = new AllApplicationEntrypoints(scope, cha);
+  }
+
+  /** Builds a 0-1-CFA call graph with {@link #threads} solver threads. */
+  @Benchmark
+  public CallGraph zeroOneCFA() throws CancelException {
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setNumberOfSolverThreads(threads);
+    return Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha)
+        .makeCallGraph(options, null);
+  }
+}
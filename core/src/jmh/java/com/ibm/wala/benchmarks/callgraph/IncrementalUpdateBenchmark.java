@@ -0,0 +1,96 @@
+package com.ibm.wala.benchmarks.callgraph;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks that compare {@linkplain SSAPropagationCallGraphBuilder#updateCallGraph updating}
+ * a 0-1-CFA call graph of the {@code JLex} test subject after a class changed ({@link #update})
+ * with building it again from scratch ({@link #rebuild}). The update retracts and re-adds the
+ * constraints of every method of {@link #changedClass}, without actually changing their code, so
+ * each invocation leaves the call graph as it found it. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+public class IncrementalUpdateBenchmark {
+
+  /** The name of the class whose code is considered changed by {@link #update}. */
+  @Param({"LJLex/Main", "LJLex/CNfa2Dfa", "LJLex/CUtility"})
+  public String changedClass;
+
+  private AnalysisScope scope;
+
+  private ClassHierarchy cha;
+
+  private Iterable<Entrypoint> entrypoints;
+
+  private SSAPropagationCallGraphBuilder builder;
+
+  private IClass klass;
+
+  @Setup(Level.Trial)
+  public void setup() throws CancelException, ClassHierarchyException, IOException {
+    scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.JLEX, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    cha = ClassHierarchyFactory.make(scope);
+    entrypoints = Util.makeMainEntrypoints(cha, TestConstants.JLEX_MAIN);
+    builder = makeBuilder();
+    builder.makeCallGraph(builder.getOptions(), null);
+    klass =
+        cha.lookupClass(TypeReference.findOrCreate(ClassLoaderReference.Application, changedClass));
+  }
+
+  private SSAPropagationCallGraphBuilder makeBuilder() {
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setSupportIncrementalUpdates(true);
+    return Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha);
+  }
+
+  /** Updates the call graph after the code of {@link #changedClass} changed. */
+  @Benchmark
+  public CallGraph update() throws CancelException {
+    return builder.updateCallGraph(Collections.singleton(klass), null);
+  }
+
+  /** Builds the call graph from scratch, as a client without incremental updates would. */
+  @Benchmark
+  public CallGraph rebuild() throws CancelException {
+    SSAPropagationCallGraphBuilder fresh = makeBuilder();
+    return fresh.makeCallGraph(fresh.getOptions(), null);
+  }
+}
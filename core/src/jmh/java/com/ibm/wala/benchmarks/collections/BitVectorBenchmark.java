@@ -0,0 +1,90 @@
+package com.ibm.wala.benchmarks.collections;
+
+import com.ibm.wala.util.intset.BitVector;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH microbenchmarks for the word loops of {@link BitVector}, which are the inner loops of {@link
+ * com.ibm.wala.dataflow.graph.BitVectorSolver} and of bit vector backed points-to sets.
+ *
+ * <p>Each benchmark applies one operation to two random vectors of {@link #words} words, where
+ * {@code b} is a superset of {@code a}, so that comparisons scan every word rather than stopping at
+ * the first difference. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class BitVectorBenchmark {
+
+  /** The number of 32-bit words in each vector. */
+  @Param({"32", "1024", "32768"})
+  public int words;
+
+  private BitVector a;
+
+  /** a superset of {@link #a} */
+  private BitVector b;
+
+  /** a copy of {@link #a} */
+  private BitVector copy;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(words);
+    int bits = 32 * words;
+    a = new BitVector(bits);
+    b = new BitVector(bits);
+    for (int i = 0; i < bits; i++) {
+      if (random.nextInt(4) == 0) {
+        a.set(i);
+        b.set(i);
+      } else if (random.nextBoolean()) {
+        b.set(i);
+      }
+    }
+    copy = new BitVector(a);
+  }
+
+  @Benchmark
+  public int orWithDelta() {
+    return new BitVector(a).orWithDelta(b);
+  }
+
+  @Benchmark
+  public BitVector or() {
+    BitVector result = new BitVector(a);
+    result.or(b);
+    return result;
+  }
+
+  @Benchmark
+  public boolean sameBits() {
+    return a.sameBits(copy);
+  }
+
+  @Benchmark
+  public boolean isSubset() {
+    return a.isSubset(b);
+  }
+
+  @Benchmark
+  public int populationCount() {
+    return b.populationCount();
+  }
+}
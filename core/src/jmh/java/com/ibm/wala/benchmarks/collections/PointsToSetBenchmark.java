@@ -0,0 +1,199 @@
+package com.ibm.wala.benchmarks.collections;
+
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.intset.BitVectorIntSetFactory;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableIntSetFactory;
+import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
+import com.ibm.wala.util.intset.MutableSparseIntSetFactory;
+import com.ibm.wala.util.intset.RoaringIntSetFactory;
+import com.ibm.wala.util.intset.SemiSparseMutableIntSetFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks that compare {@link MutableIntSetFactory} implementations on real points-to sets.
+ *
+ * <p>{@link #setup()} builds a 0-1-CFA call graph from all application entrypoints of the {@code
+ * hello} test subject, the same workload as {@link
+ * com.ibm.wala.benchmarks.callgraph.CallGraphBenchmark}, and records the instance key numbers of
+ * every non-empty points-to set. The microbenchmarks then rebuild those sets with the {@link
+ * #factory} under test, and apply to random pairs of them the operations that dominate pointer
+ * analysis: union, intersection, difference and subset tests. Each invocation sweeps over all sets,
+ * so scores are comparable only across factories, not across benchmarks.
+ *
+ * <p>{@link #zeroOneCFA()} instead measures call graph construction end to end, with the factory
+ * under test installed as the {@linkplain IntSetUtil#setDefaultIntSetFactory default}. Run with
+ * {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class PointsToSetBenchmark {
+
+  /** The set implementation under test. */
+  @Param({"sharedBitVector", "sparse", "semiSparse", "bitVector", "roaring"})
+  public String factory;
+
+  private MutableIntSetFactory<?> setFactory;
+
+  private MutableIntSetFactory<?> savedDefault;
+
+  private AnalysisScope scope;
+
+  private ClassHierarchy cha;
+
+  private Iterable<Entrypoint> entrypoints;
+
+  /** the elements of each non-empty points-to set, in increasing order */
+  private List<int[]> elements;
+
+  /** {@link #elements}, as sets made by {@link #setFactory} */
+  private List<MutableIntSet> sets;
+
+  /** a random permutation of {@link #sets}, to pair with it */
+  private List<MutableIntSet> partners;
+
+  @Setup(Level.Trial)
+  public void setup() throws CancelException, ClassHierarchyException, IOException {
+    setFactory = makeFactory(factory);
+    scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    cha = ClassHierarchyFactory.make(scope);
+    entrypoints = new AllApplicationEntrypoints(scope, cha);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha);
+    builder.makeCallGraph(options, null);
+    PointerAnalysis<InstanceKey> pointerAnalysis = builder.getPointerAnalysis();
+    elements = new ArrayList<>();
+    for (PointerKey key : pointerAnalysis.getPointerKeys()) {
+      IntSet backing = pointerAnalysis.getPointsToSet(key).getBackingSet();
+      if (backing != null && !backing.isEmpty()) {
+        int[] array = new int[backing.size()];
+        int[] count = {0};
+        backing.foreach(x -> array[count[0]++] = x);
+        elements.add(array);
+      }
+    }
+    sets = new ArrayList<>(elements.size());
+    for (int[] array : elements) {
+      sets.add(setFactory.make(array));
+    }
+    partners = new ArrayList<>(sets);
+    Collections.shuffle(partners, new Random(elements.size()));
+    savedDefault = IntSetUtil.getDefaultIntSetFactory();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    IntSetUtil.setDefaultIntSetFactory(savedDefault);
+  }
+
+  private static MutableIntSetFactory<?> makeFactory(String name) {
+    return switch (name) {
+      case "sharedBitVector" -> new MutableSharedBitVectorIntSetFactory();
+      case "sparse" -> new MutableSparseIntSetFactory();
+      case "semiSparse" -> new SemiSparseMutableIntSetFactory();
+      case "bitVector" -> new BitVectorIntSetFactory();
+      case "roaring" -> new RoaringIntSetFactory();
+      default -> throw new IllegalArgumentException("unknown factory: " + name);
+    };
+  }
+
+  /** Makes every points-to set from its sorted elements. */
+  @Benchmark
+  public void make(Blackhole blackhole) {
+    for (int[] array : elements) {
+      blackhole.consume(setFactory.make(array));
+    }
+  }
+
+  /** Adds each points-to set to a copy of its partner, as propagation along an edge does. */
+  @Benchmark
+  public void addAll(Blackhole blackhole) {
+    for (int i = 0; i < sets.size(); i++) {
+      MutableIntSet copy = setFactory.makeCopy(partners.get(i));
+      blackhole.consume(copy.addAll(sets.get(i)));
+    }
+  }
+
+  /** Intersects a copy of each points-to set with its partner, as type filters do. */
+  @Benchmark
+  public void intersectWith(Blackhole blackhole) {
+    for (int i = 0; i < sets.size(); i++) {
+      MutableIntSet copy = setFactory.makeCopy(sets.get(i));
+      copy.intersectWith(partners.get(i));
+      blackhole.consume(copy);
+    }
+  }
+
+  /** Enumerates the elements of each points-to set that are not in its partner. */
+  @Benchmark
+  public void foreachExcluding(Blackhole blackhole) {
+    for (int i = 0; i < sets.size(); i++) {
+      sets.get(i).foreachExcluding(partners.get(i), blackhole::consume);
+    }
+  }
+
+  /** Tests each points-to set for inclusion in, and equality with, its partner. */
+  @Benchmark
+  public void isSubsetAndSameValue(Blackhole blackhole) {
+    for (int i = 0; i < sets.size(); i++) {
+      blackhole.consume(sets.get(i).isSubset(partners.get(i)));
+      blackhole.consume(sets.get(i).sameValue(partners.get(i)));
+    }
+  }
+
+  /** Builds a 0-1-CFA call graph with {@link #factory} as the default set factory. */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public CallGraph zeroOneCFA() throws CancelException {
+    IntSetUtil.setDefaultIntSetFactory(setFactory);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    return Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha)
+        .makeCallGraph(options, null);
+  }
+}
@@ -0,0 +1,96 @@
+package com.ibm.wala.benchmarks.dataflow;
+
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphTransitiveClosure;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.GraphReachability;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the bit vector dataflow framework of {@code com.ibm.wala.dataflow.graph}.
+ *
+ * <p>{@link #setup()} builds a 0-1-CFA call graph from all application entrypoints of the {@code
+ * hello} test subject. {@link #graphReachability()} then solves the reachability problem of {@link
+ * GraphReachability} over it, and {@link #transitiveClosure()} propagates the declared targets of
+ * each node's call sites bottom-up with {@link CallGraphTransitiveClosure}. Both run a {@link
+ * com.ibm.wala.dataflow.graph.BitVectorSolver} whose time goes to {@link
+ * com.ibm.wala.util.intset.BitVector} unions and comparisons. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+public class BitVectorSolverBenchmark {
+
+  private CallGraph callGraph;
+
+  private Map<CGNode, Collection<MethodReference>> calledMethods;
+
+  @Setup(Level.Trial)
+  public void setup() throws CancelException, ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    AnalysisOptions options =
+        CallGraphTestUtil.makeAnalysisOptions(scope, new AllApplicationEntrypoints(scope, cha));
+    callGraph =
+        Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha)
+            .makeCallGraph(options, null);
+    calledMethods =
+        CallGraphTransitiveClosure.collectNodeResults(
+            callGraph,
+            node -> {
+              List<MethodReference> result = new ArrayList<>();
+              node.iterateCallSites()
+                  .forEachRemaining(site -> result.add(site.getDeclaredTarget()));
+              return result;
+            });
+  }
+
+  /** Computes the nodes reachable from each node of the call graph. */
+  @Benchmark
+  public GraphReachability<CGNode, CGNode> graphReachability() throws CancelException {
+    GraphReachability<CGNode, CGNode> result = new GraphReachability<>(callGraph, node -> true);
+    result.solve(null);
+    return result;
+  }
+
+  /** Computes the methods that each node of the call graph may transitively call. */
+  @Benchmark
+  public Map<CGNode, OrdinalSet<MethodReference>> transitiveClosure() {
+    return CallGraphTransitiveClosure.transitiveClosure(callGraph, calledMethods);
+  }
+}
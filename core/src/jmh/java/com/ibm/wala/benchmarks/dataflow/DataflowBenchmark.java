@@ -1,5 +1,6 @@
 package com.ibm.wala.benchmarks.dataflow;
 
+import com.ibm.wala.dataflow.IFDS.TabulationSolver.EdgeRepresentation;
 import com.ibm.wala.examples.analysis.dataflow.DataflowTest;
 import com.ibm.wala.ipa.cha.ClassHierarchyException;
 import com.ibm.wala.util.CancelException;
@@ -48,6 +49,13 @@ import org.openjdk.jmh.annotations.Warmup;
  * and {@code 0.250} ms and the context-sensitive mean at {@code 0.236} and {@code 0.224} ms across
  * two consecutive runs.
  *
+ * <p>{@link #analyzeTestContextSensitiveConcurrently()} repeats the context-sensitive analysis
+ * with the tabulation solver running on {@value #THREADS} {@linkplain
+ * com.ibm.wala.dataflow.IFDS.TabulationSolver#setNumberOfThreads(int) threads}; compare it with
+ * {@link #analyzeTestContextSensitive()} to see the overhead or gain of concurrent tabulation. A
+ * subject this small mostly measures the overhead. {@link #analyzeTestContextSensitivePacked()}
+ * does the same work with {@linkplain EdgeRepresentation#PACKED packed} path and summary edges.
+ *
  * <p>Run with {@code ./gradlew :core:jmh}.
  */
 @BenchmarkMode(Mode.SingleShotTime)
@@ -58,6 +66,9 @@ import org.openjdk.jmh.annotations.Warmup;
 @Warmup(iterations = 60)
 public class DataflowBenchmark {
 
+  /** The number of threads for {@link #analyzeTestContextSensitiveConcurrently()}. */
+  private static final int THREADS = 4;
+
   /**
    * The pre-analysis state for {@link #analyzeTestContextSensitive()}, built by {@link #setup()}.
    */
@@ -88,6 +99,25 @@ public class DataflowBenchmark {
     return DataflowTest.computeTestContextSensitive(contextSensitiveAnalysis);
   }
 
+  /**
+   * Times the same work as {@link #analyzeTestContextSensitive()}, but with the tabulation solver
+   * running on {@value #THREADS} threads.
+   */
+  @Benchmark
+  public DataflowTest.TestContextSensitiveResult analyzeTestContextSensitiveConcurrently() {
+    return DataflowTest.computeTestContextSensitive(contextSensitiveAnalysis, THREADS);
+  }
+
+  /**
+   * Times the same work as {@link #analyzeTestContextSensitive()}, but with path edges and summary
+   * edges kept in {@linkplain EdgeRepresentation#PACKED packed} tables.
+   */
+  @Benchmark
+  public DataflowTest.TestContextSensitiveResult analyzeTestContextSensitivePacked() {
+    return DataflowTest.computeTestContextSensitive(
+        contextSensitiveAnalysis, 1, EdgeRepresentation.PACKED);
+  }
+
   /**
    * Times only the context-insensitive reaching-definitions analysis that {@link
    * DataflowTest#testContextInsensitive} performs, using the same call graph and class hierarchy
@@ -0,0 +1,146 @@
+package com.ibm.wala.benchmarks.dataflow;
+
+import com.ibm.wala.analysis.typeInference.TypeInference;
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.dataflow.graph.BitVectorSolver;
+import com.ibm.wala.examples.analysis.dataflow.ContextInsensitiveReachingDefs;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cfg.BasicBlockInContext;
+import com.ibm.wala.ipa.cfg.ExplodedInterproceduralCFG;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.analysis.IExplodedBasicBlock;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the {@linkplain WorklistStrategy worklist strategies} of the fixed-point
+ * solvers, on the three kinds of systems that WALA solves most: pointer analysis constraints
+ * ({@link #pointerAnalysis}), type inference ({@link #typeInference}) and a bit vector dataflow
+ * problem ({@link #reachingDefs}). The workloads are drawn from the {@code hello} test subject.
+ *
+ * <p>Besides time, each benchmark reports the number of statement evaluations as the secondary
+ * result {@code evaluations}, which does not depend on the machine. Compare both across {@link
+ * #strategy} values to choose a strategy for a workload. Run with {@code ./gradlew :core:jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+public class WorklistStrategyBenchmark {
+
+  /** The name of a {@link WorklistStrategy}. */
+  @Param({"TOPOLOGICAL", "FIFO", "LIFO", "WAVEFRONT", "LEAST_RECENTLY_FIRED"})
+  public String strategy;
+
+  /** The number of statements evaluated, summed over the invocations of an iteration. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Evaluations {
+
+    public long evaluations;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      evaluations = 0;
+    }
+  }
+
+  private AnalysisScope scope;
+
+  private ClassHierarchy cha;
+
+  private Iterable<Entrypoint> entrypoints;
+
+  private final List<IR> irs = new ArrayList<>();
+
+  private ExplodedInterproceduralCFG icfg;
+
+  @Setup(Level.Trial)
+  public void setup() throws CancelException, ClassHierarchyException, IOException {
+    // type inference creates and runs its solver in a single call, so it can only be configured
+    // this way
+    System.setProperty(WorklistStrategy.PROPERTY, strategy);
+    scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    cha = ClassHierarchyFactory.make(scope);
+    entrypoints = new AllApplicationEntrypoints(scope, cha);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraph callGraph =
+        Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha)
+            .makeCallGraph(options, null);
+    for (CGNode node : callGraph) {
+      IR ir = node.getIR();
+      if (ir != null) {
+        irs.add(ir);
+      }
+    }
+    icfg = ExplodedInterproceduralCFG.make(callGraph);
+  }
+
+  /** Builds a 0-1-CFA call graph, the constraints of which the strategy orders. */
+  @Benchmark
+  public CallGraph pointerAnalysis(Evaluations counters) throws CancelException {
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setWorklistStrategy(WorklistStrategy.valueOf(strategy));
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha);
+    CallGraph result = builder.makeCallGraph(options, null);
+    counters.evaluations += builder.getPropagationSystem().getNumberOfEvaluations();
+    return result;
+  }
+
+  /** Infers the types of the values of every method in the call graph. */
+  @Benchmark
+  public List<TypeInference> typeInference(Evaluations counters) {
+    List<TypeInference> result = new ArrayList<>(irs.size());
+    for (IR ir : irs) {
+      TypeInference ti = TypeInference.make(ir, true);
+      counters.evaluations += ti.getNumberOfEvaluations();
+      result.add(ti);
+    }
+    return result;
+  }
+
+  /** Solves context-insensitive reaching definitions of static fields over the whole program. */
+  @Benchmark
+  public BitVectorSolver<BasicBlockInContext<IExplodedBasicBlock>> reachingDefs(
+      Evaluations counters) {
+    BitVectorSolver<BasicBlockInContext<IExplodedBasicBlock>> solver =
+        new ContextInsensitiveReachingDefs(icfg, cha).analyze(WorklistStrategy.valueOf(strategy));
+    counters.evaluations += solver.getNumberOfEvaluations();
+    return solver;
+  }
+}
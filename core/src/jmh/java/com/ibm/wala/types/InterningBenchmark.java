@@ -0,0 +1,216 @@
+package com.ibm.wala.types;
+
+import com.ibm.wala.core.util.strings.Atom;
+import com.ibm.wala.core.util.strings.ImmutableByteArray;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH microbenchmarks for interning {@link TypeName}s, {@link TypeReference}s, {@link
+ * Descriptor}s, {@link MethodReference}s and {@link FieldReference}s.
+ *
+ * <p>Like {@code AtomBenchmark}, these benchmarks are meant to detect relative regressions in the
+ * interning dictionaries, not to measure absolute performance. There are three groups:
+ *
+ * <ul>
+ *   <li>"hit" benchmarks look up content interned once during setup, which is what WALA does in
+ *       its common case;
+ *   <li>"miss" benchmarks intern a bounded pool of new content per iteration, after clearing the
+ *       dictionaries so that every iteration starts from the same empty state (see {@code
+ *       AtomBenchmark} for why an unbounded miss benchmark is not meaningful);
+ *   <li>"contended" benchmarks run the hit path, or the miss path over one shared pool, on {@value
+ *       #CONTENDED_THREADS} threads at once, so that all threads look up or race to insert the
+ *       same keys.
+ * </ul>
+ *
+ * <p>Run with {@code ./gradlew :core:jmh}. Results are written to {@code core/build/results/jmh/}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Measurement(iterations = 3, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+public class InterningBenchmark {
+
+  /** Number of distinct, never-before-interned names in each miss-benchmark iteration. */
+  private static final int MISS_POOL_SIZE = 1 << 12;
+
+  private static final int CONTENDED_THREADS = 4;
+
+  private static final Atom METHOD_NAME = Atom.findOrCreateUnicodeAtom("method");
+
+  private static final Atom FIELD_NAME = Atom.findOrCreateUnicodeAtom("field");
+
+  /** A representative mix of class names and method descriptors, pre-interned exactly once. */
+  @State(Scope.Benchmark)
+  public static class Fixture {
+
+    private ImmutableByteArray[] typeNames;
+    private ImmutableByteArray[] descriptors;
+    private TypeName[] names;
+    private TypeReference[] types;
+    private Descriptor[] interned;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      final int size = 512;
+      typeNames = new ImmutableByteArray[size];
+      descriptors = new ImmutableByteArray[size];
+      names = new TypeName[size];
+      types = new TypeReference[size];
+      interned = new Descriptor[size];
+      for (int i = 0; i < size; i++) {
+        final String name =
+            switch (i % 4) {
+              case 0 -> "Ljava/lang/Object" + i;
+              case 1 -> "Lcom/ibm/wala/types/Class" + i;
+              case 2 -> "[Ljava/util/List" + i;
+              default -> "[".repeat(i % 3 + 1) + "I";
+            };
+        typeNames[i] = ImmutableByteArray.make(name);
+        descriptors[i] =
+            ImmutableByteArray.make("(I" + "J".repeat(i % 4) + "Ljava/lang/Object" + i + ";)V");
+        names[i] = TypeName.findOrCreate(typeNames[i]);
+        types[i] = TypeReference.findOrCreate(ClassLoaderReference.Application, names[i]);
+        interned[i] = Descriptor.findOrCreate(descriptors[i]);
+        MethodReference.findOrCreate(types[i], METHOD_NAME, interned[i]);
+        FieldReference.findOrCreate(types[i], FIELD_NAME, types[(i + 1) % size]);
+      }
+    }
+  }
+
+  /** The position of one benchmark thread in the {@link Fixture}. */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    /** Returns the index of the next fixture element, cycling forever without overflow. */
+    public int nextIndex(Fixture fixture) {
+      final int index = next;
+      next = (next + 1) & Integer.MAX_VALUE;
+      return index % fixture.names.length;
+    }
+  }
+
+  /**
+   * A fresh pool of never-before-interned names, regenerated with distinct content for each
+   * iteration. The dictionaries are cleared first, so that every iteration interns into the same
+   * empty state. Shared by all threads, so that the contended miss benchmark races on the same
+   * keys.
+   */
+  @State(Scope.Benchmark)
+  public static class FreshNames {
+    private ImmutableByteArray[] pool;
+    private int iteration;
+
+    @Setup(Level.Iteration)
+    public void regenerate() {
+      TypeName.resetDictionaryForTesting();
+      TypeReference.resetDictionaryForTesting();
+      Descriptor.resetDictionaryForTesting();
+      MethodReference.resetDictionaryForTesting();
+      FieldReference.resetDictionaryForTesting();
+      final int current = iteration++;
+      pool = new ImmutableByteArray[MISS_POOL_SIZE];
+      for (int i = 0; i < MISS_POOL_SIZE; i++) {
+        pool[i] = ImmutableByteArray.make("Lfresh" + current + "/C" + i);
+      }
+    }
+  }
+
+  /** Looks up an already-interned {@link TypeName}. */
+  @Benchmark
+  public TypeName typeNameHit(Fixture fixture, Cursor cursor) {
+    return TypeName.findOrCreate(fixture.typeNames[cursor.nextIndex(fixture)]);
+  }
+
+  /** Looks up an already-interned {@link TypeReference}. */
+  @Benchmark
+  public TypeReference typeReferenceHit(Fixture fixture, Cursor cursor) {
+    return TypeReference.findOrCreate(
+        ClassLoaderReference.Application, fixture.names[cursor.nextIndex(fixture)]);
+  }
+
+  /** Parses and looks up an already-interned {@link Descriptor}. */
+  @Benchmark
+  public Descriptor descriptorHit(Fixture fixture, Cursor cursor) {
+    return Descriptor.findOrCreate(fixture.descriptors[cursor.nextIndex(fixture)]);
+  }
+
+  /** Looks up an already-interned {@link MethodReference}. */
+  @Benchmark
+  public MethodReference methodReferenceHit(Fixture fixture, Cursor cursor) {
+    final int index = cursor.nextIndex(fixture);
+    return MethodReference.findOrCreate(
+        fixture.types[index], METHOD_NAME, fixture.interned[index]);
+  }
+
+  /** Looks up an already-interned {@link FieldReference}. */
+  @Benchmark
+  public FieldReference fieldReferenceHit(Fixture fixture, Cursor cursor) {
+    final int index = cursor.nextIndex(fixture);
+    return FieldReference.findOrCreate(
+        fixture.types[index], FIELD_NAME, fixture.types[(index + 1) % fixture.types.length]);
+  }
+
+  /** {@link #typeReferenceHit} on several threads at once. */
+  @Benchmark
+  @Threads(CONTENDED_THREADS)
+  public TypeReference typeReferenceHitContended(Fixture fixture, Cursor cursor) {
+    return typeReferenceHit(fixture, cursor);
+  }
+
+  /** {@link #methodReferenceHit} on several threads at once. */
+  @Benchmark
+  @Threads(CONTENDED_THREADS)
+  public MethodReference methodReferenceHitContended(Fixture fixture, Cursor cursor) {
+    return methodReferenceHit(fixture, cursor);
+  }
+
+  /**
+   * Interns a fresh pool of new type names together with a type, method and field reference for
+   * each.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Measurement(iterations = 10)
+  @OperationsPerInvocation(MISS_POOL_SIZE)
+  @Warmup(iterations = 10)
+  public void findOrCreateMiss(FreshNames freshNames, Blackhole blackhole) {
+    internAll(freshNames, blackhole);
+  }
+
+  /** {@link #findOrCreateMiss} on several threads at once, racing to insert the same keys. */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Measurement(iterations = 10)
+  @OperationsPerInvocation(MISS_POOL_SIZE)
+  @Threads(CONTENDED_THREADS)
+  @Warmup(iterations = 10)
+  public void findOrCreateMissContended(FreshNames freshNames, Blackhole blackhole) {
+    internAll(freshNames, blackhole);
+  }
+
+  private static void internAll(FreshNames freshNames, Blackhole blackhole) {
+    for (final ImmutableByteArray name : freshNames.pool) {
+      final TypeReference type =
+          TypeReference.findOrCreate(ClassLoaderReference.Application, TypeName.findOrCreate(name));
+      blackhole.consume(
+          MethodReference.findOrCreate(type, METHOD_NAME, MethodReference.defaultInitDesc));
+      blackhole.consume(FieldReference.findOrCreate(type, FIELD_NAME, type));
+    }
+  }
+}
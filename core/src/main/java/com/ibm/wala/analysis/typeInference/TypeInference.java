@@ -16,6 +16,7 @@ import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.core.util.CancelRuntimeException;
 import com.ibm.wala.dataflow.ssa.SSAInference;
 import com.ibm.wala.fixedpoint.impl.NullaryOperator;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
 import com.ibm.wala.fixpoint.AbstractOperator;
 import com.ibm.wala.fixpoint.FixedPointConstants;
 import com.ibm.wala.fixpoint.IVariable;
@@ -96,6 +97,9 @@ public class TypeInference extends SSAInference<TypeVariable> implements FixedPo
     this.ir = ir;
     this.doPrimitives = doPrimitives;
     this.BOTTOM = new ConeType(cha.getRootClass());
+    // type inference is created and solved in one step, so the property is the only way to choose
+    // its strategy
+    setWorklistStrategy(WorklistStrategy.getDefault());
     initialize();
     solve();
   }
@@ -11,6 +11,7 @@
 package com.ibm.wala.classLoader;
 
 import com.ibm.wala.core.util.io.FileSuffixes;
+import com.ibm.wala.core.util.io.ZipCentralDirectory;
 import com.ibm.wala.core.util.warnings.Warning;
 import com.ibm.wala.core.util.warnings.Warnings;
 import com.ibm.wala.util.collections.HashMapFactory;
@@ -19,11 +20,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.jar.JarInputStream;
 import java.util.zip.ZipEntry;
+import org.jspecify.annotations.Nullable;
 
 /** A Jar file nested in a parent jar file */
 public abstract class AbstractNestedJarFileModule implements Module {
@@ -38,22 +41,65 @@ public abstract class AbstractNestedJarFileModule implements Module {
    */
   private HashMap<String, byte[]> cache = null;
 
+  /**
+   * The index of the nested jar file if {@link #getNestedBuffer()} provides one that can be
+   * indexed; then {@link #cache} stays null, and entries are read from the index on demand.
+   */
+  private @Nullable ZipCentralDirectory index = null;
+
   protected abstract InputStream getNestedContents() throws IOException;
 
+  /**
+   * @return the contents of the nested jar file as a buffer, to read its entries from in place
+   *     instead of through {@link #getNestedContents()}, or null if there is no such buffer
+   */
+  protected @Nullable ByteBuffer getNestedBuffer() {
+    return null;
+  }
+
   protected AbstractNestedJarFileModule(Module container) {
     this.container = container;
   }
 
   public InputStream getInputStream(String name) {
     populateCache();
+    if (index != null) {
+      ByteBuffer contents = getByteBuffer(name);
+      byte[] b = new byte[contents.remaining()];
+      contents.get(b);
+      return new ByteArrayInputStream(b);
+    }
     byte[] b = cache.get(name);
     return new ByteArrayInputStream(b);
   }
 
-  private void populateCache() {
-    if (cache != null) {
+  /**
+   * @return the contents of an entry as a buffer, which is read-only for a stored entry, or null if
+   *     the nested jar file is not indexed
+   */
+  public @Nullable ByteBuffer getByteBuffer(String name) {
+    populateCache();
+    if (index == null) {
+      return null;
+    }
+    try {
+      return index.getContents(name);
+    } catch (IOException e) {
+      throw new IllegalStateException("could not read " + name + " from " + this, e);
+    }
+  }
+
+  private synchronized void populateCache() {
+    if (cache != null || index != null) {
       return;
     }
+    ByteBuffer nested = getNestedBuffer();
+    if (nested != null) {
+      index = ZipCentralDirectory.read(nested);
+      if (index != null) {
+        return;
+      }
+    }
     cache = HashMapFactory.make();
     try (final JarInputStream stream = new JarInputStream(getNestedContents(), false)) {
       for (ZipEntry z = stream.getNextEntry(); z != null; z = stream.getNextEntry()) {
@@ -89,6 +135,9 @@ public abstract class AbstractNestedJarFileModule implements Module {
 
   protected long getEntrySize(String name) {
     populateCache();
+    if (index != null) {
+      return index.getSize(name);
+    }
     byte[] b = cache.get(name);
     return b.length;
   }
@@ -96,7 +145,12 @@ public abstract class AbstractNestedJarFileModule implements Module {
   @Override
   public Iterator<ModuleEntry> getEntries() {
     populateCache();
-    final Iterator<String> it = cache.keySet().iterator();
+    final Iterator<String> it =
+        index != null
+            ? index.getNames().stream()
+                .filter(n -> FileSuffixes.isClassFile(n) || FileSuffixes.isSourceFile(n))
+                .iterator()
+            : cache.keySet().iterator();
     return new Iterator<>() {
       String next = null;
 
@@ -162,6 +216,11 @@ public abstract class AbstractNestedJarFileModule implements Module {
       return AbstractNestedJarFileModule.this.getInputStream(name);
     }
 
+    @Override
+    public @Nullable ByteBuffer getByteBuffer() {
+      return AbstractNestedJarFileModule.this.getByteBuffer(name);
+    }
+
     @Override
     public boolean isModuleFile() {
       return false;
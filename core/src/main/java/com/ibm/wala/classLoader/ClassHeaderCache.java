@@ -0,0 +1,453 @@
+package com.ibm.wala.classLoader;
+
+import com.ibm.wala.core.java11.JrtModule;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.util.collections.HashMapFactory;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A persistent, on-disk cache of the class headers (name, superclass, interfaces and access flags)
+ * found in a {@link Module}.
+ *
+ * <p>Building a class hierarchy requires parsing the header of every class file in scope, which
+ * dominates start-up time for large scopes such as the JDK. This cache records those headers in a
+ * file keyed by a SHA-256 fingerprint of the module, so that later runs over the same module can
+ * create {@link ShrikeClass}es without touching the class files at all; the remaining contents of
+ * a class (fields, methods, attributes) are still read lazily from the module on demand. Cache
+ * files are read with memory-mapped I/O. Since a mapped file cannot be replaced on Windows, each
+ * module has two slots, and new headers are written to the slot they were not read from.
+ *
+ * <p>Only {@link JarFileModule}s, fingerprinted by their contents, and {@link JrtModule}s,
+ * fingerprinted by the identity of the running JDK, are cached. The contents of a JAR file are
+ * only hashed again when its size or modification time changes. The cache is disabled unless a
+ * directory is configured, either with the system property {@value
+ * #CACHE_DIRECTORY_PROPERTY_NAME} or with {@link #setCacheDirectory(Path)}.
+ *
+ * <p>The subclass numbering of the class hierarchy itself is not cached: it is recomputed from the
+ * loaded classes, which is cheap compared to reading the class files.
+ */
+public final class ClassHeaderCache {
+
+  public static final String CACHE_DIRECTORY_PROPERTY_NAME = "com.ibm.wala.classHeaderCache";
+
+  private static final int MAGIC = 0x57434843;
+
+  private static final int VERSION = 1;
+
+  private static final String SUFFIX = ".headers";
+
+  private static final String STAMP_SUFFIX = ".stamp";
+
+  private static volatile @Nullable Path cacheDirectory;
+
+  static {
+    String dir = System.getProperty(CACHE_DIRECTORY_PROPERTY_NAME);
+    if (dir != null && !dir.isEmpty()) {
+      cacheDirectory = Paths.get(dir);
+    }
+  }
+
+  private ClassHeaderCache() {}
+
+  /**
+   * Set the directory in which cache files are kept.
+   *
+   * @param directory the cache directory, or {@code null} to disable caching
+   */
+  public static void setCacheDirectory(@Nullable Path directory) {
+    cacheDirectory = directory;
+  }
+
+  public static @Nullable Path getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /** The header of a single class file, as recorded by the cache. */
+  public static final class Header {
+
+    private final String name;
+
+    private final @Nullable String superName;
+
+    private final int accessFlags;
+
+    private final String[] interfaceNames;
+
+    Header(String name, @Nullable String superName, int accessFlags, String[] interfaceNames) {
+      this.name = name;
+      this.superName = superName;
+      this.accessFlags = accessFlags;
+      this.interfaceNames = interfaceNames;
+    }
+
+    static Header read(ClassReader reader) throws InvalidClassFileException {
+      return new Header(
+          reader.getName(),
+          reader.getSuperName(),
+          reader.getAccessFlags(),
+          reader.getInterfaceNames());
+    }
+
+    /**
+     * @return the internal name of the class, e.g. {@code java/lang/Object}
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the internal name of the superclass, or {@code null} if there is none
+     */
+    public @Nullable String getSuperName() {
+      return superName;
+    }
+
+    public int getAccessFlags() {
+      return accessFlags;
+    }
+
+    /**
+     * @return the internal names of the directly implemented interfaces
+     */
+    public String[] getInterfaceNames() {
+      return interfaceNames.clone();
+    }
+  }
+
+  /**
+   * The headers cached for one module, indexed by {@link ModuleEntry#getName()}. New headers may
+   * be {@link #put added} while the module is loaded; {@link #store()} writes them back if
+   * anything changed.
+   */
+  public static final class Headers {
+
+    /** the slot that {@link #store()} writes */
+    private final Path file;
+
+    /** the slot that the headers were read from, if any */
+    private final @Nullable Path source;
+
+    private final Map<String, Header> headers;
+
+    private boolean dirty;
+
+    Headers(Path file, @Nullable Path source, Map<String, Header> headers) {
+      this.file = file;
+      this.source = source;
+      this.headers = headers;
+    }
+
+    public @Nullable Header get(String entryName) {
+      return headers.get(entryName);
+    }
+
+    public void put(String entryName, Header header) {
+      headers.put(entryName, header);
+      dirty = true;
+    }
+
+    public int size() {
+      return headers.size();
+    }
+
+    public Collection<String> getEntryNames() {
+      return Collections.unmodifiableCollection(headers.keySet());
+    }
+
+    /**
+     * Write the headers back to disk if any were added since they were loaded. They go to the slot
+     * they were not read from, since that one may still be mapped, and the old slot is deleted.
+     *
+     * @throws IOException if the headers cannot be written, for instance because another process
+     *     has the target slot open on Windows; the headers read before stay in place
+     */
+    public void store() throws IOException {
+      if (!dirty) {
+        return;
+      }
+      Path dir = file.getParent();
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream os = Files.newOutputStream(tmp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+          out.writeInt(headers.size());
+          for (Map.Entry<String, Header> e : headers.entrySet()) {
+            Header h = e.getValue();
+            writeString(out, e.getKey());
+            writeString(out, h.name);
+            writeString(out, h.superName == null ? "" : h.superName);
+            out.writeInt(h.accessFlags);
+            out.writeInt(h.interfaceNames.length);
+            for (String i : h.interfaceNames) {
+              writeString(out, i);
+            }
+          }
+        }
+        replace(tmp, file);
+        dirty = false;
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+      if (source != null) {
+        try {
+          Files.deleteIfExists(source);
+        } catch (IOException e) {
+          // on Windows, this process may still map the source slot; load prefers the new slot
+        }
+      }
+    }
+  }
+
+  /** Move tmp to file, replacing it, atomically if the file system supports that. */
+  private static void replace(Path tmp, Path file) throws IOException {
+    try {
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Find the cached headers for a module.
+   *
+   * @return the headers recorded for the module, possibly none if it has not been cached yet, or
+   *     {@code null} if caching is disabled or the module cannot be cached
+   */
+  public static @Nullable Headers load(Module module) {
+    Path dir = cacheDirectory;
+    if (dir == null) {
+      return null;
+    }
+    String fingerprint;
+    try {
+      fingerprint = fingerprint(module);
+    } catch (IOException e) {
+      return null;
+    }
+    if (fingerprint == null) {
+      return null;
+    }
+    // headers are only ever added, so the larger slot holds the newer headers
+    Path first = dir.resolve(fingerprint + SUFFIX);
+    Path second = dir.resolve(fingerprint + ".1" + SUFFIX);
+    Path source = null;
+    try {
+      long firstSize = Files.isRegularFile(first) ? Files.size(first) : -1;
+      long secondSize = Files.isRegularFile(second) ? Files.size(second) : -1;
+      if (firstSize >= 0 || secondSize >= 0) {
+        source = firstSize >= secondSize ? first : second;
+      }
+    } catch (IOException e) {
+      // a slot vanished while it was examined; start afresh
+    }
+    Map<String, Header> headers = HashMapFactory.make();
+    if (source != null) {
+      try {
+        read(source, headers);
+      } catch (IOException | RuntimeException e) {
+        // a truncated or otherwise corrupt cache file; start afresh and overwrite it
+        headers.clear();
+      }
+    }
+    return new Headers(source == first ? second : first, source, headers);
+  }
+
+  private static void read(Path file, Map<String, Header> headers) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+        return;
+      }
+      int count = buf.getInt();
+      for (int c = 0; c < count; c++) {
+        String entryName = readString(buf);
+        String name = readString(buf);
+        String superName = readString(buf);
+        int accessFlags = buf.getInt();
+        String[] interfaceNames = new String[buf.getInt()];
+        for (int i = 0; i < interfaceNames.length; i++) {
+          interfaceNames[i] = readString(buf);
+        }
+        headers.put(
+            entryName,
+            new Header(name, superName.isEmpty() ? null : superName, accessFlags, interfaceNames));
+      }
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buf) {
+    byte[] bytes = new byte[buf.getInt()];
+    buf.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** The fingerprint of a JAR file, and the size and modification time it was computed for */
+  private record Stamp(long size, long lastModified, String fingerprint) {}
+
+  /** Stamps of the JAR files fingerprinted so far, by absolute path */
+  private static final Map<Path, Stamp> stamps = new ConcurrentHashMap<>();
+
+  /**
+   * @return a key identifying the contents of the given module, or {@code null} if the module
+   *     cannot be cached
+   */
+  static @Nullable String fingerprint(Module module) throws IOException {
+    if (module instanceof JarFileModule jarFileModule) {
+      File f = new File(jarFileModule.getJarFile().getName());
+      if (!f.isFile()) {
+        return null;
+      }
+      return fingerprint(f.toPath().toAbsolutePath());
+    } else if (module instanceof JrtModule jrtModule) {
+      String javaHome = System.getProperty("java.home");
+      Path modules = Paths.get(javaHome, "lib", "modules");
+      String identity =
+          "jrt:"
+              + jrtModule.getModuleName()
+              + ':'
+              + javaHome
+              + ':'
+              + Runtime.version()
+              + ':'
+              + (Files.exists(modules)
+                  ? Files.size(modules) + ":" + Files.getLastModifiedTime(modules).toMillis()
+                  : "");
+      return sha256(identity);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Hashing a large JAR file costs much of what the cache saves, so a fingerprint is reused as long
+   * as the size and modification time of the file stay the same. Stamps are kept in memory and, if
+   * a cache directory is set, on disk.
+   *
+   * @return a SHA-256 fingerprint of the contents of the JAR file at path
+   */
+  private static @Nullable String fingerprint(Path path) throws IOException {
+    // read the stamp before hashing, so that a concurrent change leads to hashing again next time
+    long size = Files.size(path);
+    long lastModified = Files.getLastModifiedTime(path).toMillis();
+    Stamp stamp = stamps.get(path);
+    if (stamp == null || stamp.size() != size || stamp.lastModified() != lastModified) {
+      Path dir = cacheDirectory;
+      Path stampFile = null;
+      if (dir != null) {
+        String name = sha256(path.toString());
+        if (name == null) {
+          return null;
+        }
+        stampFile = dir.resolve(name + STAMP_SUFFIX);
+        stamp = readStamp(stampFile);
+      }
+      if (stamp == null || stamp.size() != size || stamp.lastModified() != lastModified) {
+        String fingerprint = hash(path);
+        if (fingerprint == null) {
+          return null;
+        }
+        stamp = new Stamp(size, lastModified, fingerprint);
+        if (stampFile != null) {
+          writeStamp(stampFile, stamp);
+        }
+      }
+      stamps.put(path, stamp);
+    }
+    return stamp.fingerprint();
+  }
+
+  private static @Nullable Stamp readStamp(Path stampFile) {
+    try {
+      String[] fields = Files.readString(stampFile, StandardCharsets.UTF_8).trim().split(" ");
+      if (fields.length == 3) {
+        return new Stamp(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2]);
+      }
+    } catch (IOException | NumberFormatException e) {
+      // no stamp yet, or a corrupt one; hash the file again
+    }
+    return null;
+  }
+
+  private static void writeStamp(Path stampFile, Stamp stamp) {
+    try {
+      Path dir = stampFile.getParent();
+      Files.createDirectories(dir);
+      Path tmp = Files.createTempFile(dir, stampFile.getFileName().toString(), ".tmp");
+      try {
+        Files.writeString(
+            tmp,
+            stamp.size() + " " + stamp.lastModified() + " " + stamp.fingerprint(),
+            StandardCharsets.UTF_8);
+        replace(tmp, stampFile);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException e) {
+      // the stamp only saves time; the file is hashed again next run
+    }
+  }
+
+  /**
+   * @return the SHA-256 digest of the contents of the file at path, or {@code null} if SHA-256 is
+   *     not available
+   */
+  private static @Nullable String hash(Path path) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long chunk = Integer.MAX_VALUE;
+      for (long pos = 0; pos < size; pos += chunk) {
+        long length = Math.min(chunk, size - pos);
+        digest.update(channel.map(FileChannel.MapMode.READ_ONLY, pos, length));
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static @Nullable String sha256(String s) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+}
@@ -126,6 +126,9 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
                   classLoaderReference, scope.getArrayClassLoader(), parent, exclusions, cha);
         }
       }
+    if (cl instanceof ClassLoaderImpl loaderImpl) {
+      loaderImpl.setNumberOfThreads(scope.getNumberOfLoaderThreads());
+    }
     cl.init(scope.getModules(classLoaderReference));
     return cl;
   }
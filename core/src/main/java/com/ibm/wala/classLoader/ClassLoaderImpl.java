@@ -22,6 +22,7 @@ import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
 import com.ibm.wala.ssa.SSAInstructionFactory;
 import com.ibm.wala.types.ClassLoaderReference;
 import com.ibm.wala.types.TypeName;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
@@ -34,17 +35,21 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 /** A class loader that reads class definitions from a set of Modules. */
 public class ClassLoaderImpl implements IClassLoader {
@@ -73,6 +78,9 @@ public class ClassLoaderImpl implements IClassLoader {
   /** an object to delegate to for loading of array classes */
   private final ArrayClassLoader arrayClassLoader;
 
+  /** How many threads may read and parse the class files of a module */
+  private int numberOfThreads = 1;
+
   /**
    * @param loader class loader reference identifying this loader
    * @param parent parent loader for delegation
@@ -163,6 +171,56 @@ public class ClassLoaderImpl implements IClassLoader {
     return result;
   }
 
+  /** A class file read ahead of loading; header is null if the class file is invalid */
+  private record ParsedClass(
+      ShrikeClassReaderHandle reader, ClassHeaderCache.@Nullable Header header) {}
+
+  /**
+   * Read and parse the headers of class files on a pool of {@link #getNumberOfThreads()} threads.
+   * Only the class files themselves are read here; the classes are created, in order, by {@link
+   * #loadAllClasses}.
+   *
+   * @param headers cached class headers for the entries of archive; entries with a cached header
+   *     are not read
+   * @return a mapping from each entry read to its parsed header
+   */
+  private Map<ModuleEntry, ParsedClass> parseClassFiles(
+      Module archive,
+      Collection<ModuleEntry> moduleEntries,
+      ClassHeaderCache.@Nullable Headers headers)
+      throws IOException {
+    List<ModuleEntry> toParse = new ArrayList<>(moduleEntries.size());
+    for (ModuleEntry entry : moduleEntries) {
+      if (entry.isClassFile()
+          && (headers == null
+              || entry.getContainer() != archive
+              || headers.get(entry.getName()) == null)) {
+        toParse.add(entry);
+      }
+    }
+    Map<ModuleEntry, ParsedClass> result = new ConcurrentHashMap<>(toParse.size());
+    try {
+      ThreadPoolUtil.run(
+          numberOfThreads,
+          () -> toParse.parallelStream().forEach(e -> result.put(e, parseClassFile(e))));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while reading " + archive);
+    }
+    return result;
+  }
+
+  private static ParsedClass parseClassFile(ModuleEntry entry) {
+    // some entries parse the class file to find their name; let them do so here, too
+    entry.getClassName();
+    ShrikeClassReaderHandle reader = new ShrikeClassReaderHandle(entry);
+    try {
+      return new ParsedClass(reader, ClassHeaderCache.Header.read(reader.get()));
+    } catch (InvalidClassFileException e) {
+      return new ParsedClass(reader, null);
+    }
+  }
+
   /** Remove from s any class file module entries which already are in t */
   private static void removeClassFiles(Set<ModuleEntry> s, Set<ModuleEntry> t) {
     s.removeAll(t);
@@ -206,10 +264,20 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
-  /** Set up the set of classes loaded by this object. */
+  /**
+   * Set up the set of classes loaded by this object.
+   *
+   * @param headers cached class headers for the entries of archive, or null if there is no cache
+   * @param parsed class files already read by {@link #parseClassFiles}, or null
+   */
   @SuppressWarnings("unused")
   private void loadAllClasses(
-      Collection<ModuleEntry> moduleEntries, Map<String, Object> fileContents, boolean isJMODType) {
+      Module archive,
+      Collection<ModuleEntry> moduleEntries,
+      Map<String, Object> fileContents,
+      boolean isJMODType,
+      ClassHeaderCache.@Nullable Headers headers,
+      @Nullable Map<ModuleEntry, ParsedClass> parsed) {
     for (ModuleEntry entry : moduleEntries) {
       // java11 support for jmod files
       if (!entry.isClassFile()
@@ -217,12 +285,23 @@ public class ClassLoaderImpl implements IClassLoader {
         continue;
       }
 
+      // only entries directly in the archive are cached, not those of nested modules
+      boolean cacheable = headers != null && entry.getContainer() == archive;
+      ClassHeaderCache.Header header = cacheable ? headers.get(entry.getName()) : null;
+
       @SuppressWarnings("NonConstantStringShouldBeStringBuffer")
-      String className = entry.getClassName().replace('.', '/');
+      String className;
+      if (header != null) {
+        // a cached header was recorded only if its name matched the entry, so use it directly
+        // rather than asking the entry, which may need to parse the class file
+        className = header.getName();
+      } else {
+        className = entry.getClassName().replace('.', '/');
 
-      // java11 support for jmod files
-      if (isJMODType && className.startsWith("classes/")) {
-        className = className.replace("classes/", "");
+        // java11 support for jmod files
+        if (isJMODType && className.startsWith("classes/")) {
+          className = className.replace("classes/", "");
+        }
       }
 
       if (DEBUG_LEVEL > 0) {
@@ -236,7 +315,9 @@ public class ClassLoaderImpl implements IClassLoader {
         continue;
       }
 
-      ShrikeClassReaderHandle entryReader = new ShrikeClassReaderHandle(entry);
+      ParsedClass parsedClass = parsed == null ? null : parsed.get(entry);
+      ShrikeClassReaderHandle entryReader =
+          parsedClass != null ? parsedClass.reader() : new ShrikeClassReaderHandle(entry);
 
       className = 'L' + className;
       if (DEBUG_LEVEL > 0) {
@@ -248,6 +329,19 @@ public class ClassLoaderImpl implements IClassLoader {
           Warnings.add(MultipleImplementationsWarning.create(className));
         } else if (parent != null && parent.lookupClass(T) != null) {
           Warnings.add(MultipleImplementationsWarning.create(className));
+        } else if (header != null) {
+          loadedClasses.put(T, new ShrikeClass(entryReader, this, cha, header));
+        } else if (parsedClass != null) {
+          ClassHeaderCache.Header parsedHeader = parsedClass.header();
+          if (parsedHeader != null
+              && TypeName.findOrCreate('L' + parsedHeader.getName()).equals(T)) {
+            loadedClasses.put(T, new ShrikeClass(entryReader, this, cha, parsedHeader));
+            if (cacheable) {
+              headers.put(entry.getName(), parsedHeader);
+            }
+          } else {
+            Warnings.add(InvalidClassFile.create(className));
+          }
         } else {
           // try to read from memory
           ShrikeClassReaderHandle reader = entryReader;
@@ -263,6 +357,9 @@ public class ClassLoaderImpl implements IClassLoader {
             // always used the reader based on the entry after this point,
             // so we can null out and re-read class file contents
             loadedClasses.put(T, new ShrikeClass(entryReader, this, cha));
+            if (cacheable) {
+              headers.put(entry.getName(), ClassHeaderCache.Header.read(reader.get()));
+            }
             if (DEBUG_LEVEL > 1) {
               System.err.println("put " + T + ' ');
             }
@@ -376,6 +473,29 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
+  /** A warning when the class header cache for a module cannot be written */
+  private static class ClassHeaderCacheWarning extends Warning {
+
+    final Module module;
+
+    final IOException exception;
+
+    ClassHeaderCacheWarning(Module module, IOException exception) {
+      super(Warning.MILD);
+      this.module = module;
+      this.exception = exception;
+    }
+
+    @Override
+    public String getMsg() {
+      return getClass() + " : " + module + " : " + exception;
+    }
+
+    private static ClassHeaderCacheWarning create(Module module, IOException exception) {
+      return new ClassHeaderCacheWarning(module, exception);
+    }
+  }
+
   /** Set up mapping from type name to Module Entry */
   @SuppressWarnings("unused")
   protected void loadAllSources(Set<ModuleEntry> sourceModules) {
@@ -465,8 +585,14 @@ public class ClassLoaderImpl implements IClassLoader {
       if (DEBUG_LEVEL > 0) {
         System.err.println("add archive: " + archive);
       }
+      // computing the fingerprint of a cached module reads it sequentially already
+      ClassHeaderCache.Headers headers = ClassHeaderCache.load(archive);
       // byte[] jarFileContents = null;
-      if (OPTIMIZE_JAR_FILE_IO && archive instanceof JarFileModule jarFileModule) {
+      // a mapped jar file is read in place, so reading it ahead would only copy it
+      if (OPTIMIZE_JAR_FILE_IO
+          && headers == null
+          && archive instanceof JarFileModule jarFileModule
+          && !jarFileModule.isMapped()) {
         // if we have a jar file, we read the whole thing into memory and operate on that; enables
         // more
         // efficient sequential I/O
@@ -500,7 +626,17 @@ public class ClassLoaderImpl implements IClassLoader {
         // }
         // jarFileContents = null;
       }
-      loadAllClasses(classFiles, allClassAndSourceFileContents, isJMODType);
+      Map<ModuleEntry, ParsedClass> parsed =
+          numberOfThreads > 1 ? parseClassFiles(archive, classFiles, headers) : null;
+      loadAllClasses(
+          archive, classFiles, allClassAndSourceFileContents, isJMODType, headers, parsed);
+      if (headers != null) {
+        try {
+          headers.store();
+        } catch (IOException e) {
+          Warnings.add(ClassHeaderCacheWarning.create(archive, e));
+        }
+      }
       loadAllSources(sourceFiles);
       classModuleEntries.addAll(classFiles);
       sourceModuleEntries.addAll(sourceFiles);
@@ -548,6 +684,20 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads {@link #init(List)} may use to read and parse the class
+   *     files of each module; classes are still created and registered in module order on the
+   *     calling thread. 1 (the default) reads class files sequentially.
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
   @Override
   public ClassLoaderReference getReference() {
     return loader;
@@ -14,7 +14,9 @@ package com.ibm.wala.classLoader;
 import com.ibm.wala.core.util.io.FileSuffixes;
 import com.ibm.wala.util.debug.Assertions;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.jar.JarFile;
+import org.jspecify.annotations.Nullable;
 
 /** An entry in a Jar file. */
 public class JarFileEntry implements ModuleEntry {
@@ -50,6 +52,11 @@ public class JarFileEntry implements ModuleEntry {
     }
   }
 
+  @Override
+  public @Nullable ByteBuffer getByteBuffer() {
+    return jarFileModule.getByteBuffer(entryName);
+  }
+
   public long getSize() {
     // TODO: cache this?
     return jarFileModule.getJarFile().getEntry(entryName).getSize();
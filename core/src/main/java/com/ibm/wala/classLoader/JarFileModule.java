@@ -10,18 +10,22 @@
  */
 package com.ibm.wala.classLoader;
 
+import com.ibm.wala.core.util.io.ZipCentralDirectory;
 import com.ibm.wala.core.util.ref.CacheReference;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.io.FileUtil;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
+import org.jspecify.annotations.Nullable;
 
 /** A module which is a wrapper around a Jar file */
 public class JarFileModule implements Module {
@@ -34,6 +38,20 @@ public class JarFileModule implements Module {
    */
   private final HashMap<ZipEntry, Object> cache = HashMapFactory.make();
 
+  /**
+   * Whether JAR files are memory-mapped and indexed to read their entries without copying. Set the
+   * system property {@code com.ibm.wala.classLoader.mapJarFiles} to {@code false} to read them
+   * through {@link JarFile} only, e.g. on platforms where a mapped file cannot be deleted.
+   */
+  private static final boolean MAP_JAR_FILES =
+      !"false".equals(System.getProperty("com.ibm.wala.classLoader.mapJarFiles"));
+
+  /** the index of the mapped file, if {@link #indexed} and the file could be indexed */
+  private @Nullable ZipCentralDirectory index;
+
+  /** set after {@link #index}, so that a thread that reads true here also sees the index */
+  private volatile boolean indexed;
+
   public JarFileModule(JarFile f) {
     if (f == null) {
       throw new IllegalArgumentException("null f");
@@ -112,4 +130,51 @@ public class JarFileModule implements Module {
   public JarFile getJarFile() {
     return file;
   }
+
+  private @Nullable ZipCentralDirectory getIndex() {
+    if (!indexed) {
+      synchronized (this) {
+        if (!indexed) {
+          if (MAP_JAR_FILES) {
+            try {
+              index = ZipCentralDirectory.map(Path.of(file.getName()));
+            } catch (IOException | RuntimeException e) {
+              index = null;
+            }
+          }
+          indexed = true;
+        }
+      }
+    }
+    return index;
+  }
+
+  /**
+   * @return whether the file is memory-mapped, so that {@link #getByteBuffer(String)} reads its
+   *     entries without streams
+   */
+  public boolean isMapped() {
+    return getIndex() != null;
+  }
+
+  /**
+   * Read an entry from the memory-mapped file. A stored entry is not copied, and a deflated entry
+   * is inflated straight from the mapping. This may be called from several threads at once, and
+   * takes no lock once the file has been indexed.
+   *
+   * @return the contents of the entry as a buffer, which is read-only for a stored entry, or null
+   *     if the entry cannot be read this way, in which case it should be read through {@link
+   *     #getJarFile()}
+   */
+  public @Nullable ByteBuffer getByteBuffer(String name) {
+    ZipCentralDirectory index = getIndex();
+    if (index == null) {
+      return null;
+    }
+    try {
+      return index.getContents(name);
+    } catch (IOException e) {
+      return null;
+    }
+  }
 }
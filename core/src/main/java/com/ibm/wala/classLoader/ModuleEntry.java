@@ -12,6 +12,8 @@
 package com.ibm.wala.classLoader;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.jspecify.annotations.Nullable;
 
 /** A ModuleEntry represents a wrapper around a file representation in a {@link Module}. */
 public interface ModuleEntry {
@@ -36,6 +38,15 @@ public interface ModuleEntry {
    */
   InputStream getInputStream();
 
+  /**
+   * @return the contents of this logical file as a buffer from its position to its limit, if they
+   *     can be had without reading {@link #getInputStream()}, e.g. from a memory-mapped archive;
+   *     otherwise null. Callers must not modify the contents.
+   */
+  default @Nullable ByteBuffer getByteBuffer() {
+    return null;
+  }
+
   /**
    * @return true iff this module entry (file) represents a module in its own right. e.g., a jar
    *     file which is an entry in another jar file.
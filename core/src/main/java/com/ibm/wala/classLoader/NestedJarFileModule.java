@@ -12,6 +12,7 @@ package com.ibm.wala.classLoader;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.zip.ZipEntry;
 
@@ -38,6 +39,13 @@ public class NestedJarFileModule extends AbstractNestedJarFileModule {
     return new ByteArrayInputStream(parent.getContents(entry));
   }
 
+  /** Index the nested jar file in place in the parent's mapping, or else in a copy. */
+  @Override
+  protected ByteBuffer getNestedBuffer() {
+    ByteBuffer contents = parent.getByteBuffer(entry.getName());
+    return contents != null ? contents : ByteBuffer.wrap(parent.getContents(entry));
+  }
+
   @Override
   public String toString() {
     return "Nested Jar File:" + entry.getName();
@@ -0,0 +1,331 @@
+package com.ibm.wala.classLoader;
+
+import com.ibm.wala.core.util.warnings.Warning;
+import com.ibm.wala.core.util.warnings.Warnings;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.ssa.ShrikeIRCodec;
+import com.ibm.wala.util.collections.HashMapFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A persistent, on-disk cache of the {@link IR}s that {@link ShrikeIRFactory} builds for methods
+ * of library modules.
+ *
+ * <p>SSA construction for JDK and library methods is repeated by every analysis run, although
+ * their bytecode never changes. This cache stores the {@link ShrikeIRCodec encoded} result of SSA
+ * construction in one file per module, named by the same fingerprint as the {@link
+ * ClassHeaderCache}, so that later runs only rebuild the control-flow graph from the bytecode and
+ * decode the rest. Cache files are memory-mapped, and each IR is decoded only when it is
+ * requested.
+ *
+ * <p>Files are append-only: each IR built on a miss is appended under a file lock, so several
+ * processes may share a cache directory. Every record carries a checksum; a truncated or corrupt
+ * tail is discarded and overwritten. Only IRs built with the default {@link SSAOptions} are
+ * cached, and only for methods of {@link JarFileModule}s and {@code JrtModule}s.
+ *
+ * <p>The cache is disabled unless a directory is configured, either with the system property
+ * {@value #CACHE_DIRECTORY_PROPERTY_NAME} or with {@link #setCacheDirectory(Path)}.
+ */
+public final class PersistentIRCache {
+
+  public static final String CACHE_DIRECTORY_PROPERTY_NAME = "com.ibm.wala.irCache";
+
+  private static final int MAGIC = 0x57495243;
+
+  private static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 8;
+
+  private static final int RECORD_MAGIC = 0x52454331;
+
+  private static final int RECORD_HEADER_SIZE = 16;
+
+  private static final String SUFFIX = ".ir";
+
+  private static volatile @Nullable Path cacheDirectory;
+
+  /** the store for each module seen so far, or {@link #NO_STORE} if it cannot be cached */
+  private static final Map<Module, Store> stores = new WeakHashMap<>();
+
+  private static final Store NO_STORE = new Store(null);
+
+  static {
+    String dir = System.getProperty(CACHE_DIRECTORY_PROPERTY_NAME);
+    if (dir != null && !dir.isEmpty()) {
+      cacheDirectory = Paths.get(dir);
+    }
+  }
+
+  private PersistentIRCache() {}
+
+  /**
+   * Set the directory in which cache files are kept.
+   *
+   * @param directory the cache directory, or {@code null} to disable caching
+   */
+  public static void setCacheDirectory(@Nullable Path directory) {
+    synchronized (stores) {
+      cacheDirectory = directory;
+      stores.clear();
+    }
+  }
+
+  public static @Nullable Path getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * Find the cached encoding of a method's IR.
+   *
+   * @return the encoding, to be decoded with {@link ShrikeIRCodec#decode}, or {@code null} if
+   *     there is none
+   */
+  static @Nullable ByteBuffer find(IBytecodeMethod<?> method, SSAOptions options) {
+    if (cacheDirectory == null || options.getPiNodePolicy() != null) {
+      return null;
+    }
+    Store store = storeFor(method);
+    return store == NO_STORE ? null : store.find(key(method));
+  }
+
+  /** Record a newly built IR, if it can be encoded and is not cached yet. */
+  static void record(IBytecodeMethod<?> method, IR ir) {
+    if (cacheDirectory == null || ir.getOptions().getPiNodePolicy() != null) {
+      return;
+    }
+    Store store = storeFor(method);
+    if (store == NO_STORE) {
+      return;
+    }
+    String key = key(method);
+    if (store.contains(key)) {
+      return;
+    }
+    byte[] encoded = ShrikeIRCodec.encode(ir);
+    if (encoded != null) {
+      store.append(key, encoded);
+    }
+  }
+
+  private static String key(IBytecodeMethod<?> method) {
+    return method.getDeclaringClass().getName().toUnicodeString() + '.' + method.getSelector();
+  }
+
+  private static Store storeFor(IBytecodeMethod<?> method) {
+    if (!(method.getDeclaringClass() instanceof BytecodeClass<?> klass)) {
+      return NO_STORE;
+    }
+    Module module = klass.getContainer();
+    if (module == null) {
+      return NO_STORE;
+    }
+    synchronized (stores) {
+      Store store = stores.get(module);
+      if (store == null) {
+        store = NO_STORE;
+        Path dir = cacheDirectory;
+        if (dir != null) {
+          try {
+            String fingerprint = ClassHeaderCache.fingerprint(module);
+            if (fingerprint != null) {
+              store = new Store(dir.resolve(fingerprint + SUFFIX));
+            }
+          } catch (IOException e) {
+            Warnings.add(PersistentIRCacheWarning.create(module, e));
+          }
+        }
+        stores.put(module, store);
+      }
+      return store;
+    }
+  }
+
+  /** Where the payload of one record lies in a cache file */
+  private record Extent(long offset, int length, int checksum) {}
+
+  /** The cache file for one module, with an index of the records it holds */
+  private static final class Store {
+
+    private final @Nullable Path file;
+
+    private final Map<String, Extent> index = HashMapFactory.make();
+
+    /** a read-only mapping of (a prefix of) the file */
+    private @Nullable MappedByteBuffer mapped;
+
+    /** the end of the last valid record indexed, or 0 if the file header has not been read */
+    private long end;
+
+    private boolean broken;
+
+    Store(@Nullable Path file) {
+      this.file = file;
+      if (file != null && Files.isRegularFile(file)) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+          scan(ch);
+        } catch (IOException e) {
+          broken = true;
+        }
+      }
+    }
+
+    synchronized boolean contains(String key) {
+      return broken || index.containsKey(key);
+    }
+
+    synchronized @Nullable ByteBuffer find(String key) {
+      Extent e = index.get(key);
+      if (e == null || broken) {
+        return null;
+      }
+      try {
+        if (mapped == null || e.offset() + e.length() > mapped.capacity()) {
+          try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), end));
+          }
+        }
+        ByteBuffer payload = mapped.slice((int) e.offset(), e.length());
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != e.checksum()) {
+          index.remove(key);
+          return null;
+        }
+        return payload.asReadOnlyBuffer();
+      } catch (IOException | IndexOutOfBoundsException ex) {
+        return null;
+      }
+    }
+
+    /** Index the valid records between {@link #end} and the end of the file. */
+    private void scan(FileChannel ch) throws IOException {
+      long size = ch.size();
+      if (size > Integer.MAX_VALUE) {
+        broken = true;
+        return;
+      }
+      if (size <= end) {
+        return;
+      }
+      MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      mapped = buf;
+      if (end == 0) {
+        if (size < HEADER_SIZE || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+          return;
+        }
+        end = HEADER_SIZE;
+      }
+      int pos = (int) end;
+      while (size - pos >= RECORD_HEADER_SIZE && buf.getInt(pos) == RECORD_MAGIC) {
+        int keyLength = buf.getInt(pos + 4);
+        int length = buf.getInt(pos + 8);
+        int checksum = buf.getInt(pos + 12);
+        long next = (long) pos + RECORD_HEADER_SIZE + keyLength + length;
+        if (keyLength < 0 || length < 0 || next > size) {
+          break;
+        }
+        byte[] key = new byte[keyLength];
+        buf.get(pos + RECORD_HEADER_SIZE, key);
+        index.put(
+            new String(key, StandardCharsets.UTF_8),
+            new Extent(pos + RECORD_HEADER_SIZE + keyLength, length, checksum));
+        pos = (int) next;
+      }
+      end = pos;
+    }
+
+    synchronized void append(String key, byte[] payload) {
+      if (broken || index.containsKey(key)) {
+        return;
+      }
+      try {
+        Files.createDirectories(file.getParent());
+        // opened for each append, which only follows building an IR, so no descriptor stays open
+        try (FileChannel channel =
+                FileChannel.open(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            FileLock lock = channel.lock()) {
+          // pick up records appended by other processes, and drop a corrupt tail
+          scan(channel);
+          if (broken || index.containsKey(key)) {
+            return;
+          }
+          if (channel.size() > end) {
+            channel.truncate(end);
+          }
+          if (end == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            writeFully(channel, header.flip(), 0);
+            end = HEADER_SIZE;
+          }
+          byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+          CRC32 crc = new CRC32();
+          crc.update(payload);
+          int checksum = (int) crc.getValue();
+          ByteBuffer record =
+              ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + payload.length)
+                  .putInt(RECORD_MAGIC)
+                  .putInt(keyBytes.length)
+                  .putInt(payload.length)
+                  .putInt(checksum)
+                  .put(keyBytes)
+                  .put(payload);
+          writeFully(channel, record.flip(), end);
+          index.put(
+              key, new Extent(end + RECORD_HEADER_SIZE + keyBytes.length, payload.length, checksum));
+          end += record.capacity();
+        }
+      } catch (IOException e) {
+        broken = true;
+        Warnings.add(PersistentIRCacheWarning.create(file, e));
+      }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position)
+        throws IOException {
+      while (buf.hasRemaining()) {
+        position += channel.write(buf, position);
+      }
+    }
+  }
+
+  /** A warning when the IR cache for a module cannot be read or written */
+  private static class PersistentIRCacheWarning extends Warning {
+
+    final Object location;
+
+    final IOException exception;
+
+    PersistentIRCacheWarning(Object location, IOException exception) {
+      super(Warning.MILD);
+      this.location = location;
+      this.exception = exception;
+    }
+
+    @Override
+    public String getMsg() {
+      return getClass() + " : " + location + " : " + exception;
+    }
+
+    private static PersistentIRCacheWarning create(Object location, IOException exception) {
+      return new PersistentIRCacheWarning(location, exception);
+    }
+  }
+}
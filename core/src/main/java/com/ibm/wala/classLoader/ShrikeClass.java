@@ -47,6 +47,9 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
   /** The Shrike object that knows how to read the class file */
   private final ShrikeClassReaderHandle reader;
 
+  /** Have the fields of this class been read? False only for classes created from a header. */
+  private volatile boolean fieldsComputed = true;
+
   /**
    * @throws IllegalArgumentException if reader is null
    */
@@ -67,6 +70,75 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
     computeFields();
   }
 
+  /**
+   * Create a class from a header recorded by the {@link ClassHeaderCache}. The class file itself is
+   * not read until its fields, methods or attributes are requested.
+   *
+   * @throws IllegalArgumentException if reader or header is null
+   */
+  public ShrikeClass(
+      ShrikeClassReaderHandle reader,
+      IClassLoader loader,
+      IClassHierarchy cha,
+      ClassHeaderCache.Header header) {
+    super(loader, cha);
+    if (reader == null) {
+      throw new IllegalArgumentException("reader is null");
+    }
+    if (header == null) {
+      throw new IllegalArgumentException("header is null");
+    }
+    this.reader = reader;
+    typeReference =
+        TypeReference.findOrCreate(
+            loader.getReference(),
+            TypeName.findOrCreate(ImmutableByteArray.make('L' + header.getName())));
+    this.hashCode = 2161 * getReference().hashCode();
+    String s = header.getSuperName();
+    if (s != null) {
+      superName = ImmutableByteArray.make('L' + s);
+    }
+    modifiers = header.getAccessFlags();
+    String[] interfaces = header.getInterfaceNames();
+    interfaceNames = new ImmutableByteArray[interfaces.length];
+    Arrays.setAll(interfaceNames, i -> ImmutableByteArray.make('L' + interfaces[i]));
+    fieldsComputed = false;
+  }
+
+  private void computeFieldsIfNecessary() {
+    if (!fieldsComputed) {
+      synchronized (this) {
+        if (!fieldsComputed) {
+          try {
+            computeFields();
+          } catch (InvalidClassFileException e) {
+            e.printStackTrace();
+            Assertions.UNREACHABLE();
+          }
+          fieldsComputed = true;
+        }
+      }
+    }
+  }
+
+  @Override
+  public Collection<IField> getDeclaredInstanceFields() {
+    computeFieldsIfNecessary();
+    return super.getDeclaredInstanceFields();
+  }
+
+  @Override
+  public Collection<IField> getDeclaredStaticFields() {
+    computeFieldsIfNecessary();
+    return super.getDeclaredStaticFields();
+  }
+
+  @Override
+  protected List<IField> findDeclaredField(Atom name) {
+    computeFieldsIfNecessary();
+    return super.findDeclaredField(name);
+  }
+
   /**
    * Compute the fields declared by this class
    *
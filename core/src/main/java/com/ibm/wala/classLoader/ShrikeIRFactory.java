@@ -23,11 +23,13 @@ import com.ibm.wala.ssa.SSACFG;
 import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.ssa.SSANewInstruction;
 import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.ssa.ShrikeIRCodec;
 import com.ibm.wala.ssa.ShrikeIndirectionData;
 import com.ibm.wala.ssa.SymbolTable;
 import com.ibm.wala.ssa.analysis.DeadAssignmentElimination;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.WalaRuntimeException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 /** An {@link IRFactory} that for methods that originate from Shrike. */
@@ -54,120 +56,187 @@ public class ShrikeIRFactory implements IRFactory<IBytecodeMethod<IInstruction>>
     }
     final ShrikeCFG shrikeCFG = makeCFG(method);
 
-    final SymbolTable symbolTable = new SymbolTable(method.getNumberOfParameters());
-    final SSAInstruction[] newInstrs = new SSAInstruction[shrikeInstructions.length];
+    ByteBuffer cached = PersistentIRCache.find(method, options);
+    if (cached != null) {
+      ShrikeIR ir = new ShrikeIR(method, shrikeCFG, shrikeInstructions.length, options);
+      if (ir.decode(cached)) {
+        return ir;
+      }
+    }
 
-    final SSACFG newCfg = new SSACFG(method, shrikeCFG, newInstrs);
+    ShrikeIR ir = new ShrikeIR(method, shrikeCFG, shrikeInstructions.length, options);
+    ir.build();
+    PersistentIRCache.record(method, ir);
+    return ir;
+  }
 
-    return new IR(method, newInstrs, symbolTable, newCfg, options) {
-      private final SSA2LocalMap localMap;
+  /** The IR of a bytecode method, either built by SSA construction or decoded from a cache. */
+  private static final class ShrikeIR extends IR {
 
-      private final ShrikeIndirectionData indirectionData;
+    private final IBytecodeMethod<IInstruction> method;
 
-      /**
-       * Remove any phis that are dead assignments.
-       *
-       * <p>TODO: move this elsewhere?
-       */
-      private void eliminateDeadPhis() {
-        DeadAssignmentElimination.perform(this);
-      }
+    private final ShrikeCFG shrikeCFG;
 
-      private void pruneExceptionsForSafeArrayCreations() {
-        DefUse du = new DefUse(this);
-        for (int i = 0; i < newInstrs.length; i++) {
-          SSAInstruction instr = newInstrs[i];
-          if (instr instanceof SSANewInstruction newInstr) {
-            if (newInstr.getConcreteType().isArrayType()) {
-              boolean isSafe = true;
-              final int[] params = new int[newInstr.getNumberOfUses()];
-              for (int u = 0; u < newInstr.getNumberOfUses(); u++) {
-                int vLength = newInstr.getUse(u);
-                params[u] = vLength;
-                isSafe &= (isNonNegativeConstant(vLength) || isDefdByArrayLength(vLength, du));
-              }
-              if (isSafe) {
-                // newInstr is either obtained from
-                //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
-                // NewSiteReference site, int[] params)
-                // or
-                //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
-                // NewSiteReference site)
-                // , both provide anonymous subclasses of SSANewInstruction which differ
-                // from SSANewInstruction only in the implementation of getExceptionTypes().
-                // Hence, it is OK to just defining a new anonymous subclasses of SSANewInstruction,
-                // overriding getExceptionTypes().
-                newInstrs[i] =
-                    new SSANewInstruction(
-                        newInstr.iIndex(), newInstr.getDef(), newInstr.getNewSite(), params) {
-                      @Override
-                      public Collection<TypeReference> getExceptionTypes() {
-                        return JavaLanguage.getNewSafeArrayExceptions();
-                      }
-                    };
-              }
-            }
-          }
-        }
-      }
+    private SSA2LocalMap localMap;
 
-      private boolean isNonNegativeConstant(int vLength) {
-        return symbolTable.isIntegerConstant(vLength) && symbolTable.getIntValue(vLength) >= 0;
-      }
+    private ShrikeIndirectionData indirectionData;
 
-      private boolean isDefdByArrayLength(int vLength, DefUse du) {
-        return du.getDef(vLength) instanceof SSAArrayLengthInstruction;
+    ShrikeIR(
+        IBytecodeMethod<IInstruction> method,
+        ShrikeCFG shrikeCFG,
+        int nInstructions,
+        SSAOptions options) {
+      this(
+          method,
+          shrikeCFG,
+          new SSAInstruction[nInstructions],
+          new SymbolTable(method.getNumberOfParameters()),
+          options);
+    }
+
+    private ShrikeIR(
+        IBytecodeMethod<IInstruction> method,
+        ShrikeCFG shrikeCFG,
+        SSAInstruction[] newInstrs,
+        SymbolTable symbolTable,
+        SSAOptions options) {
+      super(method, newInstrs, symbolTable, new SSACFG(method, shrikeCFG, newInstrs), options);
+      this.method = method;
+      this.shrikeCFG = shrikeCFG;
+    }
+
+    /** Populate this IR by SSA construction. */
+    void build() {
+      SSABuilder builder =
+          SSABuilder.make(
+              method,
+              getControlFlowGraph(),
+              shrikeCFG,
+              getInstructions(),
+              getSymbolTable(),
+              buildLocalMap,
+              getOptions().getPiNodePolicy());
+      builder.build();
+      if (buildLocalMap) localMap = builder.getLocalMap();
+      else localMap = null;
+
+      indirectionData = builder.getIndirectionData();
+
+      eliminateDeadPhis();
+      finish();
+    }
+
+    /**
+     * Populate this IR from a cached encoding.
+     *
+     * @return false if the encoding does not match the method, in which case this IR is unusable
+     */
+    boolean decode(ByteBuffer encoded) {
+      try {
+        localMap =
+            ShrikeIRCodec.decode(
+                encoded,
+                method,
+                shrikeCFG,
+                getControlFlowGraph(),
+                getInstructions(),
+                getSymbolTable());
+      } catch (IllegalArgumentException e) {
+        return false;
       }
+      indirectionData = new ShrikeIndirectionData(getInstructions().length);
+      finish();
+      return true;
+    }
+
+    private void finish() {
+      pruneExceptionsForSafeArrayCreations();
+      setupLocationMap();
+    }
 
-      @Override
-      protected String instructionPosition(int instructionIndex) {
-        try {
-          int bcIndex = method.getBytecodeIndex(instructionIndex);
-          int lineNumber = method.getLineNumber(bcIndex);
+    /**
+     * Remove any phis that are dead assignments.
+     *
+     * <p>TODO: move this elsewhere?
+     */
+    private void eliminateDeadPhis() {
+      DeadAssignmentElimination.perform(this);
+    }
 
-          if (lineNumber == -1) {
-            return "";
-          } else {
-            return "(line " + lineNumber + ')';
+    private void pruneExceptionsForSafeArrayCreations() {
+      SSAInstruction[] newInstrs = getInstructions();
+      DefUse du = new DefUse(this);
+      for (int i = 0; i < newInstrs.length; i++) {
+        SSAInstruction instr = newInstrs[i];
+        if (instr instanceof SSANewInstruction newInstr) {
+          if (newInstr.getConcreteType().isArrayType()) {
+            boolean isSafe = true;
+            final int[] params = new int[newInstr.getNumberOfUses()];
+            for (int u = 0; u < newInstr.getNumberOfUses(); u++) {
+              int vLength = newInstr.getUse(u);
+              params[u] = vLength;
+              isSafe &= (isNonNegativeConstant(vLength) || isDefdByArrayLength(vLength, du));
+            }
+            if (isSafe) {
+              // newInstr is either obtained from
+              //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
+              // NewSiteReference site, int[] params)
+              // or
+              //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
+              // NewSiteReference site)
+              // , both provide anonymous subclasses of SSANewInstruction which differ
+              // from SSANewInstruction only in the implementation of getExceptionTypes().
+              // Hence, it is OK to just defining a new anonymous subclasses of SSANewInstruction,
+              // overriding getExceptionTypes().
+              newInstrs[i] =
+                  new SSANewInstruction(
+                      newInstr.iIndex(), newInstr.getDef(), newInstr.getNewSite(), params) {
+                    @Override
+                    public Collection<TypeReference> getExceptionTypes() {
+                      return JavaLanguage.getNewSafeArrayExceptions();
+                    }
+                  };
+            }
           }
-        } catch (InvalidClassFileException e) {
-          return "";
         }
       }
+    }
 
-      @Override
-      public SSA2LocalMap getLocalMap() {
-        return localMap;
-      }
-
-      {
-        SSABuilder builder =
-            SSABuilder.make(
-                method,
-                newCfg,
-                shrikeCFG,
-                newInstrs,
-                symbolTable,
-                buildLocalMap,
-                options.getPiNodePolicy());
-        builder.build();
-        if (buildLocalMap) localMap = builder.getLocalMap();
-        else localMap = null;
+    private boolean isNonNegativeConstant(int vLength) {
+      SymbolTable symbolTable = getSymbolTable();
+      return symbolTable.isIntegerConstant(vLength) && symbolTable.getIntValue(vLength) >= 0;
+    }
 
-        indirectionData = builder.getIndirectionData();
+    private boolean isDefdByArrayLength(int vLength, DefUse du) {
+      return du.getDef(vLength) instanceof SSAArrayLengthInstruction;
+    }
 
-        eliminateDeadPhis();
-        pruneExceptionsForSafeArrayCreations();
+    @Override
+    protected String instructionPosition(int instructionIndex) {
+      try {
+        int bcIndex = method.getBytecodeIndex(instructionIndex);
+        int lineNumber = method.getLineNumber(bcIndex);
 
-        setupLocationMap();
+        if (lineNumber == -1) {
+          return "";
+        } else {
+          return "(line " + lineNumber + ')';
+        }
+      } catch (InvalidClassFileException e) {
+        return "";
       }
+    }
 
-      @SuppressWarnings("unchecked")
-      @Override
-      protected ShrikeIndirectionData getIndirectionData() {
-        return indirectionData;
-      }
-    };
+    @Override
+    public SSA2LocalMap getLocalMap() {
+      return localMap;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected ShrikeIndirectionData getIndirectionData() {
+      return indirectionData;
+    }
   }
 
   @Override
@@ -30,6 +30,13 @@ public class JrtModule implements Module {
     }
   }
 
+  /**
+   * @return the name of the module, e.g. {@code java.base}
+   */
+  public String getModuleName() {
+    return root.getFileName().toString();
+  }
+
   @Override
   public String toString() {
     return "[module " + root.toString() + "]";
@@ -11,23 +11,35 @@
 package com.ibm.wala.core.tests.callGraph;
 
 import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.core.tests.util.TestConstants;
 import com.ibm.wala.core.util.config.AnalysisScopeReader;
 import com.ibm.wala.core.util.io.FileProvider;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions;
 import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
 import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
 import com.ibm.wala.ipa.callgraph.impl.Util;
 import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.LocalPointerKey;
 import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
 import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.perf.StopwatchGC;
 import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /** Utilities for call graph tests */
 public class CallGraphTestUtil {
@@ -57,6 +69,70 @@ public class CallGraphTestUtil {
         scopeFile, new FileProvider().getFile(exclusionsFile), myClassLoader);
   }
 
+  /**
+   * Build the 0-1-CFA call graph of JLex from its main method.
+   *
+   * @param configure adjusts the analysis options before the call graph is built
+   * @return the builder, for its call graph, pointer analysis and propagation system
+   */
+  public static SSAPropagationCallGraphBuilder solveJLexZeroOneCFA(
+      Consumer<AnalysisOptions> configure)
+      throws ClassHierarchyException, IOException, CancelException {
+    AnalysisScope scope = makeJ2SEAnalysisScope(TestConstants.JLEX, REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    return solveZeroOneCFA(
+        scope, cha, Util.makeMainEntrypoints(cha, TestConstants.JLEX_MAIN), configure);
+  }
+
+  /**
+   * Build a 0-1-CFA call graph.
+   *
+   * @param configure adjusts the analysis options before the call graph is built
+   * @return the builder, for its call graph, pointer analysis and propagation system
+   */
+  public static SSAPropagationCallGraphBuilder solveZeroOneCFA(
+      AnalysisScope scope,
+      IClassHierarchy cha,
+      Iterable<Entrypoint> entrypoints,
+      Consumer<AnalysisOptions> configure)
+      throws CancelException {
+    AnalysisOptions options = makeAnalysisOptions(scope, entrypoints);
+    configure.accept(options);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(JavaLanguage.get(), options, new AnalysisCacheImpl(), cha);
+    builder.makeCallGraph(options, null);
+    return builder;
+  }
+
+  /** The nodes of a call graph, for comparing call graphs built by different solvers. */
+  public static Set<String> nodes(CallGraph cg) {
+    Set<String> result = new TreeSet<>();
+    for (CGNode n : cg) {
+      result.add(n.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Points-to sets by pointer key, for comparing pointer analyses built by different solvers. The
+   * value numbers of the synthetic fake root methods depend on the order in which the solver
+   * discovers entities, so their locals are left out.
+   */
+  public static Map<String, Set<String>> pointsToSets(PointerAnalysis<InstanceKey> pa) {
+    Map<String, Set<String>> result = new TreeMap<>();
+    for (PointerKey key : pa.getPointerKeys()) {
+      if (key instanceof LocalPointerKey local && local.getNode().getMethod().isWalaSynthetic()) {
+        continue;
+      }
+      Set<String> instances = new TreeSet<>();
+      for (InstanceKey ik : pa.getPointsToSet(key)) {
+        instances.add(ik.toString());
+      }
+      result.put(key.toString(), instances);
+    }
+    return result;
+  }
+
   public static CallGraph buildRTA(
       AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha)
       throws IllegalArgumentException, CancelException {
@@ -0,0 +1,216 @@
+package com.ibm.wala.core.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the entries of a ZIP archive, such as a JAR file, read from its central directory.
+ *
+ * <p>The contents of an entry are read straight from a buffer over the whole archive: a stored entry
+ * is a slice of that buffer, and a deflated entry is inflated from it without intermediate streams.
+ * If the buffer maps a file, stored entries are thus never copied, and nested archives, which are
+ * usually stored, can be indexed in place.
+ *
+ * <p>Only archives whose entries are all stored or deflated, and not encrypted, are indexed. ZIP64
+ * archives are not supported. For other archives, use {@link java.util.zip}.
+ */
+public final class ZipCentralDirectory {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+
+  private static final int CENTRAL_HEADER_SIZE = 46;
+
+  private static final int END_SIZE = 22;
+
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private static final int STORED = 0;
+
+  private static final int DEFLATED = 8;
+
+  private static final int ENCRYPTED_FLAG = 1;
+
+  private record Entry(int method, int compressedSize, int size, int localHeaderOffset) {}
+
+  /** the archive, in little-endian order */
+  private final ByteBuffer archive;
+
+  private final Map<String, Entry> entries;
+
+  private ZipCentralDirectory(ByteBuffer archive, Map<String, Entry> entries) {
+    this.archive = archive;
+    this.entries = entries;
+  }
+
+  /**
+   * Index a file by mapping it into memory.
+   *
+   * @return the index, or null if the file cannot be indexed
+   */
+  public static @Nullable ZipCentralDirectory map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        return null;
+      }
+      // the mapping stays valid after the channel is closed
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /**
+   * Index the archive held in a buffer, from its position to its limit. The buffer's contents must
+   * not change while the index is in use.
+   *
+   * @return the index, or null if the archive cannot be indexed
+   */
+  public static @Nullable ZipCentralDirectory read(ByteBuffer buffer) {
+    ByteBuffer archive = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    int end = findEnd(archive);
+    if (end < 0) {
+      return null;
+    }
+    int count = archive.getShort(end + 10) & 0xFFFF;
+    long directorySize = archive.getInt(end + 12) & 0xFFFFFFFFL;
+    long directoryOffset = archive.getInt(end + 16) & 0xFFFFFFFFL;
+    // data before the archive proper, as in a self-extracting archive or a JMOD file, shifts the
+    // recorded offsets
+    long prefix = end - directorySize - directoryOffset;
+    if (prefix < 0) {
+      return null;
+    }
+    Map<String, Entry> entries = new LinkedHashMap<>(2 * count);
+    int offset = (int) (end - directorySize);
+    for (int i = 0; i < count; i++) {
+      if (offset + CENTRAL_HEADER_SIZE > end
+          || archive.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+        return null;
+      }
+      int flags = archive.getShort(offset + 8) & 0xFFFF;
+      int method = archive.getShort(offset + 10) & 0xFFFF;
+      long compressedSize = archive.getInt(offset + 20) & 0xFFFFFFFFL;
+      long size = archive.getInt(offset + 24) & 0xFFFFFFFFL;
+      int nameLength = archive.getShort(offset + 28) & 0xFFFF;
+      int extraLength = archive.getShort(offset + 30) & 0xFFFF;
+      int commentLength = archive.getShort(offset + 32) & 0xFFFF;
+      long localHeaderOffset = (archive.getInt(offset + 42) & 0xFFFFFFFFL) + prefix;
+      if ((flags & ENCRYPTED_FLAG) != 0
+          || (method != STORED && method != DEFLATED)
+          || compressedSize > Integer.MAX_VALUE
+          || size > Integer.MAX_VALUE
+          || localHeaderOffset + LOCAL_HEADER_SIZE > end
+          || offset + CENTRAL_HEADER_SIZE + nameLength > end) {
+        return null;
+      }
+      byte[] name = new byte[nameLength];
+      archive.get(offset + CENTRAL_HEADER_SIZE, name);
+      entries.putIfAbsent(
+          new String(name, StandardCharsets.UTF_8),
+          new Entry(method, (int) compressedSize, (int) size, (int) localHeaderOffset));
+      offset += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return new ZipCentralDirectory(archive, entries);
+  }
+
+  /**
+   * @return the offset of the end of central directory record, or -1 if there is none
+   */
+  private static int findEnd(ByteBuffer archive) {
+    int last = archive.limit() - END_SIZE;
+    for (int offset = last; offset >= 0 && offset >= last - MAX_COMMENT_SIZE; offset--) {
+      if (archive.getInt(offset) == END_SIGNATURE
+          && offset + END_SIZE + (archive.getShort(offset + 20) & 0xFFFF) == archive.limit()) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the names of the entries, in the order of the central directory
+   */
+  public Set<String> getNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  public boolean contains(String name) {
+    return entries.containsKey(name);
+  }
+
+  /**
+   * @return the uncompressed size of the entry, or -1 if there is no such entry
+   */
+  public long getSize(String name) {
+    Entry e = entries.get(name);
+    return e == null ? -1 : e.size();
+  }
+
+  /**
+   * @return the contents of the entry as a buffer from position 0 to its limit, or null if there is
+   *     no such entry; for a stored entry, this is a read-only slice of the archive, and for a
+   *     deflated entry, a buffer over a new array of exactly the entry's size, which readers may
+   *     take with {@link ByteBuffer#array()} instead of copying it
+   * @throws ZipException if the entry is corrupt
+   */
+  public @Nullable ByteBuffer getContents(String name) throws ZipException {
+    Entry e = entries.get(name);
+    if (e == null) {
+      return null;
+    }
+    int header = e.localHeaderOffset();
+    if (archive.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("bad local header for " + name);
+    }
+    int start =
+        header
+            + LOCAL_HEADER_SIZE
+            + (archive.getShort(header + 26) & 0xFFFF)
+            + (archive.getShort(header + 28) & 0xFFFF);
+    if (start + e.compressedSize() > archive.limit()) {
+      throw new ZipException("truncated entry " + name);
+    }
+    ByteBuffer data = archive.slice(start, e.compressedSize()).asReadOnlyBuffer();
+    if (e.method() == STORED) {
+      return data;
+    }
+    ByteBuffer result = ByteBuffer.allocate(e.size());
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(data);
+      while (!inflater.finished() && result.hasRemaining()) {
+        if (inflater.inflate(result) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+      }
+      if (result.hasRemaining()) {
+        throw new ZipException("truncated entry " + name);
+      }
+    } catch (DataFormatException ex) {
+      ZipException z = new ZipException("corrupt entry " + name);
+      z.initCause(ex);
+      throw z;
+    } finally {
+      inflater.end();
+    }
+    return result.flip();
+  }
+}
@@ -0,0 +1,27 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.intset.IntSet;
+
+/**
+ * A thread-safe {@link CallFlowEdges}, for {@link TabulationSolver#setNumberOfThreads(int)
+ * concurrent tabulation}.
+ *
+ * <p>Every operation holds the monitor of this object. Sets returned by queries are snapshots.
+ */
+final class ConcurrentCallFlowEdges extends CallFlowEdges {
+
+  @Override
+  public synchronized void addCallEdge(int c, int d1, int d2) {
+    super.addCallEdge(c, d1, d2);
+  }
+
+  @Override
+  public synchronized IntSet getCallFlowSources(int c, int d2) {
+    return ConcurrentLocalPathEdges.snapshot(super.getCallFlowSources(c, d2));
+  }
+
+  @Override
+  public synchronized IntSet getCallFlowSourceNodes(int d2) {
+    return ConcurrentLocalPathEdges.snapshot(super.getCallFlowSourceNodes(d2));
+  }
+}
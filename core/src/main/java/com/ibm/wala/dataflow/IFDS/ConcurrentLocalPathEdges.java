@@ -0,0 +1,65 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+
+/**
+ * A thread-safe view of some {@link LocalPathEdges}, for {@link
+ * TabulationSolver#setNumberOfThreads(int) concurrent tabulation}.
+ *
+ * <p>Every operation holds the monitor of this object. Sets returned by queries are snapshots, so
+ * a caller may iterate them while other threads record more path edges.
+ */
+final class ConcurrentLocalPathEdges extends LocalPathEdges {
+
+  private final LocalPathEdges delegate;
+
+  /**
+   * @param delegate the path edges to guard; only this object may access them from now on
+   */
+  ConcurrentLocalPathEdges(LocalPathEdges delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  synchronized boolean addPathEdgeIfAbsent(int i, int n, int j) {
+    return delegate.addPathEdgeIfAbsent(i, n, j);
+  }
+
+  @Override
+  public synchronized void addPathEdge(int i, int n, int j) {
+    delegate.addPathEdge(i, n, j);
+  }
+
+  @Override
+  public synchronized IntSet getInverse(int n, int d2) {
+    return snapshot(delegate.getInverse(n, d2));
+  }
+
+  @Override
+  public synchronized boolean contains(int i, int n, int j) {
+    return delegate.contains(i, n, j);
+  }
+
+  @Override
+  public synchronized IntSet getReachable(int n, int d1) {
+    return snapshot(delegate.getReachable(n, d1));
+  }
+
+  @Override
+  public synchronized IntSet getReachable(int n) {
+    return delegate.getReachable(n);
+  }
+
+  @Override
+  public synchronized IntSet getReachedNodeNumbers() {
+    return delegate.getReachedNodeNumbers();
+  }
+
+  /**
+   * @return a copy of s, or null if s is null
+   */
+  static IntSet snapshot(IntSet s) {
+    return s == null ? null : MutableSparseIntSet.make(s);
+  }
+}
@@ -0,0 +1,43 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.intset.IntSet;
+
+/**
+ * A thread-safe view of some {@link LocalSummaryEdges}, for {@link
+ * TabulationSolver#setNumberOfThreads(int) concurrent tabulation}.
+ *
+ * <p>Every operation holds the monitor of this object; even queries may assign an index to a new
+ * entry-exit pair. Sets returned by queries are snapshots.
+ */
+final class ConcurrentLocalSummaryEdges extends LocalSummaryEdges {
+
+  private final LocalSummaryEdges delegate;
+
+  /**
+   * @param delegate the summary edges to guard; only this object may access them from now on
+   */
+  ConcurrentLocalSummaryEdges(LocalSummaryEdges delegate) {
+    super(false);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public synchronized void insertSummaryEdge(int s_p, int x, int d1, int d2) {
+    delegate.insertSummaryEdge(s_p, x, d1, d2);
+  }
+
+  @Override
+  public synchronized boolean contains(int s_p, int x, int d1, int d2) {
+    return delegate.contains(s_p, x, d1, d2);
+  }
+
+  @Override
+  public synchronized IntSet getSummaryEdges(int s_p, int x, int d1) {
+    return ConcurrentLocalPathEdges.snapshot(delegate.getSummaryEdges(s_p, x, d1));
+  }
+
+  @Override
+  public synchronized IntSet getInvertedSummaryEdgesForTarget(int s_p, int x, int d2) {
+    return delegate.getInvertedSummaryEdgesForTarget(s_p, x, d2);
+  }
+}
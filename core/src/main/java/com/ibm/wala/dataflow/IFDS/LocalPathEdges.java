@@ -47,7 +47,7 @@ public class LocalPathEdges {
    * <p>TODO: more representation optimization. A special representation for triples? sparse
    * representations for CFG? exploit shorts for ints?
    */
-  private final SparseVector<IBinaryNaturalRelation> paths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IBinaryNaturalRelation> paths;
 
   /**
    * If this is non-null, it holds a redundant representation of the paths information, designed to
@@ -75,7 +75,7 @@ public class LocalPathEdges {
    * <p>for fact d1, identityPaths[d1] gives the set of block numbers N s.t. for n \in N, &lt;s_p,
    * d1&gt; -&gt; &lt;n, d1&gt; is a path edge.
    */
-  private final SparseVector<IntSet> identityPaths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IntSet> identityPaths;
 
   /**
    * a map from integer d2 -&gt; int set
@@ -83,14 +83,28 @@ public class LocalPathEdges {
    * <p>for fact d2, zeroPaths[d2] gives the set of block numbers N s.t. for n \in N, &lt;s_p, 0&gt;
    * -&gt; &lt;n, d2&gt; is a path edge.
    */
-  private final SparseVector<IntSet> zeroPaths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IntSet> zeroPaths;
 
   /**
    * @param fastMerge if true, the representation uses extra space in order to support faster merge
    *     operations
    */
   public LocalPathEdges(boolean fastMerge) {
+    paths = new SparseVector<>(1, 1.1f);
     altPaths = fastMerge ? new SparseVector<>(1, 1.1f) : null;
+    identityPaths = new SparseVector<>(1, 1.1f);
+    zeroPaths = new SparseVector<>(1, 1.1f);
+  }
+
+  /**
+   * For subclasses that keep path edges in a representation of their own, and so override every
+   * public method.
+   */
+  LocalPathEdges() {
+    paths = null;
+    altPaths = null;
+    identityPaths = null;
+    zeroPaths = null;
   }
 
   /**
@@ -139,6 +153,20 @@ public class LocalPathEdges {
     }
   }
 
+  /**
+   * Record a path edge (s_p,d_i) -&gt; (n,d_j), unless it has been recorded already.
+   *
+   * @param n local block number of the basic block n
+   * @return true iff the path edge was not recorded before
+   */
+  boolean addPathEdgeIfAbsent(int i, int n, int j) {
+    if (contains(i, n, j)) {
+      return false;
+    }
+    addPathEdge(i, n, j);
+    return true;
+  }
+
   /**
    * Record that in this procedure we've discovered a same-level realizable path from (s_p,i) to
    * (n,i)
@@ -39,7 +39,7 @@ public class LocalSummaryEdges {
    *
    * <p>TODO: more representation optimization.
    */
-  private final SparseVector<IBinaryNaturalRelation> summaries = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IBinaryNaturalRelation> summaries;
 
   /**
    * Let (s_p,x) be an entry-exit pair, and let l := the long whose high word is s_p and low word is
@@ -55,6 +55,18 @@ public class LocalSummaryEdges {
 
   private int nextEntryExitIndex = 0;
 
+  public LocalSummaryEdges() {
+    this(true);
+  }
+
+  /**
+   * @param keepRelations if false, this object keeps no summary edges itself, for subclasses that
+   *     keep them in a representation of their own and so override every public method
+   */
+  LocalSummaryEdges(boolean keepRelations) {
+    summaries = keepRelations ? new SparseVector<>(1, 1.1f) : null;
+  }
+
   /**
    * Record a summary edge for the flow d1 -&gt; d2 from an entry s_p to an exit x.
    *
@@ -140,7 +152,7 @@ public class LocalSummaryEdges {
   /**
    * @return unique id n that represents the pair (s_p,x)
    */
-  private int getIndexForEntryExitPair(int c, int r) {
+  int getIndexForEntryExitPair(int c, int r) {
     long id = LongUtil.pack(c, r);
     int result = entryExitMap.get(id);
     if (result == UNASSIGNED) {
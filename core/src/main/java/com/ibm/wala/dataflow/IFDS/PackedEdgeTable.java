@@ -0,0 +1,296 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.math.LongUtil;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A compact set of (key, value, bit) triples, where keys are non-negative longs, values are
+ * non-negative ints and bits range from 0 to 63, kept in a handful of primitive buffers.
+ *
+ * <p>Keys are numbered densely in the order they are first added; the triples of a key form a
+ * <em>group</em>. Each (group, value) pair occupies one <em>entry</em> of an open-addressing hash
+ * table, which holds its bits as a 64-bit word, in the style of a roaring bitmap's chunks. The
+ * entries of each group are chained through a parallel int buffer, so that a group can be
+ * enumerated without scanning the table. An entry costs twenty bytes, and holds up to 64 triples.
+ *
+ * <p>Buffers hold one more than the group number or packed pair they record, so that zero, the
+ * content of a fresh buffer, marks an empty slot. If requested, buffers of at least {@link
+ * #OFF_HEAP_THRESHOLD} entries are allocated outside of the Java heap; smaller ones stay on the
+ * heap, since a direct buffer costs more to allocate than a small table saves.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class PackedEdgeTable {
+
+  /** If {@link #offHeap}, buffers with at least this many entries are direct. */
+  static final int OFF_HEAP_THRESHOLD = 1 << 12;
+
+  private static final int INITIAL_GROUPS = 2;
+
+  /** keeps the byte size of a direct buffer of longs within an int */
+  private static final int MAXIMUM_CAPACITY = 1 << 27;
+
+  private final boolean offHeap;
+
+  /** the key of each group, by group number */
+  private LongBuffer groupKeys;
+
+  /** for each group number, 1 + the slot of the entry most recently added to the group */
+  private IntBuffer groupHeads;
+
+  private int groupCount;
+
+  /** open-addressing hash index over {@link #groupKeys}: 1 + a group number, or 0 if empty */
+  private IntBuffer groupIndex;
+
+  /** open-addressing hash table: 1 + the packed (group number, value) pair, or 0 if empty */
+  private LongBuffer slots;
+
+  /** for each slot, the bits recorded for its (group, value) pair */
+  private LongBuffer bits;
+
+  /** for each slot, 1 + the slot of the entry added to the same group before it, or 0 if none */
+  private IntBuffer nextInGroup;
+
+  private int entryCount;
+
+  /**
+   * @param offHeap if true, large buffers are allocated outside of the Java heap
+   */
+  PackedEdgeTable(boolean offHeap) {
+    this.offHeap = offHeap;
+    groupKeys = longs(INITIAL_GROUPS);
+    groupHeads = ints(INITIAL_GROUPS);
+    groupIndex = ints(2 * INITIAL_GROUPS);
+    slots = longs(2 * INITIAL_GROUPS);
+    bits = longs(2 * INITIAL_GROUPS);
+    nextInGroup = ints(2 * INITIAL_GROUPS);
+  }
+
+  /**
+   * @return the number of distinct keys recorded; groups are numbered from 0 to this number - 1
+   */
+  int groupCount() {
+    return groupCount;
+  }
+
+  /**
+   * @return the key of the given group
+   */
+  long groupKey(int group) {
+    return groupKeys.get(group);
+  }
+
+  /**
+   * @return the number of the group of key, or -1 if nothing has been recorded for key
+   */
+  int findGroup(long key) {
+    int mask = groupIndex.capacity() - 1;
+    for (int s = mix(key) & mask; ; s = (s + 1) & mask) {
+      int group = groupIndex.get(s) - 1;
+      if (group < 0 || groupKeys.get(group) == key) {
+        return group;
+      }
+    }
+  }
+
+  /**
+   * Record (key, value, bit).
+   *
+   * @return true iff the triple was not recorded before
+   */
+  boolean add(long key, int value, int bit) {
+    assert key >= 0 && value >= 0 && bit >= 0 && bit < Long.SIZE;
+    int group = findGroup(key);
+    if (group < 0) {
+      group = addGroup(key);
+    }
+    int entry = findOrAddEntry(group, value);
+    long word = bits.get(entry);
+    long mask = 1L << bit;
+    if ((word & mask) != 0) {
+      return false;
+    }
+    bits.put(entry, word | mask);
+    return true;
+  }
+
+  /**
+   * @return true iff (key, value, bit) has been recorded
+   */
+  boolean contains(long key, int value, int bit) {
+    int group = findGroup(key);
+    return group >= 0 && (getBits(group, value) & (1L << bit)) != 0;
+  }
+
+  /**
+   * @return the bits recorded for the given value in the given group, 0 if none
+   */
+  long getBits(int group, int value) {
+    long packed = LongUtil.pack(group, value) + 1;
+    int mask = slots.capacity() - 1;
+    for (int s = mix(packed) & mask; ; s = (s + 1) & mask) {
+      long x = slots.get(s);
+      if (x == packed) {
+        return bits.get(s);
+      } else if (x == 0) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * @return the first entry of the given group; -1 if the group is empty, which it never is after a
+   *     call to {@link #add}
+   */
+  int firstEntry(int group) {
+    return groupHeads.get(group) - 1;
+  }
+
+  /**
+   * @return the entry of the same group after the given one, or -1 if there is none
+   */
+  int nextEntry(int entry) {
+    return nextInGroup.get(entry) - 1;
+  }
+
+  /**
+   * @return the value of the given entry
+   */
+  int entryValue(int entry) {
+    return (int) (slots.get(entry) - 1);
+  }
+
+  /**
+   * @return the bits recorded for the value of the given entry
+   */
+  long entryBits(int entry) {
+    return bits.get(entry);
+  }
+
+  private int addGroup(long key) {
+    if (groupCount == groupKeys.capacity()) {
+      int capacity = grow(groupCount);
+      groupKeys = copyOf(groupKeys, capacity);
+      groupHeads = copyOf(groupHeads, capacity);
+    }
+    if (4L * (groupCount + 1) > 3L * groupIndex.capacity()) {
+      groupIndex = ints(grow(groupIndex.capacity()));
+      for (int group = 0; group < groupCount; group++) {
+        groupIndex.put(freeGroupIndexSlot(groupKeys.get(group)), group + 1);
+      }
+    }
+    int group = groupCount++;
+    groupKeys.put(group, key);
+    groupIndex.put(freeGroupIndexSlot(key), group + 1);
+    return group;
+  }
+
+  private int freeGroupIndexSlot(long key) {
+    int mask = groupIndex.capacity() - 1;
+    int s = mix(key) & mask;
+    while (groupIndex.get(s) != 0) {
+      s = (s + 1) & mask;
+    }
+    return s;
+  }
+
+  private int findOrAddEntry(int group, int value) {
+    long packed = LongUtil.pack(group, value) + 1;
+    int mask = slots.capacity() - 1;
+    int s = mix(packed) & mask;
+    for (long x; (x = slots.get(s)) != 0; s = (s + 1) & mask) {
+      if (x == packed) {
+        return s;
+      }
+    }
+    if (4L * (entryCount + 1) > 3L * slots.capacity()) {
+      rehashSlots(grow(slots.capacity()));
+      s = freeSlot(packed);
+    }
+    slots.put(s, packed);
+    nextInGroup.put(s, groupHeads.get(group));
+    groupHeads.put(group, s + 1);
+    entryCount++;
+    return s;
+  }
+
+  private void rehashSlots(int capacity) {
+    LongBuffer oldSlots = slots;
+    LongBuffer oldBits = bits;
+    slots = longs(capacity);
+    bits = longs(capacity);
+    nextInGroup = ints(capacity);
+    for (int group = 0; group < groupCount; group++) {
+      groupHeads.put(group, 0);
+    }
+    for (int i = 0; i < oldSlots.capacity(); i++) {
+      long packed = oldSlots.get(i);
+      if (packed != 0) {
+        int group = (int) ((packed - 1) >>> 32);
+        int s = freeSlot(packed);
+        slots.put(s, packed);
+        bits.put(s, oldBits.get(i));
+        nextInGroup.put(s, groupHeads.get(group));
+        groupHeads.put(group, s + 1);
+      }
+    }
+  }
+
+  private int freeSlot(long packed) {
+    int mask = slots.capacity() - 1;
+    int s = mix(packed) & mask;
+    while (slots.get(s) != 0) {
+      s = (s + 1) & mask;
+    }
+    return s;
+  }
+
+  private static int grow(int capacity) {
+    if (capacity >= MAXIMUM_CAPACITY) {
+      throw new IllegalStateException("too many edges for a packed table: " + capacity);
+    }
+    return 2 * capacity;
+  }
+
+  /** the finalization step of MurmurHash3, which spreads all bits of x over the low bits */
+  private static int mix(long x) {
+    x ^= x >>> 33;
+    x *= 0xff51afd7ed558ccdL;
+    x ^= x >>> 33;
+    x *= 0xc4ceb9fe1a85ec53L;
+    x ^= x >>> 33;
+    return (int) x;
+  }
+
+  private LongBuffer longs(int capacity) {
+    return offHeap && capacity >= OFF_HEAP_THRESHOLD
+        ? ByteBuffer.allocateDirect(capacity * Long.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asLongBuffer()
+        : LongBuffer.allocate(capacity);
+  }
+
+  private IntBuffer ints(int capacity) {
+    return offHeap && capacity >= OFF_HEAP_THRESHOLD
+        ? ByteBuffer.allocateDirect(capacity * Integer.BYTES)
+            .order(ByteOrder.nativeOrder())
+            .asIntBuffer()
+        : IntBuffer.allocate(capacity);
+  }
+
+  private LongBuffer copyOf(LongBuffer old, int capacity) {
+    LongBuffer result = longs(capacity);
+    result.put(0, old, 0, old.capacity());
+    return result;
+  }
+
+  private IntBuffer copyOf(IntBuffer old, int capacity) {
+    IntBuffer result = ints(capacity);
+    result.put(0, old, 0, old.capacity());
+    return result;
+  }
+}
@@ -0,0 +1,248 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.collections.SparseVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import com.ibm.wala.util.math.LongUtil;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * {@link LocalPathEdges} in {@link PackedEdgeTable}s, for {@link
+ * TabulationSolver.EdgeRepresentation#PACKED packed} tabulation.
+ *
+ * <p>Zero paths &lt;s_p, 0&gt; -&gt; &lt;n, d2&gt; and identity paths &lt;s_p, d1&gt; -&gt; &lt;n,
+ * d1&gt; are kept in a bit vector per fact, as in the default representation: they tend to hold at
+ * most nodes of a procedure, where one bit per node beats any table.
+ *
+ * <p>For the other path edges, block numbers are split into chunks of 64. The primary table
+ * records a path edge &lt;s_p, d1&gt; -&gt; &lt;n, d2&gt; as the triple ((chunk of n, d2), d1,
+ * n mod 64), which answers {@link #contains(int, int, int)} and {@link #getInverse(int, int)}
+ * directly. A pair (d1, d2) that holds at few nodes costs one entry of twenty bytes rather than the
+ * few objects of the default representation. With fast merges, a second table records ((chunk of
+ * n, d1), d2, n mod 64), for zero paths as well.
+ */
+final class PackedLocalPathEdges extends LocalPathEdges {
+
+  /** log2 of the number of block numbers in a chunk */
+  private static final int CHUNK_BITS = 6;
+
+  private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  /** ((n / 64, d2), d1, n % 64) */
+  private final PackedEdgeTable paths;
+
+  /** ((n / 64, d1), d2, n % 64), or null if merges need not be fast */
+  private final PackedEdgeTable altPaths;
+
+  /** for fact d1, the block numbers n s.t. &lt;s_p, d1&gt; -&gt; &lt;n, d1&gt; is a path edge */
+  private final SparseVector<BitVectorIntSet> identityPaths = new SparseVector<>(1, 1.1f);
+
+  /** for fact d2, the block numbers n s.t. &lt;s_p, 0&gt; -&gt; &lt;n, d2&gt; is a path edge */
+  private final SparseVector<BitVectorIntSet> zeroPaths = new SparseVector<>(1, 1.1f);
+
+  /**
+   * @param fastMerge if true, the representation uses extra space in order to support faster merge
+   *     operations
+   * @param offHeap if true, large tables are allocated outside of the Java heap
+   */
+  PackedLocalPathEdges(boolean fastMerge, boolean offHeap) {
+    paths = new PackedEdgeTable(offHeap);
+    altPaths = fastMerge ? new PackedEdgeTable(offHeap) : null;
+  }
+
+  @Override
+  public void addPathEdge(int i, int n, int j) {
+    addPathEdgeIfAbsent(i, n, j);
+  }
+
+  @Override
+  boolean addPathEdgeIfAbsent(int i, int n, int j) {
+    if (i == 0) {
+      if (!addToVector(zeroPaths, j, n)) {
+        return false;
+      }
+      if (altPaths != null) {
+        altPaths.add(LongUtil.pack(n >>> CHUNK_BITS, 0), j, n & CHUNK_MASK);
+      }
+      return true;
+    } else if (i == j) {
+      return addToVector(identityPaths, i, n);
+    } else if (paths.add(LongUtil.pack(n >>> CHUNK_BITS, j), i, n & CHUNK_MASK)) {
+      if (altPaths != null) {
+        altPaths.add(LongUtil.pack(n >>> CHUNK_BITS, i), j, n & CHUNK_MASK);
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Add x to the bit vector at index i of vector.
+   *
+   * @return true iff x was not in it before
+   */
+  static boolean addToVector(SparseVector<BitVectorIntSet> vector, int i, int x) {
+    BitVectorIntSet s = vector.get(i);
+    if (s == null) {
+      s = new BitVectorIntSet();
+      vector.set(i, s);
+    }
+    return s.add(x);
+  }
+
+  /**
+   * @return true iff the bit vector at index i of vector contains x
+   */
+  static boolean vectorContains(SparseVector<BitVectorIntSet> vector, int i, int x) {
+    BitVectorIntSet s = vector.get(i);
+    return s != null && s.contains(x);
+  }
+
+  /** Add to result each fact whose bit vector in vector contains n. */
+  private static void addFactsContaining(
+      SparseVector<BitVectorIntSet> vector, int n, MutableSparseIntSet result) {
+    // parallel iteration over the indices and contents avoids random access to the vector
+    Iterator<BitVectorIntSet> contents = vector.iterator();
+    for (IntIterator it = vector.iterateIndices(); it.hasNext(); ) {
+      int d = it.next();
+      BitVectorIntSet s = contents.next();
+      if (s != null && s.contains(n)) {
+        result.add(d);
+      }
+    }
+  }
+
+  @Override
+  public IntSet getInverse(int n, int d2) {
+    MutableSparseIntSet result =
+        valuesWithBit(paths, LongUtil.pack(n >>> CHUNK_BITS, d2), n & CHUNK_MASK);
+    if (vectorContains(identityPaths, d2, n)) {
+      result.add(d2);
+    }
+    if (vectorContains(zeroPaths, d2, n)) {
+      result.add(0);
+    }
+    return result.isEmpty() ? null : result;
+  }
+
+  @Override
+  public boolean contains(int i, int n, int j) {
+    if (n < 0) {
+      throw new IllegalArgumentException("invalid n: " + n);
+    }
+    if (i == 0) {
+      return vectorContains(zeroPaths, j, n);
+    } else if (i == j) {
+      return vectorContains(identityPaths, i, n);
+    }
+    return paths.contains(LongUtil.pack(n >>> CHUNK_BITS, j), i, n & CHUNK_MASK);
+  }
+
+  @Override
+  public IntSet getReachable(int n, int d1) {
+    if (altPaths != null) {
+      MutableSparseIntSet result =
+          valuesWithBit(altPaths, LongUtil.pack(n >>> CHUNK_BITS, d1), n & CHUNK_MASK);
+      if (d1 != 0 && vectorContains(identityPaths, d1, n)) {
+        result.add(d1);
+      }
+      return result;
+    }
+    long mask = 1L << (n & CHUNK_MASK);
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    if (d1 == 0) {
+      addFactsContaining(zeroPaths, n, result);
+    } else if (vectorContains(identityPaths, d1, n)) {
+      result.add(d1);
+    }
+    for (int group = 0; group < paths.groupCount(); group++) {
+      long key = paths.groupKey(group);
+      if ((int) (key >>> 32) == n >>> CHUNK_BITS && (paths.getBits(group, d1) & mask) != 0) {
+        result.add((int) key);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public IntSet getReachable(int n) {
+    long mask = 1L << (n & CHUNK_MASK);
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    addFactsContaining(identityPaths, n, result);
+    addFactsContaining(zeroPaths, n, result);
+    for (int group = 0; group < paths.groupCount(); group++) {
+      long key = paths.groupKey(group);
+      if ((int) (key >>> 32) == n >>> CHUNK_BITS) {
+        for (int e = paths.firstEntry(group); e >= 0; e = paths.nextEntry(e)) {
+          if ((paths.entryBits(e) & mask) != 0) {
+            result.add((int) key);
+            break;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public IntSet getReachedNodeNumbers() {
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    for (BitVectorIntSet s : identityPaths) {
+      result.addAll(s);
+    }
+    for (BitVectorIntSet s : zeroPaths) {
+      result.addAll(s);
+    }
+    for (int group = 0; group < paths.groupCount(); group++) {
+      long bits = 0;
+      for (int e = paths.firstEntry(group); e >= 0; e = paths.nextEntry(e)) {
+        bits |= paths.entryBits(e);
+      }
+      int chunk = (int) (paths.groupKey(group) >>> 32);
+      for (; bits != 0; bits &= bits - 1) {
+        result.add((chunk << CHUNK_BITS) | Long.numberOfTrailingZeros(bits));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the values v s.t. (key, v, bit) is recorded in table
+   */
+  private static MutableSparseIntSet valuesWithBit(PackedEdgeTable table, long key, int bit) {
+    int group = table.findGroup(key);
+    if (group < 0) {
+      return MutableSparseIntSet.makeEmpty();
+    }
+    long mask = 1L << bit;
+    int[] values = new int[4];
+    int count = 0;
+    for (int e = table.firstEntry(group); e >= 0; e = table.nextEntry(e)) {
+      if ((table.entryBits(e) & mask) != 0) {
+        if (count == values.length) {
+          values = Arrays.copyOf(values, 2 * count);
+        }
+        values[count++] = table.entryValue(e);
+      }
+    }
+    return toSet(values, count);
+  }
+
+  /**
+   * @return a set of the first count elements of values, which are distinct but need not be sorted
+   */
+  static MutableSparseIntSet toSet(int[] values, int count) {
+    if (count == 0) {
+      return MutableSparseIntSet.makeEmpty();
+    }
+    Arrays.sort(values, 0, count);
+    MutableSparseIntSet result = MutableSparseIntSet.createMutableSparseIntSet(count);
+    for (int i = 0; i < count; i++) {
+      result.add(values[i]);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,127 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.collections.SparseVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import com.ibm.wala.util.math.LongUtil;
+import java.util.Arrays;
+
+/**
+ * {@link LocalSummaryEdges} in a {@link PackedEdgeTable}, for {@link
+ * TabulationSolver.EdgeRepresentation#PACKED packed} tabulation.
+ *
+ * <p>Zero summaries &lt;s_p, 0&gt; -&gt; &lt;x, d2&gt; and identity summaries &lt;s_p, d1&gt; -&gt;
+ * &lt;x, d1&gt; are kept in a bit vector of facts per entry-exit pair, like the zero and identity
+ * paths of {@link PackedLocalPathEdges}: most summaries of problems such as reaching definitions
+ * are of these kinds, and a bit per fact is smaller than any table entry.
+ *
+ * <p>For the other summary edges, target facts are split into chunks of 64. The table records a
+ * summary edge &lt;s_p, d1&gt; -&gt; &lt;x, d2&gt; as the triple ((index of (s_p, x), d1), chunk
+ * of d2, d2 mod 64).
+ */
+final class PackedLocalSummaryEdges extends LocalSummaryEdges {
+
+  /** log2 of the number of facts in a chunk */
+  private static final int CHUNK_BITS = 6;
+
+  private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  private final PackedEdgeTable summaries;
+
+  /** for the entry-exit pair with index n, the facts d1 s.t. d1 -&gt; d1 is a summary edge */
+  private final SparseVector<BitVectorIntSet> identitySummaries = new SparseVector<>(1, 1.1f);
+
+  /** for the entry-exit pair with index n, the facts d2 s.t. 0 -&gt; d2 is a summary edge */
+  private final SparseVector<BitVectorIntSet> zeroSummaries = new SparseVector<>(1, 1.1f);
+
+  /**
+   * @param offHeap if true, large tables are allocated outside of the Java heap
+   */
+  PackedLocalSummaryEdges(boolean offHeap) {
+    super(false);
+    summaries = new PackedEdgeTable(offHeap);
+  }
+
+  @Override
+  public void insertSummaryEdge(int s_p, int x, int d1, int d2) {
+    int n = getIndexForEntryExitPair(s_p, x);
+    if (d1 == 0) {
+      PackedLocalPathEdges.addToVector(zeroSummaries, n, d2);
+    } else if (d1 == d2) {
+      PackedLocalPathEdges.addToVector(identitySummaries, n, d1);
+    } else {
+      summaries.add(LongUtil.pack(n, d1), d2 >>> CHUNK_BITS, d2 & CHUNK_MASK);
+    }
+  }
+
+  @Override
+  public boolean contains(int s_p, int x, int d1, int d2) {
+    int n = getIndexForEntryExitPair(s_p, x);
+    if (d1 == 0) {
+      return PackedLocalPathEdges.vectorContains(zeroSummaries, n, d2);
+    } else if (d1 == d2) {
+      return PackedLocalPathEdges.vectorContains(identitySummaries, n, d1);
+    }
+    return summaries.contains(LongUtil.pack(n, d1), d2 >>> CHUNK_BITS, d2 & CHUNK_MASK);
+  }
+
+  @Override
+  public IntSet getSummaryEdges(int s_p, int x, int d1) {
+    int n = getIndexForEntryExitPair(s_p, x);
+    if (d1 == 0) {
+      BitVectorIntSet s = zeroSummaries.get(n);
+      return s == null ? null : MutableSparseIntSet.make(s);
+    }
+    int group = summaries.findGroup(LongUtil.pack(n, d1));
+    boolean identity = PackedLocalPathEdges.vectorContains(identitySummaries, n, d1);
+    if (group < 0 && !identity) {
+      return null;
+    }
+    int[] values = new int[4];
+    int count = 0;
+    if (identity) {
+      values[count++] = d1;
+    }
+    for (int e = group < 0 ? -1 : summaries.firstEntry(group); e >= 0; e = summaries.nextEntry(e)) {
+      int chunk = summaries.entryValue(e);
+      for (long bits = summaries.entryBits(e); bits != 0; bits &= bits - 1) {
+        if (count == values.length) {
+          values = Arrays.copyOf(values, 2 * count);
+        }
+        values[count++] = (chunk << CHUNK_BITS) | Long.numberOfTrailingZeros(bits);
+      }
+    }
+    return PackedLocalPathEdges.toSet(values, count);
+  }
+
+  @Override
+  public IntSet getInvertedSummaryEdgesForTarget(int s_p, int x, int d2) {
+    int n = getIndexForEntryExitPair(s_p, x);
+    long mask = 1L << (d2 & CHUNK_MASK);
+    MutableSparseIntSet result = null;
+    BitVectorIntSet identity = identitySummaries.get(n);
+    BitVectorIntSet zero = zeroSummaries.get(n);
+    if (identity != null || zero != null) {
+      result = MutableSparseIntSet.makeEmpty();
+      if (identity != null && identity.contains(d2)) {
+        result.add(d2);
+      }
+      if (zero != null && zero.contains(d2)) {
+        result.add(0);
+      }
+    }
+    for (int group = 0; group < summaries.groupCount(); group++) {
+      long key = summaries.groupKey(group);
+      if ((int) (key >>> 32) == n) {
+        if (result == null) {
+          result = MutableSparseIntSet.makeEmpty();
+        }
+        if ((summaries.getBits(group, d2 >>> CHUNK_BITS) & mask) != 0) {
+          result.add((int) key);
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -11,13 +11,13 @@
 package com.ibm.wala.dataflow.IFDS;
 
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
-import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utilities for dealing with tabulation with partially balanced parentheses.
@@ -34,7 +34,8 @@ public class PartiallyBalancedTabulationSolver<T, P, F> extends TabulationSolver
     return new PartiallyBalancedTabulationSolver<>(p, monitor);
   }
 
-  private final Collection<Pair<T, Integer>> unbalancedSeeds = HashSetFactory.make();
+  /** concurrent, so that seeds may be added during a concurrent tabulation */
+  private final Collection<Pair<T, Integer>> unbalancedSeeds = ConcurrentHashMap.newKeySet();
 
   protected PartiallyBalancedTabulationSolver(
       PartiallyBalancedTabulationProblem<T, P, F> p, IProgressMonitor monitor) {
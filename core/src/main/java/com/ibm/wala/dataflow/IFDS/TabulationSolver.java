@@ -16,6 +16,7 @@ import com.ibm.wala.core.util.ref.ReferenceCleanser;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.ThreadPoolUtil;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Heap;
@@ -38,6 +39,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A precise interprocedural tabulation solver.
@@ -53,6 +59,12 @@ import java.util.TreeSet;
  *   <li>it stores summary edges at each callee instead of at each call site.
  * </ul>
  *
+ * <p>With {@link #setNumberOfThreads(int) several threads}, path edges are tabulated
+ * concurrently. The worklist is then sharded by procedure: each shard holds the pending path edges
+ * whose entry node belongs to one procedure, and at most one worker drains a shard at a time. See
+ * {@link #setNumberOfThreads(int)} for the conditions under which the result is the same as with
+ * one thread.
+ *
  * @param <T> type of node in the supergraph
  * @param <P> type of a procedure (like a box in an RSM)
  * @param <F> type of factoids propagated when solving this problem
@@ -108,7 +120,7 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (s_p,d_i) -&gt; (n, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, LocalPathEdges> pathEdges = HashMapFactory.make();
+  private final Map<T, LocalPathEdges> pathEdges = new ConcurrentHashMap<>();
 
   /**
    * A map from Object (entry node in supergraph) -&gt; CallFlowEdges.
@@ -116,10 +128,10 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (c,d_i) -&gt; (s_p, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, CallFlowEdges> callFlowEdges = HashMapFactory.make();
+  private final Map<T, CallFlowEdges> callFlowEdges = new ConcurrentHashMap<>();
 
   /** A map from Object (procedure) -&gt; LocalSummaryEdges. */
-  protected final Map<P, LocalSummaryEdges> summaryEdges = HashMapFactory.make();
+  protected final Map<P, LocalSummaryEdges> summaryEdges = new ConcurrentHashMap<>();
 
   /**
    * the set of all {@link PathEdge}s that were used as seeds during the tabulation, grouped by
@@ -128,7 +140,7 @@ public class TabulationSolver<T, P, F> {
   private final Map<P, Set<PathEdge<T>>> seeds = HashMapFactory.make();
 
   /** All seeds, stored redundantly for quick access. */
-  private final Set<PathEdge<T>> allSeeds = HashSetFactory.make();
+  private final Set<PathEdge<T>> allSeeds = Collections.synchronizedSet(HashSetFactory.make());
 
   /** The worklist */
   private ITabulationWorklist<T> worklist;
@@ -136,20 +148,23 @@ public class TabulationSolver<T, P, F> {
   /** A progress monitor. can be null. */
   protected final IProgressMonitor progressMonitor;
 
-  /**
-   * the path edge currently being processed in the main loop of {@link #forwardTabulateSLRPs()};
-   * {@code null} if {@link #forwardTabulateSLRPs()} is not currently running. Note that if we are
-   * applying a summary edge in {@link #processExit(PathEdge)}, curPathEdge is modified to be the
-   * path edge terminating at the call node in the caller, to match the behavior in {@link
-   * #processCall(PathEdge)}.
-   */
-  private PathEdge<T> curPathEdge;
+  /** How many threads may tabulate path edges concurrently? */
+  private int numberOfThreads = 1;
+
+  /** How are path edges and summary edges kept? */
+  private EdgeRepresentation edgeRepresentation = EdgeRepresentation.RELATIONS;
+
+  /** The state of a concurrent tabulation; {@code null} unless one is running. */
+  private ConcurrentTabulation concurrentTabulation;
+
+  /** The edges being processed, when tabulating on a single thread */
+  private final Cursor<T> cursor = new Cursor<>();
 
   /**
-   * the summary edge currently being applied in {@link #processCall(PathEdge)} or {@link
-   * #processExit(PathEdge)}, or {@code null} if summary edges are not currently being processed.
+   * The edges being processed by each thread of a concurrent tabulation; {@code null} unless one is
+   * running.
    */
-  private PathEdge<T> curSummaryEdge;
+  private ThreadLocal<Cursor<T>> cursors;
 
   /**
    * @param p a description of the dataflow problem to solve
@@ -205,18 +220,24 @@ public class TabulationSolver<T, P, F> {
 
   /** Restart tabulation from a particular path edge. Use with care. */
   public void addSeed(PathEdge<T> seed) {
-    Set<PathEdge<T>> s = MapUtil.findOrCreateSet(seeds, supergraph.getProcOf(seed.entry));
-    s.add(seed);
+    synchronized (seeds) {
+      Set<PathEdge<T>> s = MapUtil.findOrCreateSet(seeds, supergraph.getProcOf(seed.entry));
+      s.add(seed);
+    }
     allSeeds.add(seed);
     propagate(seed.entry, seed.d1, seed.target, seed.d2);
   }
 
   /** See POPL 95 paper for this algorithm, Figure 3 */
   private void forwardTabulateSLRPs() throws CancelException {
-    assert curPathEdge == null : "curPathEdge should not be non-null here";
+    assert cursor.pathEdge == null : "curPathEdge should not be non-null here";
     if (worklist == null) {
       worklist = makeWorklist();
     }
+    if (isConcurrent()) {
+      forwardTabulateConcurrently();
+      return;
+    }
     while (worklist.size() > 0) {
       MonitorUtil.throwExceptionIfCanceled(progressMonitor);
       if (verbose) {
@@ -227,38 +248,106 @@ public class TabulationSolver<T, P, F> {
       }
 
       final PathEdge<T> edge = popFromWorkList();
-      if (DEBUG_LEVEL > 0) {
-        System.err.println("TABULATE " + edge);
+      tabulate(edge);
+    }
+    cursor.pathEdge = null;
+  }
+
+  /** Process one path edge taken from the worklist. */
+  private void tabulate(final PathEdge<T> edge) {
+    if (DEBUG_LEVEL > 0) {
+      System.err.println("TABULATE " + edge);
+    }
+    cursor().pathEdge = edge;
+    int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
+    if (j == -1 && DEBUG_LEVEL > 0) {
+      System.err.println("merge -1: DROPPING");
+    }
+    if (j != -1) {
+      if (j != edge.d2) {
+        // this means that we don't want to push the edge. instead,
+        // we'll push the merged fact. a little tricky, but i think should
+        // work.
+        if (DEBUG_LEVEL > 0) {
+          System.err.println("propagating merged fact " + j);
+        }
+        propagate(edge.entry, edge.d1, edge.target, j);
+      } else {
+        if (supergraph.isCall(edge.target)) {
+          // [13]
+          processCall(edge);
+        } else if (supergraph.isExit(edge.target)) {
+          // [21]
+          processExit(edge);
+        } else {
+          // [33]
+          processNormal(edge);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tabulate the path edges on the worklist, and all path edges they induce, on {@link
+   * #getNumberOfThreads()} threads.
+   *
+   * <p>Path edges are sharded by the procedure of their entry node. A shard is scheduled on the
+   * pool when it receives an edge while idle, and its worker drains it until it is empty, so each
+   * procedure's edges are processed by one thread at a time. Termination is detected by counting
+   * the path edges that have been queued but not yet processed: an edge is counted before the
+   * worker processing its predecessor finishes, so the count drops to zero only when no worker can
+   * produce more edges. If tabulation is canceled or fails, the workers stop, and the edges that
+   * were not processed are returned to the worklist.
+   */
+  private void forwardTabulateConcurrently() throws CancelException {
+    // have supergraphs that are built lazily, like ICFGSupergraph, build themselves before they
+    // are shared by the workers
+    supergraph.getNumberOfNodes();
+
+    ConcurrentTabulation tabulation = new ConcurrentTabulation();
+    concurrentTabulation = tabulation;
+    cursors = ThreadLocal.withInitial(Cursor::new);
+    boolean interrupted = false;
+    try {
+      while (worklist.size() > 0) {
+        tabulation.schedule(worklist.take());
       }
-      curPathEdge = edge;
-      int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
-      if (j == -1 && DEBUG_LEVEL > 0) {
-        System.err.println("merge -1: DROPPING");
+      // release the count held for the edges scheduled above
+      tabulation.processed();
+      tabulation.finished.await();
+    } catch (InterruptedException e) {
+      interrupted = true;
+      tabulation.fail(CancelException.make("interrupted during concurrent tabulation"));
+    } finally {
+      // wait for workers that are still processing an edge after a failure
+      tabulation.pool.shutdownNow();
+      boolean terminated = false;
+      while (!terminated) {
+        try {
+          terminated = tabulation.pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
       }
-      if (j != -1) {
-        if (j != edge.d2) {
-          // this means that we don't want to push the edge. instead,
-          // we'll push the merged fact. a little tricky, but i think should
-          // work.
-          if (DEBUG_LEVEL > 0) {
-            System.err.println("propagating merged fact " + j);
-          }
-          propagate(edge.entry, edge.d1, edge.target, j);
-        } else {
-          if (supergraph.isCall(edge.target)) {
-            // [13]
-            processCall(edge);
-          } else if (supergraph.isExit(edge.target)) {
-            // [21]
-            processExit(edge);
-          } else {
-            // [33]
-            processNormal(edge);
-          }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      concurrentTabulation = null;
+      cursors = null;
+      for (Shard shard : tabulation.shards.values()) {
+        while (shard.worklist.size() > 0) {
+          worklist.insert(shard.worklist.take());
         }
       }
     }
-    curPathEdge = null;
+    Throwable failure = tabulation.failure;
+    if (failure instanceof CancelException cancelException) {
+      throw cancelException;
+    } else if (failure instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    } else if (failure instanceof Error error) {
+      throw error;
+    }
   }
 
   /**
@@ -331,9 +420,13 @@ public class TabulationSolver<T, P, F> {
     if (!summaries.contains(s_p_n, x, edge.d1, edge.d2)) {
       summaries.insertSummaryEdge(s_p_n, x, edge.d1, edge.d2);
     }
-    assert curSummaryEdge == null : "curSummaryEdge should be null here";
-    curSummaryEdge = edge;
+    final Cursor<T> cur = cursor();
+    assert cur.summaryEdge == null : "curSummaryEdge should be null here";
+    cur.summaryEdge = edge;
 
+    // note that the summary edge must be recorded before the call flow edges are read, and
+    // processParticularCallee records a call flow edge before it reads the summary edges, so that
+    // concurrent workers cannot both miss the other's edge
     final CallFlowEdges callFlow = findOrCreateCallFlowEdges(edge.entry);
 
     // [22] for each c /in callers(p)
@@ -348,7 +441,7 @@ public class TabulationSolver<T, P, F> {
         propagateToReturnSites(edge, supergraph.getNode(globalC), D4);
       }
     }
-    curSummaryEdge = null;
+    cur.summaryEdge = null;
   }
 
   /**
@@ -470,8 +563,9 @@ public class TabulationSolver<T, P, F> {
                     d3 -> {
                       // set curPathEdge to be consistent with its setting in processCall() when
                       // applying a summary edge
-                      curPathEdge = PathEdge.createPathEdge(s_p, d3, c, d4);
-                      newSummaryEdge(curPathEdge, edge, retSite, d5);
+                      PathEdge<T> edgeToCallSite = PathEdge.createPathEdge(s_p, d3, c, d4);
+                      cursor().pathEdge = edgeToCallSite;
+                      newSummaryEdge(edgeToCallSite, edge, retSite, d5);
                       propagate(s_p, d3, retSite, d5);
                     });
               }
@@ -607,7 +701,6 @@ public class TabulationSolver<T, P, F> {
       System.err.println(" reached: " + reached);
     }
     if (reached != null) {
-      final LocalSummaryEdges summaries = summaryEdges.get(supergraph.getProcOf(calleeEntry));
       final CallFlowEdges callFlow = findOrCreateCallFlowEdges(calleeEntry);
       final int s_p_num = supergraph.getLocalBlockNumber(calleeEntry);
 
@@ -621,7 +714,9 @@ public class TabulationSolver<T, P, F> {
             // call flow
             callFlow.addCallEdge(callNodeNum, edge.d2, d1);
             // handle summary edges now as well. this is different from the PoPL
-            // 95 paper.
+            // 95 paper. look the summaries up only after recording the call flow edge; see
+            // processExit
+            final LocalSummaryEdges summaries = summaryEdges.get(supergraph.getProcOf(calleeEntry));
             if (summaries != null) {
               // for each exit from the callee
               P p = supergraph.getProcOf(calleeEntry);
@@ -641,8 +736,11 @@ public class TabulationSolver<T, P, F> {
                           flowFunctionMap.getReturnFlowFunction(edge.target, exit, returnSite);
                       reachedBySummary.foreach(
                           d2 -> {
-                            assert curSummaryEdge == null : "curSummaryEdge should be null here";
-                            curSummaryEdge = PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            final Cursor<T> cur = cursor();
+                            assert cur.summaryEdge == null : "curSummaryEdge should be null here";
+                            final PathEdge<T> summaryEdge =
+                                PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            cur.summaryEdge = summaryEdge;
                             if (retf
                                 instanceof IBinaryReturnFlowFunction iBinaryReturnFlowFunction) {
                               final IntSet D51 =
@@ -650,7 +748,7 @@ public class TabulationSolver<T, P, F> {
                               if (D51 != null) {
                                 D51.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summaryEdge, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
@@ -659,12 +757,12 @@ public class TabulationSolver<T, P, F> {
                               if (D52 != null) {
                                 D52.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summaryEdge, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
                             }
-                            curSummaryEdge = null;
+                            cur.summaryEdge = null;
                           });
                     }
                   }
@@ -751,11 +849,10 @@ public class TabulationSolver<T, P, F> {
 
     assert j >= 0;
 
-    if (!pLocal.contains(i, number, j)) {
+    if (pLocal.addPathEdgeIfAbsent(i, number, j)) {
       if (DEBUG_LEVEL > 0) {
         System.err.println("propagate " + s_p + "  " + i + ' ' + number + ' ' + j);
       }
-      pLocal.addPathEdge(i, number, j);
       addToWorkList(s_p, i, n, j);
       return true;
     }
@@ -798,6 +895,11 @@ public class TabulationSolver<T, P, F> {
   }
 
   protected void addToWorkList(T s_p, int i, T n, int j) {
+    ConcurrentTabulation tabulation = concurrentTabulation;
+    if (tabulation != null) {
+      tabulation.schedule(PathEdge.createPathEdge(s_p, i, n, j));
+      return;
+    }
     if (worklist == null) {
       worklist = makeWorklist();
     }
@@ -810,32 +912,43 @@ public class TabulationSolver<T, P, F> {
   protected LocalPathEdges findOrCreateLocalPathEdges(T s_p) {
     LocalPathEdges result = pathEdges.get(s_p);
     if (result == null) {
-      result = makeLocalPathEdges();
-      pathEdges.put(s_p, result);
+      result = pathEdges.computeIfAbsent(s_p, k -> makeLocalPathEdges());
     }
     return result;
   }
 
   private LocalPathEdges makeLocalPathEdges() {
-    return problem.getMergeFunction() == null
-        ? new LocalPathEdges(false)
-        : new LocalPathEdges(true);
+    boolean fastMerge = problem.getMergeFunction() != null;
+    LocalPathEdges result =
+        edgeRepresentation == EdgeRepresentation.RELATIONS
+            ? new LocalPathEdges(fastMerge)
+            : new PackedLocalPathEdges(fastMerge, edgeRepresentation.offHeap);
+    return isConcurrent() ? new ConcurrentLocalPathEdges(result) : result;
   }
 
   protected LocalSummaryEdges findOrCreateLocalSummaryEdges(P proc) {
     LocalSummaryEdges result = summaryEdges.get(proc);
     if (result == null) {
-      result = new LocalSummaryEdges();
-      summaryEdges.put(proc, result);
+      result = summaryEdges.computeIfAbsent(proc, k -> makeLocalSummaryEdges());
     }
     return result;
   }
 
+  private LocalSummaryEdges makeLocalSummaryEdges() {
+    LocalSummaryEdges result =
+        edgeRepresentation == EdgeRepresentation.RELATIONS
+            ? new LocalSummaryEdges()
+            : new PackedLocalSummaryEdges(edgeRepresentation.offHeap);
+    return isConcurrent() ? new ConcurrentLocalSummaryEdges(result) : result;
+  }
+
   protected CallFlowEdges findOrCreateCallFlowEdges(T s_p) {
     CallFlowEdges result = callFlowEdges.get(s_p);
     if (result == null) {
-      result = new CallFlowEdges();
-      callFlowEdges.put(s_p, result);
+      result =
+          callFlowEdges.computeIfAbsent(
+              s_p,
+              k -> isConcurrent() ? new ConcurrentCallFlowEdges() : new CallFlowEdges());
     }
     return result;
   }
@@ -999,12 +1112,217 @@ public class TabulationSolver<T, P, F> {
     return progressMonitor;
   }
 
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * Set how many threads may tabulate path edges concurrently. With one thread (the default), this
+   * is the classic sequential algorithm.
+   *
+   * <p>With several threads, the {@link TabulationResult} is the same as with one, provided that
+   * the problem has no {@link IMergeFunction merge function}, and that the outcome of the
+   * subclass hooks ({@link #propagate}, {@link #addSeed}, {@link #newSummaryEdge} and friends)
+   * does not depend on the order in which path edges are processed. Problems with a merge function
+   * are always tabulated on one thread, since merging is order-dependent. The supergraph, the flow
+   * functions and the domain must support concurrent queries, and the hooks must be thread-safe;
+   * {@link #getCurPathEdge()} and {@link #getCurSummaryEdge()} answer for the calling thread.
+   *
+   * <p>The thread-safe representations of path edges, summary edges and call flow edges are chosen
+   * when each is first needed, so the number of threads must be set before {@link #solve()} or
+   * {@link #addSeed(PathEdge)} is first called.
+   *
+   * @param numberOfThreads how many threads may tabulate concurrently; 1 means sequential
+   *     tabulation
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
+  public EdgeRepresentation getEdgeRepresentation() {
+    return edgeRepresentation;
+  }
+
+  /**
+   * Set how path edges and summary edges are kept. Like the number of threads, this must be set
+   * before {@link #solve()} or {@link #addSeed(PathEdge)} is first called; it does not change the
+   * {@link TabulationResult}.
+   *
+   * @throws IllegalArgumentException if edgeRepresentation is null
+   */
+  public void setEdgeRepresentation(EdgeRepresentation edgeRepresentation) {
+    if (edgeRepresentation == null) {
+      throw new IllegalArgumentException("null edgeRepresentation");
+    }
+    this.edgeRepresentation = edgeRepresentation;
+  }
+
+  /** Representations of the path edges and summary edges of a {@link TabulationSolver}. */
+  public enum EdgeRepresentation {
+    /**
+     * Int relations and bit vectors, indexed by fact; the default. Compact when a fact holds at
+     * most nodes of a procedure, but every fact that holds somewhere costs several objects.
+     */
+    RELATIONS(false),
+
+    /**
+     * Zero and identity edges in bit vectors as in {@link #RELATIONS}, and other edges in
+     * open-addressing hash tables of packed ints in primitive buffers, with a few objects per
+     * procedure. Each other pair of facts costs about 30 bytes per chunk of 64 nodes at which it
+     * holds, an order of magnitude less than {@link #RELATIONS} for pairs that hold at few nodes.
+     * Use this for problems with many sparse facts, such as taint problems.
+     */
+    PACKED(false),
+
+    /**
+     * Like {@link #PACKED}, but large tables are direct {@link java.nio.ByteBuffer}s outside of the
+     * Java heap, limited by {@code -XX:MaxDirectMemorySize} rather than {@code -Xmx}.
+     */
+    PACKED_OFF_HEAP(true);
+
+    final boolean offHeap;
+
+    EdgeRepresentation(boolean offHeap) {
+      this.offHeap = offHeap;
+    }
+  }
+
+  /**
+   * @return true iff path edges are tabulated concurrently; see {@link #setNumberOfThreads(int)}
+   */
+  private boolean isConcurrent() {
+    return numberOfThreads > 1 && problem.getMergeFunction() == null;
+  }
+
+  /**
+   * the path edge currently being processed in the main loop of {@link #forwardTabulateSLRPs()};
+   * {@code null} if {@link #forwardTabulateSLRPs()} is not currently running. Note that if we are
+   * applying a summary edge in {@link #processExit(PathEdge)}, curPathEdge is modified to be the
+   * path edge terminating at the call node in the caller, to match the behavior in {@link
+   * #processCall(PathEdge)}. During a concurrent tabulation, this is the edge being processed by
+   * the calling thread.
+   */
   protected PathEdge<T> getCurPathEdge() {
-    return curPathEdge;
+    return cursor().pathEdge;
   }
 
+  /**
+   * the summary edge currently being applied in {@link #processCall(PathEdge)} or {@link
+   * #processExit(PathEdge)}, or {@code null} if summary edges are not currently being processed.
+   * During a concurrent tabulation, this is the edge being applied by the calling thread.
+   */
   protected PathEdge<T> getCurSummaryEdge() {
-    return curSummaryEdge;
+    return cursor().summaryEdge;
+  }
+
+  private Cursor<T> cursor() {
+    ThreadLocal<Cursor<T>> c = cursors;
+    return c == null ? cursor : c.get();
+  }
+
+  /** The edges that one thread is processing; see {@link #getCurPathEdge()} */
+  private static final class Cursor<T> {
+
+    PathEdge<T> pathEdge;
+
+    PathEdge<T> summaryEdge;
+  }
+
+  /** The shared state of a concurrent tabulation */
+  private final class ConcurrentTabulation {
+
+    final ForkJoinPool pool =
+        new ForkJoinPool(
+            numberOfThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    /** the shard for each procedure */
+    final Map<P, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * the number of path edges scheduled but not yet processed, plus one while the initial edges
+     * are being scheduled
+     */
+    final AtomicLong pending = new AtomicLong(1);
+
+    /** released when no edges are pending, or when tabulation fails */
+    final CountDownLatch finished = new CountDownLatch(1);
+
+    /** the first cancellation or failure of a worker */
+    volatile Throwable failure;
+
+    void schedule(PathEdge<T> edge) {
+      pending.incrementAndGet();
+      Shard shard =
+          shards.computeIfAbsent(supergraph.getProcOf(edge.entry), p -> new Shard(this));
+      boolean idle;
+      synchronized (shard) {
+        shard.worklist.insert(edge);
+        idle = !shard.scheduled;
+        shard.scheduled = true;
+      }
+      if (idle) {
+        pool.execute(shard);
+      }
+    }
+
+    void processed() {
+      if (pending.decrementAndGet() == 0) {
+        finished.countDown();
+      }
+    }
+
+    void fail(Throwable t) {
+      if (failure == null) {
+        failure = t;
+      }
+      finished.countDown();
+    }
+  }
+
+  /** The pending path edges of one procedure, drained by one worker at a time */
+  private final class Shard implements Runnable {
+
+    final ConcurrentTabulation tabulation;
+
+    final ITabulationWorklist<T> worklist = makeWorklist();
+
+    /** is a worker draining this shard, or about to? */
+    boolean scheduled;
+
+    Shard(ConcurrentTabulation tabulation) {
+      this.tabulation = tabulation;
+    }
+
+    @Override
+    public void run() {
+      while (tabulation.failure == null) {
+        PathEdge<T> edge;
+        synchronized (this) {
+          if (worklist.size() == 0) {
+            scheduled = false;
+            return;
+          }
+          edge = worklist.take();
+        }
+        try {
+          MonitorUtil.throwExceptionIfCanceled(progressMonitor);
+          if (PERIODIC_WIPE_SOFT_CACHES) {
+            tendToSoftCaches();
+          }
+          tabulate(edge);
+          cursor().pathEdge = null;
+        } catch (CancelException | RuntimeException | Error e) {
+          // return the edge, so that a later solve() can resume from it
+          synchronized (this) {
+            worklist.insert(edge);
+          }
+          tabulation.fail(e);
+          return;
+        }
+        tabulation.processed();
+      }
+    }
   }
 
   /**
@@ -19,6 +19,7 @@ import com.ibm.wala.dataflow.graph.BitVectorKillGen;
 import com.ibm.wala.dataflow.graph.BitVectorSolver;
 import com.ibm.wala.dataflow.graph.BitVectorUnion;
 import com.ibm.wala.dataflow.graph.ITransferFunctionProvider;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
 import com.ibm.wala.fixpoint.BitVectorVariable;
 import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.ipa.callgraph.CGNode;
@@ -181,12 +182,23 @@ public class ContextInsensitiveReachingDefs {
    * @return the solver used for the analysis, which contains the analysis result
    */
   public BitVectorSolver<BasicBlockInContext<IExplodedBasicBlock>> analyze() {
+    return analyze(WorklistStrategy.TOPOLOGICAL);
+  }
+
+  /**
+   * run the analysis, evaluating pending statements in the order of the given strategy
+   *
+   * @return the solver used for the analysis, which contains the analysis result
+   */
+  public BitVectorSolver<BasicBlockInContext<IExplodedBasicBlock>> analyze(
+      WorklistStrategy strategy) {
     // the framework describes the dataflow problem, in particular the underlying graph and the
     // transfer functions
     BitVectorFramework<BasicBlockInContext<IExplodedBasicBlock>, Pair<CGNode, Integer>> framework =
         new BitVectorFramework<>(icfg, new TransferFunctions(), putInstrNumbering);
     BitVectorSolver<BasicBlockInContext<IExplodedBasicBlock>> solver =
         new BitVectorSolver<>(framework);
+    solver.setWorklistStrategy(strategy);
     try {
       solver.solve(null);
     } catch (CancelException e) {
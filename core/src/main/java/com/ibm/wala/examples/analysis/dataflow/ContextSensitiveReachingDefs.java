@@ -25,6 +25,7 @@ import com.ibm.wala.dataflow.IFDS.PathEdge;
 import com.ibm.wala.dataflow.IFDS.TabulationDomain;
 import com.ibm.wala.dataflow.IFDS.TabulationResult;
 import com.ibm.wala.dataflow.IFDS.TabulationSolver;
+import com.ibm.wala.dataflow.IFDS.TabulationSolver.EdgeRepresentation;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.cfg.BasicBlockInContext;
@@ -288,11 +289,35 @@ public class ContextSensitiveReachingDefs {
   /** perform the tabulation analysis and return the {@link TabulationResult} */
   public TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
       analyze() {
+    return analyze(1);
+  }
+
+  /**
+   * perform the tabulation analysis on several threads and return the {@link TabulationResult}
+   *
+   * @see TabulationSolver#setNumberOfThreads(int)
+   */
+  public TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
+      analyze(int numberOfThreads) {
+    return analyze(numberOfThreads, EdgeRepresentation.RELATIONS);
+  }
+
+  /**
+   * perform the tabulation analysis on several threads, keeping edges in the given representation,
+   * and return the {@link TabulationResult}
+   *
+   * @see TabulationSolver#setNumberOfThreads(int)
+   * @see TabulationSolver#setEdgeRepresentation(EdgeRepresentation)
+   */
+  public TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
+      analyze(int numberOfThreads, EdgeRepresentation edgeRepresentation) {
     PartiallyBalancedTabulationSolver<
             BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
         solver =
             PartiallyBalancedTabulationSolver.createPartiallyBalancedTabulationSolver(
                 new ReachingDefsProblem(), null);
+    solver.setNumberOfThreads(numberOfThreads);
+    solver.setEdgeRepresentation(edgeRepresentation);
     TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
         result = null;
     try {
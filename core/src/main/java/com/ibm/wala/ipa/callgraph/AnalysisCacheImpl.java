@@ -12,7 +12,9 @@ package com.ibm.wala.ipa.callgraph;
 
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ssa.AuxiliaryCache;
+import com.ibm.wala.ssa.BoundedAuxiliaryCache;
 import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IAuxiliaryCache;
 import com.ibm.wala.ssa.IRFactory;
 import com.ibm.wala.ssa.SSACache;
 import com.ibm.wala.ssa.SSAOptions;
@@ -20,8 +22,20 @@ import com.ibm.wala.ssa.SSAOptions;
 public class AnalysisCacheImpl extends AnalysisCache {
 
   public AnalysisCacheImpl(IRFactory<IMethod> irFactory, SSAOptions ssaOptions) {
-    super(
-        irFactory, ssaOptions, new SSACache(irFactory, new AuxiliaryCache(), new AuxiliaryCache()));
+    this(irFactory, ssaOptions, new AuxiliaryCache(), new AuxiliaryCache());
+  }
+
+  /**
+   * @param irCache where to keep IRs, e.g. a {@link BoundedAuxiliaryCache} to hold them up to a
+   *     memory budget
+   * @param duCache where to keep {@link com.ibm.wala.ssa.DefUse}s
+   */
+  public AnalysisCacheImpl(
+      IRFactory<IMethod> irFactory,
+      SSAOptions ssaOptions,
+      IAuxiliaryCache irCache,
+      IAuxiliaryCache duCache) {
+    super(irFactory, ssaOptions, new SSACache(irFactory, irCache, duCache));
   }
 
   public AnalysisCacheImpl(SSAOptions ssaOptions) {
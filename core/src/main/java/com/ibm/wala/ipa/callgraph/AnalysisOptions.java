@@ -12,6 +12,7 @@ package com.ibm.wala.ipa.callgraph;
 
 import com.ibm.wala.analysis.reflection.ReflectionContextInterpreter;
 import com.ibm.wala.analysis.reflection.ReflectionContextSelector;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.ReflectionHandler;
 import com.ibm.wala.ssa.SSAOptions;
@@ -54,6 +55,33 @@ public class AnalysisOptions {
    */
   private int maxEvalBetweenTopo = 1000000000;
 
+  /**
+   * How many threads may the pointer analysis solver use to evaluate independent constraints
+   * concurrently? 1 means the classic sequential solver.
+   */
+  private int numberOfSolverThreads = 1;
+
+  /** In what order does the pointer analysis solver evaluate pending constraints? */
+  private WorklistStrategy worklistStrategy = WorklistStrategy.getDefault();
+
+  /**
+   * Should the pointer analysis propagate only the instance keys that were added to a points-to set
+   * since a constraint last read it, instead of re-reading the whole set on every evaluation?
+   */
+  private boolean useDifferencePropagation = false;
+
+  /**
+   * Should the pointer analysis detect cycles of assignments while solving, and collapse each cycle
+   * into a single points-to set?
+   */
+  private boolean useCycleElimination = false;
+
+  /**
+   * Should the pointer analysis keep the information it needs to update a call graph after code
+   * changes?
+   */
+  private boolean supportIncrementalUpdates = false;
+
   /** options for handling reflection during call graph construction */
   public enum ReflectionOptions {
     FULL("full", Integer.MAX_VALUE, false, false, false),
@@ -301,6 +329,96 @@ public class AnalysisOptions {
     topologicalGrowthFactor = d;
   }
 
+  /**
+   * @return how many threads the pointer analysis solver may use to evaluate independent
+   *     constraints concurrently
+   */
+  public int getNumberOfSolverThreads() {
+    return numberOfSolverThreads;
+  }
+
+  /**
+   * @param numberOfSolverThreads how many threads the pointer analysis solver may use to evaluate
+   *     independent constraints concurrently; 1 selects the sequential solver
+   */
+  public void setNumberOfSolverThreads(int numberOfSolverThreads) {
+    if (numberOfSolverThreads < 1) {
+      throw new IllegalArgumentException(
+          "numberOfSolverThreads must be positive: " + numberOfSolverThreads);
+    }
+    this.numberOfSolverThreads = numberOfSolverThreads;
+  }
+
+  /**
+   * @return the order in which the pointer analysis solver evaluates pending constraints
+   */
+  public WorklistStrategy getWorklistStrategy() {
+    return worklistStrategy;
+  }
+
+  /**
+   * @param worklistStrategy the order in which the pointer analysis solver evaluates pending
+   *     constraints. The solver's evaluation count, {@link
+   *     com.ibm.wala.fixedpoint.impl.AbstractFixedPointSolver#getNumberOfEvaluations()}, measures
+   *     how well a strategy suits a program.
+   */
+  public void setWorklistStrategy(WorklistStrategy worklistStrategy) {
+    if (worklistStrategy == null) {
+      throw new IllegalArgumentException("worklistStrategy is null");
+    }
+    this.worklistStrategy = worklistStrategy;
+  }
+
+  /**
+   * @return true iff the pointer analysis propagates only the differences of points-to sets
+   */
+  public boolean getUseDifferencePropagation() {
+    return useDifferencePropagation;
+  }
+
+  /**
+   * @param useDifferencePropagation if true, assignments, filters and virtual dispatch only
+   *     consume the instance keys added to their inputs since they were last evaluated. This trades
+   *     some memory, to remember the order in which points-to sets grew, for less work per
+   *     evaluation.
+   */
+  public void setUseDifferencePropagation(boolean useDifferencePropagation) {
+    this.useDifferencePropagation = useDifferencePropagation;
+  }
+
+  /**
+   * @return true iff the pointer analysis collapses cycles of assignments while solving
+   */
+  public boolean getUseCycleElimination() {
+    return useCycleElimination;
+  }
+
+  /**
+   * @param useCycleElimination if true, the pointer analysis searches for cycles of assignments
+   *     whenever an assignment connects two equal points-to sets, and merges the variables on each
+   *     cycle into one. The points-to set reported for a merged pointer key is that of its cycle.
+   */
+  public void setUseCycleElimination(boolean useCycleElimination) {
+    this.useCycleElimination = useCycleElimination;
+  }
+
+  /**
+   * @return true iff call graphs built with these options can be updated after code changes
+   */
+  public boolean getSupportIncrementalUpdates() {
+    return supportIncrementalUpdates;
+  }
+
+  /**
+   * @param supportIncrementalUpdates if true, the pointer analysis remembers the instance keys that
+   *     it adds to points-to sets directly, so that {@link
+   *     com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder#updateCallGraph} can
+   *     retract the constraints of changed methods. This cannot be combined with cycle elimination.
+   */
+  public void setSupportIncrementalUpdates(boolean supportIncrementalUpdates) {
+    this.supportIncrementalUpdates = supportIncrementalUpdates;
+  }
+
   /**
    * @return options governing SSA construction
    */
@@ -131,6 +131,9 @@ public class AnalysisScope {
 
   private final Map<Atom, Language> languages;
 
+  /** How many threads class loaders may use to read and parse class files */
+  private int numberOfLoaderThreads = 1;
+
   protected AnalysisScope(Collection<? extends Language> languages) {
     this.languages = new HashMap<>();
     for (Language l : languages) {
@@ -363,6 +366,25 @@ public class AnalysisScope {
     exclusions = classes;
   }
 
+  public int getNumberOfLoaderThreads() {
+    return numberOfLoaderThreads;
+  }
+
+  /**
+   * @param numberOfLoaderThreads how many threads class loaders may use to read and parse the
+   *     class files or Java source files of a module when building a class hierarchy from this
+   *     scope; 1 (the default) reads them sequentially. CAst loaders for other languages take their
+   *     number of threads from {@code SingleClassLoaderFactory.setNumberOfTranslatorThreads}.
+   * @throws IllegalArgumentException if numberOfLoaderThreads is not positive
+   */
+  public void setNumberOfLoaderThreads(int numberOfLoaderThreads) {
+    if (numberOfLoaderThreads < 1) {
+      throw new IllegalArgumentException(
+          "numberOfLoaderThreads must be positive: " + numberOfLoaderThreads);
+    }
+    this.numberOfLoaderThreads = numberOfLoaderThreads;
+  }
+
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
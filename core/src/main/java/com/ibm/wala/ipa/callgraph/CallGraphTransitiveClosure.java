@@ -10,13 +10,12 @@
  */
 package com.ibm.wala.ipa.callgraph;
 
-import com.ibm.wala.core.util.CancelRuntimeException;
-import com.ibm.wala.dataflow.graph.BitVectorSolver;
-import com.ibm.wala.fixpoint.BitVectorVariable;
-import com.ibm.wala.ipa.modref.GenReach;
-import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.collections.HashMapFactory;
-import com.ibm.wala.util.graph.impl.GraphInverter;
+import com.ibm.wala.util.graph.ReachabilityIndex;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
 import com.ibm.wala.util.intset.OrdinalSet;
 import java.util.Collection;
 import java.util.Map;
@@ -37,20 +36,22 @@ public class CallGraphTransitiveClosure {
    */
   public static <T> Map<CGNode, OrdinalSet<T>> transitiveClosure(
       CallGraph cg, Map<CGNode, Collection<T>> nodeResults) {
-    try {
-      // invert the call graph, to compute the bottom-up result
-      GenReach<CGNode, T> gr = new GenReach<>(GraphInverter.invert(cg), nodeResults);
-      BitVectorSolver<CGNode> solver = new BitVectorSolver<>(gr);
-      solver.solve(null);
-      Map<CGNode, OrdinalSet<T>> result = HashMapFactory.make();
-      for (CGNode n : cg) {
-        BitVectorVariable bv = solver.getOut(n);
-        result.put(n, new OrdinalSet<>(bv.getValue(), gr.getLatticeValues()));
+    MutableMapping<T> domain = MutableMapping.make();
+    Map<CGNode, IntSet> facts = HashMapFactory.make();
+    for (Map.Entry<CGNode, Collection<T>> e : nodeResults.entrySet()) {
+      MutableIntSet s = MutableSparseIntSet.makeEmpty();
+      for (T t : e.getValue()) {
+        s.add(domain.add(t));
       }
-      return result;
-    } catch (CancelException e) {
-      throw new CancelRuntimeException(e);
+      facts.put(e.getKey(), s);
     }
+    // the facts reachable from a node are those of the node and its transitive callees
+    ReachabilityIndex<CGNode> index = new ReachabilityIndex<>(cg, facts::get);
+    Map<CGNode, OrdinalSet<T>> result = HashMapFactory.make();
+    for (CGNode n : cg) {
+      result.put(n, new OrdinalSet<>(index.getReachableFacts(n), domain));
+    }
+    return result;
   }
 
   /** Collect analysis result for each {@link CGNode} in a {@link Map}. */
@@ -271,6 +271,12 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
       allTargets.clear();
     }
 
+    /** Drop the IR and {@link DefUse} cached for this node, after its code has changed. */
+    public void clearCachedIR() {
+      ir = new WeakReference<>(null);
+      du = new WeakReference<>(null);
+    }
+
     @Override
     public IR getIR() {
       if (getMethod().isWalaSynthetic()) {
@@ -382,7 +388,12 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
 
     @Override
     public void removeOutgoingEdges(CGNode node) {
-      Assertions.UNREACHABLE();
+      ExplicitNode n = (ExplicitNode) node;
+      int x = getNumber(n);
+      for (IntIterator it = n.getAllTargetNumbers().intIterator(); it.hasNext(); ) {
+        predecessors.remove(it.next(), x);
+      }
+      n.clearAllTargets();
     }
 
     @Override
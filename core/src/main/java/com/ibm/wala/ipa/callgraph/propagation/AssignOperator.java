@@ -12,6 +12,7 @@ package com.ibm.wala.ipa.callgraph.propagation;
 
 import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.fixpoint.UnaryStatement;
+import com.ibm.wala.util.intset.IntSet;
 
 /**
  * Corresponds to: "is a superset of". Used for assignment.
@@ -37,7 +38,13 @@ class AssignOperator extends UnaryOperator<PointsToSetVariable> implements IPoin
       S = S + "\nEVAL " + lhs + ' ' + rhs;
       System.err.println(S);
     }
-    boolean changed = lhs.addAll(rhs);
+    boolean changed;
+    if (lhs.isTrackingHistory() && rhs.isTrackingHistory()) {
+      IntSet delta = rhs.takeDelta(lhs.getIncomingCursor(this, rhs));
+      changed = delta != null && lhs.addAll(delta);
+    } else {
+      changed = lhs.addAll(rhs);
+    }
     if (PropagationCallGraphBuilder.DEBUG_ASSIGN) {
       System.err.println("RESULT " + lhs + (changed ? " (changed)" : ""));
     }
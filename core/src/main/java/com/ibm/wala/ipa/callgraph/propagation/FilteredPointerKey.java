@@ -29,6 +29,27 @@ public interface FilteredPointerKey extends PointerKey {
     boolean addInverseFiltered(
         PropagationSystem system, PointsToSetVariable L, PointsToSetVariable R);
 
+    /**
+     * Like {@link #addFiltered(PropagationSystem, PointsToSetVariable, PointsToSetVariable)}, but
+     * for a plain set of instance key indices. Used by difference propagation, where R holds only
+     * the instances added to some variable since the constraint was last evaluated.
+     */
+    default boolean addFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      PointsToSetVariable v = new PointsToSetVariable(L.getPointerKey());
+      v.addAll(R);
+      return addFiltered(system, L, v);
+    }
+
+    /**
+     * Like {@link #addInverseFiltered(PropagationSystem, PointsToSetVariable,
+     * PointsToSetVariable)}, but for a plain set of instance key indices.
+     */
+    default boolean addInverseFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      PointsToSetVariable v = new PointsToSetVariable(L.getPointerKey());
+      v.addAll(R);
+      return addInverseFiltered(system, L, v);
+    }
+
     boolean isRootFilter();
   }
 
@@ -65,6 +86,18 @@ public interface FilteredPointerKey extends PointerKey {
       return (f == null) ? L.addAll(R) : L.addAll(IntSetUtil.diff(R.getValue(), f));
     }
 
+    @Override
+    public boolean addFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      IntSet f = system.getInstanceKeysForClass(concreteType);
+      return (f == null) ? false : L.addAllInIntersection(R, f);
+    }
+
+    @Override
+    public boolean addInverseFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      IntSet f = system.getInstanceKeysForClass(concreteType);
+      return (f == null) ? L.addAll(R) : L.addAll(IntSetUtil.diff(R, f));
+    }
+
     @Override
     public boolean isRootFilter() {
       return concreteType.equals(concreteType.getClassHierarchy().getRootClass());
@@ -141,6 +174,18 @@ public interface FilteredPointerKey extends PointerKey {
       return (f == null) ? L.addAll(R) : L.addAll(IntSetUtil.diff(R.getValue(), f));
     }
 
+    @Override
+    public boolean addFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      IntSet f = bits(system);
+      return (f == null) ? false : L.addAllInIntersection(R, f);
+    }
+
+    @Override
+    public boolean addInverseFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      IntSet f = bits(system);
+      return (f == null) ? L.addAll(R) : L.addAll(IntSetUtil.diff(R, f));
+    }
+
     @Override
     public boolean isRootFilter() {
       return concreteType.length == 1
@@ -199,6 +244,24 @@ public interface FilteredPointerKey extends PointerKey {
       }
     }
 
+    @Override
+    public boolean addFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      int idx = system.findOrCreateIndexForInstanceKey(concreteType);
+      return R.contains(idx) && L.add(idx);
+    }
+
+    @Override
+    public boolean addInverseFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      int idx = system.findOrCreateIndexForInstanceKey(concreteType);
+      if (!R.contains(idx) || L.contains(idx)) {
+        return L.addAll(R);
+      } else {
+        MutableIntSet copy = IntSetUtil.makeMutableCopy(R);
+        copy.remove(idx);
+        return L.addAll(copy);
+      }
+    }
+
     @Override
     public boolean isRootFilter() {
       return false;
@@ -283,6 +346,20 @@ public interface FilteredPointerKey extends PointerKey {
       }
     }
 
+    @Override
+    public boolean addFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      UpdateAction act = new UpdateAction(system, L, true);
+      R.foreach(act);
+      return act.result;
+    }
+
+    @Override
+    public boolean addInverseFiltered(PropagationSystem system, PointsToSetVariable L, IntSet R) {
+      UpdateAction act = new UpdateAction(system, L, false);
+      R.foreach(act);
+      return act.result;
+    }
+
     @Override
     public boolean isRootFilter() {
       return false;
@@ -45,4 +45,7 @@ public interface InstanceKeyFactory {
    * @return the instance key that represents the metadata object obj
    */
   InstanceKey getInstanceKeyForMetadataObject(Object obj, TypeReference objType);
+
+  /** Forget anything derived from the code of a node, after that code has changed. */
+  default void invalidate(CGNode node) {}
 }
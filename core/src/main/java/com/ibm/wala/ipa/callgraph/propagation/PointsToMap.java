@@ -115,6 +115,18 @@ public class PointsToMap {
     pointsToSets.set(i, IMPLICIT);
   }
 
+  /**
+   * Forget the points-to set recorded for a key, so that it is treated as new. The key keeps its
+   * number.
+   */
+  public void forget(PointerKey key) {
+    int i = getIndex(key);
+    if (i != -1) {
+      pointsToSets.set(i, null);
+      transitiveRoots.clear(i);
+    }
+  }
+
   public void put(PointerKey key, PointsToSetVariable v) {
     int i = findOrCreateIndex(key);
     pointsToSets.set(i, v);
@@ -17,10 +17,15 @@ import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ssa.IR;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.MutableSparseIntSet;
+import java.util.Arrays;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
 
 /** Representation of a points-to set during an andersen-style analysis. */
 public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
@@ -46,6 +51,47 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
 
   private PointerKey pointerKey;
 
+  /**
+   * For difference propagation: the elements of this variable, in the order in which they were
+   * added, or null if this variable does not track its history.
+   */
+  private int @Nullable [] history;
+
+  /** Number of valid entries in {@link #history} */
+  private int historySize;
+
+  /**
+   * Incremented whenever {@link #history} is rebuilt because this variable lost elements; any
+   * {@link HistoryCursor} from an earlier epoch must start over.
+   */
+  private int historyEpoch;
+
+  /**
+   * For difference propagation: the cursors with which implicit constraints that define this
+   * variable have consumed their right-hand sides, or null if there are none yet. Implicit
+   * constraints are not materialized as objects for the duration of a solve, so their cursors live
+   * here, owned by the variable that the constraint writes.
+   */
+  private @Nullable Map<PointsToSetVariable, HistoryCursor> incomingCursors;
+
+  /**
+   * A position in the history of some {@link PointsToSetVariable}. Each constraint that reads a
+   * variable keeps its own cursor, recording how much of the variable it has already consumed.
+   */
+  public static final class HistoryCursor {
+    private @Nullable PointsToSetVariable variable;
+
+    private int epoch;
+
+    private int position;
+
+    /** for incoming cursors: the operator of the constraint that owns this cursor */
+    private @Nullable Object operator;
+
+    /** for incoming cursors: the cursor of another constraint with the same right-hand side */
+    private @Nullable HistoryCursor next;
+  }
+
   public PointsToSetVariable(PointerKey key) {
     if (key == null) {
       throw new IllegalArgumentException("null key");
@@ -76,6 +122,92 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
     }
   }
 
+  /**
+   * Start recording the order in which elements are added to this variable, so that constraints
+   * reading it can consume only the elements added since they last looked.
+   */
+  public void trackHistory() {
+    if (history == null) {
+      history = new int[4];
+      rebuildHistory();
+    }
+  }
+
+  public boolean isTrackingHistory() {
+    return history != null;
+  }
+
+  private void record(int b) {
+    if (historySize == history.length) {
+      history = Arrays.copyOf(history, historySize * 2);
+    }
+    history[historySize++] = b;
+  }
+
+  /**
+   * Forget the recorded order of elements, and start a new epoch from the current value. Called
+   * whenever this variable may have lost elements, which invalidates both the cursors of readers
+   * of this variable and the cursors with which this variable consumed its own inputs.
+   */
+  private void rebuildHistory() {
+    if (history != null) {
+      historySize = 0;
+      historyEpoch++;
+      incomingCursors = null;
+      if (getValue() != null) {
+        getValue().foreach(this::record);
+      }
+    }
+  }
+
+  /**
+   * Get the cursor with which the implicit constraint {@code this := operator(rhs)} consumes rhs.
+   */
+  public HistoryCursor getIncomingCursor(Object operator, PointsToSetVariable rhs) {
+    if (incomingCursors == null) {
+      incomingCursors = HashMapFactory.make();
+    }
+    HistoryCursor first = incomingCursors.get(rhs);
+    for (HistoryCursor c = first; c != null; c = c.next) {
+      if (c.operator == operator) {
+        return c;
+      }
+    }
+    HistoryCursor c = new HistoryCursor();
+    c.operator = operator;
+    c.next = first;
+    incomingCursors.put(rhs, c);
+    return c;
+  }
+
+  /**
+   * Difference propagation: get the elements added to this variable since cursor last consumed
+   * it, and advance cursor to the end of the history.
+   *
+   * <p>If cursor has never consumed this variable, or this variable has lost elements since, the
+   * result is the whole value of this variable.
+   *
+   * @return the new elements, which the caller must not modify, or null if this variable does not
+   *     track its history or holds no elements at all
+   */
+  public @Nullable IntSet takeDelta(HistoryCursor cursor) {
+    if (history == null || getValue() == null) {
+      return null;
+    }
+    int from = cursor.position;
+    if (cursor.variable != this || cursor.epoch != historyEpoch) {
+      cursor.variable = this;
+      cursor.epoch = historyEpoch;
+      from = 0;
+    }
+    cursor.position = historySize;
+    if (from == 0) {
+      return getValue();
+    } else {
+      return IntSetUtil.make(Arrays.copyOfRange(history, from, historySize));
+    }
+  }
+
   @Override
   public boolean add(int b) {
     if (PARANOID) {
@@ -84,6 +216,9 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
       checkTypes(m);
     }
     final boolean result = super.add(b);
+    if (result && history != null) {
+      record(b);
+    }
     cryIfTooBig();
     return result;
   }
@@ -93,11 +228,67 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
     if (PARANOID) {
       checkTypes(B);
     }
+    if (history != null) {
+      if (getValue() == null) {
+        B.foreach(this::record);
+      } else {
+        B.foreachExcluding(getValue(), this::record);
+      }
+    }
     boolean v = super.addAll(B);
     cryIfTooBig();
     return v;
   }
 
+  @Override
+  public boolean addAllInIntersection(IntSet other, IntSet filter) {
+    if (history != null) {
+      IntSet current = getValue();
+      other.foreach(
+          x -> {
+            if (filter.contains(x) && (current == null || !current.contains(x))) {
+              record(x);
+            }
+          });
+    }
+    return super.addAllInIntersection(other, filter);
+  }
+
+  @Override
+  public boolean addAllInIntersection(PointsToSetVariable other, IntSet filter) {
+    if (history != null) {
+      // avoid copyState(), which would first copy elements that the filter then removes
+      return other.getValue() != null && addAllInIntersection(other.getValue(), filter);
+    }
+    return super.addAllInIntersection(other, filter);
+  }
+
+  @Override
+  public void copyState(PointsToSetVariable other) {
+    boolean wasEmpty = getValue() == null;
+    super.copyState(other);
+    if (wasEmpty) {
+      // nothing was lost, so existing cursors remain valid
+      if (history != null && getValue() != null) {
+        getValue().foreach(this::record);
+      }
+    } else {
+      rebuildHistory();
+    }
+  }
+
+  @Override
+  public void remove(int i) {
+    super.remove(i);
+    rebuildHistory();
+  }
+
+  @Override
+  public void removeAll() {
+    super.removeAll();
+    rebuildHistory();
+  }
+
   /** check that the types of all instance keys are assignable to declared type of pointer key */
   private void checkTypes(IntSet b) {
     assert PARANOID;
@@ -32,6 +32,7 @@ import com.ibm.wala.ipa.callgraph.ContextSelector;
 import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
 import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.rta.RTAContextInterpreter;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
@@ -40,11 +41,14 @@ import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Collection;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetAction;
 import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -212,6 +216,11 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     system.setMinEquationsForTopSort(options.getMinEquationsForTopSort());
     system.setTopologicalGrowthFactor(options.getTopologicalGrowthFactor());
     system.setMaxEvalBetweenTopo(options.getMaxEvalBetweenTopo());
+    system.setNumberOfThreads(options.getNumberOfSolverThreads());
+    system.setWorklistStrategy(options.getWorklistStrategy());
+    system.setDifferencePropagation(options.getUseDifferencePropagation());
+    system.setCycleElimination(options.getUseCycleElimination());
+    system.setSeedTracking(options.getSupportIncrementalUpdates());
 
     discoveredNodes = HashSetFactory.of(callGraph.getFakeRootNode());
 
@@ -255,6 +264,93 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     return callGraph;
   }
 
+  /**
+   * Update the call graph and pointer analysis that {@link #makeCallGraph} built, after the code of
+   * some classes changed. The constraints of every node whose method is declared by one of the
+   * classes are retracted and added again from the current IR, and only the points-to sets that
+   * they may have contributed to are solved again.
+   *
+   * <p>The class hierarchy cannot replace classes, so a changed class must keep its {@link IClass}
+   * and the signatures of its methods; what may change is the code that its {@link
+   * SSAContextInterpreter} provides for them. New classes can be added to the class hierarchy
+   * before calling this. Nodes that the changed code no longer reaches stay in the call graph.
+   * See {@link PropagationSystem#retractConstraints(Set)} for the precision of the result.
+   *
+   * @param changedClasses the classes whose code changed
+   * @throws IllegalStateException if the call graph was not built with {@link
+   *     AnalysisOptions#setSupportIncrementalUpdates(boolean)}
+   */
+  public CallGraph updateCallGraph(
+      Collection<? extends IClass> changedClasses, IProgressMonitor monitor)
+      throws CallGraphBuilderCancelException {
+    if (changedClasses == null) {
+      throw new IllegalArgumentException("changedClasses is null");
+    }
+    Set<TypeReference> types = HashSetFactory.make();
+    for (IClass klass : changedClasses) {
+      types.add(klass.getReference());
+    }
+    Set<CGNode> changedNodes = HashSetFactory.make();
+    for (CGNode node : callGraph) {
+      if (types.contains(node.getMethod().getDeclaringClass().getReference())) {
+        changedNodes.add(node);
+      }
+    }
+    cha.clearCaches();
+    return updateCallGraphForNodes(changedNodes, monitor);
+  }
+
+  /**
+   * Update the call graph and pointer analysis that {@link #makeCallGraph} built, after the code of
+   * some nodes changed.
+   *
+   * @param changedNodes the nodes whose IR changed
+   * @see #updateCallGraph(Collection, IProgressMonitor)
+   */
+  public CallGraph updateCallGraphForNodes(
+      Collection<CGNode> changedNodes, IProgressMonitor monitor)
+      throws CallGraphBuilderCancelException {
+    if (changedNodes == null) {
+      throw new IllegalArgumentException("changedNodes is null");
+    }
+    if (system == null) {
+      throw new IllegalStateException("no call graph to update");
+    }
+    if (!options.getSupportIncrementalUpdates()) {
+      throw new IllegalStateException("call graph was built without support for updates");
+    }
+    Set<CGNode> nodes = HashSetFactory.make(changedNodes);
+    for (CGNode node : nodes) {
+      getAnalysisCache().invalidate(node.getMethod(), node.getContext());
+      getAnalysisCache().invalidate(node.getMethod(), Everywhere.EVERYWHERE);
+      ((ExplicitCallGraph.ExplicitNode) node).clearCachedIR();
+      instanceKeyFactory.invalidate(node);
+    }
+    system.retractConstraints(nodes);
+    CGNode fakeWorldClinit = callGraph.getFakeWorldClinitNode();
+    for (CGNode node : nodes) {
+      // the call graph itself, not a constraint, makes the fake root call the fake world clinit
+      // method, so that edge must survive
+      List<CallSiteReference> clinitSites =
+          node.equals(callGraph.getFakeRootNode()) && fakeWorldClinit != null
+              ? Iterator2Collection.toList(callGraph.getPossibleSites(node, fakeWorldClinit))
+              : Collections.emptyList();
+      callGraph.getEdgeManager().removeOutgoingEdges(node);
+      for (CallSiteReference site : clinitSites) {
+        node.addTarget(site, fakeWorldClinit);
+      }
+      markChanged(node);
+    }
+    try {
+      addConstraintsFromNewNodes(monitor);
+      solver.solve(monitor);
+    } catch (CancelException | CancelRuntimeException e) {
+      throw CallGraphBuilderCancelException.createCallGraphBuilderCancelException(
+          e, callGraph, system.extractPointerAnalysis(this));
+    }
+    return callGraph;
+  }
+
   protected PropagationSystem makeSystem(@SuppressWarnings("unused") AnalysisOptions options) {
     return new PropagationSystem(callGraph, pointerKeyFactory, instanceKeyFactory);
   }
@@ -586,7 +682,13 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       }
 
       FilteredPointerKey.TypeFilter filter = pk.getTypeFilter();
-      boolean changed = filter.addFiltered(system, lhs, rhs);
+      boolean changed;
+      if (lhs.isTrackingHistory() && rhs.isTrackingHistory()) {
+        IntSet delta = rhs.takeDelta(lhs.getIncomingCursor(this, rhs));
+        changed = delta != null && filter.addFiltered(system, lhs, delta);
+      } else {
+        changed = filter.addFiltered(system, lhs, rhs);
+      }
 
       if (DEBUG_FILTER) {
         System.err.println("RESULT " + lhs + (changed ? " (changed)" : ""));
@@ -1352,7 +1454,13 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
         return NOT_CHANGED;
       }
 
-      boolean changed = filter.addInverseFiltered(system, lhs, rhs);
+      boolean changed;
+      if (lhs.isTrackingHistory() && rhs.isTrackingHistory()) {
+        IntSet delta = rhs.takeDelta(lhs.getIncomingCursor(this, rhs));
+        changed = delta != null && filter.addInverseFiltered(system, lhs, delta);
+      } else {
+        changed = filter.addInverseFiltered(system, lhs, rhs);
+      }
 
       if (DEBUG_FILTER) {
         if (debug) {
@@ -778,6 +778,18 @@ public class PropagationGraph implements IFixedPointSystem<PointsToSetVariable>
     }
   }
 
+  /**
+   * Rebuild the index of explicitly represented statements. Call this after mutating operators in
+   * a way that changes the hash codes of the statements that use them, as {@link
+   * UnarySideEffect#replaceFixedSet(PointsToSetVariable)} does.
+   */
+  void rehashStatements() {
+    List<IFixedPointStatement<PointsToSetVariable>> statements =
+        new ArrayList<>(delegateStatements);
+    delegateStatements.clear();
+    delegateStatements.addAll(statements);
+  }
+
   /**
    * A graph of just the variables in the system. v1 -&gt; v2 iff there exists an assignment
    * equation e s.t. e uses v1 and e defs v2.
@@ -10,34 +10,42 @@
  */
 package com.ibm.wala.ipa.callgraph.propagation;
 
+import com.ibm.wala.analysis.reflection.InstanceKeyWithNode;
 import com.ibm.wala.classLoader.ArrayClass;
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.core.util.ref.ReferenceCleanser;
 import com.ibm.wala.fixedpoint.impl.DefaultFixedPointSolver;
-import com.ibm.wala.fixedpoint.impl.Worklist;
+import com.ibm.wala.fixedpoint.impl.IWorklist;
 import com.ibm.wala.fixpoint.AbstractOperator;
 import com.ibm.wala.fixpoint.AbstractStatement;
 import com.ibm.wala.fixpoint.IFixedPointSystem;
 import com.ibm.wala.fixpoint.IVariable;
 import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.fixpoint.UnaryStatement;
+import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.FilterOperator;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.MapUtil;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.VerboseAction;
 import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.GraphSlicer;
 import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.traverse.DFS;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
 import com.ibm.wala.util.heapTrace.HeapTracer;
+import com.ibm.wala.util.intset.BasicNaturalRelation;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.intset.MutableMapping;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -98,6 +106,45 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
 
   private int periodicMaintainInterval = DEFAULT_PERIODIC_MAINTENANCE_INTERVAL;
 
+  /**
+   * Should constraints propagate only the instance keys added to their inputs since they were last
+   * evaluated, rather than whole points-to sets?
+   *
+   * @see PointsToSetVariable#takeDelta(PointsToSetVariable.HistoryCursor)
+   */
+  private boolean differencePropagation = false;
+
+  /**
+   * Should the solver detect cycles of assignments while solving, and collapse each into a single
+   * representative variable?
+   */
+  private boolean cycleElimination = false;
+
+  /**
+   * For cycle elimination: pairs (rhs, lhs) of graph node ids of assignments that have already
+   * triggered a cycle search. Following lazy cycle detection, each assignment triggers at most one
+   * search, the first time that it is found to connect two variables with equal points-to sets.
+   */
+  private final BasicNaturalRelation checkedAssignments = new BasicNaturalRelation();
+
+  /** For cycle elimination: variables from which to search for cycles before the next evaluation */
+  private final List<PointsToSetVariable> cycleCandidates = new ArrayList<>();
+
+  /** For cycle elimination: the pointer key indices of the variables merged into another one */
+  private final MutableIntSet collapsedKeys = IntSetUtil.make();
+
+  /**
+   * Should the system remember which instance keys were added to each points-to set directly, so
+   * that {@link #retractConstraints(Set)} can restore them?
+   */
+  private boolean seedTracking = false;
+
+  /**
+   * For seed tracking: the instance keys added to each variable by {@link
+   * #newConstraint(PointerKey, InstanceKey)}, rather than by evaluating a statement
+   */
+  private final Map<PointsToSetVariable, MutableIntSet> seeds = HashMapFactory.make();
+
   @SuppressWarnings({"StaticAssignmentInConstructor", "unused"})
   public PropagationSystem(
       CallGraph cg, PointerKeyFactory pointerKeyFactory, InstanceKeyFactory instanceKeyFactory) {
@@ -257,6 +304,9 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     PointsToSetVariable result = pointsToMap.getPointsToSet(key);
     if (result == null) {
       result = new PointsToSetVariable(key);
+      if (differencePropagation) {
+        result.trackHistory();
+      }
       pointsToMap.put(key, result);
     } else {
       // check that the filter for this variable remains unique
@@ -356,8 +406,8 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("Add constraint A: " + lhs + ' ' + op + ' ' + rhs);
     }
-    assert !pointsToMap.isUnified(lhs);
-    assert !pointsToMap.isUnified(rhs);
+    assert !pointsToMap.isUnified(lhs) || isCollapsed(lhs);
+    assert !pointsToMap.isUnified(rhs) || isCollapsed(rhs);
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     PointsToSetVariable R = findOrCreatePointsToSet(rhs);
     return newStatement(L, op, new PointsToSetVariable[] {R}, true, true);
@@ -380,9 +430,9 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("Add constraint A: " + lhs + ' ' + op + ' ' + rhs1 + ", " + rhs2);
     }
-    assert !pointsToMap.isUnified(lhs);
-    assert !pointsToMap.isUnified(rhs1);
-    assert !pointsToMap.isUnified(rhs2);
+    assert !pointsToMap.isUnified(lhs) || isCollapsed(lhs);
+    assert !pointsToMap.isUnified(rhs1) || isCollapsed(rhs1);
+    assert !pointsToMap.isUnified(rhs2) || isCollapsed(rhs2);
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     PointsToSetVariable R1 = findOrCreatePointsToSet(rhs1);
     PointsToSetVariable R2 = findOrCreatePointsToSet(rhs2);
@@ -419,6 +469,10 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     // This works since the solver is monotonic with TOP = {}
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     int index = findOrCreateIndexForInstanceKey(value);
+    if (seedTracking) {
+      // record the seed even if flow already put it in L, which may not hold after a retraction
+      seeds.computeIfAbsent(L, k -> IntSetUtil.make()).add(index);
+    }
     if (!L.add(index)) {
       // a no-op
       return false;
@@ -550,7 +604,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("add constraint D: " + op + ' ' + arg0);
     }
-    assert !pointsToMap.isUnified(arg0);
+    assert !pointsToMap.isUnified(arg0) || isCollapsed(arg0);
     PointsToSetVariable v1 = findOrCreatePointsToSet(arg0);
     newStatement(null, op, v1, true, true);
   }
@@ -564,7 +618,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     }
     PointsToSetVariable[] vs = new PointsToSetVariable[arg0.length];
     for (int i = 0; i < arg0.length; i++) {
-      assert !pointsToMap.isUnified(arg0[i]);
+      assert !pointsToMap.isUnified(arg0[i]) || isCollapsed(arg0[i]);
       vs[i] = findOrCreatePointsToSet(arg0[i]);
     }
     newStatement(null, op, vs, true, true);
@@ -575,8 +629,8 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("add constraint D: " + op + ' ' + arg0);
     }
-    assert !pointsToMap.isUnified(arg0);
-    assert !pointsToMap.isUnified(arg1);
+    assert !pointsToMap.isUnified(arg0) || isCollapsed(arg0);
+    assert !pointsToMap.isUnified(arg1) || isCollapsed(arg1);
     PointsToSetVariable v1 = findOrCreatePointsToSet(arg0);
     PointsToSetVariable v2 = findOrCreatePointsToSet(arg1);
     newStatement(null, op, v1, v2, true, true);
@@ -587,6 +641,32 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     addAllStatementsToWorkList();
   }
 
+  /**
+   * Assignments and type filters that select instances by class only read their right-hand side
+   * and the per-class instance sets, and only write their left-hand side, so they may be evaluated
+   * concurrently. Every other operator may add constraints, call graph nodes or instance keys, and
+   * must run on the solver thread.
+   */
+  @Override
+  protected boolean canEvaluateConcurrently(AbstractStatement<PointsToSetVariable, ?> s) {
+    PointsToSetVariable lhs = s.getLHS();
+    if (!(s instanceof UnaryStatement) || lhs == null) {
+      return false;
+    }
+    if (s instanceof AssignEquation) {
+      return true;
+    }
+    if (s.getOperator() instanceof FilterOperator filter && !filter.isComplex()) {
+      PointerKey pk = lhs.getPointerKey();
+      if (pk instanceof FilteredPointerKey fpk) {
+        FilteredPointerKey.TypeFilter typeFilter = fpk.getTypeFilter();
+        return typeFilter instanceof FilteredPointerKey.SingleClassFilter
+            || typeFilter instanceof FilteredPointerKey.MultipleClassesFilter;
+      }
+    }
+    return false;
+  }
+
   /**
    * @return an object that encapsulates the pointer analysis results
    */
@@ -667,7 +747,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
   }
 
   /** Use with care. */
-  Worklist getWorklist() {
+  IWorklist getWorklist() {
     return workList;
   }
 
@@ -735,6 +815,178 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     this.periodicMaintainInterval = periodicMaintainInteval;
   }
 
+  public boolean isDifferencePropagation() {
+    return differencePropagation;
+  }
+
+  /**
+   * Turn difference propagation on or off for points-to sets created from now on. Call this before
+   * adding any constraints.
+   */
+  public void setDifferencePropagation(boolean differencePropagation) {
+    this.differencePropagation = differencePropagation;
+  }
+
+  public boolean isCycleElimination() {
+    return cycleElimination;
+  }
+
+  /**
+   * Turn online cycle elimination on or off. When on, each assignment that is found to connect two
+   * variables with equal points-to sets triggers a search for cycles of assignments through it,
+   * and every cycle found is collapsed with {@link #unify(IntSet)}. Variables whose pointer keys
+   * carry a type filter never take part in a collapse.
+   */
+  public void setCycleElimination(boolean cycleElimination) {
+    this.cycleElimination = cycleElimination;
+  }
+
+  public boolean isSeedTracking() {
+    return seedTracking;
+  }
+
+  /**
+   * Turn seed tracking on or off. {@link #retractConstraints(Set)} requires it; call this before
+   * adding any constraints.
+   */
+  public void setSeedTracking(boolean seedTracking) {
+    this.seedTracking = seedTracking;
+  }
+
+  /**
+   * @return the number of variables that online cycle elimination has merged into another one
+   */
+  public int getNumberOfCollapsedVariables() {
+    return collapsedKeys.size();
+  }
+
+  /**
+   * @return true iff online cycle elimination has merged the points-to set of key into that of
+   *     another key. Constraints may still mention such keys, since {@link
+   *     #findOrCreatePointsToSet(PointerKey)} resolves them to the representative, but no key may
+   *     have been unified in any other way while the system is solved.
+   */
+  public boolean isCollapsed(PointerKey key) {
+    return pointsToMap.isUnified(key) && collapsedKeys.contains(pointsToMap.getIndex(key));
+  }
+
+  @Override
+  protected void statementEvaluated(AbstractStatement<PointsToSetVariable, ?> s, byte code) {
+    if (cycleElimination && s instanceof AssignEquation assign) {
+      PointsToSetVariable lhs = assign.getLHS();
+      PointsToSetVariable rhs = assign.getRightHandSide();
+      if (lhs != rhs && lhs.getValue() != null && lhs.sameValue(rhs)) {
+        int from = rhs.getGraphNodeId();
+        int to = lhs.getGraphNodeId();
+        if (!checkedAssignments.contains(from, to)) {
+          checkedAssignments.add(from, to);
+          cycleCandidates.add(lhs);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void beforeNextEvaluation() {
+    if (cycleCandidates.isEmpty()) {
+      return;
+    }
+    Set<PointsToSetVariable> representatives = HashSetFactory.make();
+    for (PointsToSetVariable candidate : cycleCandidates) {
+      // the candidate may have been merged into another variable since it was recorded
+      PointsToSetVariable v =
+          pointsToMap.getPointsToSet(pointsToMap.getIndex(candidate.getPointerKey()));
+      if (v == null) {
+        continue;
+      }
+      for (Set<PointsToSetVariable> cycle : findAssignmentCycles(v)) {
+        MutableIntSet numbers = IntSetUtil.make();
+        for (PointsToSetVariable p : cycle) {
+          if (p.getPointerKey() instanceof FilteredPointerKey) {
+            numbers = null;
+            break;
+          }
+          numbers.add(pointsToMap.getIndex(p.getPointerKey()));
+        }
+        if (numbers != null) {
+          unify(numbers);
+          int rep = pointsToMap.getRepresentative(numbers.intIterator().next());
+          numbers.remove(rep);
+          collapsedKeys.addAll(numbers);
+          representatives.add(pointsToMap.getPointsToSet(rep));
+        }
+      }
+    }
+    cycleCandidates.clear();
+    if (!representatives.isEmpty()) {
+      repairWorkListAfterUnification(representatives);
+    }
+  }
+
+  /**
+   * Find the cycles of assignments that are reachable from root, as the strongly connected
+   * components of the part of {@link #getAssignmentGraph()} reachable from root.
+   *
+   * @return the strongly connected components with more than one variable
+   */
+  private List<Set<PointsToSetVariable>> findAssignmentCycles(PointsToSetVariable root) {
+    NumberedGraph<PointsToSetVariable> graph = getAssignmentGraph();
+    Set<PointsToSetVariable> reachable = DFS.getReachableNodes(graph, Collections.singleton(root));
+    Graph<PointsToSetVariable> reachableGraph = GraphSlicer.prune(graph, reachable::contains);
+    List<Set<PointsToSetVariable>> result = new ArrayList<>();
+    for (Set<PointsToSetVariable> scc :
+        Iterator2Iterable.make(
+            new SCCIterator<>(reachableGraph, Collections.singleton(root).iterator()))) {
+      if (scc.size() > 1) {
+        result.add(scc);
+      }
+    }
+    return result;
+  }
+
+  /** Does statement s mention a variable that has been merged into another one? */
+  private boolean mentionsUnifiedVariable(AbstractStatement<PointsToSetVariable, ?> s) {
+    PointsToSetVariable lhs = s.getLHS();
+    if (lhs != null && pointsToMap.isUnified(lhs.getPointerKey())) {
+      return true;
+    }
+    if (s instanceof UnaryStatement<?> unary) {
+      PointsToSetVariable rhs = (PointsToSetVariable) unary.getRightHandSide();
+      return pointsToMap.isUnified(rhs.getPointerKey());
+    }
+    for (PointsToSetVariable rhs : s.getRHS()) {
+      if (rhs != null && pointsToMap.isUnified(rhs.getPointerKey())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * After unification, the work list may hold statements that were rewritten to use the
+   * representatives instead, and the representatives may hold values that their users have not
+   * yet seen. Drop the stale statements, and schedule every statement that defines or uses a
+   * representative.
+   */
+  private void repairWorkListAfterUnification(Set<PointsToSetVariable> representatives) {
+    // start from a fresh work list, since hash codes of pending side effects may have changed
+    IWorklist old = workList;
+    workList = getWorklistStrategy().makeWorklist();
+    old.carryOverHistory(workList);
+    while (!old.isEmpty()) {
+      AbstractStatement s = old.takeStatement();
+      if (!mentionsUnifiedVariable(s) && flowGraph.containsStatement(s)) {
+        addToWorkList(s);
+      }
+    }
+    for (PointsToSetVariable rep : representatives) {
+      for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatDef(rep))) {
+        addToWorkList(s);
+      }
+      changedVariable(rep);
+    }
+  }
+
   /**
    * Unify the points-to-sets for the variables identified by the set s
    *
@@ -771,9 +1023,15 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
    */
   private void updateSideEffectsForUnification(HashSet<PointsToSetVariable> s, int rep) {
     PointsToSetVariable pRef = pointsToMap.getPointsToSet(rep);
+    boolean replacedFixedSets = false;
     for (PointsToSetVariable p : s) {
+      replacedFixedSets |= p != pRef && fixedSetMap.containsKey(p);
       updateSideEffects(p, pRef);
     }
+    if (replacedFixedSets) {
+      // the hash codes of statements with these side effects depend on their fixed sets
+      flowGraph.rehashStatements();
+    }
   }
 
   /**
@@ -794,7 +1052,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
             PointsToSetVariable rhs = assign.getRightHandSide();
             int rhsRep = pointsToMap.getRepresentative(pointsToMap.getIndex(rhs.getPointerKey()));
             if (rhsRep == rep) {
-              flowGraph.removeStatement(as);
+              removeStatement(as);
             } else {
               replaceLHS(pRef, p, as);
             }
@@ -808,7 +1066,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
             PointsToSetVariable lhs = assign.getLHS();
             int lhsRep = pointsToMap.getRepresentative(pointsToMap.getIndex(lhs.getPointerKey()));
             if (lhsRep == rep) {
-              flowGraph.removeStatement(as);
+              removeStatement(as);
             } else {
               replaceRHS(pRef, p, as);
             }
@@ -849,7 +1107,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
       }
       newStatement(as.getLHS(), as.getOperator(), newRHS, false, false);
     }
-    flowGraph.removeStatement(as);
+    removeStatement(as);
   }
 
   /**
@@ -872,7 +1130,198 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     } else {
       newStatement(pRef, as.getOperator(), as.getRHS(), false, false);
     }
-    flowGraph.removeStatement(as);
+    removeStatement(as);
+  }
+
+  /**
+   * Retract the constraints that some call graph nodes contributed, so that the nodes' constraints
+   * can be added again from new code, and prepare the next {@link #solve} to recompute every
+   * points-to set that the retracted constraints may have contributed to.
+   *
+   * <p>A statement is retracted if it mentions a local pointer key of one of the nodes, unless it
+   * was contributed by a caller: one that passes values from outside the nodes to a parameter, or
+   * that reads a return value into a variable outside the nodes. The points-to sets of the nodes'
+   * locals are discarded, except those of parameters, which only callers define. Every variable
+   * that the retracted statements defined, and every variable downstream of those, is emptied and
+   * refilled with its {@linkplain #setSeedTracking(boolean) seeds}, and the statements that define
+   * it are scheduled.
+   *
+   * <p>Seeds of instances that the nodes allocate are forgotten as well, wherever the nodes put
+   * them, since adding the nodes' constraints again restores them.
+   *
+   * <p>The next solve reaches a fixed point of the remaining statements, which is sound for the new
+   * code. Facts that the retracted constraints contributed indirectly survive, however: statements
+   * that other nodes' side effects generated for instances that no longer flow, and seeds of other
+   * instances, such as constants, that the nodes put into the points-to sets of other pointer keys.
+   * The result can thus be less precise than solving from scratch, unless the new code only adds
+   * constraints.
+   *
+   * @param nodes the nodes whose constraints to retract
+   * @return the number of points-to sets that were emptied
+   * @throws IllegalStateException if seed tracking is off or cycle elimination is on, or if the
+   *     system has not reached a fixed point
+   */
+  public int retractConstraints(Set<CGNode> nodes) {
+    if (nodes == null) {
+      throw new IllegalArgumentException("nodes is null");
+    }
+    if (!seedTracking) {
+      throw new IllegalStateException("cannot retract constraints without seed tracking");
+    }
+    if (cycleElimination) {
+      throw new IllegalStateException("cannot retract constraints after cycle elimination");
+    }
+    if (!emptyWorkList()) {
+      throw new IllegalStateException("cannot retract constraints before reaching a fixed point");
+    }
+
+    // classify the variables of the nodes' local pointer keys
+    Set<PointsToSetVariable> locals = HashSetFactory.make();
+    Set<PointsToSetVariable> parameters = HashSetFactory.make();
+    Set<PointsToSetVariable> results = HashSetFactory.make();
+    List<PointerKey> discarded = new ArrayList<>();
+    for (PointerKey key : Iterator2Iterable.make(pointsToMap.iterateKeys())) {
+      if (!(key instanceof AbstractLocalPointerKey local) || !nodes.contains(local.getNode())) {
+        continue;
+      }
+      if (pointsToMap.isImplicit(key)) {
+        // the new code may define this value differently
+        pointsToMap.forget(key);
+        continue;
+      }
+      assert !pointsToMap.isUnified(key);
+      PointsToSetVariable v = pointsToMap.getPointsToSet(key);
+      if (v == null) {
+        continue;
+      }
+      locals.add(v);
+      if (key instanceof LocalPointerKey lpk && lpk.isParameter()) {
+        parameters.add(v);
+      } else if (key instanceof ReturnValueKey) {
+        results.add(v);
+      } else {
+        discarded.add(key);
+      }
+    }
+
+    // remove the statements the nodes contributed
+    Set<AbstractStatement<PointsToSetVariable, ?>> retracted = HashSetFactory.make();
+    for (PointsToSetVariable v : locals) {
+      for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatUse(v))) {
+        if (!isContributedByCaller(s, locals, parameters, results)) {
+          retracted.add(s);
+        }
+      }
+      for (AbstractStatement<PointsToSetVariable, ?> s :
+          Iterator2Iterable.make(getStatementsThatDef(v))) {
+        if (!isContributedByCaller(s, locals, parameters, results)) {
+          retracted.add(s);
+        }
+      }
+    }
+    Set<PointsToSetVariable> reset = HashSetFactory.make(results);
+    for (AbstractStatement<PointsToSetVariable, ?> s : retracted) {
+      removeStatement(s);
+      PointsToSetVariable lhs = s.getLHS();
+      if (lhs != null && (!locals.contains(lhs) || results.contains(lhs))) {
+        reset.add(lhs);
+      }
+    }
+
+    // discard the variables of the other locals; the new code creates them afresh
+    for (PointerKey key : discarded) {
+      PointsToSetVariable v = pointsToMap.getPointsToSet(key);
+      if (v != null) {
+        if (flowGraph.containsVariable(v)) {
+          flowGraph.removeVariable(v);
+        }
+        seeds.remove(v);
+        fixedSetMap.remove(v);
+        pointsToMap.forget(key);
+      }
+    }
+
+    // forget the seeds of instances allocated in the nodes; the new code adds them again
+    MutableIntSet stale = IntSetUtil.make();
+    for (int i = 0; i <= instanceKeys.getMaximumIndex(); i++) {
+      if (instanceKeys.getMappedObject(i) instanceof InstanceKeyWithNode ik
+          && nodes.contains(ik.getNode())) {
+        stale.add(i);
+      }
+    }
+    if (!stale.isEmpty()) {
+      for (Map.Entry<PointsToSetVariable, MutableIntSet> e : seeds.entrySet()) {
+        if (e.getValue().containsAny(stale)) {
+          MutableIntSet kept = IntSetUtil.make();
+          e.getValue().foreachExcluding(stale, kept::add);
+          e.setValue(kept);
+          reset.add(e.getKey());
+        }
+      }
+    }
+
+    // close the reset variables under flow
+    ArrayDeque<PointsToSetVariable> pending = new ArrayDeque<>(reset);
+    while (!pending.isEmpty()) {
+      PointsToSetVariable v = pending.pop();
+      for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatUse(v))) {
+        PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+        if (lhs != null && reset.add(lhs)) {
+          pending.push(lhs);
+        }
+      }
+    }
+
+    // empty them, restore their seeds, and schedule the statements that recompute them
+    for (PointsToSetVariable v : reset) {
+      v.removeAll();
+      MutableIntSet seed = seeds.get(v);
+      if (seed != null) {
+        v.addAll(seed);
+      }
+      for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatDef(v))) {
+        addToWorkList(s);
+      }
+      // side effects that read v may have to generate statements for its new contents
+      for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatUse(v))) {
+        addToWorkList(s);
+      }
+    }
+    return reset.size();
+  }
+
+  /**
+   * Was statement s, which mentions some of the given local variables, contributed by a caller of
+   * their nodes? It is if it defines a parameter from variables outside the nodes, or if it defines
+   * a variable outside the nodes from return values only.
+   */
+  private static boolean isContributedByCaller(
+      AbstractStatement<PointsToSetVariable, ?> s,
+      Set<PointsToSetVariable> locals,
+      Set<PointsToSetVariable> parameters,
+      Set<PointsToSetVariable> results) {
+    PointsToSetVariable lhs = s.getLHS();
+    if (lhs == null) {
+      return false;
+    }
+    Set<PointsToSetVariable> allowed;
+    if (parameters.contains(lhs)) {
+      allowed = Collections.emptySet();
+    } else if (!locals.contains(lhs)) {
+      allowed = results;
+    } else {
+      return false;
+    }
+    if (s instanceof UnaryStatement<?> unary) {
+      PointsToSetVariable rhs = (PointsToSetVariable) unary.getRightHandSide();
+      return !locals.contains(rhs) || allowed.contains(rhs);
+    }
+    for (PointsToSetVariable rhs : s.getRHS()) {
+      if (rhs != null && locals.contains(rhs) && !allowed.contains(rhs)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public boolean isUnified(PointerKey result) {
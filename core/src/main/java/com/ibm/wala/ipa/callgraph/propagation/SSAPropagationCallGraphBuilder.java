@@ -739,8 +739,8 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
             }
           }
         } else {
-          assert !system.isUnified(result);
-          assert !system.isUnified(arrayRefPtrKey);
+          assert !system.isUnified(result) || system.isCollapsed(result);
+          assert !system.isUnified(arrayRefPtrKey) || system.isCollapsed(arrayRefPtrKey);
           system.newSideEffect(
               getBuilder().new ArrayLoadOperator(system.findOrCreatePointsToSet(result)),
               arrayRefPtrKey);
@@ -797,7 +797,7 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
           InstanceKey[] ik = getInvariantContents(value);
           for (InstanceKey element : ik) {
             system.findOrCreateIndexForInstanceKey(element);
-            assert !system.isUnified(arrayRefPtrKey);
+            assert !system.isUnified(arrayRefPtrKey) || system.isCollapsed(arrayRefPtrKey);
             system.newSideEffect(
                 getBuilder().new InstanceArrayStoreOperator(element), arrayRefPtrKey);
           }
@@ -1735,6 +1735,12 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
      */
     private final MutableIntSet[] previousPtrs;
 
+    /**
+     * For difference propagation: cursors[i] records how much of the points-to set at rhs index i
+     * has already been consumed, so that each evaluation only visits newly added instance keys.
+     */
+    private final PointsToSetVariable.HistoryCursor[] cursors;
+
     /**
      * @param constParams if non-null, then constParams[i] holds the String constant that is passed
      *     as param i, or null if param i is not a String constant
@@ -1754,13 +1760,17 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
       // assert this.dispatchIndices[0] == 0;
       previousPtrs = new MutableIntSet[dispatchIndices.size()];
       Arrays.setAll(previousPtrs, i -> IntSetUtil.getDefaultIntSetFactory().make());
+      cursors = new PointsToSetVariable.HistoryCursor[previousPtrs.length];
+      Arrays.setAll(cursors, i -> new PointsToSetVariable.HistoryCursor());
     }
 
     private byte cpa(final PointsToSetVariable[] rhs) {
       final MutableBoolean changed = new MutableBoolean();
       for (int rhsIndex = 0; rhsIndex < rhs.length; rhsIndex++) {
         final int y = rhsIndex;
-        IntSet currentObjs = rhs[rhsIndex].getValue();
+        PointsToSetVariable var = rhs[rhsIndex];
+        IntSet currentObjs =
+            var.isTrackingHistory() ? var.takeDelta(cursors[rhsIndex]) : var.getValue();
         if (currentObjs != null) {
           final IntSet oldObjs = previousPtrs[rhsIndex];
 
@@ -215,6 +215,11 @@ public class ZeroXInstanceKeys implements InstanceKeyFactory {
     return s.contains(c);
   }
 
+  @Override
+  public void invalidate(CGNode node) {
+    smushMap.remove(node);
+  }
+
   /**
    * @return Map: IClass -&gt; Integer, the number of allocation sites for each type.
    */
@@ -104,7 +104,7 @@ public class AuxiliaryCache implements IAuxiliaryCache {
   }
 
   @Override
-  public void invalidate(IMethod method, Context c) {
+  public synchronized void invalidate(IMethod method, Context c) {
     dictionary.remove(Pair.make(method, c));
   }
 }
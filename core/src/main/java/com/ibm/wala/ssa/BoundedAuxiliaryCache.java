@@ -0,0 +1,373 @@
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Pair;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache for auxiliary information based on an SSA representation, which holds its values
+ * strongly up to an explicit memory budget.
+ *
+ * <p>Unlike {@link AuxiliaryCache}, which leaves eviction to the garbage collector through soft
+ * references, this cache weighs each value with an estimate of its size in bytes (see {@link
+ * #estimateWeight(Object)}) and evicts entries once the total weight exceeds the budget. Entries
+ * are kept per &lt;method,context&gt; pair, so all {@link SSAOptions} variants of a pair are
+ * evicted together. Two eviction policies are available:
+ *
+ * <ul>
+ *   <li>{@link Policy#LRU} evicts the least recently used pair;
+ *   <li>{@link Policy#TINY_LFU} additionally keeps an approximate, aging access frequency for each
+ *       pair, and admits a new pair only if it has been requested more often than the least
+ *       recently used pair it would evict. This protects frequently used IRs from being flushed by
+ *       a scan over many methods that are each used once.
+ * </ul>
+ *
+ * <p>The cache is split into independently locked segments, so concurrent lookups for different
+ * methods rarely contend. Hit, miss and eviction counts are kept for tuning the budget.
+ */
+public class BoundedAuxiliaryCache implements IAuxiliaryCache {
+
+  /** How to choose which entries to drop when the cache is over budget */
+  public enum Policy {
+    LRU,
+    TINY_LFU
+  }
+
+  /** The default budget, in (estimated) bytes */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 256L << 20;
+
+  private static final int SEGMENTS = 16;
+
+  private final long maximumWeight;
+
+  private final ToLongFunction<Object> weigher;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  public BoundedAuxiliaryCache() {
+    this(DEFAULT_MAXIMUM_WEIGHT, Policy.TINY_LFU);
+  }
+
+  public BoundedAuxiliaryCache(long maximumWeight, Policy policy) {
+    this(maximumWeight, policy, BoundedAuxiliaryCache::estimateWeight);
+  }
+
+  /**
+   * @param maximumWeight the budget for the total weight of all cached values
+   * @param policy the eviction policy
+   * @param weigher estimates the weight of a cached value; must be non-negative
+   * @throws IllegalArgumentException if maximumWeight is negative
+   */
+  public BoundedAuxiliaryCache(long maximumWeight, Policy policy, ToLongFunction<Object> weigher) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+    }
+    if (policy == null) {
+      throw new IllegalArgumentException("policy is null");
+    }
+    if (weigher == null) {
+      throw new IllegalArgumentException("weigher is null");
+    }
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] =
+          new Segment(
+              maximumWeight / SEGMENTS, policy == Policy.TINY_LFU ? new FrequencySketch() : null);
+    }
+  }
+
+  /**
+   * Estimate the memory retained by an {@link IR} or {@link DefUse}, in bytes. The estimate is
+   * proportional to the number of instructions, basic blocks and value numbers; other objects
+   * weigh a nominal constant.
+   */
+  public static long estimateWeight(Object aux) {
+    if (aux instanceof IR ir) {
+      long instructions = ir.getInstructions().length;
+      long blocks = ir.getControlFlowGraph().getNumberOfNodes();
+      long values = ir.getSymbolTable().getMaxValueNumber();
+      return 512 + 64 * instructions + 160 * blocks + 48 * values;
+    } else if (aux instanceof DefUse du) {
+      return 128 + 24L * du.getMaxValueNumber() + 40L * du.allInstructions.size();
+    } else {
+      return 64;
+    }
+  }
+
+  private Segment segmentFor(Pair<IMethod, Context> p) {
+    int h = p.hashCode();
+    h ^= h >>> 16;
+    return segments[h & (SEGMENTS - 1)];
+  }
+
+  @Override
+  public Object find(IMethod m, Context c, SSAOptions options) {
+    Pair<IMethod, Context> p = Pair.make(m, c);
+    Segment segment = segmentFor(p);
+    Object result;
+    synchronized (segment) {
+      result = segment.find(p, options);
+    }
+    if (result != null) {
+      hits.increment();
+    }
+    return result;
+  }
+
+  @Override
+  public void cache(IMethod m, Context c, SSAOptions options, Object aux) {
+    misses.increment();
+    if (aux == null) {
+      return;
+    }
+    long weight = weigher.applyAsLong(aux);
+    Pair<IMethod, Context> p = Pair.make(m, c);
+    Segment segment = segmentFor(p);
+    int evicted;
+    synchronized (segment) {
+      evicted = segment.cache(p, options, aux, weight);
+    }
+    evictions.add(evicted);
+  }
+
+  @Override
+  public void invalidate(IMethod method, Context c) {
+    Pair<IMethod, Context> p = Pair.make(method, c);
+    Segment segment = segmentFor(p);
+    synchronized (segment) {
+      segment.remove(p);
+    }
+  }
+
+  @Override
+  public void wipe() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * @return the total estimated weight of the values currently cached
+   */
+  public long getWeight() {
+    long result = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        result += segment.weight;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of &lt;method,context&gt; pairs currently cached
+   */
+  public int size() {
+    int result = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        result += segment.entries.size();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return how many calls to {@link #find} returned a cached value
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return how many values were passed to {@link #cache}, that is, how many values had to be
+   *     created because they were not found. A lookup that finds nothing but is not followed by
+   *     caching a value, such as a second check before creating it, is not counted.
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return how many &lt;method,context&gt; pairs were dropped, or not admitted, to stay within
+   *     budget
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedAuxiliaryCache[size="
+        + size()
+        + ", weight="
+        + getWeight()
+        + '/'
+        + maximumWeight
+        + ", hits="
+        + getHitCount()
+        + ", misses="
+        + getMissCount()
+        + ", evictions="
+        + getEvictionCount()
+        + ']';
+  }
+
+  /** The values cached for one &lt;method,context&gt; pair */
+  private static final class Entry {
+    final Map<SSAOptions, Object> values = HashMapFactory.make(2);
+
+    final Map<SSAOptions, Long> weights = HashMapFactory.make(2);
+
+    long weight;
+  }
+
+  /** A share of the cache, with its own budget, recency order and lock */
+  private static final class Segment {
+
+    final long maximumWeight;
+
+    /** entries in access order: least recently used first */
+    final LinkedHashMap<Pair<IMethod, Context>, Entry> entries =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    final FrequencySketch sketch;
+
+    long weight;
+
+    Segment(long maximumWeight, FrequencySketch sketch) {
+      this.maximumWeight = maximumWeight;
+      this.sketch = sketch;
+    }
+
+    Object find(Pair<IMethod, Context> p, SSAOptions options) {
+      if (sketch != null) {
+        sketch.increment(p.hashCode());
+      }
+      Entry e = entries.get(p);
+      return e == null ? null : e.values.get(options);
+    }
+
+    /**
+     * @return the number of pairs evicted
+     */
+    int cache(Pair<IMethod, Context> p, SSAOptions options, Object aux, long w) {
+      Entry e = entries.get(p);
+      boolean isNew = e == null;
+      if (isNew) {
+        e = new Entry();
+        entries.put(p, e);
+      }
+      e.values.put(options, aux);
+      Long old = e.weights.put(options, w);
+      long delta = w - (old == null ? 0 : old);
+      e.weight += delta;
+      weight += delta;
+
+      int evicted = 0;
+      Iterator<Map.Entry<Pair<IMethod, Context>, Entry>> it = entries.entrySet().iterator();
+      while (weight > maximumWeight && entries.size() > 1) {
+        Map.Entry<Pair<IMethod, Context>, Entry> victim = it.next();
+        if (victim.getKey().equals(p)) {
+          // never evict the entry being cached in favor of itself
+          continue;
+        }
+        if (isNew
+            && sketch != null
+            && sketch.frequency(p.hashCode()) <= sketch.frequency(victim.getKey().hashCode())) {
+          // the candidate is no more popular than the victim: reject it instead
+          entries.remove(p);
+          weight -= e.weight;
+          return evicted + 1;
+        }
+        it.remove();
+        weight -= victim.getValue().weight;
+        evicted++;
+      }
+      return evicted;
+    }
+
+    void remove(Pair<IMethod, Context> p) {
+      Entry e = entries.remove(p);
+      if (e != null) {
+        weight -= e.weight;
+      }
+    }
+
+    void clear() {
+      entries.clear();
+      weight = 0;
+    }
+  }
+
+  /**
+   * A count-min sketch of recent access frequencies, with four rows of small saturating counters.
+   * All counters are halved periodically, so that the sketch reflects recent popularity.
+   */
+  private static final class FrequencySketch {
+
+    private static final int WIDTH = 1 << 12;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final byte[][] table = new byte[SEEDS.length][WIDTH];
+
+    private int additions;
+
+    private static int index(int hash, int seed) {
+      int h = hash * seed;
+      h ^= h >>> 17;
+      return h & (WIDTH - 1);
+    }
+
+    void increment(int hash) {
+      for (int i = 0; i < SEEDS.length; i++) {
+        int j = index(hash, SEEDS[i]);
+        if (table[i][j] < MAX_COUNT) {
+          table[i][j]++;
+        }
+      }
+      if (++additions >= 10 * WIDTH) {
+        age();
+      }
+    }
+
+    int frequency(int hash) {
+      int result = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++) {
+        result = Math.min(result, table[i][index(hash, SEEDS[i])]);
+      }
+      return result;
+    }
+
+    private void age() {
+      for (byte[] row : table) {
+        for (int j = 0; j < row.length; j++) {
+          row[j] >>= 1;
+        }
+      }
+      additions /= 2;
+    }
+  }
+}
@@ -13,7 +13,15 @@ package com.ibm.wala.ssa;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.Context;
 
-interface IAuxiliaryCache {
+/**
+ * A cache for auxiliary information based on an SSA representation, such as {@link IR}s and {@link
+ * DefUse}s, keyed by &lt;method,context,options&gt;. Implementations must be safe for use by
+ * several threads at once.
+ *
+ * @see AuxiliaryCache
+ * @see BoundedAuxiliaryCache
+ */
+public interface IAuxiliaryCache {
 
   /** The existence of this is unfortunate. */
   void wipe();
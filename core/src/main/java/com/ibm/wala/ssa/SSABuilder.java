@@ -958,14 +958,15 @@ public class SSABuilder extends AbstractIntStackMachine {
 
   /**
    * A logical mapping from &lt;pc, valueNumber&gt; -&gt; local number Note: make sure this class
-   * remains static: this persists as part of the IR!!
+   * remains static: this persists as part of the IR!! It is package-visible so that {@link
+   * ShrikeIRCodec} can encode and recreate it.
    *
    * @param localStoreMap Mapping Integer -&gt; IntPair where p maps to (vn,L) iff we've started a
    *     range at pc p where value number vn corresponds to local L
    * @param block2LocalState For each basic block i and local j, block2LocalState[i][j] gives the
    *     contents of local j at the start of block i
    */
-  private record SSA2LocalMap(
+  record SSA2LocalMap(
       ShrikeCFG shrikeCFG, IntPair[] localStoreMap, int[][] block2LocalState)
       implements IR.SSA2LocalMap {
 
@@ -13,12 +13,22 @@ package com.ibm.wala.ssa;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.Context;
 import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
- * A mapping from IMethod -&gt; SSAOptions -&gt; SoftReference -&gt; Something
+ * A mapping from IMethod -&gt; SSAOptions -&gt; Something, backed by a pair of {@link
+ * IAuxiliaryCache}s for IRs and {@link DefUse}s.
  *
- * <p>This doesn't work very well ... GCs don't do such a great job with SoftReferences ... revamp
- * it.
+ * <p>With the default {@link AuxiliaryCache}, values are held through SoftReferences, which doesn't
+ * work very well ... GCs don't do such a great job with SoftReferences. A {@link
+ * BoundedAuxiliaryCache} holds values up to an explicit memory budget instead.
+ *
+ * <p>This class is safe for concurrent use. IRs for different methods are built in parallel, but
+ * concurrent requests for the same &lt;method,context,options&gt; wait for a single construction,
+ * so that all of them see the same IR.
  */
 public class SSACache {
 
@@ -34,6 +44,17 @@ public class SSACache {
   /** A cache of DefUse information */
   private final IAuxiliaryCache duCache;
 
+  private record Key(IMethod method, Context context, SSAOptions options) {}
+
+  /** A value being built by the owner thread */
+  private record Pending(Thread owner, CompletableFuture<Object> future) {}
+
+  /** IRs being built right now, so that concurrent requests for the same one wait for it */
+  private final ConcurrentHashMap<Key, Pending> pendingIRs = new ConcurrentHashMap<>();
+
+  /** DefUses being built right now */
+  private final ConcurrentHashMap<Key, Pending> pendingDUs = new ConcurrentHashMap<>();
+
   /**
    * @param factory a factory for creating IRs
    */
@@ -49,7 +70,7 @@ public class SSACache {
    * @return an IR for m, built according to the specified options. null if m is abstract or native.
    * @throws IllegalArgumentException if m is null
    */
-  public synchronized IR findOrCreateIR(final IMethod m, Context c, final SSAOptions options) {
+  public IR findOrCreateIR(final IMethod m, Context c, final SSAOptions options) {
 
     if (m == null) {
       throw new IllegalArgumentException("m is null");
@@ -66,12 +87,9 @@ public class SSACache {
       return factory.makeIR(m, c, options);
     }
 
-    IR ir = (IR) irCache.find(m, c, options);
-    if (ir == null) {
-      ir = factory.makeIR(m, c, options);
-      irCache.cache(m, c, options, ir);
-    }
-    return ir;
+    final Context context = c;
+    return (IR)
+        findOrCreate(irCache, pendingIRs, m, c, options, () -> factory.makeIR(m, context, options));
   }
 
   /**
@@ -80,7 +98,7 @@ public class SSACache {
    * @return DefUse information for m, built according to the specified options. null if unavailable
    * @throws IllegalArgumentException if m is null
    */
-  public synchronized DefUse findOrCreateDU(IMethod m, Context c, SSAOptions options) {
+  public DefUse findOrCreateDU(IMethod m, Context c, SSAOptions options) {
     if (m == null) {
       throw new IllegalArgumentException("m is null");
     }
@@ -91,13 +109,15 @@ public class SSACache {
       c = Everywhere.EVERYWHERE;
     }
 
-    DefUse du = (DefUse) duCache.find(m, c, options);
-    if (du == null) {
-      IR ir = findOrCreateIR(m, c, options);
-      du = new DefUse(ir);
-      duCache.cache(m, c, options, du);
-    }
-    return du;
+    final Context context = c;
+    return (DefUse)
+        findOrCreate(
+            duCache,
+            pendingDUs,
+            m,
+            c,
+            options,
+            () -> new DefUse(findOrCreateIR(m, context, options)));
   }
 
   /**
@@ -105,16 +125,77 @@ public class SSACache {
    *     unavailable
    * @throws IllegalArgumentException if ir is null
    */
-  public synchronized DefUse findOrCreateDU(IR ir, Context C) {
+  public DefUse findOrCreateDU(IR ir, Context C) {
     if (ir == null) {
       throw new IllegalArgumentException("ir is null");
     }
-    DefUse du = (DefUse) duCache.find(ir.getMethod(), C, ir.getOptions());
-    if (du == null) {
-      du = new DefUse(ir);
-      duCache.cache(ir.getMethod(), C, ir.getOptions(), du);
+    return (DefUse)
+        findOrCreate(duCache, pendingDUs, ir.getMethod(), C, ir.getOptions(), () -> new DefUse(ir));
+  }
+
+  /**
+   * Find a value in cache, or else create and cache it. If another thread is already creating the
+   * same value, wait for it rather than creating it again. If this thread is already creating it,
+   * as when a factory asks for the IR it is building, create it again rather than wait for itself.
+   */
+  private static Object findOrCreate(
+      IAuxiliaryCache cache,
+      ConcurrentHashMap<Key, Pending> pending,
+      IMethod m,
+      Context c,
+      SSAOptions options,
+      Supplier<Object> maker) {
+    Object result = cache.find(m, c, options);
+    if (result != null) {
+      return result;
+    }
+    Key key = new Key(m, c, options);
+    Pending mine = new Pending(Thread.currentThread(), new CompletableFuture<>());
+    Pending other = pending.putIfAbsent(key, mine);
+    if (other != null) {
+      if (other.owner() == mine.owner()) {
+        return maker.get();
+      }
+      try {
+        return other.future().join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+          throw runtimeException;
+        } else if (e.getCause() instanceof Error error) {
+          throw error;
+        }
+        throw e;
+      }
+    }
+    try {
+      // another thread may have finished creating the value since we looked
+      result = cache.find(m, c, options);
+      if (result == null) {
+        result = maker.get();
+        cache.cache(m, c, options, result);
+      }
+      mine.future().complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      mine.future().completeExceptionally(e);
+      throw e;
+    } finally {
+      pending.remove(key, mine);
     }
-    return du;
+  }
+
+  /**
+   * @return the cache of IRs
+   */
+  public IAuxiliaryCache getIRCache() {
+    return irCache;
+  }
+
+  /**
+   * @return the cache of {@link DefUse}s
+   */
+  public IAuxiliaryCache getDefUseCache() {
+    return duCache;
   }
 
   /** The existence of this is unfortunate. */
@@ -0,0 +1,833 @@
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IBytecodeMethod;
+import com.ibm.wala.classLoader.IClassLoader;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.NewSiteReference;
+import com.ibm.wala.cfg.ShrikeCFG;
+import com.ibm.wala.core.util.strings.Atom;
+import com.ibm.wala.shrike.shrikeBT.IBinaryOpInstruction;
+import com.ibm.wala.shrike.shrikeBT.IComparisonInstruction;
+import com.ibm.wala.shrike.shrikeBT.IConditionalBranchInstruction;
+import com.ibm.wala.shrike.shrikeBT.IInvokeInstruction;
+import com.ibm.wala.shrike.shrikeBT.IShiftInstruction;
+import com.ibm.wala.shrike.shrikeBT.IUnaryOpInstruction;
+import com.ibm.wala.ssa.SSACFG.BasicBlock;
+import com.ibm.wala.ssa.SSACFG.ExceptionHandlerBasicBlock;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.Descriptor;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.TypeName;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.intset.IntPair;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A compact binary encoding of the {@link IR} that {@code ShrikeIRFactory} builds for a Java
+ * bytecode method.
+ *
+ * <p>The encoding records the results of SSA construction: the instruction array, the symbol
+ * table, the phi and catch instructions of each basic block, and the map from value numbers to
+ * bytecode locals. It does not record the control-flow graph, which is rebuilt from the bytecode
+ * before decoding; the encoding refers to its blocks by number. Integers are written as
+ * variable-length zig-zag numbers, and every string is written once per method and referred to by
+ * index.
+ *
+ * <p>Only IRs built with the default {@link SSAOptions} can be encoded: methods of non-Java
+ * loaders, IRs with pi instructions or indirect local accesses, and instructions that refer to
+ * objects without a stable external form (such as invokedynamic bootstrap methods) make {@link
+ * #encode} return {@code null}.
+ */
+public final class ShrikeIRCodec {
+
+  private static final int NULL = 0;
+
+  private static final int ARRAY_LENGTH = 1;
+
+  private static final int ARRAY_LOAD = 2;
+
+  private static final int ARRAY_STORE = 3;
+
+  private static final int BINARY_OP = 4;
+
+  private static final int SHIFT = 5;
+
+  private static final int CHECK_CAST = 6;
+
+  private static final int COMPARISON = 7;
+
+  private static final int CONDITIONAL_BRANCH = 8;
+
+  private static final int CONVERSION = 9;
+
+  private static final int GET_STATIC = 10;
+
+  private static final int GET_INSTANCE = 11;
+
+  private static final int GOTO = 12;
+
+  private static final int INSTANCEOF = 13;
+
+  private static final int INVOKE = 14;
+
+  private static final int INVOKE_VOID = 15;
+
+  private static final int LOAD_TYPE = 16;
+
+  private static final int LOAD_METHOD = 17;
+
+  private static final int MONITOR = 18;
+
+  private static final int NEW = 19;
+
+  private static final int PUT_STATIC = 20;
+
+  private static final int PUT_INSTANCE = 21;
+
+  private static final int RETURN_VOID = 22;
+
+  private static final int RETURN = 23;
+
+  private static final int SWITCH = 24;
+
+  private static final int THROW = 25;
+
+  private static final int UNARY_OP = 26;
+
+  private static final int SYMBOL = 0;
+
+  private static final int PHI = 1;
+
+  private static final int NULL_CONSTANT = 2;
+
+  private static final int INT_CONSTANT = 3;
+
+  private static final int LONG_CONSTANT = 4;
+
+  private static final int FLOAT_CONSTANT = 5;
+
+  private static final int DOUBLE_CONSTANT = 6;
+
+  private static final int STRING_CONSTANT = 7;
+
+  private static final int BOOLEAN_CONSTANT = 8;
+
+  private ShrikeIRCodec() {}
+
+  /** Thrown internally when an IR holds something the encoding cannot represent. */
+  private static final class UnencodableException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    UnencodableException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Encode an IR built by {@code ShrikeIRFactory}.
+   *
+   * @return the encoding, or {@code null} if the IR cannot be encoded
+   */
+  public static byte @Nullable [] encode(IR ir) {
+    if (!(ir.getMethod() instanceof IBytecodeMethod)
+        || ir.getMethod().getDeclaringClass().getClassLoader().getLanguage() != Language.JAVA
+        || ir.getOptions().getPiNodePolicy() != null
+        || (ir.getIndirectionData() != null && !ir.getIndirectionData().getNames().isEmpty())
+        || (ir.getLocalMap() != null && !(ir.getLocalMap() instanceof SSABuilder.SSA2LocalMap))) {
+      return null;
+    }
+    try {
+      Writer out = new Writer();
+      encodeSymbolTable(out, ir.getSymbolTable());
+      encodeBlocks(out, ir.getControlFlowGraph());
+      encodeInstructions(out, ir.getInstructions());
+      encodeLocalMap(out, (SSABuilder.SSA2LocalMap) ir.getLocalMap());
+      return out.toByteArray();
+    } catch (UnencodableException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Decode an IR into freshly created, empty structures, as {@code ShrikeIRFactory} would have
+   * populated them by SSA construction.
+   *
+   * @param encoded the encoding produced by {@link #encode}
+   * @param method the method whose IR was encoded
+   * @param shrikeCFG the control-flow graph of the method's bytecode
+   * @param cfg a new SSA control-flow graph over {@code instructions}
+   * @param instructions an empty array with one element per bytecode instruction
+   * @param symbolTable a new symbol table holding only the parameters
+   * @return the map from value numbers to locals, or {@code null} if none was encoded
+   * @throws IllegalArgumentException if the encoding is malformed or does not match the method
+   */
+  public static IR.@Nullable SSA2LocalMap decode(
+      ByteBuffer encoded,
+      IBytecodeMethod<?> method,
+      ShrikeCFG shrikeCFG,
+      SSACFG cfg,
+      SSAInstruction[] instructions,
+      SymbolTable symbolTable) {
+    try {
+      Reader in = new Reader(encoded.duplicate(), method.getDeclaringClass().getClassLoader());
+      decodeSymbolTable(in, symbolTable);
+      decodeBlocks(in, cfg, symbolTable);
+      decodeInstructions(in, instructions);
+      return decodeLocalMap(in, shrikeCFG, instructions.length);
+    } catch (BufferUnderflowException | ClassCastException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("malformed IR encoding for " + method, e);
+    }
+  }
+
+  private static void check(boolean condition) throws UnencodableException {
+    if (!condition) {
+      throw new UnencodableException();
+    }
+  }
+
+  private static void expect(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  private static void encodeSymbolTable(Writer out, SymbolTable symbolTable)
+      throws UnencodableException {
+    int max = symbolTable.getMaxValueNumber();
+    out.writeInt(symbolTable.getNumberOfParameters());
+    out.writeInt(max);
+    for (int vn = symbolTable.getNumberOfParameters() + 1; vn <= max; vn++) {
+      Value v = symbolTable.getValue(vn);
+      if (v == null) {
+        out.writeInt(SYMBOL);
+      } else if (v instanceof PhiValue phiValue) {
+        SSAPhiInstruction phi = phiValue.getPhiInstruction();
+        out.writeInt(PHI);
+        out.writeInt(phi.getNumberOfUses());
+        for (int j = 0; j < phi.getNumberOfUses(); j++) {
+          out.writeInt(phi.getUse(j));
+        }
+      } else if (v instanceof ConstantValue constantValue) {
+        Object c = constantValue.getValue();
+        if (c == null) {
+          out.writeInt(NULL_CONSTANT);
+        } else if (c instanceof Integer i) {
+          out.writeInt(INT_CONSTANT);
+          out.writeInt(i);
+        } else if (c instanceof Long l) {
+          out.writeInt(LONG_CONSTANT);
+          out.writeLong(l);
+        } else if (c instanceof Float f) {
+          out.writeInt(FLOAT_CONSTANT);
+          out.writeInt(Float.floatToRawIntBits(f));
+        } else if (c instanceof Double d) {
+          out.writeInt(DOUBLE_CONSTANT);
+          out.writeLong(Double.doubleToRawLongBits(d));
+        } else if (c instanceof String s) {
+          out.writeInt(STRING_CONSTANT);
+          out.writeString(s);
+        } else if (c instanceof Boolean b) {
+          out.writeInt(BOOLEAN_CONSTANT);
+          out.writeBoolean(b);
+        } else {
+          throw new UnencodableException();
+        }
+      } else {
+        throw new UnencodableException();
+      }
+    }
+  }
+
+  private static void decodeSymbolTable(Reader in, SymbolTable symbolTable) {
+    expect(
+        in.readInt() == symbolTable.getNumberOfParameters(), "number of parameters does not match");
+    int max = in.readInt();
+    for (int vn = symbolTable.getNumberOfParameters() + 1; vn <= max; vn++) {
+      int tag = in.readInt();
+      int result =
+          switch (tag) {
+            case SYMBOL -> symbolTable.newSymbol();
+            case PHI -> symbolTable.newPhi(in.readInts());
+            case NULL_CONSTANT -> symbolTable.getNullConstant();
+            case INT_CONSTANT -> symbolTable.getConstant(in.readInt());
+            case LONG_CONSTANT -> symbolTable.getConstant(in.readLong());
+            case FLOAT_CONSTANT -> symbolTable.getConstant(Float.intBitsToFloat(in.readInt()));
+            case DOUBLE_CONSTANT ->
+                symbolTable.getConstant(Double.longBitsToDouble(in.readLong()));
+            case STRING_CONSTANT -> symbolTable.getConstant(in.readString());
+            case BOOLEAN_CONSTANT -> symbolTable.getConstant(in.readBoolean());
+            default -> throw new IllegalArgumentException("unknown value tag " + tag);
+          };
+      expect(result == vn, "value number " + vn + " decoded as " + result);
+    }
+    expect(symbolTable.getMaxValueNumber() == max, "maximum value number does not match");
+  }
+
+  private static void encodeBlocks(Writer out, SSACFG cfg) throws UnencodableException {
+    out.writeInt(cfg.getNumberOfNodes());
+    for (int i = 0; i < cfg.getNumberOfNodes(); i++) {
+      BasicBlock block = cfg.getNode(i);
+      check(!block.iteratePis().hasNext());
+      List<SSAPhiInstruction> phis = new ArrayList<>();
+      for (Iterator<SSAPhiInstruction> it = block.iteratePhis(); it.hasNext(); ) {
+        phis.add(it.next());
+      }
+      out.writeInt(phis.size());
+      for (SSAPhiInstruction phi : phis) {
+        out.writeInt(phi.getDef());
+      }
+      SSAGetCaughtExceptionInstruction catchInstruction =
+          block instanceof ExceptionHandlerBasicBlock handler
+              ? handler.getCatchInstruction()
+              : null;
+      out.writeInt(catchInstruction == null ? 0 : catchInstruction.getException());
+    }
+  }
+
+  private static void decodeBlocks(Reader in, SSACFG cfg, SymbolTable symbolTable) {
+    expect(in.readInt() == cfg.getNumberOfNodes(), "number of basic blocks does not match");
+    for (int i = 0; i < cfg.getNumberOfNodes(); i++) {
+      BasicBlock block = cfg.getNode(i);
+      int phis = in.readInt();
+      for (int k = 0; k < phis; k++) {
+        // the phis are iterated in the order in which they are added
+        block.addPhiForLocal(k, symbolTable.getPhiValue(in.readInt()).getPhiInstruction());
+      }
+      int exception = in.readInt();
+      if (exception != 0) {
+        ((ExceptionHandlerBasicBlock) block)
+            .setCatchInstruction(
+                in.insts.GetCaughtExceptionInstruction(SSAInstruction.NO_INDEX, i, exception));
+      }
+    }
+  }
+
+  private static void encodeInstructions(Writer out, SSAInstruction[] instructions)
+      throws UnencodableException {
+    out.writeInt(instructions.length);
+    for (int i = 0; i < instructions.length; i++) {
+      SSAInstruction s = instructions[i];
+      if (s == null) {
+        out.writeInt(NULL);
+        continue;
+      }
+      check(s.iIndex() == i);
+      if (s instanceof SSAArrayLengthInstruction x) {
+        out.writeInts(ARRAY_LENGTH, x.getDef(), x.getArrayRef());
+      } else if (s instanceof SSAArrayLoadInstruction x) {
+        out.writeInts(ARRAY_LOAD, x.getDef(), x.getArrayRef(), x.getIndex());
+        out.writeType(x.getElementType());
+      } else if (s instanceof SSAArrayStoreInstruction x) {
+        out.writeInts(ARRAY_STORE, x.getArrayRef(), x.getIndex(), x.getValue());
+        out.writeType(x.getElementType());
+      } else if (s instanceof SSABinaryOpInstruction x) {
+        if (x.getOperator() instanceof IBinaryOpInstruction.Operator op) {
+          out.writeInts(BINARY_OP, op.ordinal());
+        } else if (x.getOperator() instanceof IShiftInstruction.Operator op) {
+          out.writeInts(SHIFT, op.ordinal());
+        } else {
+          throw new UnencodableException();
+        }
+        out.writeInts(x.getDef(), x.getUse(0), x.getUse(1));
+        out.writeBoolean(x.mayBeIntegerOp());
+      } else if (s instanceof SSACheckCastInstruction x) {
+        out.writeInts(CHECK_CAST, x.getResult(), x.getVal());
+        out.writeBoolean(x.isPEI());
+        TypeReference[] types = x.getDeclaredResultTypes();
+        out.writeInt(types.length);
+        for (TypeReference t : types) {
+          out.writeType(t);
+        }
+      } else if (s instanceof SSAComparisonInstruction x) {
+        out.writeInts(
+            COMPARISON, x.getOperator().ordinal(), x.getDef(), x.getUse(0), x.getUse(1));
+      } else if (s instanceof SSAConditionalBranchInstruction x) {
+        check(x.getOperator() instanceof IConditionalBranchInstruction.Operator);
+        out.writeInts(
+            CONDITIONAL_BRANCH,
+            ((IConditionalBranchInstruction.Operator) x.getOperator()).ordinal(),
+            x.getUse(0),
+            x.getUse(1),
+            x.getTarget());
+        out.writeType(x.getType());
+      } else if (s instanceof SSAConversionInstruction x) {
+        out.writeInts(CONVERSION, x.getDef(), x.getUse(0));
+        out.writeType(x.getFromType());
+        out.writeType(x.getToType());
+      } else if (s instanceof SSAGetInstruction x) {
+        if (x.isStatic()) {
+          out.writeInts(GET_STATIC, x.getDef());
+        } else {
+          out.writeInts(GET_INSTANCE, x.getDef(), x.getRef());
+        }
+        out.writeField(x.getDeclaredField());
+      } else if (s instanceof SSAGotoInstruction x) {
+        out.writeInts(GOTO, x.getTarget());
+      } else if (s instanceof SSAInstanceofInstruction x) {
+        out.writeInts(INSTANCEOF, x.getDef(), x.getRef());
+        out.writeType(x.getCheckedType());
+      } else if (s instanceof SSAInvokeInstruction x
+          && !(s instanceof SSAInvokeDynamicInstruction)) {
+        check(x.getInvocationCode() instanceof IInvokeInstruction.Dispatch);
+        check(x.getNumberOfReturnValues() <= 1);
+        if (x.getNumberOfReturnValues() == 1) {
+          out.writeInts(INVOKE, x.getReturnValue(0));
+        } else {
+          out.writeInt(INVOKE_VOID);
+        }
+        int[] params = new int[x.getNumberOfUses()];
+        for (int j = 0; j < params.length; j++) {
+          params[j] = x.getUse(j);
+        }
+        out.writeIntArray(params);
+        out.writeInts(
+            x.getException(),
+            x.getProgramCounter(),
+            ((IInvokeInstruction.Dispatch) x.getInvocationCode()).ordinal());
+        out.writeMethod(x.getDeclaredTarget());
+      } else if (s instanceof SSALoadMetadataInstruction x) {
+        if (x.getToken() instanceof TypeReference t) {
+          out.writeInts(LOAD_TYPE, x.getDef());
+          out.writeType(t);
+        } else if (x.getToken() instanceof MethodReference m) {
+          out.writeInts(LOAD_METHOD, x.getDef());
+          out.writeMethod(m);
+        } else {
+          throw new UnencodableException();
+        }
+        out.writeType(x.getType());
+      } else if (s instanceof SSAMonitorInstruction x) {
+        out.writeInts(MONITOR, x.getRef());
+        out.writeBoolean(x.isMonitorEnter());
+      } else if (s instanceof SSANewInstruction x) {
+        out.writeInts(NEW, x.getDef(), x.getNewSite().getProgramCounter());
+        out.writeType(x.getConcreteType());
+        if (x.getConcreteType().isArrayType()) {
+          int[] params = new int[x.getNumberOfUses()];
+          for (int j = 0; j < params.length; j++) {
+            params[j] = x.getUse(j);
+          }
+          out.writeIntArray(params);
+        } else {
+          check(x.getNumberOfUses() == 0);
+        }
+      } else if (s instanceof SSAPutInstruction x) {
+        if (x.isStatic()) {
+          out.writeInts(PUT_STATIC, x.getVal());
+        } else {
+          out.writeInts(PUT_INSTANCE, x.getRef(), x.getVal());
+        }
+        out.writeField(x.getDeclaredField());
+      } else if (s instanceof SSAReturnInstruction x) {
+        if (x.returnsVoid()) {
+          out.writeInt(RETURN_VOID);
+        } else {
+          out.writeInts(RETURN, x.getResult());
+          out.writeBoolean(x.returnsPrimitiveType());
+        }
+      } else if (s instanceof SSASwitchInstruction x) {
+        out.writeInts(SWITCH, x.getUse(0), x.getDefault());
+        out.writeIntArray(x.getCasesAndLabels());
+      } else if (s instanceof SSAThrowInstruction x) {
+        out.writeInts(THROW, x.getException());
+      } else if (s instanceof SSAUnaryOpInstruction x
+          && x.getOpcode() instanceof IUnaryOpInstruction.Operator op) {
+        out.writeInts(UNARY_OP, op.ordinal(), x.getDef(), x.getUse(0));
+      } else {
+        throw new UnencodableException();
+      }
+    }
+  }
+
+  private static void decodeInstructions(Reader in, SSAInstruction[] instructions) {
+    expect(in.readInt() == instructions.length, "number of instructions does not match");
+    SSAInstructionFactory insts = in.insts;
+    for (int i = 0; i < instructions.length; i++) {
+      int tag = in.readInt();
+      instructions[i] =
+          switch (tag) {
+            case NULL -> null;
+            case ARRAY_LENGTH -> insts.ArrayLengthInstruction(i, in.readInt(), in.readInt());
+            case ARRAY_LOAD ->
+                insts.ArrayLoadInstruction(
+                    i, in.readInt(), in.readInt(), in.readInt(), in.readType());
+            case ARRAY_STORE ->
+                insts.ArrayStoreInstruction(
+                    i, in.readInt(), in.readInt(), in.readInt(), in.readType());
+            case BINARY_OP, SHIFT -> {
+              int op = in.readInt();
+              IBinaryOpInstruction.IOperator operator =
+                  tag == BINARY_OP
+                      ? IBinaryOpInstruction.Operator.values()[op]
+                      : IShiftInstruction.Operator.values()[op];
+              yield insts.BinaryOpInstruction(
+                  i,
+                  operator,
+                  false,
+                  false,
+                  in.readInt(),
+                  in.readInt(),
+                  in.readInt(),
+                  in.readBoolean());
+            }
+            case CHECK_CAST -> {
+              int result = in.readInt();
+              int val = in.readInt();
+              boolean isPEI = in.readBoolean();
+              TypeReference[] types = new TypeReference[in.readInt()];
+              for (int j = 0; j < types.length; j++) {
+                types[j] = in.readType();
+              }
+              yield insts.CheckCastInstruction(i, result, val, types, isPEI);
+            }
+            case COMPARISON ->
+                insts.ComparisonInstruction(
+                    i,
+                    IComparisonInstruction.Operator.values()[in.readInt()],
+                    in.readInt(),
+                    in.readInt(),
+                    in.readInt());
+            case CONDITIONAL_BRANCH -> {
+              IConditionalBranchInstruction.Operator operator =
+                  IConditionalBranchInstruction.Operator.values()[in.readInt()];
+              int val1 = in.readInt();
+              int val2 = in.readInt();
+              int target = in.readInt();
+              yield insts.ConditionalBranchInstruction(
+                  i, operator, in.readType(), val1, val2, target);
+            }
+            case CONVERSION ->
+                insts.ConversionInstruction(
+                    i, in.readInt(), in.readInt(), in.readType(), in.readType(), false);
+            case GET_STATIC -> insts.GetInstruction(i, in.readInt(), in.readField());
+            case GET_INSTANCE ->
+                insts.GetInstruction(i, in.readInt(), in.readInt(), in.readField());
+            case GOTO -> insts.GotoInstruction(i, in.readInt());
+            case INSTANCEOF ->
+                insts.InstanceofInstruction(i, in.readInt(), in.readInt(), in.readType());
+            case INVOKE, INVOKE_VOID -> {
+              int result = tag == INVOKE ? in.readInt() : -1;
+              int[] params = in.readInts();
+              int exception = in.readInt();
+              int pc = in.readInt();
+              IInvokeInstruction.Dispatch code = IInvokeInstruction.Dispatch.values()[in.readInt()];
+              CallSiteReference site = CallSiteReference.make(pc, in.readMethod(), code);
+              yield tag == INVOKE
+                  ? insts.InvokeInstruction(i, result, params, exception, site, null)
+                  : insts.InvokeInstruction(i, params, exception, site, null);
+            }
+            case LOAD_TYPE, LOAD_METHOD -> {
+              int lval = in.readInt();
+              Object token = tag == LOAD_TYPE ? in.readType() : in.readMethod();
+              yield insts.LoadMetadataInstruction(i, lval, in.readType(), token);
+            }
+            case MONITOR -> insts.MonitorInstruction(i, in.readInt(), in.readBoolean());
+            case NEW -> {
+              int result = in.readInt();
+              int pc = in.readInt();
+              TypeReference type = in.readType();
+              NewSiteReference site = NewSiteReference.make(pc, type);
+              yield type.isArrayType()
+                  ? insts.NewInstruction(i, result, site, in.readInts())
+                  : insts.NewInstruction(i, result, site);
+            }
+            case PUT_STATIC -> insts.PutInstruction(i, in.readInt(), in.readField());
+            case PUT_INSTANCE ->
+                insts.PutInstruction(i, in.readInt(), in.readInt(), in.readField());
+            case RETURN_VOID -> insts.ReturnInstruction(i);
+            case RETURN -> insts.ReturnInstruction(i, in.readInt(), in.readBoolean());
+            case SWITCH -> insts.SwitchInstruction(i, in.readInt(), in.readInt(), in.readInts());
+            case THROW -> insts.ThrowInstruction(i, in.readInt());
+            case UNARY_OP ->
+                insts.UnaryOpInstruction(
+                    i,
+                    IUnaryOpInstruction.Operator.values()[in.readInt()],
+                    in.readInt(),
+                    in.readInt());
+            default -> throw new IllegalArgumentException("unknown instruction tag " + tag);
+          };
+    }
+  }
+
+  private static void encodeLocalMap(Writer out, SSABuilder.@Nullable SSA2LocalMap localMap) {
+    if (localMap == null) {
+      out.writeBoolean(false);
+      return;
+    }
+    out.writeBoolean(true);
+    IntPair[] stores = localMap.localStoreMap();
+    int count = 0;
+    for (IntPair p : stores) {
+      if (p != null) {
+        count++;
+      }
+    }
+    out.writeInt(count);
+    for (int pc = 0; pc < stores.length; pc++) {
+      if (stores[pc] != null) {
+        out.writeInts(pc, stores[pc].x(), stores[pc].y());
+      }
+    }
+    int[][] states = localMap.block2LocalState();
+    out.writeInt(states.length);
+    for (int[] state : states) {
+      if (state == null) {
+        out.writeInt(-1);
+      } else {
+        out.writeIntArray(state);
+      }
+    }
+  }
+
+  private static IR.@Nullable SSA2LocalMap decodeLocalMap(
+      Reader in, ShrikeCFG shrikeCFG, int nInstructions) {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    IntPair[] stores = new IntPair[nInstructions];
+    int count = in.readInt();
+    for (int k = 0; k < count; k++) {
+      stores[in.readInt()] = new IntPair(in.readInt(), in.readInt());
+    }
+    int[][] states = new int[in.readInt()][];
+    for (int b = 0; b < states.length; b++) {
+      int length = in.readInt();
+      if (length >= 0) {
+        states[b] = new int[length];
+        for (int j = 0; j < length; j++) {
+          states[b][j] = in.readInt();
+        }
+      }
+    }
+    expect(!in.buf.hasRemaining(), "trailing bytes in IR encoding");
+    return new SSABuilder.SSA2LocalMap(shrikeCFG, stores, states);
+  }
+
+  /** Accumulates one encoding: a table of strings followed by the body that refers to them. */
+  private static final class Writer {
+
+    private final Map<String, Integer> strings = HashMapFactory.make();
+
+    private final List<String> stringList = new ArrayList<>();
+
+    private byte[] body = new byte[256];
+
+    private int size;
+
+    private void writeByte(int b) {
+      if (size == body.length) {
+        body = Arrays.copyOf(body, 2 * size);
+      }
+      body[size++] = (byte) b;
+    }
+
+    void writeInt(int v) {
+      int zigzag = (v << 1) ^ (v >> 31);
+      while ((zigzag & ~0x7F) != 0) {
+        writeByte((zigzag & 0x7F) | 0x80);
+        zigzag >>>= 7;
+      }
+      writeByte(zigzag);
+    }
+
+    void writeInts(int... vs) {
+      for (int v : vs) {
+        writeInt(v);
+      }
+    }
+
+    /** Write an array of ints, preceded by its length. */
+    void writeIntArray(int[] vs) {
+      writeInt(vs.length);
+      for (int v : vs) {
+        writeInt(v);
+      }
+    }
+
+    void writeLong(long v) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        writeByte((int) (v >>> shift));
+      }
+    }
+
+    void writeBoolean(boolean b) {
+      writeByte(b ? 1 : 0);
+    }
+
+    void writeString(String s) {
+      Integer index = strings.get(s);
+      if (index == null) {
+        index = stringList.size();
+        strings.put(s, index);
+        stringList.add(s);
+      }
+      writeInt(index);
+    }
+
+    void writeAtom(Atom a) throws UnencodableException {
+      try {
+        writeString(a.toUnicodeString());
+      } catch (UTFDataFormatException e) {
+        throw new UnencodableException();
+      }
+    }
+
+    void writeType(TypeReference t) throws UnencodableException {
+      writeAtom(t.getClassLoader().getName());
+      writeString(t.getName().toUnicodeString());
+    }
+
+    void writeField(FieldReference f) throws UnencodableException {
+      writeType(f.getDeclaringClass());
+      writeAtom(f.getName());
+      writeType(f.getFieldType());
+    }
+
+    void writeMethod(MethodReference m) throws UnencodableException {
+      writeType(m.getDeclaringClass());
+      writeAtom(m.getName());
+      Descriptor d = m.getDescriptor();
+      TypeName[] parameters = d.getParameters();
+      writeInt(parameters == null ? 0 : parameters.length);
+      if (parameters != null) {
+        for (TypeName p : parameters) {
+          writeString(p.toUnicodeString());
+        }
+      }
+      writeString(d.getReturnType().toUnicodeString());
+    }
+
+    byte[] toByteArray() {
+      Writer table = new Writer();
+      table.writeInt(stringList.size());
+      for (String s : stringList) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        table.writeInt(bytes.length);
+        for (byte b : bytes) {
+          table.writeByte(b);
+        }
+      }
+      byte[] result = Arrays.copyOf(table.body, table.size + size);
+      System.arraycopy(body, 0, result, table.size, size);
+      return result;
+    }
+  }
+
+  /** Reads one encoding, resolving types and members as they are read. */
+  private static final class Reader {
+
+    final ByteBuffer buf;
+
+    final SSAInstructionFactory insts;
+
+    private final ClassLoaderReference loader;
+
+    private final String[] strings;
+
+    private final Map<String, ClassLoaderReference> loaders = HashMapFactory.make(4);
+
+    Reader(ByteBuffer buf, IClassLoader classLoader) {
+      this.buf = buf;
+      this.insts = classLoader.getInstructionFactory();
+      this.loader = classLoader.getReference();
+      this.strings = new String[readInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[readInt()];
+        buf.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+    }
+
+    int readInt() {
+      int zigzag = 0;
+      for (int shift = 0; ; shift += 7) {
+        expect(shift < 35, "malformed variable-length integer");
+        byte b = buf.get();
+        zigzag |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    int[] readInts() {
+      int[] result = new int[readInt()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = readInt();
+      }
+      return result;
+    }
+
+    long readLong() {
+      long result = 0;
+      for (int i = 0; i < 8; i++) {
+        result = (result << 8) | (buf.get() & 0xFF);
+      }
+      return result;
+    }
+
+    boolean readBoolean() {
+      return buf.get() != 0;
+    }
+
+    String readString() {
+      return strings[readInt()];
+    }
+
+    private ClassLoaderReference readLoader() {
+      String name = readString();
+      ClassLoaderReference result = loaders.get(name);
+      if (result == null) {
+        Atom atom = Atom.findOrCreateUnicodeAtom(name);
+        for (ClassLoaderReference l = loader; l != null; l = l.getParent()) {
+          if (l.getName().equals(atom)) {
+            result = l;
+            break;
+          }
+        }
+        if (result == null) {
+          // class loader references are compared by name alone
+          result = new ClassLoaderReference(atom, ClassLoaderReference.Java, null);
+        }
+        loaders.put(name, result);
+      }
+      return result;
+    }
+
+    TypeReference readType() {
+      ClassLoaderReference l = readLoader();
+      return TypeReference.findOrCreate(l, TypeName.findOrCreate(readString()));
+    }
+
+    FieldReference readField() {
+      TypeReference declaringClass = readType();
+      Atom name = Atom.findOrCreateUnicodeAtom(readString());
+      return FieldReference.findOrCreate(declaringClass, name, readType());
+    }
+
+    MethodReference readMethod() {
+      TypeReference declaringClass = readType();
+      Atom name = Atom.findOrCreateUnicodeAtom(readString());
+      TypeName[] parameters = new TypeName[readInt()];
+      for (int i = 0; i < parameters.length; i++) {
+        parameters[i] = TypeName.findOrCreate(readString());
+      }
+      TypeName returnType = TypeName.findOrCreate(readString());
+      return MethodReference.findOrCreate(
+          declaringClass, name, Descriptor.findOrCreate(parameters, returnType));
+    }
+  }
+}
@@ -15,8 +15,7 @@ import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.core.util.strings.ImmutableByteArray;
 import com.ibm.wala.core.util.strings.StringStuff;
 import com.ibm.wala.core.util.strings.UTF8Convert;
-import com.ibm.wala.util.collections.HashMapFactory;
-import java.util.Map;
+import org.jctools.maps.NonBlockingHashMap;
 
 /**
  * A method descriptor; something like: (Ljava/langString;)Ljava/lang/Class;
@@ -25,8 +24,8 @@ import java.util.Map;
  */
 public final class Descriptor {
 
-  /** A mapping from Key -&gt; Descriptor */
-  private static final Map<Key, Descriptor> map = HashMapFactory.make();
+  /** A lock-free mapping from Key -&gt; Descriptor */
+  private static final NonBlockingHashMap<Key, Descriptor> map = new NonBlockingHashMap<>();
 
   /** key holds the logical value of this descriptor */
   private final Key key;
@@ -36,27 +35,46 @@ public final class Descriptor {
    * @param returnType the return type
    * @return the canonical representative for this descriptor value
    */
-  public static synchronized Descriptor findOrCreate(TypeName[] parameters, TypeName returnType) {
+  public static Descriptor findOrCreate(TypeName[] parameters, TypeName returnType) {
     if (returnType == null) {
       throw new IllegalArgumentException("null returnType");
     }
     if (parameters != null && parameters.length == 0) {
       parameters = null;
     }
-    Key k = new Key(returnType, parameters);
-    return map.computeIfAbsent(k, Descriptor::new);
+    return findOrCreate(new Key(returnType, parameters));
   }
 
   /**
    * @param b a byte array holding the string representation of this descriptor
    * @return the canonical representative for this descriptor value
    */
-  public static synchronized Descriptor findOrCreate(Language l, ImmutableByteArray b)
+  public static Descriptor findOrCreate(Language l, ImmutableByteArray b)
       throws IllegalArgumentException {
     TypeName returnType = StringStuff.parseForReturnTypeName(l, b);
     TypeName[] parameters = StringStuff.parseForParameterNames(l, b);
-    Key k = new Key(returnType, parameters);
-    return map.computeIfAbsent(k, Descriptor::new);
+    return findOrCreate(new Key(returnType, parameters));
+  }
+
+  private static Descriptor findOrCreate(Key k) {
+    Descriptor val = map.get(k);
+    if (val != null) {
+      return val;
+    }
+    val = new Descriptor(k);
+    Descriptor existing = map.putIfAbsent(k, val);
+    return existing != null ? existing : val;
+  }
+
+  /**
+   * Clears the interning dictionary. <strong>For use only by unit tests and benchmarks.</strong>
+   *
+   * <p>After this method returns, interning creates a new {@link Descriptor} for content that was
+   * interned before the reset, so previously returned instances, including those held in static
+   * constants, are no longer canonical. Do not call this method from production code.
+   */
+  static void resetDictionaryForTesting() {
+    map.clear();
   }
 
   public static Descriptor findOrCreate(ImmutableByteArray b) throws IllegalArgumentException {
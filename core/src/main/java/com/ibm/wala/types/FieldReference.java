@@ -12,17 +12,20 @@ package com.ibm.wala.types;
 
 import com.ibm.wala.core.util.shrike.ShrikeUtil;
 import com.ibm.wala.core.util.strings.Atom;
-import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.UnimplementedError;
-import java.util.HashMap;
+import org.jctools.maps.NonBlockingHashMap;
 
 /** A class to represent the reference in a class file to a field. */
 public final class FieldReference extends MemberReference {
   private static final boolean DEBUG = false;
 
-  /** Used to canonicalize MemberReferences a mapping from Key -&gt; MemberReference */
-  private static final HashMap<Key, FieldReference> dictionary = HashMapFactory.make();
+  /**
+   * Used to canonicalize MemberReferences a mapping from Key -&gt; MemberReference. A lock-free
+   * map, so that looking up an existing reference needs no locks.
+   */
+  private static final NonBlockingHashMap<Key, FieldReference> dictionary =
+      new NonBlockingHashMap<>();
 
   private final TypeReference fieldType;
 
@@ -36,7 +39,7 @@ public final class FieldReference extends MemberReference {
    *
    * @param mn the name of the member
    */
-  public static synchronized FieldReference findOrCreate(
+  public static FieldReference findOrCreate(
       TypeReference tref, Atom mn, TypeReference fieldType) {
     if (tref == null) {
       throw new IllegalArgumentException("null tref");
@@ -50,8 +53,19 @@ public final class FieldReference extends MemberReference {
 
     val = new FieldReference(key, fieldType);
 
-    dictionary.put(key, val);
-    return val;
+    FieldReference existing = dictionary.putIfAbsent(key, val);
+    return existing != null ? existing : val;
+  }
+
+  /**
+   * Clears the interning dictionary. <strong>For use only by unit tests and benchmarks.</strong>
+   *
+   * <p>After this method returns, interning creates a new {@link FieldReference} for content that
+   * was interned before the reset, so previously returned instances, including those held in static
+   * constants, are no longer canonical. Do not call this method from production code.
+   */
+  static void resetDictionaryForTesting() {
+    dictionary.clear();
   }
 
   /** Find or create the canonical MemberReference instance for the given tuple. */
@@ -14,13 +14,16 @@ import com.ibm.wala.classLoader.JavaLanguage;
 import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.core.util.shrike.ShrikeUtil;
 import com.ibm.wala.core.util.strings.Atom;
-import com.ibm.wala.util.collections.HashMapFactory;
-import java.util.HashMap;
+import org.jctools.maps.NonBlockingHashMap;
 
 /** A class to represent the reference in a class file to a method. */
 public final class MethodReference extends MemberReference {
-  /** Used to canonicalize MethodReferences a mapping from Key -&gt; MethodReference */
-  private static final HashMap<Key, MethodReference> dictionary = HashMapFactory.make();
+  /**
+   * Used to canonicalize MethodReferences a mapping from Key -&gt; MethodReference. A lock-free
+   * map, so that looking up an existing reference needs no locks.
+   */
+  private static final NonBlockingHashMap<Key, MethodReference> dictionary =
+      new NonBlockingHashMap<>();
 
   public static final Atom newInstanceAtom = Atom.findOrCreateUnicodeAtom("newInstance");
 
@@ -98,8 +101,7 @@ public final class MethodReference extends MemberReference {
    * @param mn the name of the member
    * @param md the descriptor of the member
    */
-  public static synchronized MethodReference findOrCreate(
-      TypeReference tref, Atom mn, Descriptor md) {
+  public static MethodReference findOrCreate(TypeReference tref, Atom mn, Descriptor md) {
     if (tref == null) {
       throw new IllegalArgumentException("null tref");
     }
@@ -108,8 +110,19 @@ public final class MethodReference extends MemberReference {
     MethodReference val = dictionary.get(key);
     if (val != null) return val;
     val = new MethodReference(key);
-    dictionary.put(key, val);
-    return val;
+    MethodReference existing = dictionary.putIfAbsent(key, val);
+    return existing != null ? existing : val;
+  }
+
+  /**
+   * Clears the interning dictionary. <strong>For use only by unit tests and benchmarks.</strong>
+   *
+   * <p>After this method returns, interning creates a new {@link MethodReference} for content that
+   * was interned before the reset, so previously returned instances, including those held in static
+   * constants, are no longer canonical. Do not call this method from production code.
+   */
+  static void resetDictionaryForTesting() {
+    dictionary.clear();
   }
 
   /**
@@ -119,7 +132,7 @@ public final class MethodReference extends MemberReference {
    * @param selector the selector for the method
    * @throws IllegalArgumentException if selector is null
    */
-  public static synchronized MethodReference findOrCreate(TypeReference tref, Selector selector) {
+  public static MethodReference findOrCreate(TypeReference tref, Selector selector) {
     if (selector == null) {
       throw new IllegalArgumentException("selector is null");
     }
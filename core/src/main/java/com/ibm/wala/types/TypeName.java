@@ -13,12 +13,11 @@ package com.ibm.wala.types;
 import com.ibm.wala.core.util.strings.Atom;
 import com.ibm.wala.core.util.strings.ImmutableByteArray;
 import com.ibm.wala.core.util.strings.StringStuff;
-import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.debug.Assertions;
 import java.io.Serial;
 import java.io.Serializable;
 import java.io.UTFDataFormatException;
-import java.util.Map;
+import org.jctools.maps.NonBlockingHashMap;
 
 /**
  * We've introduced this class to canonicalize Atoms that represent package names.
@@ -38,11 +37,33 @@ public final class TypeName implements Serializable {
   /* Serial version */
   @Serial private static final long serialVersionUID = -3256390509887654326L;
 
-  /** canonical mapping from TypeNameKey -&gt; TypeName */
-  private static final Map<TypeNameKey, TypeName> map = HashMapFactory.make();
+  /**
+   * canonical mapping from TypeNameKey -&gt; TypeName
+   *
+   * <p>A lock-free map, as for {@link Atom}, so that looking up an existing type name needs no
+   * locks.
+   */
+  private static final NonBlockingHashMap<TypeNameKey, TypeName> map = new NonBlockingHashMap<>();
 
-  private static synchronized TypeName findOrCreate(TypeNameKey t) {
-    return map.computeIfAbsent(t, TypeName::new);
+  private static TypeName findOrCreate(TypeNameKey t) {
+    TypeName val = map.get(t);
+    if (val != null) {
+      return val;
+    }
+    val = new TypeName(t);
+    TypeName existing = map.putIfAbsent(t, val);
+    return existing != null ? existing : val;
+  }
+
+  /**
+   * Clears the interning dictionary. <strong>For use only by unit tests and benchmarks.</strong>
+   *
+   * <p>After this method returns, interning creates a new {@link TypeName} for content that was
+   * interned before the reset, so previously returned instances, including those held in static
+   * constants, are no longer canonical. Do not call this method from production code.
+   */
+  static void resetDictionaryForTesting() {
+    map.clear();
   }
 
   /** The key object holds all the information about a type name */
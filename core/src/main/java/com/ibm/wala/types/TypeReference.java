@@ -14,10 +14,9 @@ import static com.ibm.wala.types.TypeName.ArrayMask;
 import static com.ibm.wala.types.TypeName.ElementBits;
 import static com.ibm.wala.types.TypeName.PrimitiveMask;
 
-import com.ibm.wala.util.collections.HashMapFactory;
 import java.io.Serial;
 import java.io.Serializable;
-import java.util.Map;
+import org.jctools.maps.NonBlockingHashMap;
 
 /**
  * A class to represent the reference in a class file to some type (class, primitive or array). A
@@ -43,10 +42,15 @@ public final class TypeReference implements Serializable {
    */
 
   /** Used for fast access to primitives. Primitives appear in the main dictionary also. */
-  private static final Map<TypeName, TypeReference> primitiveMap = HashMapFactory.make();
+  private static final NonBlockingHashMap<TypeName, TypeReference> primitiveMap =
+      new NonBlockingHashMap<>();
 
-  /** Used to canonicalize TypeReferences. */
-  private static final Map<Key, TypeReference> dictionary = HashMapFactory.make();
+  /**
+   * Used to canonicalize TypeReferences. A lock-free map, so that looking up an existing reference
+   * needs no locks.
+   */
+  private static final NonBlockingHashMap<Key, TypeReference> dictionary =
+      new NonBlockingHashMap<>();
 
   /*
    * Primitive Dispatch *
@@ -435,8 +439,7 @@ public final class TypeReference implements Serializable {
    *
    * @param cl the classloader (defining/initiating depending on usage)
    */
-  public static synchronized TypeReference findOrCreate(
-      ClassLoaderReference cl, TypeName typeName) {
+  public static TypeReference findOrCreate(ClassLoaderReference cl, TypeName typeName) {
 
     if (cl == null) {
       throw new IllegalArgumentException("null cl");
@@ -457,11 +460,23 @@ public final class TypeReference implements Serializable {
 
     Key key = new Key(cl, typeName);
     TypeReference val = dictionary.get(key);
-    if (val == null) {
-      val = new TypeReference(cl, typeName);
-      dictionary.put(key, val);
+    if (val != null) {
+      return val;
     }
-    return val;
+    val = new TypeReference(cl, typeName);
+    TypeReference existing = dictionary.putIfAbsent(key, val);
+    return existing != null ? existing : val;
+  }
+
+  /**
+   * Clears the interning dictionary. <strong>For use only by unit tests and benchmarks.</strong>
+   *
+   * <p>After this method returns, interning creates a new {@link TypeReference} for content that
+   * was interned before the reset, so previously returned instances, including those held in static
+   * constants, are no longer canonical. Do not call this method from production code.
+   */
+  static void resetDictionaryForTesting() {
+    dictionary.clear();
   }
 
   /**
@@ -470,11 +485,11 @@ public final class TypeReference implements Serializable {
    * @param cl the classloader (defining/initiating depending on usage)
    * @param typeName something like "Ljava/util/Arrays"
    */
-  public static synchronized TypeReference findOrCreate(ClassLoaderReference cl, String typeName) {
+  public static TypeReference findOrCreate(ClassLoaderReference cl, String typeName) {
     return findOrCreate(cl, TypeName.string2TypeName(typeName));
   }
 
-  public static synchronized TypeReference find(ClassLoaderReference cl, String typeName) {
+  public static TypeReference find(ClassLoaderReference cl, String typeName) {
     return find(cl, TypeName.string2TypeName(typeName));
   }
 
@@ -483,7 +498,7 @@ public final class TypeReference implements Serializable {
    *
    * @param cl the classloader (defining/initiating depending on usage)
    */
-  public static synchronized TypeReference find(ClassLoaderReference cl, TypeName typeName) {
+  public static TypeReference find(ClassLoaderReference cl, TypeName typeName) {
     if (cl == null) {
       throw new IllegalArgumentException("null cl");
     }
@@ -21,6 +21,7 @@ import com.ibm.wala.dataflow.graph.BitVectorSolver;
 import com.ibm.wala.dataflow.graph.BitVectorUnion;
 import com.ibm.wala.dataflow.graph.BitVectorUnionConstant;
 import com.ibm.wala.dataflow.graph.ITransferFunctionProvider;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
 import com.ibm.wala.fixpoint.BitVectorVariable;
 import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.util.CancelException;
@@ -72,6 +73,15 @@ public class GraphDataflowTest extends WalaTestCase {
     assertThat(result).isEqualTo(expectedStringNodeOnly());
   }
 
+  /** Every worklist strategy must reach the same fixed point. */
+  @Test
+  public void testWorklistStrategies() throws CancelException {
+    for (WorklistStrategy strategy : WorklistStrategy.values()) {
+      assertThat(solveNodeOnly(buildGraph(), strategy)).isEqualTo(expectedStringNodeOnly());
+      assertThat(solveNodeEdge(buildGraph(), strategy)).isEqualTo(expectedStringNodeEdge());
+    }
+  }
+
   /**
    * @return the expected dataflow result as a String
    */
@@ -124,6 +134,11 @@ public class GraphDataflowTest extends WalaTestCase {
 
   /** Solve the dataflow system and return the result as a string */
   public static String solveNodeOnly(Graph<String> G) throws CancelException {
+    return solveNodeOnly(G, WorklistStrategy.TOPOLOGICAL);
+  }
+
+  public static String solveNodeOnly(Graph<String> G, WorklistStrategy strategy)
+      throws CancelException {
     final OrdinalSetMapping<String> values = new MutableMapping<>(nodes);
     ITransferFunctionProvider<String, BitVectorVariable> functions =
         new ITransferFunctionProvider<>() {
@@ -156,11 +171,17 @@ public class GraphDataflowTest extends WalaTestCase {
 
     BitVectorFramework<String, String> F = new BitVectorFramework<>(G, functions, values);
     BitVectorSolver<String> s = new BitVectorSolver<>(F);
+    s.setWorklistStrategy(strategy);
     s.solve(null);
     return result2String(s);
   }
 
   public static String solveNodeEdge(Graph<String> G) throws CancelException {
+    return solveNodeEdge(G, WorklistStrategy.TOPOLOGICAL);
+  }
+
+  public static String solveNodeEdge(Graph<String> G, WorklistStrategy strategy)
+      throws CancelException {
     final OrdinalSetMapping<String> values = new MutableMapping<>(nodes);
     ITransferFunctionProvider<String, BitVectorVariable> functions =
         new ITransferFunctionProvider<>() {
@@ -197,6 +218,7 @@ public class GraphDataflowTest extends WalaTestCase {
 
     BitVectorFramework<String, String> F = new BitVectorFramework<>(G, functions, values);
     BitVectorSolver<String> s = new BitVectorSolver<>(F);
+    s.setWorklistStrategy(strategy);
     s.solve(null);
     return result2String(s);
   }
@@ -53,6 +53,7 @@ import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
 import com.ibm.wala.util.intset.MutableSparseIntSetFactory;
 import com.ibm.wala.util.intset.MutableSparseLongSetFactory;
 import com.ibm.wala.util.intset.OffsetBitVector;
+import com.ibm.wala.util.intset.RoaringIntSetFactory;
 import com.ibm.wala.util.intset.SemiSparseMutableIntSet;
 import com.ibm.wala.util.intset.SemiSparseMutableIntSetFactory;
 import com.ibm.wala.util.intset.SparseIntSet;
@@ -354,6 +355,12 @@ public class PrimitivesTest extends WalaTestCase {
     doMutableIntSet(new SemiSparseMutableIntSetFactory());
   }
 
+  /** Test the RoaringIntSet implementation */
+  @Test
+  public void testRoaringIntSet() {
+    doMutableIntSet(new RoaringIntSetFactory());
+  }
+
   /** Test the MutableSparseIntSet implementation */
   private static void doMutableLongSet(MutableLongSetFactory factory) {
     MutableLongSet v = factory.parse("{9,17}");
@@ -952,6 +959,35 @@ public class PrimitivesTest extends WalaTestCase {
     testBitVectors(new OffsetBitVector(35, 20), new OffsetBitVector(25, 10));
   }
 
+  @Test
+  public void testOffsetBitVectorSameBits() {
+    int[][] shapes = {{0, 10}, {0, 300}, {64, 64}, {100, 10}, {128, 500}, {200, 50}, {1000, 64}};
+    for (int[] a : shapes) {
+      for (int[] b : shapes) {
+        OffsetBitVector v1 = new OffsetBitVector(a[0], a[1]);
+        OffsetBitVector v2 = new OffsetBitVector(b[0], b[1]);
+        assertThat(v1).has(sameBitsAs(v2));
+        for (int bit : new int[] {130, 200, 250, 300}) {
+          v1.set(bit);
+          v2.set(bit);
+        }
+        // words that are cleared again must not count as a difference
+        v1.set(5);
+        v1.clear(5);
+        v2.set(2000);
+        v2.clear(2000);
+        assertThat(v1).has(sameBitsAs(v2));
+        assertThat(v2).has(sameBitsAs(v1));
+        for (int extra : new int[] {5, 131, 299, 2000}) {
+          OffsetBitVector w = new OffsetBitVector(v2);
+          w.set(extra);
+          assertThat(v1).doesNotHave(sameBitsAs(w));
+          assertThat(w).doesNotHave(sameBitsAs(v1));
+        }
+      }
+    }
+  }
+
   private static <T extends BitVectorBase<T>> void testBitVectors(T v1, T v2) {
     v1.set(100);
     v1.set(101);
@@ -0,0 +1,226 @@
+package com.ibm.wala.core.tests.callGraph;
+
+import static com.ibm.wala.core.tests.callGraph.CallGraphTestUtil.nodes;
+import static com.ibm.wala.core.tests.callGraph.CallGraphTestUtil.pointsToSets;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.AbstractLocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.AllocationSiteInNode;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/** Check that updating a call graph after code changes gives the same result as rebuilding it. */
+public class IncrementalUpdateTest extends WalaTestCase {
+
+  /** Updating every application class without changing its code must not change anything. */
+  @Test
+  public void testUpdateWithoutChanges()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.JLEX, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, TestConstants.JLEX_MAIN);
+
+    SSAPropagationCallGraphBuilder expected = solve(scope, cha, entrypoints);
+    SSAPropagationCallGraphBuilder actual = solve(scope, cha, entrypoints);
+    List<IClass> application = new ArrayList<>();
+    for (IClass klass : cha) {
+      if (klass.getClassLoader().getReference().equals(ClassLoaderReference.Application)) {
+        application.add(klass);
+      }
+    }
+    assertThat(application).isNotEmpty();
+    actual.updateCallGraph(application, null);
+
+    assertThat(nodes(actual.getCallGraph())).isEqualTo(nodes(expected.getCallGraph()));
+    assertThat(edges(actual.getCallGraph())).isEqualTo(edges(expected.getCallGraph()));
+    assertThat(pointsToSets(actual.getPointerAnalysis()))
+        .isEqualTo(pointsToSets(expected.getPointerAnalysis()));
+  }
+
+  /**
+   * Adding calls to the fake root method and updating its node must give the call graph and local
+   * points-to sets of a build with all the calls from the start.
+   */
+  @Test
+  public void testUpdateWithNewCalls()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    List<Entrypoint> entrypoints = new ArrayList<>();
+    new AllApplicationEntrypoints(scope, cha).forEach(entrypoints::add);
+    assertThat(entrypoints).hasSizeGreaterThan(1);
+    List<Entrypoint> first = entrypoints.subList(0, entrypoints.size() / 2);
+    List<Entrypoint> second = entrypoints.subList(entrypoints.size() / 2, entrypoints.size());
+
+    SSAPropagationCallGraphBuilder expected = solve(scope, cha, entrypoints);
+    SSAPropagationCallGraphBuilder actual = solve(scope, cha, first);
+    CGNode fakeRoot = actual.getCallGraph().getFakeRootNode();
+    for (Entrypoint entrypoint : second) {
+      entrypoint.addCall((AbstractRootMethod) fakeRoot.getMethod());
+    }
+    actual.updateCallGraphForNodes(Collections.singleton(fakeRoot), null);
+
+    assertThat(nodes(actual.getCallGraph())).isEqualTo(nodes(expected.getCallGraph()));
+    assertThat(edges(actual.getCallGraph())).isEqualTo(edges(expected.getCallGraph()));
+    assertThat(localPointsToSets(actual.getPointerAnalysis()))
+        .isEqualTo(localPointsToSets(expected.getPointerAnalysis()));
+  }
+
+  /**
+   * Removing calls, and the allocations of their arguments, from the fake root method and updating
+   * its node must give a result that contains that of a build without the calls, and the fake root
+   * method's own locals must no longer point to the removed allocations.
+   */
+  @Test
+  public void testUpdateWithRemovedCalls()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    List<Entrypoint> entrypoints = new ArrayList<>();
+    new AllApplicationEntrypoints(scope, cha).forEach(entrypoints::add);
+    assertThat(entrypoints).hasSizeGreaterThan(1);
+    List<Entrypoint> first = entrypoints.subList(0, entrypoints.size() / 2);
+
+    SSAPropagationCallGraphBuilder expected = solve(scope, cha, first);
+    SSAPropagationCallGraphBuilder actual = solve(scope, cha, entrypoints);
+    CGNode fakeRoot = actual.getCallGraph().getFakeRootNode();
+    AbstractRootMethod root = (AbstractRootMethod) fakeRoot.getMethod();
+    AbstractRootMethod expectedRoot =
+        (AbstractRootMethod) expected.getCallGraph().getFakeRootNode().getMethod();
+    // the root method adds the calls of the entry points in order, so the statements of the first
+    // ones come first
+    int kept = expectedRoot.statements.size();
+    assertThat(root.statements.size()).isGreaterThan(kept);
+    assertThat(root.statements.subList(0, kept).toString())
+        .isEqualTo(expectedRoot.statements.toString());
+    assertThat(fakeRootAllocations(actual.getPointerAnalysis(), fakeRoot))
+        .anyMatch(pc -> pc >= kept);
+    root.statements.subList(kept, root.statements.size()).clear();
+    actual.updateCallGraphForNodes(Collections.singleton(fakeRoot), null);
+
+    assertThat(nodes(actual.getCallGraph())).containsAll(nodes(expected.getCallGraph()));
+    assertThat(edges(actual.getCallGraph())).containsAll(edges(expected.getCallGraph()));
+    Map<String, Set<String>> actualSets = localPointsToSets(actual.getPointerAnalysis());
+    localPointsToSets(expected.getPointerAnalysis())
+        .forEach(
+            (key, instances) -> assertThat(actualSets.get(key)).as(key).containsAll(instances));
+    assertThat(fakeRootAllocations(actual.getPointerAnalysis(), fakeRoot))
+        .noneMatch(pc -> pc >= kept);
+  }
+
+  @Test
+  public void testUpdateRequiresSupport()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.HELLO, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    SSAPropagationCallGraphBuilder builder =
+        CallGraphTestUtil.solveZeroOneCFA(
+            scope, cha, new AllApplicationEntrypoints(scope, cha), options -> {});
+    CGNode fakeRoot = builder.getCallGraph().getFakeRootNode();
+
+    assertThatThrownBy(
+            () -> builder.updateCallGraphForNodes(Collections.singleton(fakeRoot), null))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static SSAPropagationCallGraphBuilder solve(
+      AnalysisScope scope, ClassHierarchy cha, Iterable<Entrypoint> entrypoints)
+      throws CancelException {
+    return CallGraphTestUtil.solveZeroOneCFA(
+        scope, cha, entrypoints, options -> options.setSupportIncrementalUpdates(true));
+  }
+
+  /** The edges of the call graph. */
+  private static Set<String> edges(CallGraph cg) {
+    Set<String> result = new TreeSet<>();
+    for (CGNode n : cg) {
+      for (CGNode succ : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+        result.add(n + " -> " + succ);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The program counters of the allocation sites of the fake root method that the points-to sets of
+   * its own locals hold.
+   */
+  private static Set<Integer> fakeRootAllocations(
+      PointerAnalysis<InstanceKey> pa, CGNode fakeRoot) {
+    Set<Integer> result = new TreeSet<>();
+    for (PointerKey key : pa.getPointerKeys()) {
+      if (key instanceof AbstractLocalPointerKey local && local.getNode().equals(fakeRoot)) {
+        for (InstanceKey ik : pa.getPointsToSet(key)) {
+          if (ik instanceof AllocationSiteInNode site && site.getNode().equals(fakeRoot)) {
+            result.add(site.getSite().getProgramCounter());
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Non-empty points-to sets of the locals of non-synthetic methods. Instances allocated in the
+   * fake root method are described without their program counters, which depend on the order in
+   * which calls were added to it.
+   */
+  private static Map<String, Set<String>> localPointsToSets(PointerAnalysis<InstanceKey> pa) {
+    Map<String, Set<String>> result = new TreeMap<>();
+    for (PointerKey key : pa.getPointerKeys()) {
+      if (!(key instanceof AbstractLocalPointerKey local)
+          || local.getNode().getMethod().isWalaSynthetic()) {
+        continue;
+      }
+      Set<String> instances = new TreeSet<>();
+      for (InstanceKey ik : pa.getPointsToSet(key)) {
+        if (ik instanceof AllocationSiteInNode site
+            && site.getNode().getMethod().isWalaSynthetic()) {
+          instances.add(site.getConcreteType() + " in " + site.getNode());
+        } else {
+          instances.add(ik.toString());
+        }
+      }
+      if (!instances.isEmpty()) {
+        result.put(key.toString(), instances);
+      }
+    }
+    return result;
+  }
+}
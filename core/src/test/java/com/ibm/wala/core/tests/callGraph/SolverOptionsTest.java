@@ -0,0 +1,96 @@
+package com.ibm.wala.core.tests.callGraph;
+
+import static com.ibm.wala.core.tests.callGraph.CallGraphTestUtil.nodes;
+import static com.ibm.wala.core.tests.callGraph.CallGraphTestUtil.pointsToSets;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.fixedpoint.impl.WorklistStrategy;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Check that the options that change how the pointer analysis solves its constraints, including the
+ * order in which it evaluates them, reach the same fixed point as the default solver.
+ */
+public class SolverOptionsTest extends WalaTestCase {
+
+  private static Set<String> expectedNodes;
+
+  private static Map<String, Set<String>> expectedPointsToSets;
+
+  @BeforeAll
+  public static void solveWithDefaultOptions()
+      throws ClassHierarchyException, CancelException, IOException {
+    SSAPropagationCallGraphBuilder builder = CallGraphTestUtil.solveJLexZeroOneCFA(options -> {});
+    expectedNodes = nodes(builder.getCallGraph());
+    expectedPointsToSets = pointsToSets(builder.getPointerAnalysis());
+  }
+
+  private static Arguments option(String name, Consumer<AnalysisOptions> configure) {
+    return Arguments.of(name, configure);
+  }
+
+  static Stream<Arguments> solverOptions() {
+    Stream<Arguments> strategies =
+        Arrays.stream(WorklistStrategy.values())
+            .map(
+                strategy ->
+                    option(
+                        "worklist strategy " + strategy,
+                        options -> options.setWorklistStrategy(strategy)));
+    Stream<Arguments> others =
+        Stream.of(
+            option("concurrent", options -> options.setNumberOfSolverThreads(4)),
+            option("difference propagation", options -> options.setUseDifferencePropagation(true)),
+            option(
+                "concurrent difference propagation",
+                options -> {
+                  options.setUseDifferencePropagation(true);
+                  options.setNumberOfSolverThreads(4);
+                }),
+            option("cycle elimination", options -> options.setUseCycleElimination(true)),
+            option(
+                "concurrent cycle elimination",
+                options -> {
+                  options.setUseCycleElimination(true);
+                  options.setNumberOfSolverThreads(4);
+                }));
+    return Stream.concat(strategies, others);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("solverOptions")
+  public void testJLexZeroOneCFA(String name, Consumer<AnalysisOptions> configure)
+      throws ClassHierarchyException, CancelException, IOException {
+    SSAPropagationCallGraphBuilder builder = CallGraphTestUtil.solveJLexZeroOneCFA(configure);
+
+    assertThat(builder.getPropagationSystem().getWorklistStrategy())
+        .isEqualTo(builder.getOptions().getWorklistStrategy());
+    assertThat(builder.getPropagationSystem().getNumberOfEvaluations()).isPositive();
+    assertThat(nodes(builder.getCallGraph())).isEqualTo(expectedNodes);
+    assertThat(pointsToSets(builder.getPointerAnalysis())).isEqualTo(expectedPointsToSets);
+  }
+
+  @Test
+  public void testCycleEliminationCollapsesVariables()
+      throws ClassHierarchyException, CancelException, IOException {
+    SSAPropagationCallGraphBuilder builder =
+        CallGraphTestUtil.solveJLexZeroOneCFA(options -> options.setUseCycleElimination(true));
+
+    assertThat(builder.getPropagationSystem().getNumberOfCollapsedVariables()).isPositive();
+  }
+}
@@ -0,0 +1,127 @@
+package com.ibm.wala.core.tests.cha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.classLoader.ClassHeaderCache;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.config.PatternsFilter;
+import com.ibm.wala.util.config.StringFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Check that a class hierarchy built from cached class headers matches one built without. */
+public class ClassHeaderCacheTest extends WalaTestCase {
+
+  @Test
+  public void testCachedHierarchyMatches(@TempDir Path cacheDir)
+      throws ClassHierarchyException, IOException {
+    Path previous = ClassHeaderCache.getCacheDirectory();
+    try {
+      ClassHeaderCache.setCacheDirectory(null);
+      Map<String, String> expected = describe(makeClassHierarchy());
+
+      ClassHeaderCache.setCacheDirectory(cacheDir);
+      Map<String, String> cold = describe(makeClassHierarchy());
+      try (Stream<Path> files = Files.list(cacheDir)) {
+        assertThat(files).isNotEmpty();
+      }
+      Map<String, String> warm = describe(makeClassHierarchy());
+
+      assertThat(cold).isEqualTo(expected);
+      assertThat(warm).isEqualTo(expected);
+    } finally {
+      ClassHeaderCache.setCacheDirectory(previous);
+    }
+  }
+
+  /**
+   * Headers read from a cache file may still be mapped, so new headers go to the module's other
+   * slot, and the slot they were read from is deleted.
+   */
+  @Test
+  public void testNewHeadersGoToOtherSlot(@TempDir Path cacheDir)
+      throws ClassHierarchyException, IOException {
+    Path previous = ClassHeaderCache.getCacheDirectory();
+    try {
+      ClassHeaderCache.setCacheDirectory(null);
+      Map<String, String> expected = describe(makeClassHierarchy());
+
+      ClassHeaderCache.setCacheDirectory(cacheDir);
+      makeClassHierarchy(new PatternsFilter(Stream.of("java/util/.*")));
+      Set<String> first = cacheFiles(cacheDir, ".headers");
+      // the classes in java.util were excluded before, so they add headers to the cache
+      Map<String, String> wider = describe(makeClassHierarchy());
+      Set<String> second = cacheFiles(cacheDir, ".headers");
+      Map<String, String> warm = describe(makeClassHierarchy());
+
+      assertThat(second).hasSameSizeAs(first).isNotEqualTo(first);
+      // JAR files are rehashed only if their size or modification time changes
+      assertThat(cacheFiles(cacheDir, ".stamp")).isNotEmpty();
+      assertThat(wider).isEqualTo(expected);
+      assertThat(warm).isEqualTo(expected);
+    } finally {
+      ClassHeaderCache.setCacheDirectory(previous);
+    }
+  }
+
+  private static Set<String> cacheFiles(Path cacheDir, String suffix) throws IOException {
+    try (Stream<Path> files = Files.list(cacheDir)) {
+      return files
+          .map(file -> file.getFileName().toString())
+          .filter(name -> name.endsWith(suffix))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private static AnalysisScope makeScope() throws IOException {
+    return CallGraphTestUtil.makeJ2SEAnalysisScope(
+        TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+  }
+
+  private static ClassHierarchy makeClassHierarchy() throws IOException, ClassHierarchyException {
+    return ClassHierarchyFactory.make(makeScope());
+  }
+
+  private static ClassHierarchy makeClassHierarchy(StringFilter exclusions)
+      throws IOException, ClassHierarchyException {
+    AnalysisScope scope = makeScope();
+    scope.setExclusions(exclusions);
+    return ClassHierarchyFactory.make(scope);
+  }
+
+  /** Summarize the parts of each class that are taken from its header or read lazily. */
+  static Map<String, String> describe(ClassHierarchy cha) {
+    Map<String, String> result = new TreeMap<>();
+    for (IClass klass : cha) {
+      result.put(
+          klass.getReference().toString(),
+          klass.getSuperclass()
+              + " "
+              + klass.getModifiers()
+              + " "
+              + klass.getDirectInterfaces()
+              + " "
+              + klass.getDeclaredInstanceFields()
+              + " "
+              + klass.getDeclaredStaticFields()
+              + " "
+              + cha.computeSubClasses(klass.getReference()).size());
+    }
+    return result;
+  }
+}
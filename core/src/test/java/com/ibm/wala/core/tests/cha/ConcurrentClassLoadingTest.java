@@ -0,0 +1,36 @@
+package com.ibm.wala.core.tests.cha;
+
+import static com.ibm.wala.core.tests.cha.ClassHeaderCacheTest.describe;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** Check that reading class files on several threads builds the same class hierarchy. */
+public class ConcurrentClassLoadingTest extends WalaTestCase {
+
+  @Test
+  public void testSameHierarchy() throws ClassHierarchyException, IOException {
+    ClassHierarchy sequential = makeClassHierarchy(1);
+    ClassHierarchy concurrent = makeClassHierarchy(4);
+
+    assertThat(concurrent.getNumberOfClasses()).isEqualTo(sequential.getNumberOfClasses());
+    assertThat(describe(concurrent)).isEqualTo(describe(sequential));
+  }
+
+  private static ClassHierarchy makeClassHierarchy(int threads)
+      throws IOException, ClassHierarchyException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    scope.setNumberOfLoaderThreads(threads);
+    return ClassHierarchyFactory.make(scope);
+  }
+}
@@ -0,0 +1,133 @@
+package com.ibm.wala.core.tests.cha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.core.util.io.ZipCentralDirectory;
+import com.ibm.wala.core.util.shrike.ShrikeClassReaderHandle;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Check that entries read from memory-mapped JAR files match those read through streams. */
+public class MappedJarFileTest extends WalaTestCase {
+
+  private static byte[] classBytes(Class<?> c) throws IOException {
+    try (InputStream in = c.getResourceAsStream(c.getSimpleName() + ".class")) {
+      assertThat(in).isNotNull();
+      return in.readAllBytes();
+    }
+  }
+
+  private static void put(ZipOutputStream out, String name, byte[] contents, boolean stored)
+      throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    if (stored) {
+      CRC32 crc = new CRC32();
+      crc.update(contents);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(contents.length);
+      entry.setCrc(crc.getValue());
+    }
+    out.putNextEntry(entry);
+    out.write(contents);
+    out.closeEntry();
+  }
+
+  private static byte[] jar(Map<String, byte[]> deflated) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+      for (Map.Entry<String, byte[]> e : deflated.entrySet()) {
+        put(out, e.getKey(), e.getValue(), false);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void testEntriesMatch(@TempDir Path dir) throws IOException, InvalidClassFileException {
+    byte[] stored = classBytes(MappedJarFileTest.class);
+    byte[] deflated = classBytes(WalaTestCase.class);
+    byte[] nested = jar(Map.of("nested/Deflated.class", deflated));
+    Path file = dir.resolve("test.jar");
+    try (OutputStream os = Files.newOutputStream(file);
+        ZipOutputStream out = new ZipOutputStream(os)) {
+      put(out, "a/Stored.class", stored, true);
+      put(out, "a/Deflated.class", deflated, false);
+      put(out, "lib/nested.jar", nested, true);
+    }
+
+    ZipCentralDirectory index = ZipCentralDirectory.map(file);
+    assertThat(index).isNotNull();
+    assertThat(index.getNames())
+        .containsExactly("a/Stored.class", "a/Deflated.class", "lib/nested.jar");
+    assertThat(index.getSize("a/Deflated.class")).isEqualTo(deflated.length);
+    assertThat(index.getContents("missing")).isNull();
+
+    try (JarFile jarFile = new JarFile(file.toFile())) {
+      JarFileModule module = new JarFileModule(jarFile);
+      assertThat(module.isMapped()).isTrue();
+      Map<String, ModuleEntry> entries = new HashMap<>();
+      for (Iterator<ModuleEntry> it = module.getEntries(); it.hasNext(); ) {
+        ModuleEntry entry = it.next();
+        entries.put(entry.getName(), entry);
+      }
+
+      ByteBuffer storedBuffer = entries.get("a/Stored.class").getByteBuffer();
+      assertThat(storedBuffer).isNotNull();
+      assertThat(storedBuffer.isDirect()).isTrue();
+      assertThat(contents(storedBuffer)).isEqualTo(stored);
+      assertThat(contents(entries.get("a/Deflated.class").getByteBuffer())).isEqualTo(deflated);
+      assertThat(new ShrikeClassReaderHandle(entries.get("a/Stored.class")).get().getBytes())
+          .isEqualTo(stored);
+
+      // an inflated entry is handed over as an array, and a mapped one is copied only once
+      assertThat(entries.get("a/Deflated.class").getByteBuffer().hasArray()).isTrue();
+      ClassReader deflatedReader =
+          new ShrikeClassReaderHandle(entries.get("a/Deflated.class")).get();
+      assertThat(deflatedReader.getBytes())
+          .isEqualTo(deflated)
+          .isSameAs(deflatedReader.getCP().getRawBytes());
+      ClassReader storedReader = new ShrikeClassReaderHandle(entries.get("a/Stored.class")).get();
+      assertThat(storedReader.getBytes())
+          .isSameAs(storedReader.getBytes())
+          .isSameAs(storedReader.getCP().getRawBytes());
+
+      Module nestedModule = entries.get("lib/nested.jar").asModule();
+      Iterator<? extends ModuleEntry> nestedEntries = nestedModule.getEntries();
+      ModuleEntry nestedEntry = nestedEntries.next();
+      assertThat(nestedEntries.hasNext()).isFalse();
+      assertThat(nestedEntry.getName()).isEqualTo("nested/Deflated.class");
+      try (InputStream in = nestedEntry.getInputStream()) {
+        assertThat(in.readAllBytes()).isEqualTo(deflated);
+      }
+      assertThat(new ShrikeClassReaderHandle(nestedEntry).get().getName())
+          .isEqualTo(new ShrikeClassReaderHandle(entries.get("a/Deflated.class")).get().getName());
+    }
+  }
+
+  private static byte[] contents(ByteBuffer buffer) {
+    assertThat(buffer).isNotNull();
+    byte[] result = new byte[buffer.remaining()];
+    buffer.duplicate().get(result);
+    return result;
+  }
+}
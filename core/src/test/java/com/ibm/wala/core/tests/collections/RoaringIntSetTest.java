@@ -0,0 +1,132 @@
+package com.ibm.wala.core.tests.collections;
+
+import static com.ibm.wala.util.intset.IntSetAssert.assertThat;
+import static com.ibm.wala.util.intset.IntSetConditions.sameValueAs;
+import static com.ibm.wala.util.intset.IntSetConditions.size;
+import static com.ibm.wala.util.intset.IntSetConditions.subsetOf;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import com.ibm.wala.util.intset.RoaringIntSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link RoaringIntSet} as its chunks change between sorted arrays, bitmaps and runs, which
+ * the small sets of {@link com.ibm.wala.core.tests.basic.PrimitivesTest} never reach.
+ */
+public final class RoaringIntSetTest extends WalaTestCase {
+
+  public static void main(final String[] args) {
+    justThisTest(RoaringIntSetTest.class);
+  }
+
+  private static MutableSparseIntSet sparse(int from, int to, int step) {
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    for (int i = from; i < to; i += step) {
+      result.add(i);
+    }
+    return result;
+  }
+
+  private static RoaringIntSet roaring(int from, int to, int step) {
+    RoaringIntSet result = new RoaringIntSet();
+    for (int i = from; i < to; i += step) {
+      result.add(i);
+    }
+    return result;
+  }
+
+  private static List<Integer> elements(RoaringIntSet set) {
+    List<Integer> result = new ArrayList<>();
+    for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+      result.add(it.next());
+    }
+    return result;
+  }
+
+  @Test
+  public void testArrayGrowsIntoBitmapAndShrinksBack() {
+    RoaringIntSet set = roaring(0, 20000, 2);
+    assertThat(set).is(size(10000)).is(sameValueAs(sparse(0, 20000, 2)));
+    for (int i = 0; i < 20000; i += 4) {
+      set.remove(i);
+    }
+    assertThat(set).is(size(5000)).is(sameValueAs(sparse(2, 20000, 4)));
+    for (int i = 2; i < 12000; i += 4) {
+      set.remove(i);
+    }
+    assertThat(set).is(size(2000)).is(sameValueAs(sparse(12002, 20000, 4)));
+    assertThat(set.max()).isEqualTo(19998);
+  }
+
+  @Test
+  public void testRuns() {
+    RoaringIntSet set = roaring(100, 300000, 1);
+    assertThat(set).is(size(299900)).is(sameValueAs(sparse(100, 300000, 1)));
+    assertThat(set.contains(99)).isFalse();
+    assertThat(set.contains(65536)).isTrue();
+    assertThat(set.remove(150000)).isTrue();
+    assertThat(set.remove(150000)).isFalse();
+    assertThat(set.contains(150000)).isFalse();
+    assertThat(set.size()).isEqualTo(299899);
+    assertThat(set.add(150000)).isTrue();
+    assertThat(set).is(sameValueAs(sparse(100, 300000, 1)));
+  }
+
+  @Test
+  public void testElementsInDistantChunks() {
+    RoaringIntSet set = RoaringIntSet.make(new int[] {3, 65535, 65536, 1 << 20, Integer.MAX_VALUE});
+    assertThat(elements(set)).containsExactly(3, 65535, 65536, 1 << 20, Integer.MAX_VALUE);
+    assertThat(set.max()).isEqualTo(Integer.MAX_VALUE);
+    set.remove(Integer.MAX_VALUE);
+    assertThat(set.max()).isEqualTo(1 << 20);
+  }
+
+  @Test
+  public void testOperationsAcrossChunkKinds() {
+    RoaringIntSet runs = roaring(0, 100000, 1);
+    RoaringIntSet bitmap = roaring(0, 200000, 3);
+    RoaringIntSet array = roaring(50000, 250000, 97);
+    MutableSparseIntSet runsSparse = sparse(0, 100000, 1);
+    MutableSparseIntSet bitmapSparse = sparse(0, 200000, 3);
+    MutableSparseIntSet arraySparse = sparse(50000, 250000, 97);
+
+    assertThat(runs.union(bitmap)).is(sameValueAs(runsSparse.union(bitmapSparse)));
+    assertThat(bitmap.intersection(array)).is(sameValueAs(bitmapSparse.intersection(arraySparse)));
+    assertThat(IntSetUtil.diff(bitmap, runs))
+        .is(sameValueAs(IntSetUtil.diff(bitmapSparse, runsSparse)));
+    assertThat(runs.intersection(bitmap)).is(subsetOf(runs)).is(subsetOf(bitmap));
+    assertThat(runs.containsAny(array)).isTrue();
+
+    RoaringIntSet copy = new RoaringIntSet(array);
+    assertThat(copy.addAll(runs)).isTrue();
+    assertThat(copy.addAll(runs)).isFalse();
+    copy.removeAll(runs);
+    assertThat(copy).is(sameValueAs(IntSetUtil.diff(arraySparse, runsSparse)));
+
+    copy = new RoaringIntSet(runs);
+    copy.intersectWith(bitmapSparse);
+    assertThat(copy).is(sameValueAs(runsSparse.intersection(bitmapSparse)));
+  }
+
+  @Test
+  public void testClear() {
+    RoaringIntSet set = roaring(0, 100000, 7);
+    set.clear();
+    assertThat(set).isEmpty();
+    assertThat(set.max()).isEqualTo(-1);
+    set.add(42);
+    assertThat(elements(set)).containsExactly(42);
+  }
+
+  @Test
+  public void testAddNegative() {
+    assertThatIllegalArgumentException().isThrownBy(() -> new RoaringIntSet().add(-1));
+  }
+}
@@ -0,0 +1,190 @@
+package com.ibm.wala.core.tests.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.BoundedAuxiliaryCache;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.IRFactory;
+import com.ibm.wala.ssa.SSACache;
+import com.ibm.wala.ssa.SSAOptions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Tests for {@link BoundedAuxiliaryCache} as the IR and DefUse cache of an analysis cache. */
+public class BoundedAuxiliaryCacheTest extends WalaTestCase {
+
+  private static final int THREADS = 4;
+
+  private static List<IMethod> methods;
+
+  @BeforeAll
+  public static void beforeAll() throws IOException, ClassHierarchyException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    methods = new ArrayList<>();
+    for (IClass klass : cha) {
+      if (klass.getName().toString().startsWith("Ljava/util/")) {
+        for (IMethod m : klass.getDeclaredMethods()) {
+          if (!m.isAbstract() && !m.isNative()) {
+            methods.add(m);
+          }
+        }
+      }
+    }
+    assertThat(methods).hasSizeGreaterThan(500);
+  }
+
+  private static AnalysisCacheImpl makeCache(
+      BoundedAuxiliaryCache irCache, BoundedAuxiliaryCache duCache) {
+    return new AnalysisCacheImpl(
+        new DefaultIRFactory(), new AnalysisOptions().getSSAOptions(), irCache, duCache);
+  }
+
+  @Test
+  public void testHitsWithinBudget() {
+    BoundedAuxiliaryCache irCache = new BoundedAuxiliaryCache();
+    AnalysisCacheImpl cache = makeCache(irCache, new BoundedAuxiliaryCache());
+    List<IMethod> some = methods.subList(0, 100);
+    List<IR> first = new ArrayList<>();
+    for (IMethod m : some) {
+      first.add(cache.getIR(m));
+    }
+    for (int i = 0; i < some.size(); i++) {
+      assertThat(cache.getIR(some.get(i))).isSameAs(first.get(i));
+    }
+    assertThat(irCache.getMissCount()).isEqualTo(some.size());
+    assertThat(irCache.getHitCount()).isEqualTo(some.size());
+    assertThat(irCache.getEvictionCount()).isZero();
+    assertThat(irCache.size()).isEqualTo(some.size());
+    assertThat(irCache.getWeight()).isPositive();
+  }
+
+  @Test
+  public void testStaysWithinBudget() {
+    for (BoundedAuxiliaryCache.Policy policy : BoundedAuxiliaryCache.Policy.values()) {
+      long budget = 1 << 20;
+      BoundedAuxiliaryCache irCache = new BoundedAuxiliaryCache(budget, policy);
+      BoundedAuxiliaryCache duCache = new BoundedAuxiliaryCache(budget, policy);
+      AnalysisCacheImpl cache = makeCache(irCache, duCache);
+      for (IMethod m : methods) {
+        IR ir = cache.getIR(m);
+        assertThat(cache.getDefUse(ir)).isNotNull();
+      }
+      assertThat(irCache.getWeight()).isLessThanOrEqualTo(budget);
+      assertThat(duCache.getWeight()).isLessThanOrEqualTo(budget);
+      assertThat(irCache.getEvictionCount()).isPositive();
+      assertThat(irCache.size()).isLessThan(methods.size());
+    }
+  }
+
+  @Test
+  public void testTinyLfuKeepsFrequentlyUsedIRs() {
+    BoundedAuxiliaryCache irCache =
+        new BoundedAuxiliaryCache(1 << 20, BoundedAuxiliaryCache.Policy.TINY_LFU);
+    AnalysisCacheImpl cache = makeCache(irCache, new BoundedAuxiliaryCache());
+    IMethod hot = methods.get(0);
+    IR hotIR = null;
+    for (int i = 0; i < 10; i++) {
+      hotIR = cache.getIR(hot);
+    }
+    for (IMethod m : methods) {
+      cache.getIR(m);
+    }
+    assertThat(cache.getIR(hot)).isSameAs(hotIR);
+  }
+
+  @Test
+  public void testConcurrentRequestsShareOneIR() throws Exception {
+    AnalysisCacheImpl cache = makeCache(new BoundedAuxiliaryCache(), new BoundedAuxiliaryCache());
+    List<IMethod> some = methods.subList(0, Math.min(methods.size(), 1000));
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<IR>>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  List<IR> result = new ArrayList<>();
+                  for (IMethod m : some) {
+                    result.add(cache.getIR(m));
+                  }
+                  return result;
+                }));
+      }
+      List<IR> first = futures.get(0).get();
+      for (Future<List<IR>> future : futures) {
+        List<IR> other = future.get();
+        for (int i = 0; i < some.size(); i++) {
+          assertThat(other.get(i)).isSameAs(first.get(i));
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * A factory that needs the IR it is building, directly or through a call chain, must get one
+   * rather than wait for its own unfinished build.
+   */
+  @Test
+  @Timeout(value = 60, unit = TimeUnit.SECONDS)
+  public void testReentrantRequestDoesNotWaitForItself() {
+    DefaultIRFactory irFactory = new DefaultIRFactory();
+    SSAOptions options = new AnalysisOptions().getSSAOptions();
+    IMethod m = methods.get(0);
+    SSACache[] cache = new SSACache[1];
+    boolean[] reentered = new boolean[1];
+    cache[0] =
+        new SSACache(
+            new IRFactory<>() {
+              @Override
+              public IR makeIR(IMethod method, Context c, SSAOptions o) {
+                if (!reentered[0]) {
+                  reentered[0] = true;
+                  assertThat(cache[0].findOrCreateIR(method, c, o)).isNotNull();
+                }
+                return irFactory.makeIR(method, c, o);
+              }
+
+              @Override
+              public boolean contextIsIrrelevant(IMethod method) {
+                return true;
+              }
+            },
+            new BoundedAuxiliaryCache(),
+            new BoundedAuxiliaryCache());
+    IR ir = cache[0].findOrCreateIR(m, Everywhere.EVERYWHERE, options);
+    assertThat(ir).isNotNull();
+    assertThat(reentered[0]).isTrue();
+    assertThat(cache[0].findOrCreateIR(m, Everywhere.EVERYWHERE, options)).isSameAs(ir);
+    assertThat(cache[0].findOrCreateDU(m, Everywhere.EVERYWHERE, options)).isNotNull();
+  }
+}
@@ -0,0 +1,140 @@
+package com.ibm.wala.core.tests.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.PersistentIRCache;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.ssa.SSAOptions;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Check that IRs decoded from the {@link PersistentIRCache} match IRs built from bytecode. */
+public class PersistentIRCacheTest extends WalaTestCase {
+
+  private static List<IMethod> methods;
+
+  @BeforeAll
+  public static void beforeAll() throws IOException, ClassHierarchyException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    methods = new ArrayList<>();
+    for (IClass klass : cha) {
+      if (klass.getName().toString().startsWith("Ljava/util/")) {
+        for (IMethod m : klass.getDeclaredMethods()) {
+          if (!m.isAbstract() && !m.isNative()) {
+            methods.add(m);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCachedIRsMatch(@TempDir Path cacheDir) throws IOException {
+    Path previous = PersistentIRCache.getCacheDirectory();
+    try {
+      PersistentIRCache.setCacheDirectory(null);
+      List<String> expected = describeAll();
+
+      PersistentIRCache.setCacheDirectory(cacheDir);
+      List<String> cold = describeAll();
+      assertThat(cacheSize(cacheDir)).isPositive();
+
+      // forget what is in memory, so that IRs are decoded from the files
+      PersistentIRCache.setCacheDirectory(cacheDir);
+      List<String> warm = describeAll();
+
+      assertThat(cold).isEqualTo(expected);
+      assertThat(warm).isEqualTo(expected);
+    } finally {
+      PersistentIRCache.setCacheDirectory(previous);
+    }
+  }
+
+  @Test
+  public void testTruncatedCacheIsRepaired(@TempDir Path cacheDir) throws IOException {
+    Path previous = PersistentIRCache.getCacheDirectory();
+    try {
+      PersistentIRCache.setCacheDirectory(null);
+      List<String> expected = describeAll();
+
+      PersistentIRCache.setCacheDirectory(cacheDir);
+      describeAll();
+      long size = cacheSize(cacheDir);
+      try (Stream<Path> files = Files.list(cacheDir)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 7);
+          }
+        }
+      }
+
+      PersistentIRCache.setCacheDirectory(cacheDir);
+      assertThat(describeAll()).isEqualTo(expected);
+      assertThat(cacheSize(cacheDir)).isEqualTo(size);
+    } finally {
+      PersistentIRCache.setCacheDirectory(previous);
+    }
+  }
+
+  private static long cacheSize(Path cacheDir) throws IOException {
+    long result = 0;
+    try (Stream<Path> files = Files.list(cacheDir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        result += Files.size(file);
+      }
+    }
+    return result;
+  }
+
+  private static List<String> describeAll() {
+    DefaultIRFactory factory = new DefaultIRFactory();
+    SSAOptions options = new AnalysisOptions().getSSAOptions();
+    List<String> result = new ArrayList<>();
+    for (IMethod m : methods) {
+      result.add(describe(factory.makeIR(m, Everywhere.EVERYWHERE, options)));
+    }
+    return result;
+  }
+
+  /** The printed IR, plus what it does not print: instruction classes and local names. */
+  private static String describe(IR ir) {
+    StringBuilder result = new StringBuilder(ir.toString());
+    SSAInstruction[] instructions = ir.getInstructions();
+    for (int i = 0; i < instructions.length; i++) {
+      SSAInstruction s = instructions[i];
+      if (s != null) {
+        result.append(s.getClass().getName()).append(s.getExceptionTypes());
+        for (int d = 0; d < s.getNumberOfDefs(); d++) {
+          result.append(Arrays.toString(ir.getLocalNames(i, s.getDef(d))));
+        }
+      }
+    }
+    return result.toString();
+  }
+}
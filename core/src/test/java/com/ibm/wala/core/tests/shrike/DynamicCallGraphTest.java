@@ -119,4 +119,22 @@ public abstract class DynamicCallGraphTest extends DynamicCallGraphTestBase {
     CallGraph staticCG = staticCG("Llambda/SortingExample", null);
     checkEdges(staticCG);
   }
+
+  @Test
+  public void testBinaryTrace()
+      throws IOException,
+          ClassNotFoundException,
+          InvalidClassFileException,
+          FailureException,
+          SecurityException,
+          IllegalArgumentException,
+          ClassHierarchyException,
+          CancelException,
+          InterruptedException {
+    testBinaryTrace = true;
+    instrument(testJarLocation);
+    run("dynamicCG.MainClass", null);
+    CallGraph staticCG = staticCG("LdynamicCG/MainClass", null);
+    checkEdges(staticCG);
+  }
 }
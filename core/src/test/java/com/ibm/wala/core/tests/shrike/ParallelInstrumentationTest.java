@@ -0,0 +1,142 @@
+package com.ibm.wala.core.tests.shrike;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.shrike.shrikeBT.ConstantInstruction;
+import com.ibm.wala.shrike.shrikeBT.Instruction;
+import com.ibm.wala.shrike.shrikeBT.MethodData;
+import com.ibm.wala.shrike.shrikeBT.MethodEditor;
+import com.ibm.wala.shrike.shrikeBT.Util;
+import com.ibm.wala.shrike.shrikeBT.analysis.ClassHierarchyStore;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.CTUtils;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.ClassInstrumenter;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.OfflineInstrumenter;
+import com.ibm.wala.shrike.shrikeCT.ClassWriter;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests {@link OfflineInstrumenter#instrumentAll} against the sequential traversal. */
+public class ParallelInstrumentationTest extends WalaTestCase {
+
+  private final String testSubjects =
+      getClasspathEntry(String.join(File.separator, "classes", "java", "testSubjects"));
+
+  private static final Instruction getSysErr = Util.makeGet(System.class, "err");
+
+  private static final Instruction callPrintln =
+      Util.makeInvoke(PrintStream.class, "println", new Class[] {String.class});
+
+  /** Print the name of each method when it is entered. */
+  private static ClassWriter traceEntries(ClassInstrumenter ci) throws InvalidClassFileException {
+    for (int i = 0; i < ci.getReader().getMethodCount(); i++) {
+      MethodData d = ci.visitMethod(i);
+      if (d != null) {
+        String msg = ci.getReader().getName() + '.' + ci.getReader().getMethodName(i);
+        MethodEditor me = new MethodEditor(d);
+        me.beginPass();
+        me.insertAtStart(
+            new MethodEditor.Patch() {
+              @Override
+              public void emitTo(MethodEditor.Output w) {
+                w.emit(getSysErr);
+                w.emit(ConstantInstruction.makeString(msg));
+                w.emit(callPrintln);
+              }
+            });
+        me.applyPatches();
+      }
+    }
+    return ci.isChanged() ? ci.emitClass() : null;
+  }
+
+  private OfflineInstrumenter makeInstrumenter(Path output)
+      throws IOException, InvalidClassFileException {
+    File base = new File(testSubjects);
+    OfflineInstrumenter instrumenter = new OfflineInstrumenter();
+    instrumenter.addInputDirectory(base, new File(base, "slice"));
+    instrumenter.setPassUnmodifiedClasses(true);
+    instrumenter.setOutputJar(output.toFile());
+
+    ClassHierarchyStore cha = new ClassHierarchyStore();
+    instrumenter.beginTraversal();
+    ClassInstrumenter ci;
+    while ((ci = instrumenter.nextClass()) != null) {
+      CTUtils.addClassToHierarchy(cha, ci.getReader());
+    }
+    instrumenter.setClassHierarchyProvider(cha);
+    return instrumenter;
+  }
+
+  private Path instrumentSequentially(Path dir) throws IOException, InvalidClassFileException {
+    Path output = dir.resolve("sequential.jar");
+    OfflineInstrumenter instrumenter = makeInstrumenter(output);
+    instrumenter.beginTraversal();
+    ClassInstrumenter ci;
+    while ((ci = instrumenter.nextClass()) != null) {
+      ClassWriter cw = traceEntries(ci);
+      if (cw != null) {
+        instrumenter.outputModifiedClass(ci, cw);
+      }
+    }
+    instrumenter.close();
+    return output;
+  }
+
+  private Path instrumentInParallel(Path dir, int threads)
+      throws IOException, InvalidClassFileException {
+    Path output = dir.resolve("parallel" + threads + ".jar");
+    OfflineInstrumenter instrumenter = makeInstrumenter(output);
+    instrumenter.setNumberOfThreads(threads);
+    instrumenter.instrumentAll(ParallelInstrumentationTest::traceEntries);
+    instrumenter.close();
+    return output;
+  }
+
+  private static Map<String, byte[]> entries(Path jar) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (JarFile jf = new JarFile(jar.toFile())) {
+      for (Enumeration<? extends ZipEntry> e = jf.entries(); e.hasMoreElements(); ) {
+        ZipEntry entry = e.nextElement();
+        try (InputStream in = jf.getInputStream(entry)) {
+          entries.put(entry.getName(), in.readAllBytes());
+        }
+      }
+    }
+    return entries;
+  }
+
+  @Test
+  public void testSameClassesAsSequential(@TempDir Path dir)
+      throws IOException, InvalidClassFileException {
+    Map<String, byte[]> sequential = entries(instrumentSequentially(dir));
+    Map<String, byte[]> parallel = entries(instrumentInParallel(dir, 4));
+    assertThat(parallel).isNotEmpty();
+    assertThat(parallel.keySet()).containsExactlyInAnyOrderElementsOf(sequential.keySet());
+    for (Map.Entry<String, byte[]> e : sequential.entrySet()) {
+      assertThat(parallel.get(e.getKey())).as(e.getKey()).isEqualTo(e.getValue());
+    }
+  }
+
+  @Test
+  public void testDeterministicOrder(@TempDir Path dir)
+      throws IOException, InvalidClassFileException {
+    Map<String, byte[]> one = entries(instrumentInParallel(dir, 1));
+    Map<String, byte[]> four = entries(instrumentInParallel(dir, 4));
+    assertThat(four.keySet()).containsExactlyElementsOf(one.keySet());
+    for (Map.Entry<String, byte[]> e : one.entrySet()) {
+      assertThat(four.get(e.getKey())).as(e.getKey()).isEqualTo(e.getValue());
+    }
+  }
+}
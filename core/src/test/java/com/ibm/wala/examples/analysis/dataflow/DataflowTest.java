@@ -21,6 +21,7 @@ import com.ibm.wala.core.tests.util.WalaTestCase;
 import com.ibm.wala.core.util.config.AnalysisScopeReader;
 import com.ibm.wala.dataflow.IFDS.ISupergraph;
 import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.dataflow.IFDS.TabulationSolver.EdgeRepresentation;
 import com.ibm.wala.dataflow.graph.BitVectorSolver;
 import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions;
@@ -259,10 +260,30 @@ public class DataflowTest extends WalaTestCase {
   /** Phase two of {@link #testContextSensitive}: run the reaching definitions analysis. */
   public static TestContextSensitiveResult computeTestContextSensitive(
       TestContextSensitiveAnalysis analysis) {
+    return computeTestContextSensitive(analysis, 1);
+  }
+
+  /**
+   * Phase two of {@link #testContextSensitive}: run the reaching definitions analysis, tabulating
+   * on the given number of threads.
+   */
+  public static TestContextSensitiveResult computeTestContextSensitive(
+      TestContextSensitiveAnalysis analysis, int numberOfThreads) {
+    return computeTestContextSensitive(analysis, numberOfThreads, EdgeRepresentation.RELATIONS);
+  }
+
+  /**
+   * Phase two of {@link #testContextSensitive}: run the reaching definitions analysis, tabulating
+   * on the given number of threads and keeping edges in the given representation.
+   */
+  public static TestContextSensitiveResult computeTestContextSensitive(
+      TestContextSensitiveAnalysis analysis,
+      int numberOfThreads,
+      EdgeRepresentation edgeRepresentation) {
     ContextSensitiveReachingDefs reachingDefs =
         new ContextSensitiveReachingDefs(analysis.callGraph());
     TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Pair<CGNode, Integer>>
-        result = reachingDefs.analyze();
+        result = reachingDefs.analyze(numberOfThreads, edgeRepresentation);
     return new TestContextSensitiveResult(result, reachingDefs);
   }
 
@@ -301,4 +322,41 @@ public class DataflowTest extends WalaTestCase {
               assertThat(applicationDefs).hasSize(1);
             });
   }
+
+  @Test
+  public void testContextSensitiveConcurrent()
+      throws IllegalArgumentException, ClassHierarchyException, CancelException, IOException {
+    TestContextSensitiveAnalysis analysis = prepareTestContextSensitive();
+    TestContextSensitiveResult sequential = computeTestContextSensitive(analysis, 1);
+    TestContextSensitiveResult concurrent = computeTestContextSensitive(analysis, 4);
+    assertSameResult(sequential, concurrent);
+  }
+
+  @Test
+  public void testContextSensitivePacked()
+      throws IllegalArgumentException, ClassHierarchyException, CancelException, IOException {
+    TestContextSensitiveAnalysis analysis = prepareTestContextSensitive();
+    TestContextSensitiveResult relations = computeTestContextSensitive(analysis, 1);
+    assertSameResult(
+        relations, computeTestContextSensitive(analysis, 1, EdgeRepresentation.PACKED));
+    assertSameResult(
+        relations, computeTestContextSensitive(analysis, 1, EdgeRepresentation.PACKED_OFF_HEAP));
+    assertSameResult(
+        relations, computeTestContextSensitive(analysis, 4, EdgeRepresentation.PACKED));
+  }
+
+  private static void assertSameResult(
+      TestContextSensitiveResult expected, TestContextSensitiveResult actual) {
+    ISupergraph<BasicBlockInContext<IExplodedBasicBlock>, CGNode> supergraph =
+        expected.reachingDefs().getSupergraph();
+    for (BasicBlockInContext<IExplodedBasicBlock> bb : supergraph) {
+      IntSet expectedFacts = expected.result().getResult(bb);
+      IntSet actualFacts = actual.result().getResult(bb);
+      assertThat(actualFacts.sameValue(expectedFacts)).as(bb.toString()).isTrue();
+    }
+    assertThat(actual.result().getSupergraphNodesReached())
+        .containsExactlyInAnyOrderElementsOf(expected.result().getSupergraphNodesReached());
+    assertThat(actual.result().getSeeds())
+        .containsExactlyInAnyOrderElementsOf(expected.result().getSeeds());
+  }
 }
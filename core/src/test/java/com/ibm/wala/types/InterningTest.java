@@ -0,0 +1,88 @@
+package com.ibm.wala.types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.wala.core.util.strings.Atom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link TypeName}, {@link TypeReference}, {@link Descriptor}, {@link MethodReference}
+ * and {@link FieldReference} stay canonical when many threads intern the same new content at once.
+ */
+public final class InterningTest {
+
+  private static final int THREADS = 8;
+
+  private static final int NAMES = 2000;
+
+  /** Everything one thread interned, in a fixed order. */
+  private record Interned(
+      TypeName[] typeNames,
+      TypeReference[] typeReferences,
+      Descriptor[] descriptors,
+      MethodReference[] methods,
+      FieldReference[] fields) {}
+
+  private static Interned intern(String prefix) {
+    Interned result =
+        new Interned(
+            new TypeName[NAMES],
+            new TypeReference[NAMES],
+            new Descriptor[NAMES],
+            new MethodReference[NAMES],
+            new FieldReference[NAMES]);
+    for (int i = 0; i < NAMES; i++) {
+      String name = "L" + prefix + "/C" + i;
+      result.typeNames[i] = TypeName.string2TypeName(name);
+      result.typeReferences[i] =
+          TypeReference.findOrCreate(ClassLoaderReference.Application, name);
+      result.descriptors[i] = Descriptor.findOrCreateUTF8("(" + name + ";)V");
+      result.methods[i] =
+          MethodReference.findOrCreate(
+              result.typeReferences[i], Atom.findOrCreateUnicodeAtom("m"), result.descriptors[i]);
+      result.fields[i] =
+          FieldReference.findOrCreate(
+              result.typeReferences[i], Atom.findOrCreateUnicodeAtom("f"), TypeReference.Int);
+    }
+    return result;
+  }
+
+  @Test
+  public void testConcurrentInterningIsCanonical() throws Exception {
+    String prefix = "com/ibm/wala/types/InterningTest" + System.nanoTime();
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Interned>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  return intern(prefix);
+                }));
+      }
+      Interned first = futures.get(0).get();
+      for (Future<Interned> future : futures) {
+        Interned other = future.get();
+        for (int i = 0; i < NAMES; i++) {
+          assertThat(other.typeNames[i]).isSameAs(first.typeNames[i]);
+          assertThat(other.typeReferences[i]).isSameAs(first.typeReferences[i]);
+          assertThat(other.descriptors[i]).isSameAs(first.descriptors[i]);
+          assertThat(other.methods[i]).isSameAs(first.methods[i]);
+          assertThat(other.fields[i]).isSameAs(first.fields[i]);
+        }
+      }
+      Interned again = intern(prefix);
+      assertThat(again.methods[NAMES - 1]).isSameAs(first.methods[NAMES - 1]);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
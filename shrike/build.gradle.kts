@@ -1,5 +1,6 @@
 plugins {
   id("com.ibm.wala.gradle.java")
+  id("com.ibm.wala.gradle.jmh")
   id("com.ibm.wala.gradle.publishing")
 }
 
@@ -0,0 +1,149 @@
+package com.ibm.wala.benchmarks.shrike;
+
+import com.ibm.wala.shrike.shrikeBT.ConstantInstruction;
+import com.ibm.wala.shrike.shrikeBT.Instruction;
+import com.ibm.wala.shrike.shrikeBT.MethodData;
+import com.ibm.wala.shrike.shrikeBT.MethodEditor;
+import com.ibm.wala.shrike.shrikeBT.Util;
+import com.ibm.wala.shrike.shrikeBT.analysis.ClassHierarchyStore;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.CTUtils;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.ClassInstrumenter;
+import com.ibm.wala.shrike.shrikeBT.shrikeCT.OfflineInstrumenter;
+import com.ibm.wala.shrike.shrikeCT.ClassWriter;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH macrobenchmark for {@link OfflineInstrumenter#instrumentAll} as a function of {@linkplain
+ * OfflineInstrumenter#setNumberOfThreads(int) threads}.
+ *
+ * <p>Each invocation instruments every class of {@link #input} to print the name of each method
+ * when it is entered, and writes them to a temporary JAR. The class hierarchy is built once per
+ * trial, in {@link #setup()}. The {@code classes} counter reports the throughput in classes per
+ * second. Run with {@code ./gradlew :shrike:jmh}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class OfflineInstrumenterBenchmark {
+
+  /** Number of threads that instrument classes. */
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  /** The JAR or class directory to instrument; by default, the classes of Shrike itself. */
+  @Param({""})
+  public String input;
+
+  /** The number of classes instrumented, summed over the invocations of an iteration. */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Classes {
+
+    public long classes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      classes = 0;
+    }
+  }
+
+  private static final Instruction getSysErr = Util.makeGet(System.class, "err");
+
+  private static final Instruction callPrintln =
+      Util.makeInvoke(PrintStream.class, "println", new Class[] {String.class});
+
+  private final ClassHierarchyStore cha = new ClassHierarchyStore();
+
+  private File output;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, InvalidClassFileException, URISyntaxException {
+    if (input.isEmpty()) {
+      input =
+          new File(
+                  OfflineInstrumenter.class
+                      .getProtectionDomain()
+                      .getCodeSource()
+                      .getLocation()
+                      .toURI())
+              .getPath();
+    }
+    output = File.createTempFile("wala-instrumented", ".jar");
+    OfflineInstrumenter instrumenter = makeInstrumenter();
+    ClassInstrumenter ci;
+    while ((ci = instrumenter.nextClass()) != null) {
+      CTUtils.addClassToHierarchy(cha, ci.getReader());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    output.delete();
+  }
+
+  private OfflineInstrumenter makeInstrumenter() throws IOException {
+    OfflineInstrumenter instrumenter = new OfflineInstrumenter();
+    if (!instrumenter.addInputElement(new File(input), input)) {
+      throw new IllegalArgumentException("cannot instrument " + input);
+    }
+    instrumenter.setOutputJar(output);
+    instrumenter.setClassHierarchyProvider(cha);
+    instrumenter.setNumberOfThreads(threads);
+    instrumenter.beginTraversal();
+    return instrumenter;
+  }
+
+  private static ClassWriter traceEntries(ClassInstrumenter ci) throws InvalidClassFileException {
+    for (int i = 0; i < ci.getReader().getMethodCount(); i++) {
+      MethodData d = ci.visitMethod(i);
+      if (d != null) {
+        String msg = ci.getReader().getName() + '.' + ci.getReader().getMethodName(i);
+        MethodEditor me = new MethodEditor(d);
+        me.beginPass();
+        me.insertAtStart(
+            new MethodEditor.Patch() {
+              @Override
+              public void emitTo(MethodEditor.Output w) {
+                w.emit(getSysErr);
+                w.emit(ConstantInstruction.makeString(msg));
+                w.emit(callPrintln);
+              }
+            });
+        me.applyPatches();
+      }
+    }
+    return ci.isChanged() ? ci.emitClass() : null;
+  }
+
+  /** Instruments all classes of {@link #input} and writes them to a JAR. */
+  @Benchmark
+  public File instrumentAll(Classes counters) throws IOException {
+    OfflineInstrumenter instrumenter = makeInstrumenter();
+    instrumenter.instrumentAll(OfflineInstrumenterBenchmark::traceEntries);
+    instrumenter.close();
+    counters.classes += instrumenter.getNumInputClasses();
+    return output;
+  }
+}
@@ -0,0 +1,252 @@
+package com.ibm.wala.shrike.cg;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the call graph edges that {@link Runtime} observes in the binary trace format that {@link
+ * TraceReader} reads, without slowing down the traced program more than necessary.
+ *
+ * <p>Every thread records its edges into its own ring buffer, which needs no lock since the thread
+ * is its only writer and a background thread its only reader. Methods are interned to integers, so
+ * an edge is a single {@code long}, and each thread skips edges it recorded recently. The
+ * background thread drains the rings, writes each distinct edge once, and defines each method by
+ * name the first time an edge mentions it.
+ *
+ * <p>The format is a header of the int {@link #MAGIC} and the int {@link #VERSION}, followed by
+ * records that start with a tag byte: {@link #METHOD}, followed by the method's number as a varint
+ * and its name in modified UTF-8, or {@link #EDGE}, followed by the numbers of the caller and the
+ * callee as varints. A varint holds seven bits per byte, least significant first, and the high bit
+ * of a byte is set if another byte follows.
+ */
+final class BinaryTraceWriter {
+
+  /** The first four bytes of a binary trace: "WCGT" */
+  static final int MAGIC = 0x57434754;
+
+  static final int VERSION = 1;
+
+  /** Tag of a record that defines the name of a method number */
+  static final int METHOD = 1;
+
+  /** Tag of a record that holds an edge between two method numbers */
+  static final int EDGE = 2;
+
+  /** must be a power of two */
+  private static final int RING_SIZE = 1 << 12;
+
+  /** must be a power of two */
+  private static final int RECENT_SIZE = 1 << 10;
+
+  /** how long the background thread sleeps when it found no edges to drain */
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /**
+   * A single-producer, single-consumer ring buffer of edges. The recording thread only advances
+   * {@link #tail}, the background thread only advances {@link #head}.
+   */
+  private static final class Ring {
+
+    /** the recording thread; once it has died and its edges are drained, the ring is dropped */
+    private final Thread owner;
+
+    private final long[] slots = new long[RING_SIZE];
+
+    /** a direct-mapped cache of edges the recording thread recorded recently */
+    private final long[] recent = new long[RECENT_SIZE];
+
+    private volatile long head = 0;
+
+    private volatile long tail = 0;
+
+    private Ring(Thread owner) {
+      this.owner = owner;
+      Arrays.fill(recent, -1L);
+    }
+  }
+
+  private final DataOutputStream out;
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  private final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<>();
+
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  private final Queue<Ring> rings = new ConcurrentLinkedQueue<>();
+
+  private final ThreadLocal<Ring> ring =
+      ThreadLocal.withInitial(
+          () -> {
+            Ring r = new Ring(Thread.currentThread());
+            rings.add(r);
+            return r;
+          });
+
+  /** for the background thread only: the methods it has defined */
+  private final BitSet defined = new BitSet();
+
+  /** for the background thread only: the edges it has written */
+  private final Set<Long> written = new HashSet<>();
+
+  private final Thread drainer;
+
+  private volatile boolean closed = false;
+
+  BinaryTraceWriter(String fileName) throws IOException {
+    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    drainer = new Thread(this::drainUntilClosed, "WALA dynamic call graph trace writer");
+    drainer.setDaemon(true);
+    drainer.start();
+  }
+
+  /**
+   * Record an edge in the trace. The methods are named as in the text format: "class\tmethod", or
+   * one of "root", "clinit" and "callbacks" for callers.
+   */
+  void record(String caller, String callee) {
+    if (closed) {
+      return;
+    }
+    long edge = ((long) id(caller) << 32) | id(callee);
+    Ring r = ring.get();
+    int slot = Long.hashCode(edge * 0x9E3779B97F4A7C15L) & (RECENT_SIZE - 1);
+    if (r.recent[slot] == edge) {
+      return;
+    }
+    r.recent[slot] = edge;
+    long t = r.tail;
+    while (t - r.head == RING_SIZE) {
+      // the ring is full: wake up the background thread and wait for it
+      LockSupport.unpark(drainer);
+      if (closed) {
+        return;
+      }
+      Thread.yield();
+    }
+    r.slots[(int) t & (RING_SIZE - 1)] = edge;
+    r.tail = t + 1;
+  }
+
+  private int id(String method) {
+    Integer id = ids.get(method);
+    if (id == null) {
+      id =
+          ids.computeIfAbsent(
+              method,
+              m -> {
+                int i = nextId.getAndIncrement();
+                names.put(i, m);
+                return i;
+              });
+    }
+    return id;
+  }
+
+  /**
+   * Stop recording, write the edges recorded so far and close the trace. Edges that threads
+   * record meanwhile may be lost.
+   */
+  void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    LockSupport.unpark(drainer);
+    try {
+      drainer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    drain();
+    out.close();
+  }
+
+  private void drainUntilClosed() {
+    try {
+      while (!closed) {
+        if (!drain()) {
+          LockSupport.parkNanos(IDLE_NANOS);
+        }
+      }
+    } catch (IOException e) {
+      closed = true;
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Write the edges in all rings, and drop the rings of threads that have died.
+   *
+   * @return whether any ring held edges
+   */
+  private boolean drain() throws IOException {
+    boolean drained = false;
+    for (Iterator<Ring> it = rings.iterator(); it.hasNext(); ) {
+      Ring r = it.next();
+      // check before reading the tail, so that a dead owner's last edges are seen
+      boolean dead = !r.owner.isAlive();
+      long h = r.head;
+      long t = r.tail;
+      if (h != t) {
+        drained = true;
+        for (; h < t; h++) {
+          write(r.slots[(int) h & (RING_SIZE - 1)]);
+        }
+        r.head = t;
+      }
+      if (dead) {
+        it.remove();
+      }
+    }
+    if (drained) {
+      out.flush();
+    }
+    return drained;
+  }
+
+  private void write(long edge) throws IOException {
+    if (!written.add(edge)) {
+      return;
+    }
+    int caller = (int) (edge >>> 32);
+    int callee = (int) edge;
+    define(caller);
+    define(callee);
+    out.writeByte(EDGE);
+    writeVarInt(caller);
+    writeVarInt(callee);
+  }
+
+  private void define(int id) throws IOException {
+    if (!defined.get(id)) {
+      defined.set(id);
+      out.writeByte(METHOD);
+      writeVarInt(id);
+      out.writeUTF(names.get(id));
+    }
+  }
+
+  private void writeVarInt(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+}
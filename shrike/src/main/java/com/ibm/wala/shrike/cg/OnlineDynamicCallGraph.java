@@ -75,4 +75,16 @@ public class OnlineDynamicCallGraph implements ClassFileTransformer {
       throws IllegalArgumentException, IOException, InvalidClassFileException {
     inst.addTransformer(new OnlineDynamicCallGraph());
   }
+
+  /**
+   * With the agent argument {@code binary}, the trace is written in the binary format that {@link
+   * TraceReader} reads, unless the system property {@code dynamicCGFormat} says otherwise.
+   */
+  public static void premain(String agentArgs, Instrumentation inst)
+      throws IllegalArgumentException, IOException, InvalidClassFileException {
+    if ("binary".equals(agentArgs) && System.getProperty("dynamicCGFormat") == null) {
+      System.setProperty("dynamicCGFormat", "binary");
+    }
+    premain(inst);
+  }
 }
@@ -37,13 +37,7 @@ public class Runtime {
           "<clinit>".equals(stack[1].getMethodName())
               ? "clinit"
               : "finalize".equals(stack[1].getMethodName()) ? "root" : "callbacks";
-      String line = root + '\t' + bashToDescriptor(klass) + '\t' + String.valueOf(method) + '\n';
-      synchronized (runtime) {
-        if (runtime.output != null) {
-          runtime.output.printf(line);
-          runtime.output.flush();
-        }
-      }
+      record(root, bashToDescriptor(klass) + '\t' + method);
     }
   }
 
@@ -51,9 +45,11 @@ public class Runtime {
       new Runtime(
           System.getProperty("dynamicCGFile"),
           System.getProperty("dynamicCGFilter"),
-          System.getProperty("policyClass", "com.ibm.wala.shrike.cg.Runtime$DefaultPolicy"));
+          System.getProperty("policyClass", "com.ibm.wala.shrike.cg.Runtime$DefaultPolicy"),
+          "binary".equals(System.getProperty("dynamicCGFormat")));
 
   private PrintWriter output;
+  private BinaryTraceWriter trace;
   private StringFilter filter;
   private Policy handleCallback;
   private final ThreadLocal<String> currentSite = new ThreadLocal<>();
@@ -66,7 +62,8 @@ public class Runtime {
             return callStack;
           });
 
-  private Runtime(String fileName, String filterFileName, String policyClassName) {
+  private Runtime(
+      String fileName, String filterFileName, String policyClassName, boolean binaryTrace) {
     try (final FileInputStream in = new FileInputStream(filterFileName)) {
       filter = new PatternsFilter(in);
     } catch (Exception e) {
@@ -74,10 +71,14 @@ public class Runtime {
     }
 
     try {
-      output =
-          new PrintWriter(
-              new OutputStreamWriter(
-                  new GZIPOutputStream(new FileOutputStream(fileName)), StandardCharsets.UTF_8));
+      if (binaryTrace) {
+        trace = new BinaryTraceWriter(fileName);
+      } else {
+        output =
+            new PrintWriter(
+                new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(fileName)), StandardCharsets.UTF_8));
+      }
     } catch (IOException e) {
       output = new PrintWriter(System.err);
     }
@@ -107,6 +108,33 @@ public class Runtime {
         runtime.output.close();
         runtime.output = null;
       }
+      if (runtime.trace != null) {
+        try {
+          runtime.trace.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+        runtime.trace = null;
+      }
+    }
+  }
+
+  /**
+   * Record a call graph edge. The caller is either "class\tmethod" or one of the fake roots "root",
+   * "clinit" and "callbacks"; the callee is "class\tmethod".
+   */
+  private static void record(String caller, String callee) {
+    BinaryTraceWriter trace = runtime.trace;
+    if (trace != null) {
+      trace.record(caller, callee);
+    } else {
+      String line = caller + '\t' + callee + '\n';
+      synchronized (runtime) {
+        if (runtime.output != null) {
+          runtime.output.printf(line);
+          runtime.output.flush();
+        }
+      }
     }
   }
 
@@ -130,8 +158,9 @@ public class Runtime {
 
   public static void execution(String klass, String method, Object receiver) {
     runtime.currentSite.remove();
+    String callee = bashToDescriptor(klass) + '\t' + method;
     if (runtime.filter == null || !runtime.filter.test(bashToDescriptor(klass))) {
-      if (runtime.output != null) {
+      if (runtime.output != null || runtime.trace != null) {
         String caller = runtime.callStacks.get().peek();
 
         //
@@ -154,24 +183,12 @@ public class Runtime {
         }
 
         if (!handled) {
-          String line =
-              (method.contains("<clinit>") ? "clinit" : String.valueOf(caller))
-                  + '\t'
-                  + bashToDescriptor(klass)
-                  + '\t'
-                  + String.valueOf(method)
-                  + '\n';
-          synchronized (runtime) {
-            if (runtime.output != null) {
-              runtime.output.printf(line);
-              runtime.output.flush();
-            }
-          }
+          record(method.contains("<clinit>") ? "clinit" : String.valueOf(caller), callee);
         }
       }
     }
 
-    runtime.callStacks.get().push(bashToDescriptor(klass) + '\t' + method);
+    runtime.callStacks.get().push(callee);
   }
 
   @SuppressWarnings("unused")
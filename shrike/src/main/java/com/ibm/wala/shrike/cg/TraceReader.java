@@ -0,0 +1,115 @@
+package com.ibm.wala.shrike.cg;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the call graph edges that {@link Runtime} recorded, in either the gzipped text format or
+ * the binary format of {@link BinaryTraceWriter}, which {@link Runtime} writes if the system
+ * property {@code dynamicCGFormat} is {@code binary}. The format is recognized from the first bytes
+ * of the trace.
+ */
+public final class TraceReader {
+
+  /** Receives the edges of a trace. */
+  public interface EdgeVisitor {
+    /**
+     * @param caller "class\tmethod", or one of the fake roots "root", "clinit" and "callbacks"
+     * @param callee "class\tmethod"
+     */
+    void edge(String caller, String callee) throws IOException;
+  }
+
+  private TraceReader() {}
+
+  /**
+   * Pass every edge of a trace to a visitor. A binary trace holds each edge only once, whereas a
+   * text trace holds an edge every time it was taken.
+   */
+  public static void read(Path trace, EdgeVisitor visitor) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(trace))) {
+      in.mark(4);
+      int magic = new DataInputStream(in).readInt();
+      in.reset();
+      if (magic == BinaryTraceWriter.MAGIC) {
+        readBinary(new DataInputStream(in), visitor);
+      } else {
+        readText(in, visitor);
+      }
+    }
+  }
+
+  private static void readText(InputStream in, EdgeVisitor visitor) throws IOException {
+    BufferedReader lines =
+        new BufferedReader(new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8));
+    String line;
+    while ((line = lines.readLine()) != null) {
+      if (line.startsWith("call to") || line.startsWith("return from")) {
+        continue;
+      }
+      // the callee is the last two fields, the caller everything before
+      int methodTab = line.lastIndexOf('\t');
+      int classTab = methodTab > 0 ? line.lastIndexOf('\t', methodTab - 1) : -1;
+      if (classTab <= 0) {
+        throw new IOException("malformed trace line: " + line);
+      }
+      visitor.edge(line.substring(0, classTab), line.substring(classTab + 1));
+    }
+  }
+
+  private static void readBinary(DataInputStream in, EdgeVisitor visitor) throws IOException {
+    in.readInt();
+    int version = in.readInt();
+    if (version != BinaryTraceWriter.VERSION) {
+      throw new IOException("unsupported trace version " + version);
+    }
+    Map<Integer, String> names = new HashMap<>();
+    int tag;
+    while ((tag = in.read()) != -1) {
+      switch (tag) {
+        case BinaryTraceWriter.METHOD:
+          names.put(readVarInt(in), in.readUTF());
+          break;
+        case BinaryTraceWriter.EDGE:
+          visitor.edge(name(names, readVarInt(in)), name(names, readVarInt(in)));
+          break;
+        default:
+          throw new IOException("unknown trace record " + tag);
+      }
+    }
+  }
+
+  private static String name(Map<Integer, String> names, int id) throws IOException {
+    String name = names.get(id);
+    if (name == null) {
+      throw new IOException("undefined method " + id + " in trace");
+    }
+    return name;
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.read();
+      if (b == -1) {
+        throw new EOFException();
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed varint in trace");
+  }
+}
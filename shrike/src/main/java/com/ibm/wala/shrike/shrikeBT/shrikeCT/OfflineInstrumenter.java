@@ -17,6 +17,7 @@ import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import org.jspecify.annotations.Nullable;
 
 /**
  * This class provides a convenient way to iterate through a collection of Java classes and
@@ -25,6 +26,19 @@ import java.io.OutputStream;
  */
 public final class OfflineInstrumenter extends OfflineInstrumenterBase {
 
+  /** Instruments a single class for {@link #instrumentAll}. */
+  @FunctionalInterface
+  public interface Transformer {
+    /**
+     * This is called concurrently for different classes, so it must not modify state that other
+     * classes share, such as the class hierarchy.
+     *
+     * @return the instrumented class, usually from ci.emitClass(), or null to leave it unmodified
+     */
+    @Nullable ClassWriter transform(ClassInstrumenter ci)
+        throws InvalidClassFileException, IOException;
+  }
+
   @Override
   protected Object makeClassFromStream(String inputName, BufferedInputStream s) throws IOException {
     byte[] bytes = new byte[s.available()];
@@ -86,4 +100,13 @@ public final class OfflineInstrumenter extends OfflineInstrumenterBase {
       throw new IOException("Invalid class file");
     }
   }
+
+  /**
+   * Instrument every class on {@link #getNumberOfThreads()} threads and write the modified classes
+   * to the output JAR, in the order of the inputs. This is the parallel equivalent of a loop over
+   * {@link #nextClass()} that calls {@link #outputModifiedClass(ClassInstrumenter, ClassWriter)}.
+   */
+  public void instrumentAll(Transformer transformer) throws IOException {
+    internalInstrumentAll(cl -> transformer.transform((ClassInstrumenter) cl));
+  }
 }
@@ -11,23 +11,32 @@
 package com.ibm.wala.shrike.shrikeBT.tools;
 
 import com.ibm.wala.shrike.shrikeBT.analysis.ClassHierarchyProvider;
+import com.ibm.wala.util.ThreadPoolUtil;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
+import org.jspecify.annotations.Nullable;
 
 /**
  * This class provides functionality for performing offline instrumentation. It is subclassed with
@@ -54,6 +63,8 @@ public abstract class OfflineInstrumenterBase {
 
   private ManifestBuilder manifestBuilder;
 
+  private int numberOfThreads = 1;
+
   protected ClassHierarchyProvider cha;
 
   /**
@@ -197,6 +208,19 @@ public abstract class OfflineInstrumenterBase {
     this.cha = cha;
   }
 
+  public final int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads {@link #internalInstrumentAll} may use to instrument
+   *     classes
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public final void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
   /** Set the file in which instrumented classes will be deposited. */
   public final void setOutputJar(File f) {
     outputFile = f;
@@ -368,6 +392,98 @@ public abstract class OfflineInstrumenterBase {
     }
   }
 
+  /** Instruments a single class, on any thread. */
+  @FunctionalInterface
+  protected interface ClassTransformer {
+    /**
+     * @param cl a class made by {@link #makeClassFromStream}
+     * @return the modifications to pass to {@link #writeClassTo}, or null if the class is unchanged
+     */
+    @Nullable Object transform(Object cl) throws Exception;
+  }
+
+  /**
+   * A class that a worker has transformed, and the entry to write it to unless its bytes are null.
+   */
+  private record TransformedClass(
+      Input input, String className, String entryName, byte @Nullable [] bytes) {}
+
+  /**
+   * Instrument every class that is not ignored on {@link #getNumberOfThreads()} threads, and write
+   * the modified classes to the output JAR. If unmodified classes are passed through, they are
+   * written as well. Classes are written in the order of the inputs, so the output does not depend
+   * on thread scheduling.
+   *
+   * <p>The calling thread reads the inputs and writes the output. At most a few classes per thread
+   * are read and not yet written at any time, so the inputs are streamed rather than held in memory
+   * as a whole.
+   */
+  protected final void internalInstrumentAll(ClassTransformer transformer) throws IOException {
+    makeOutputJar();
+    ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+    try {
+      int window = 4 * numberOfThreads;
+      ArrayDeque<Future<TransformedClass>> pending = new ArrayDeque<>();
+      for (int i = 0; i < inputs.size(); i++) {
+        Input in = inputs.get(i);
+        if (ignoringInputs.get(i) || !in.isClass()) {
+          continue;
+        }
+        byte[] bytes;
+        try (InputStream s = in.open()) {
+          bytes = s.readAllBytes();
+        }
+        if (pending.size() == window) {
+          writeTransformedClass(pending.remove());
+        }
+        pending.add(pool.submit(() -> transformClass(transformer, in, bytes)));
+      }
+      while (!pending.isEmpty()) {
+        writeTransformedClass(pending.remove());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private TransformedClass transformClass(ClassTransformer transformer, Input in, byte[] bytes)
+      throws Exception {
+    Object cl =
+        makeClassFromStream(
+            in.getInputName(), new BufferedInputStream(new ByteArrayInputStream(bytes)));
+    String className = getClassName(cl);
+    Object mods = transformer.transform(cl);
+    String entryName = mods == null ? toEntryName(className) : in.getInputName();
+    if (mods == null && !passUnmodifiedClasses) {
+      return new TransformedClass(in, className, entryName, null);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + bytes.length / 4);
+    writeClassTo(cl, mods, out);
+    return new TransformedClass(in, className, entryName, out.toByteArray());
+  }
+
+  private void writeTransformedClass(Future<TransformedClass> result) throws IOException {
+    TransformedClass c;
+    try {
+      c = ThreadPoolUtil.get(result);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while instrumenting", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IOException("Error instrumenting: " + e.getCause(), e.getCause());
+    }
+    // lets writeUnmodifiedClasses find the entry name without reading the class again
+    c.input().setClassName(c.className());
+    if (c.bytes() != null && !entryNames.contains(c.entryName())) {
+      putNextEntry(new ZipEntry(c.entryName()));
+      outputJar.write(c.bytes());
+      outputJar.closeEntry();
+    }
+  }
+
   private static String toEntryName(String className) {
     return className.replace('.', '/') + ".class";
   }
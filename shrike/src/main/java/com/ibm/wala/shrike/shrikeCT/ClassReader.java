@@ -10,6 +10,8 @@
  */
 package com.ibm.wala.shrike.shrikeCT;
 
+import java.nio.ByteBuffer;
+
 /**
  * This is the core class for reading class file data.
  *
@@ -17,7 +19,7 @@ package com.ibm.wala.shrike.shrikeCT;
  * InvalidClassFileException.
  */
 public final class ClassReader implements ClassConstants {
-  private final byte[] bytes;
+  private final ByteBuffer data;
 
   private int[] methodOffsets;
 
@@ -42,15 +44,42 @@ public final class ClassReader implements ClassConstants {
    * @throws InvalidClassFileException the class file data is corrupt
    */
   public ClassReader(byte[] bytes) throws InvalidClassFileException {
-    this.bytes = bytes;
+    this.data = ByteBuffer.wrap(bytes);
     parse();
   }
 
+  /**
+   * Build a reader over the remaining bytes of a buffer, without copying them. The buffer may, for
+   * example, be a slice of a memory-mapped JAR file. Its position, limit and byte order are not
+   * changed, and its contents must not change while the reader is in use.
+   *
+   * @param data the class file data, from the buffer's position to its limit
+   * @throws InvalidClassFileException the class file data is corrupt
+   */
+  public ClassReader(ByteBuffer data) throws InvalidClassFileException {
+    // slice() is big-endian, as the class file format is
+    this.data = data.slice();
+    parse();
+  }
+
+  /**
+   * @return the contents of data from index 0 to its limit as an array, which is the backing array
+   *     of data if it is exactly that
+   */
+  static byte[] toArray(ByteBuffer data) {
+    if (data.hasArray() && data.arrayOffset() == 0 && data.array().length == data.limit()) {
+      return data.array();
+    }
+    byte[] result = new byte[data.limit()];
+    data.get(0, result);
+    return result;
+  }
+
   private void checkLength(int offset, int required) throws InvalidClassFileException {
-    if (bytes.length < offset + required) {
+    if (data.limit() < offset + required) {
       throw new InvalidClassFileException(
           offset,
-          "file truncated, expected " + required + " bytes, saw only " + (bytes.length - offset));
+          "file truncated, expected " + required + " bytes, saw only " + (data.limit() - offset));
     }
   }
 
@@ -73,7 +102,7 @@ public final class ClassReader implements ClassConstants {
           offset, "unknown class file version: " + majorVersion + '.' + minorVersion);
     }
 
-    cpParser = new ConstantPoolParser(bytes, offset, constantPoolCount);
+    cpParser = new ConstantPoolParser(data, offset, constantPoolCount);
     offset += cpParser.getRawSize();
 
     classInfoOffset = offset;
@@ -108,7 +137,7 @@ public final class ClassReader implements ClassConstants {
     int attrCount = getUShort(offset);
     offset = skipAttributes(offset + 2, attrCount);
 
-    if (offset != bytes.length) {
+    if (offset != data.limit()) {
       throw new InvalidClassFileException(offset, "extra data in class file");
     }
   }
@@ -154,10 +183,28 @@ public final class ClassReader implements ClassConstants {
   }
 
   /**
-   * @return the raw class data bytes
+   * @return the raw class data bytes; if the reader was built from a buffer without an accessible
+   *     backing array, this copies the data the first time, once for the reader and its {@link
+   *     #getCP() constant pool}
    */
   public byte[] getBytes() {
-    return bytes;
+    return cpParser.getRawBytes();
+  }
+
+  /**
+   * @return a copy of length bytes of the class data starting at offset
+   */
+  public byte[] getBytes(int offset, int length) {
+    byte[] result = new byte[length];
+    data.get(offset, result);
+    return result;
+  }
+
+  /**
+   * @return the raw class data, as a read-only buffer from index 0 to the end of the class data
+   */
+  public ByteBuffer getData() {
+    return data.asReadOnlyBuffer();
   }
 
   /**
@@ -310,38 +357,35 @@ public final class ClassReader implements ClassConstants {
    * @return the signed 32-bit value at offset i in the class data
    */
   public int getInt(int i) {
-    return (bytes[i] << 24)
-        + ((bytes[i + 1] & 0xFF) << 16)
-        + ((bytes[i + 2] & 0xFF) << 8)
-        + (bytes[i + 3] & 0xFF);
+    return data.getInt(i);
   }
 
   /**
    * @return the unsigned 16-bit value at offset i in the class data
    */
   public int getUShort(int i) {
-    return ((bytes[i] & 0xFF) << 8) + (bytes[i + 1] & 0xFF);
+    return data.getShort(i) & 0xFFFF;
   }
 
   /**
    * @return the signed 16-bit value at offset i in the class data
    */
   public int getShort(int i) {
-    return (bytes[i] << 8) + (bytes[i + 1] & 0xFF);
+    return data.getShort(i);
   }
 
   /**
    * @return the signed 8-bit value at offset i in the class data
    */
   public byte getByte(int i) {
-    return bytes[i];
+    return data.get(i);
   }
 
   /**
    * @return the unsigned 8-bit value at offset i in the class data
    */
   public int getUnsignedByte(int i) {
-    return bytes[i] & 0xff;
+    return data.get(i) & 0xff;
   }
 
   /**
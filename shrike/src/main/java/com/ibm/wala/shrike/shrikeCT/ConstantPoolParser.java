@@ -12,6 +12,7 @@ package com.ibm.wala.shrike.shrikeCT;
 
 import com.ibm.wala.shrike.shrikeCT.BootstrapMethodsReader.BootstrapMethod;
 import com.ibm.wala.shrike.shrikeCT.ClassReader.AttrIterator;
+import java.nio.ByteBuffer;
 
 /** A ConstantPoolParser provides read-only access to the constant pool of a class file. */
 public final class ConstantPoolParser implements ClassConstants {
@@ -63,7 +64,10 @@ public final class ConstantPoolParser implements ClassConstants {
     }
   }
 
-  private final byte[] bytes;
+  private final ByteBuffer data;
+
+  /** the class file data as an array, made on demand if the data is not backed by one */
+  private volatile byte[] rawBytes;
 
   private int[] cpOffsets;
 
@@ -76,7 +80,7 @@ public final class ConstantPoolParser implements ClassConstants {
 
   private BootstrapMethodsReader getBootstrapReader() throws InvalidClassFileException {
     if (invokeDynamicBootstraps == null) {
-      ClassReader thisClass = new ClassReader(bytes);
+      ClassReader thisClass = new ClassReader(data);
       AttrIterator attrs = new AttrIterator();
       thisClass.initClassAttributeIterator(attrs);
       for (; attrs.isValid(); attrs.advance()) {
@@ -98,7 +102,17 @@ public final class ConstantPoolParser implements ClassConstants {
    */
   public ConstantPoolParser(byte[] bytes, int offset, int itemCount)
       throws InvalidClassFileException {
-    this.bytes = bytes;
+    this(ByteBuffer.wrap(bytes), offset, itemCount);
+  }
+
+  /**
+   * @param data the raw class file data, from index 0 to its limit; it is not copied
+   * @param offset the start of the constant pool data
+   * @param itemCount the number of items in the pool
+   */
+  public ConstantPoolParser(ByteBuffer data, int offset, int itemCount)
+      throws InvalidClassFileException {
+    this.data = data.slice(0, data.limit());
     if (offset < 0) {
       throw new IllegalArgumentException("invalid offset: " + offset);
     }
@@ -109,10 +123,15 @@ public final class ConstantPoolParser implements ClassConstants {
   }
 
   /**
-   * @return the buffer holding the raw class file data
+   * @return the buffer holding the raw class file data; if the parser was built from a buffer
+   *     without an accessible backing array, this copies the data the first time
    */
   public byte[] getRawBytes() {
-    return bytes;
+    byte[] result = rawBytes;
+    if (result == null) {
+      rawBytes = result = ClassReader.toArray(data);
+    }
+    return result;
   }
 
   /**
@@ -143,10 +162,10 @@ public final class ConstantPoolParser implements ClassConstants {
   }
 
   private void checkLength(int offset, int required) throws InvalidClassFileException {
-    if (bytes.length < offset + required) {
+    if (data.limit() < offset + required) {
       throw new InvalidClassFileException(
           offset,
-          "file truncated, expected " + required + " bytes, saw only " + (bytes.length - offset));
+          "file truncated, expected " + required + " bytes, saw only " + (data.limit() - offset));
     }
   }
 
@@ -640,26 +659,19 @@ public final class ConstantPoolParser implements ClassConstants {
   }
 
   private byte getByte(int i) {
-    return bytes[i];
+    return data.get(i);
   }
 
   private int getUShort(int i) {
-    return ((bytes[i] & 0xFF) << 8) + (bytes[i + 1] & 0xFF);
+    return data.getShort(i) & 0xFFFF;
   }
 
-  // private short getShort(int i) {
-  // return (short) ((bytes[i] << 8) + (bytes[i + 1] & 0xFF));
-  // }
-
   private int getInt(int i) {
-    return (bytes[i] << 24)
-        + ((bytes[i + 1] & 0xFF) << 16)
-        + ((bytes[i + 2] & 0xFF) << 8)
-        + (bytes[i + 3] & 0xFF);
+    return data.getInt(i);
   }
 
   private long getLong(int i) {
-    return ((long) getInt(i) << 32) + (getInt(i + 4) & 0xFFFFFFFFL);
+    return data.getLong(i);
   }
 
   private float getFloat(int i) {
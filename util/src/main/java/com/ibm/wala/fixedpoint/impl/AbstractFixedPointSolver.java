@@ -21,12 +21,17 @@ import com.ibm.wala.fixpoint.UnaryStatement;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.ThreadPoolUtil;
+import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.debug.VerboseAction;
 import com.ibm.wala.util.graph.INodeWithNumber;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Represents a set of {@link IFixedPointStatement}s to be solved by a {@link IFixedPointSolver}
@@ -53,6 +58,12 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
 
   public static final int DEFAULT_PERIODIC_MAINTENANCE_INTERVAL = 100000;
 
+  /**
+   * When solving with more than one thread, the maximum number of statements that are evaluated
+   * concurrently in a single round.
+   */
+  public static final int DEFAULT_CONCURRENT_BATCH_SIZE = 4096;
+
   /**
    * A tuning parameter; how may new IStatementDefinitions must be added before doing a new
    * topological sort? TODO: Tune this empirically.
@@ -88,12 +99,24 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
   /** During verbose evaluation, holds the number of dataflow equations created */
   private int nCreated = 0;
 
+  /** The order in which the iterative solver takes statements from {@link #workList}. */
+  private WorklistStrategy worklistStrategy = WorklistStrategy.TOPOLOGICAL;
+
   /** worklist for the iterative solver */
-  protected Worklist workList = new Worklist();
+  protected IWorklist workList = worklistStrategy.makeWorklist();
 
   /** A boolean which is initially true, but set to false after the first call to solve(); */
   private boolean firstSolve = true;
 
+  /**
+   * How many threads may evaluate statements concurrently? With one thread (the default), {@link
+   * #solve(IProgressMonitor)} is the classic sequential worklist algorithm.
+   */
+  private int numberOfThreads = 1;
+
+  /** The maximum number of statements evaluated concurrently in one round. */
+  private int concurrentBatchSize = DEFAULT_CONCURRENT_BATCH_SIZE;
+
   protected abstract T[] makeStmtRHS(int size);
 
   /** Some setup which occurs only before the first solve */
@@ -128,8 +151,16 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
       initForFirstSolve();
     }
 
+    if (numberOfThreads > 1) {
+      return solveConcurrently(monitor);
+    }
+
     while (!workList.isEmpty()) {
       MonitorUtil.throwExceptionIfCanceled(monitor);
+      beforeNextEvaluation();
+      if (workList.isEmpty()) {
+        break;
+      }
       orderStatements();
 
       // duplicate insertion detection
@@ -158,10 +189,196 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
       if (isFixed(code)) {
         removeStatement(s);
       }
+      statementEvaluated(s, code);
     }
     return globalChange;
   }
 
+  /**
+   * Solve the system, evaluating independent statements on a pool of {@link #getNumberOfThreads()}
+   * threads.
+   *
+   * <p>Each round drains a batch of statements from the work list, in work list order, such that
+   * no statement in the batch defines a variable that any other statement in the batch defines or
+   * uses. Only statements for which {@link #canEvaluateConcurrently(AbstractStatement)} holds join
+   * a batch; any other statement is evaluated on the calling thread, exactly as in the sequential
+   * algorithm. Since the statements of a batch touch disjoint state, evaluating them concurrently
+   * is equivalent to evaluating them in some sequential order, and so for monotone operators the
+   * solver reaches the same fixed point as the sequential algorithm.
+   *
+   * <p>All bookkeeping (work list updates, statement removal, counters) happens on the calling
+   * thread between rounds.
+   */
+  @SuppressWarnings("unchecked")
+  private boolean solveConcurrently(IProgressMonitor monitor) throws CancelException {
+    boolean globalChange = false;
+    ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+    try {
+      List<AbstractStatement> batch = new ArrayList<>();
+      Set<T> defs = HashSetFactory.make();
+      Set<T> uses = HashSetFactory.make();
+      while (!workList.isEmpty()) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        beforeNextEvaluation();
+        if (workList.isEmpty()) {
+          break;
+        }
+        orderStatements();
+
+        AbstractStatement s = workList.takeStatement();
+        if (!canEvaluateConcurrently(s)) {
+          globalChange |= evaluateAndUpdate(s);
+          continue;
+        }
+
+        // grow the batch until we meet a statement that cannot join it
+        batch.clear();
+        defs.clear();
+        uses.clear();
+        addToBatch(s, batch, defs, uses);
+        while (!workList.isEmpty() && batch.size() < concurrentBatchSize) {
+          AbstractStatement next = workList.takeStatement();
+          if (canEvaluateConcurrently(next) && isIndependent(next, defs, uses)) {
+            addToBatch(next, batch, defs, uses);
+          } else {
+            workList.insertStatement(next);
+            break;
+          }
+        }
+
+        if (batch.size() == 1) {
+          globalChange |= evaluateAndUpdate(s);
+          continue;
+        }
+
+        final AbstractStatement[] statements = batch.toArray(new AbstractStatement[0]);
+        final byte[] codes = new byte[statements.length];
+        try {
+          ThreadPoolUtil.run(
+              pool,
+              () ->
+                  IntStream.range(0, statements.length)
+                      .parallel()
+                      .forEach(i -> codes[i] = statements[i].evaluate()));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw CancelException.make("interrupted during concurrent evaluation");
+        }
+
+        for (int i = 0; i < statements.length; i++) {
+          globalChange |= afterEvaluation(statements[i], codes[i]);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return globalChange;
+  }
+
+  /**
+   * Evaluate a statement on the calling thread and update the work list accordingly.
+   *
+   * @return true iff the evaluation changed the statement's left-hand side
+   */
+  private boolean evaluateAndUpdate(AbstractStatement<T, ?> s) {
+    return afterEvaluation(s, s.evaluate());
+  }
+
+  /**
+   * Bookkeeping after a statement has been evaluated, returning code.
+   *
+   * @return true iff the evaluation changed the statement's left-hand side
+   */
+  private boolean afterEvaluation(AbstractStatement<T, ?> s, byte code) {
+    nEvaluated++;
+    if (verbose) {
+      if (nEvaluated % getVerboseInterval() == 0) {
+        performVerboseAction();
+      }
+      if (nEvaluated % getPeriodicMaintainInterval() == 0) {
+        periodicMaintenance();
+      }
+    }
+    boolean changed = isChanged(code);
+    if (changed) {
+      updateWorkList(s);
+    }
+    if (isFixed(code)) {
+      removeStatement(s);
+    }
+    statementEvaluated(s, code);
+    return changed;
+  }
+
+  /**
+   * Does statement s touch none of the variables defined in a batch, and define none of the
+   * variables used in the batch?
+   */
+  private boolean isIndependent(AbstractStatement<T, ?> s, Set<T> defs, Set<T> uses) {
+    T lhs = s.getLHS();
+    if (lhs == null || defs.contains(lhs) || uses.contains(lhs)) {
+      return false;
+    }
+    if (s instanceof UnaryStatement<?> u) {
+      return !defs.contains(u.getRightHandSide());
+    }
+    for (T v : s.getRHS()) {
+      if (v != null && defs.contains(v)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addToBatch(
+      AbstractStatement<T, ?> s, List<AbstractStatement> batch, Set<T> defs, Set<T> uses) {
+    batch.add(s);
+    defs.add(s.getLHS());
+    if (s instanceof UnaryStatement<?> u) {
+      uses.add((T) u.getRightHandSide());
+    } else {
+      for (T v : s.getRHS()) {
+        if (v != null) {
+          uses.add(v);
+        }
+      }
+    }
+  }
+
+  /**
+   * Called on the solving thread after statement s has been evaluated with result code, and the
+   * work list updated accordingly. Subclasses may record what they learn here, but must not modify
+   * the system: with several threads, other statements of the same batch may still await their
+   * bookkeeping. Use {@link #beforeNextEvaluation()} to act on what was recorded.
+   */
+  protected void statementEvaluated(
+      @SuppressWarnings("unused") AbstractStatement<T, ?> s,
+      @SuppressWarnings("unused") byte code) {}
+
+  /**
+   * Called on the solving thread before the next statement is taken from the work list. No
+   * evaluation is in flight at this point, so subclasses may rewrite the system here (e.g., merge
+   * variables), provided that they leave the work list holding every statement that still needs to
+   * be evaluated.
+   */
+  protected void beforeNextEvaluation() {}
+
+  /**
+   * May statement s be evaluated on a worker thread, concurrently with other statements that share
+   * no left-hand side with it?
+   *
+   * <p>A statement qualifies only if its evaluation reads nothing but its right-hand side (plus
+   * state that does not change during a round), writes nothing but its own left-hand side, and
+   * never adds statements to the system. The default is to be conservative: no statement
+   * qualifies, and concurrent solving degenerates to sequential solving. Subclasses override this
+   * for the operators they know to be safe.
+   */
+  protected boolean canEvaluateConcurrently(
+      @SuppressWarnings("unused") AbstractStatement<T, ?> s) {
+    return false;
+  }
+
   @Override
   public void performVerboseAction() {
     System.err.println("Evaluated " + nEvaluated);
@@ -200,6 +417,7 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
 
   public void removeStatement(AbstractStatement<T, ?> s) {
     getFixedPointSystem().removeStatement(s);
+    workList.statementRemoved(s);
   }
 
   @Override
@@ -487,13 +705,17 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
 
   /** Re-order the step definitions. */
   private void reorder() {
-    // drain the worklist
+    if (!worklistStrategy.isOrdered()) {
+      getFixedPointSystem().reorder();
+      return;
+    }
+
+    // drain the worklist, since its order cannot survive changes to the order numbers
     List<AbstractStatement> temp = new ArrayList<>();
     while (!workList.isEmpty()) {
       AbstractStatement eq = workList.takeStatement();
       temp.add(eq);
     }
-    workList = new Worklist();
 
     // compute new ordering
     getFixedPointSystem().reorder();
@@ -540,6 +762,54 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
     topologicalGrowthFactor = d;
   }
 
+  public WorklistStrategy getWorklistStrategy() {
+    return worklistStrategy;
+  }
+
+  /**
+   * Choose the order in which statements are evaluated. Statements that are already pending carry
+   * over to the new work list.
+   *
+   * @throws IllegalArgumentException if worklistStrategy is null
+   */
+  public void setWorklistStrategy(WorklistStrategy worklistStrategy) {
+    if (worklistStrategy == null) {
+      throw new IllegalArgumentException("worklistStrategy is null");
+    }
+    if (worklistStrategy != this.worklistStrategy) {
+      IWorklist old = workList;
+      workList = worklistStrategy.makeWorklist();
+      while (!old.isEmpty()) {
+        workList.insertStatement(old.takeStatement());
+      }
+      this.worklistStrategy = worklistStrategy;
+    }
+  }
+
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * @param numberOfThreads how many threads may evaluate independent statements concurrently; 1
+   *     means sequential solving
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    this.numberOfThreads = ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+  }
+
+  public int getConcurrentBatchSize() {
+    return concurrentBatchSize;
+  }
+
+  public void setConcurrentBatchSize(int concurrentBatchSize) {
+    if (concurrentBatchSize < 1) {
+      throw new IllegalArgumentException(
+          "concurrentBatchSize must be positive: " + concurrentBatchSize);
+    }
+    this.concurrentBatchSize = concurrentBatchSize;
+  }
+
   public int getNumberOfEvaluations() {
     return nEvaluated;
   }
@@ -0,0 +1,54 @@
+package com.ibm.wala.fixedpoint.impl;
+
+import com.ibm.wala.fixpoint.AbstractStatement;
+import com.ibm.wala.util.collections.HashSetFactory;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+
+/**
+ * A work list that ignores order numbers: it hands out statements either in the order they were
+ * inserted (FIFO) or most recently inserted first (LIFO).
+ */
+@SuppressWarnings("rawtypes")
+public class DequeWorklist implements IWorklist {
+
+  private final ArrayDeque<AbstractStatement> queue = new ArrayDeque<>();
+
+  private final HashSet<AbstractStatement> contents = HashSetFactory.make();
+
+  /** take the most recently inserted statement first? */
+  private final boolean lifo;
+
+  /**
+   * @param lifo if true, take the most recently inserted statement first; otherwise, take the least
+   *     recently inserted
+   */
+  public DequeWorklist(boolean lifo) {
+    this.lifo = lifo;
+  }
+
+  @Override
+  public AbstractStatement takeStatement() throws NoSuchElementException {
+    AbstractStatement result = lifo ? queue.removeLast() : queue.removeFirst();
+    contents.remove(result);
+    return result;
+  }
+
+  @Override
+  public void insertStatement(AbstractStatement s) {
+    if (contents.add(s)) {
+      queue.addLast(s);
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return queue.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,46 @@
+package com.ibm.wala.fixedpoint.impl;
+
+import com.ibm.wala.fixpoint.AbstractStatement;
+import java.util.NoSuchElementException;
+
+/**
+ * The statements that a fixed-point solver has yet to evaluate. A statement is held at most once:
+ * inserting a statement that is already pending has no effect. Implementations differ only in the
+ * order in which {@link #takeStatement()} hands out pending statements; see {@link
+ * WorklistStrategy}.
+ */
+@SuppressWarnings("rawtypes")
+public interface IWorklist {
+
+  /**
+   * Remove and return the next statement to evaluate.
+   *
+   * @throws NoSuchElementException if the work list is empty
+   */
+  AbstractStatement takeStatement() throws NoSuchElementException;
+
+  /** Add statement s to the work list, unless it is already pending. */
+  void insertStatement(AbstractStatement s);
+
+  /**
+   * Called when the solver removes statement s from its system. Work lists that keep state for
+   * statements they have handed out must forget s here, so that they do not keep removed statements
+   * alive. If s is still pending, it stays pending.
+   */
+  default void statementRemoved(AbstractStatement s) {}
+
+  /**
+   * Called when the solver replaces this work list with successor, an empty one of the same kind,
+   * because the hash codes of statements may have changed. Work lists that keep state for statements
+   * they have handed out pass it on to successor, rehashed, so that the order of evaluation does not
+   * start over.
+   */
+  default void carryOverHistory(IWorklist successor) {}
+
+  boolean isEmpty();
+
+  /**
+   * @return the number of pending statements
+   */
+  int size();
+}
@@ -0,0 +1,188 @@
+package com.ibm.wala.fixedpoint.impl;
+
+import com.ibm.wala.fixpoint.AbstractStatement;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Heap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A work list that takes the pending statement that was taken longest ago, or never, first (least
+ * recently fired). Ties, including among statements that never fired, are broken by order number.
+ * A statement that fired recently has likely not accumulated much new input yet, so deferring it
+ * lets its inputs settle.
+ */
+@SuppressWarnings("rawtypes")
+public class LeastRecentlyFiredWorklist implements IWorklist {
+
+  /** when each statement was last taken, counted in takes; absent means never */
+  private final FiringTimes lastFired = new FiringTimes();
+
+  private final HashSet<AbstractStatement> contents = HashSetFactory.make();
+
+  /** pending statements that the solver has removed, whose firing need not be recorded */
+  private final HashSet<AbstractStatement> removed = HashSetFactory.make();
+
+  private int clock = 0;
+
+  private final Heap<AbstractStatement> heap =
+      new Heap<>(100) {
+        @Override
+        protected boolean compareElements(AbstractStatement s1, AbstractStatement s2) {
+          int t1 = lastFired.get(s1);
+          int t2 = lastFired.get(s2);
+          return t1 < t2 || (t1 == t2 && s1.getOrderNumber() < s2.getOrderNumber());
+        }
+      };
+
+  @Override
+  public AbstractStatement takeStatement() throws NoSuchElementException {
+    AbstractStatement result = heap.take();
+    contents.remove(result);
+    // the statement is out of the heap, so changing its key is safe
+    if (!removed.isEmpty() && removed.remove(result)) {
+      lastFired.remove(result);
+    } else {
+      lastFired.put(result, ++clock);
+    }
+    return result;
+  }
+
+  @Override
+  public void insertStatement(AbstractStatement s) {
+    if (contents.add(s)) {
+      heap.insert(s);
+    }
+  }
+
+  /**
+   * Forget when s fired. If s is pending, the heap still depends on its key, so it is forgotten when
+   * s is taken instead.
+   */
+  @Override
+  public void statementRemoved(AbstractStatement s) {
+    if (contents.contains(s)) {
+      removed.add(s);
+    } else {
+      lastFired.remove(s);
+    }
+  }
+
+  /** Pass the firing times of statements that the solver has not removed on to successor. */
+  @Override
+  public void carryOverHistory(IWorklist successor) {
+    if (successor instanceof LeastRecentlyFiredWorklist lrf) {
+      // removed may be hashed by stale hash codes, so compare by identity
+      Set<AbstractStatement> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+      gone.addAll(removed);
+      lastFired.forEach(
+          (s, time) -> {
+            if (!gone.contains(s)) {
+              lrf.lastFired.put(s, time);
+            }
+          });
+      lrf.clock = clock;
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return heap.isEmpty();
+  }
+
+  @Override
+  public int size() {
+    return heap.size();
+  }
+
+  /**
+   * A map from statements to positive ints, with 0 for absent statements. It uses open addressing
+   * with linear probing, so that the times are not boxed.
+   */
+  private static final class FiringTimes {
+
+    private AbstractStatement[] keys = new AbstractStatement[16];
+
+    private int[] values = new int[16];
+
+    private int size = 0;
+
+    private static int home(AbstractStatement s, int mask) {
+      int h = s.hashCode() * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int slot(AbstractStatement s) {
+      int mask = keys.length - 1;
+      int i = home(s, mask);
+      while (keys[i] != null && !keys[i].equals(s)) {
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+
+    int get(AbstractStatement s) {
+      return values[slot(s)];
+    }
+
+    void put(AbstractStatement s, int value) {
+      int i = slot(s);
+      if (keys[i] == null) {
+        keys[i] = s;
+        if (++size * 2 > keys.length) {
+          values[i] = value;
+          grow();
+          return;
+        }
+      }
+      values[i] = value;
+    }
+
+    void remove(AbstractStatement s) {
+      int i = slot(s);
+      if (keys[i] == null) {
+        return;
+      }
+      size--;
+      // shift later entries of the probe sequence back, so that lookups need no tombstones
+      int mask = keys.length - 1;
+      int hole = i;
+      for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+        if (((j - home(keys[j], mask)) & mask) >= ((j - hole) & mask)) {
+          keys[hole] = keys[j];
+          values[hole] = values[j];
+          hole = j;
+        }
+      }
+      keys[hole] = null;
+      values[hole] = 0;
+    }
+
+    /** Call action for each statement and its time. */
+    void forEach(ObjIntConsumer<AbstractStatement> action) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != null) {
+          action.accept(keys[i], values[i]);
+        }
+      }
+    }
+
+    private void grow() {
+      AbstractStatement[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new AbstractStatement[oldKeys.length * 2];
+      values = new int[oldKeys.length * 2];
+      for (int j = 0; j < oldKeys.length; j++) {
+        if (oldKeys[j] != null) {
+          int i = slot(oldKeys[j]);
+          keys[i] = oldKeys[j];
+          values[i] = oldValues[j];
+        }
+      }
+    }
+  }
+}
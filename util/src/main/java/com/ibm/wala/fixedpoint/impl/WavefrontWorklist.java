@@ -0,0 +1,67 @@
+package com.ibm.wala.fixedpoint.impl;
+
+import com.ibm.wala.fixpoint.AbstractStatement;
+import com.ibm.wala.util.collections.HashSetFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+
+/**
+ * A two-phase work list. Statements are evaluated in waves: the current wave is taken in order
+ * number order, while statements inserted meanwhile wait in the next wave, which is sorted once the
+ * current wave is exhausted. Compared to {@link Worklist}, a statement that keeps changing cannot
+ * starve the statements behind it, and there is no heap to maintain per insertion.
+ */
+@SuppressWarnings("rawtypes")
+public class WavefrontWorklist implements IWorklist {
+
+  private static final Comparator<AbstractStatement> BY_ORDER_NUMBER =
+      Comparator.comparingInt(AbstractStatement::getOrderNumber);
+
+  private ArrayList<AbstractStatement> current = new ArrayList<>();
+
+  /** index of the next statement to take from {@link #current} */
+  private int position = 0;
+
+  private ArrayList<AbstractStatement> next = new ArrayList<>();
+
+  /** the statements of both waves that have not been taken yet, to detect duplicates */
+  private final HashSet<AbstractStatement> contents = HashSetFactory.make();
+
+  @Override
+  public AbstractStatement takeStatement() throws NoSuchElementException {
+    if (position == current.size()) {
+      if (next.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      ArrayList<AbstractStatement> wave = next;
+      wave.sort(BY_ORDER_NUMBER);
+      current.clear();
+      next = current;
+      current = wave;
+      position = 0;
+    }
+    AbstractStatement result = current.get(position);
+    current.set(position++, null);
+    contents.remove(result);
+    return result;
+  }
+
+  @Override
+  public void insertStatement(AbstractStatement s) {
+    if (contents.add(s)) {
+      next.add(s);
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public int size() {
+    return current.size() - position + next.size();
+  }
+}
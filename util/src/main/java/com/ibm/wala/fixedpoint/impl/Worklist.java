@@ -16,9 +16,16 @@ import com.ibm.wala.util.collections.Heap;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
 
-/** Worklist for fixed-point solver implementation */
+/**
+ * Worklist for fixed-point solver implementation, which takes statements in order number order.
+ * Since {@link com.ibm.wala.fixpoint.IFixedPointSystem#reorder()} numbers statements in a
+ * topological order of the strongly connected components of the system, this settles each
+ * component before moving on to those it feeds.
+ *
+ * @see WorklistStrategy#TOPOLOGICAL
+ */
 @SuppressWarnings("rawtypes")
-public class Worklist extends Heap<AbstractStatement> {
+public class Worklist extends Heap<AbstractStatement> implements IWorklist {
 
   private final HashSet<AbstractStatement> contents = HashSetFactory.make();
 
@@ -31,12 +38,14 @@ public class Worklist extends Heap<AbstractStatement> {
     return (eq1.getOrderNumber() < eq2.getOrderNumber());
   }
 
+  @Override
   public AbstractStatement takeStatement() throws NoSuchElementException {
     AbstractStatement result = super.take();
     contents.remove(result);
     return result;
   }
 
+  @Override
   public void insertStatement(AbstractStatement eq) {
     if (contents.add(eq)) {
       super.insert(eq);
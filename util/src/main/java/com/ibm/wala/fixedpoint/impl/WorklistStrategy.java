@@ -0,0 +1,79 @@
+package com.ibm.wala.fixedpoint.impl;
+
+import java.util.Locale;
+
+/**
+ * The order in which an {@link AbstractFixedPointSolver} evaluates pending statements. All
+ * strategies reach the same fixed point for monotone systems; they differ in how many evaluations
+ * it takes, which {@link AbstractFixedPointSolver#getNumberOfEvaluations()} reports.
+ */
+public enum WorklistStrategy {
+  /**
+   * Lowest order number first. The solver periodically renumbers statements in a topological order
+   * of the strongly connected components of the system, so this settles each component before
+   * those it feeds. This is the default.
+   */
+  TOPOLOGICAL(true),
+
+  /** The order in which statements were inserted. */
+  FIFO(false),
+
+  /** The most recently inserted statement first. */
+  LIFO(false),
+
+  /**
+   * Waves in order number order: statements inserted during a wave wait for the next one. See
+   * {@link WavefrontWorklist}.
+   */
+  WAVEFRONT(true),
+
+  /**
+   * The statement that was evaluated longest ago, or never, first. See {@link
+   * LeastRecentlyFiredWorklist}.
+   */
+  LEAST_RECENTLY_FIRED(true);
+
+  /**
+   * The system property that selects the strategy of the pointer analysis, unless {@code
+   * AnalysisOptions} chooses one, and of type inference, by the name of one of the constants of
+   * this enum. Other solvers use {@link #TOPOLOGICAL} unless they are configured explicitly.
+   */
+  public static final String PROPERTY = "com.ibm.wala.fixedpoint.impl.worklist";
+
+  /** does the order of the work list depend on the order numbers of statements? */
+  private final boolean ordered;
+
+  WorklistStrategy(boolean ordered) {
+    this.ordered = ordered;
+  }
+
+  /**
+   * @return true iff work lists of this strategy must be rebuilt when statements are renumbered
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * @return a fresh, empty work list that follows this strategy
+   */
+  public IWorklist makeWorklist() {
+    return switch (this) {
+      case TOPOLOGICAL -> new Worklist();
+      case FIFO -> new DequeWorklist(false);
+      case LIFO -> new DequeWorklist(true);
+      case WAVEFRONT -> new WavefrontWorklist();
+      case LEAST_RECENTLY_FIRED -> new LeastRecentlyFiredWorklist();
+    };
+  }
+
+  /**
+   * @return the strategy named by the system property {@link #PROPERTY}, or {@link #TOPOLOGICAL}
+   *     if it is not set
+   * @throws IllegalArgumentException if the property does not name a strategy
+   */
+  public static WorklistStrategy getDefault() {
+    String name = System.getProperty(PROPERTY);
+    return name == null ? TOPOLOGICAL : valueOf(name.trim().toUpperCase(Locale.ROOT));
+  }
+}
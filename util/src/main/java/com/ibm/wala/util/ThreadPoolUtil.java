@@ -0,0 +1,78 @@
+package com.ibm.wala.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Utilities for the thread pools of solvers, loaders and translators that may use several threads.
+ *
+ * <p>Work is submitted to a {@link ForkJoinPool} of its own, so that parallel streams within it
+ * run on that pool's threads rather than on the common pool. Runtime exceptions and errors thrown by
+ * the work reach the caller unwrapped, as if the work had run on the calling thread.
+ */
+public class ThreadPoolUtil {
+
+  private ThreadPoolUtil() {}
+
+  /**
+   * @return numberOfThreads
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public static int checkNumberOfThreads(int numberOfThreads) {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("numberOfThreads must be positive: " + numberOfThreads);
+    }
+    return numberOfThreads;
+  }
+
+  /**
+   * Run task on a new pool of numberOfThreads threads, wait for it, and shut the pool down.
+   *
+   * @throws InterruptedException if the calling thread was interrupted while waiting
+   */
+  public static void run(int numberOfThreads, Runnable task) throws InterruptedException {
+    ForkJoinPool pool = new ForkJoinPool(checkNumberOfThreads(numberOfThreads));
+    try {
+      run(pool, task);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Run task on pool and wait for it. Runtime exceptions and errors thrown by task are rethrown
+   * unwrapped.
+   *
+   * @throws InterruptedException if the calling thread was interrupted while waiting
+   */
+  public static void run(ForkJoinPool pool, Runnable task) throws InterruptedException {
+    try {
+      get(pool.submit(task));
+    } catch (ExecutionException e) {
+      // a Runnable throws no checked exceptions
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Wait for the result of future. Runtime exceptions and errors thrown by its computation are
+   * rethrown unwrapped.
+   *
+   * @throws InterruptedException if the calling thread was interrupted while waiting
+   * @throws ExecutionException if the computation threw a checked exception
+   */
+  public static <T extends @Nullable Object> T get(Future<T> future) throws InterruptedException, ExecutionException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      } else if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
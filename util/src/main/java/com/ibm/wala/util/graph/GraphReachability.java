@@ -10,41 +10,31 @@
  */
 package com.ibm.wala.util.graph;
 
-import com.ibm.wala.dataflow.graph.AbstractMeetOperator;
-import com.ibm.wala.dataflow.graph.BitVectorFramework;
-import com.ibm.wala.dataflow.graph.BitVectorIdentity;
-import com.ibm.wala.dataflow.graph.BitVectorSolver;
-import com.ibm.wala.dataflow.graph.BitVectorUnion;
-import com.ibm.wala.dataflow.graph.BitVectorUnionConstant;
-import com.ibm.wala.dataflow.graph.DataflowSolver;
-import com.ibm.wala.dataflow.graph.ITransferFunctionProvider;
-import com.ibm.wala.fixpoint.BitVectorVariable;
-import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.collections.FilterIterator;
 import com.ibm.wala.util.collections.Iterator2Collection;
-import com.ibm.wala.util.debug.Assertions;
-import com.ibm.wala.util.graph.impl.GraphInverter;
+import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.OrdinalSet;
 import com.ibm.wala.util.intset.OrdinalSetMapping;
+import com.ibm.wala.util.intset.SparseIntSet;
 import java.util.Iterator;
 import java.util.function.Predicate;
-import org.jspecify.annotations.NullUnmarked;
 import org.jspecify.annotations.Nullable;
 
 /**
- * A dataflow system that computes, for each graph node, the set of "interesting" nodes that are
- * reachable
+ * Computes, for each graph node, the set of "interesting" nodes that are reachable.
+ *
+ * @see ReachabilityIndex
  */
 public class GraphReachability<T, S> {
 
   /** Governing graph */
   private final Graph<T> g;
 
-  /** Killdall-style dataflow solver */
-  private @Nullable DataflowSolver<T, BitVectorVariable> solver;
+  /** reachability of the interesting nodes, as indices in {@link #domain} */
+  private @Nullable ReachabilityIndex<T> index;
 
   /** set of "interesting" CGNodes */
   final OrdinalSetMapping<S> domain;
@@ -67,77 +57,29 @@ public class GraphReachability<T, S> {
    * @return the set of interesting nodes reachable from n
    */
   public OrdinalSet<S> getReachableSet(Object n) throws IllegalStateException {
-    if (solver == null) {
+    if (index == null) {
       throw new IllegalStateException("must call solve() before calling getReachableSet()");
     }
-    BitVectorVariable v = solver.getOut(n);
-    assert v != null : "null variable for node " + n;
-    if (v.getValue() == null) {
+    IntSet v = index.getReachableFacts(n);
+    if (v.isEmpty()) {
       return OrdinalSet.empty();
     } else {
-      return new OrdinalSet<>(v.getValue(), domain);
+      return new OrdinalSet<>(v, domain);
     }
   }
 
   /**
-   * @return true iff the evaluation of some equation caused a change in the value of some variable.
+   * @return true iff some node reaches an interesting node.
    */
   public boolean solve(IProgressMonitor monitor) throws CancelException {
-
-    ITransferFunctionProvider<T, BitVectorVariable> functions =
-        new ITransferFunctionProvider<>() {
-
-          /*
-           * @see com.ibm.wala.dataflow.graph.ITransferFunctionProvider#getNodeTransferFunction(java.lang.Object)
-           */
-          @Override
-          public UnaryOperator<BitVectorVariable> getNodeTransferFunction(T n) {
-            int index = domain.getMappedIndex(n);
-            if (index > -1) {
-              return new BitVectorUnionConstant(index);
-            } else {
-              return BitVectorIdentity.instance();
-            }
-          }
-
-          /*
-           * @see com.ibm.wala.dataflow.graph.ITransferFunctionProvider#hasNodeTransferFunctions()
-           */
-          @Override
-          public boolean hasNodeTransferFunctions() {
-            return true;
-          }
-
-          /*
-           * @see com.ibm.wala.dataflow.graph.ITransferFunctionProvider#getEdgeTransferFunction(java.lang.Object, java.lang.Object)
-           */
-          @NullUnmarked
-          @Override
-          public @Nullable UnaryOperator<BitVectorVariable> getEdgeTransferFunction(
-              Object from, Object to) {
-            return Assertions.UNREACHABLE();
-          }
-
-          /*
-           * @see com.ibm.wala.dataflow.graph.ITransferFunctionProvider#hasEdgeTransferFunctions()
-           */
-          @Override
-          public boolean hasEdgeTransferFunctions() {
-            return false;
-          }
-
-          /*
-           * @see com.ibm.wala.dataflow.graph.ITransferFunctionProvider#getMeetOperator()
-           */
-          @Override
-          public AbstractMeetOperator<BitVectorVariable> getMeetOperator() {
-            return BitVectorUnion.instance();
-          }
-        };
-
-    BitVectorFramework<T, S> f =
-        new BitVectorFramework<>(GraphInverter.invert(g), functions, domain);
-    solver = new BitVectorSolver<>(f);
-    return solver.solve(monitor);
+    index =
+        new ReachabilityIndex<>(
+            g,
+            n -> {
+              int i = domain.getMappedIndex(n);
+              return i == -1 ? null : SparseIntSet.singleton(i);
+            });
+    index.solve(1, monitor);
+    return domain.getSize() > 0;
   }
 }
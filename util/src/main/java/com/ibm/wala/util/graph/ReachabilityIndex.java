@@ -0,0 +1,739 @@
+package com.ibm.wala.util.graph;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.ThreadPoolUtil;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.EmptyIntSet;
+import com.ibm.wala.util.intset.IntSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index that answers reachability queries over a graph, and that can be updated as nodes and
+ * edges are added to it.
+ *
+ * <p>The strongly connected components of the graph are collapsed once, with {@link SCCIterator},
+ * and every component is labeled with its position in a topological order of the condensed graph
+ * and with the interval of post-order numbers of its subtree in a depth-first spanning forest.
+ * {@link #reaches(Object, Object)} answers most queries from these labels alone: a component
+ * cannot reach one earlier in the order, and it reaches every component in its interval. Other
+ * queries search the condensed graph, pruned by the same labels.
+ *
+ * <p>Optionally, each node carries a set of facts, such as its own number in some {@link
+ * com.ibm.wala.util.intset.OrdinalSetMapping}, and {@link #getReachableFacts(Object)} returns the
+ * union of the facts of all nodes reachable from a node. These sets are computed once per
+ * component, on demand or for all components with {@link #solve(int, IProgressMonitor)}, and a
+ * component that adds no facts of its own to those of a single successor shares its set.
+ *
+ * <p>When an edge is added, the topological order is repaired locally (Pearce and Kelly, "A
+ * Dynamic Topological Sort Algorithm for Directed Acyclic Graphs", JEA 2006), intervals remain
+ * valid, and only the fact sets of components that now reach more are discarded. An edge that
+ * closes a cycle merges the components on the cycle, after which the labels are recomputed on the
+ * next query. An edge between nodes that already reach each other changes nothing.
+ *
+ * <p>This class is not safe for concurrent use.
+ *
+ * @param <T> the type of the nodes
+ */
+public class ReachabilityIndex<T> {
+
+  /** levels with fewer components than this are solved on the calling thread */
+  private static final int MIN_PARALLEL_LEVEL = 256;
+
+  /** computes the facts of a node; null if a node has none */
+  private final @Nullable Function<? super T, ? extends @Nullable IntSet> facts;
+
+  private final Map<T, Integer> nodeIds = HashMapFactory.make();
+
+  private final List<T> nodes = new ArrayList<>();
+
+  /** the component of each node, which may since have been merged into another */
+  private int[] nodeComponent = new int[16];
+
+  /** the number of components, including merged ones */
+  private int components;
+
+  /** union-find forest of merged components; each representative is its own parent */
+  private int[] parent = new int[16];
+
+  /** successors and predecessors of each representative; may hold merged components */
+  private int[][] succs = new int[16][];
+
+  private int[] succCount = new int[16];
+
+  private int[][] preds = new int[16][];
+
+  private int[] predCount = new int[16];
+
+  /** position of each representative in a topological order */
+  private int[] ord = new int[16];
+
+  /** the representative at each position, or -1 */
+  private int[] atOrd = new int[16];
+
+  /** the number of positions used */
+  private int positions;
+
+  /** post-order number of each component in a depth-first spanning forest */
+  private int[] post = new int[16];
+
+  /** least post-order number in the subtree of each component */
+  private int[] low = new int[16];
+
+  private int postCounter;
+
+  /** whether ord, atOrd, post and low must be recomputed after components were merged */
+  private boolean stale;
+
+  /** facts of the members of each representative */
+  private @Nullable IntSet[] own = new IntSet[16];
+
+  /** facts reachable from each representative, or null if not computed */
+  private @Nullable IntSet[] sets = new IntSet[16];
+
+  /** marks components visited by the current search */
+  private int[] mark = new int[16];
+
+  private int stamp;
+
+  /** Index the reachability of a graph. */
+  public ReachabilityIndex(Graph<T> g) {
+    this(g, null);
+  }
+
+  /**
+   * Index the reachability of a graph, and of the facts of its nodes.
+   *
+   * @param facts computes the facts of each node, including nodes {@linkplain #addNode(Object)
+   *     added} later; it may return null for a node without facts
+   */
+  public ReachabilityIndex(
+      Graph<T> g, @Nullable Function<? super T, ? extends @Nullable IntSet> facts) {
+    if (g == null) {
+      throw new IllegalArgumentException("g is null");
+    }
+    this.facts = facts;
+
+    for (Iterator<Set<T>> it = new SCCIterator<>(g); it.hasNext(); ) {
+      int c = newComponent();
+      IntSet ownFacts = null;
+      for (T n : it.next()) {
+        newNode(n, c);
+        ownFacts = union(ownFacts, factsOf(n));
+      }
+      own[c] = ownFacts;
+    }
+
+    // SCCIterator returns the components in topological order; add each edge between components
+    // once
+    int[] lastSource = new int[components];
+    Arrays.fill(lastSource, -1);
+    List<List<T>> members = new ArrayList<>(components);
+    for (int c = 0; c < components; c++) {
+      members.add(new ArrayList<>());
+    }
+    for (int i = 0; i < nodes.size(); i++) {
+      members.get(nodeComponent[i]).add(nodes.get(i));
+    }
+    for (int c = 0; c < components; c++) {
+      for (T n : members.get(c)) {
+        for (Iterator<T> succ = g.getSuccNodes(n); succ.hasNext(); ) {
+          Integer s = nodeIds.get(succ.next());
+          if (s != null) {
+            int cs = nodeComponent[s];
+            if (cs != c && lastSource[cs] != c) {
+              lastSource[cs] = c;
+              addComponentEdge(c, cs);
+            }
+          }
+        }
+      }
+    }
+    relabel();
+  }
+
+  private @Nullable IntSet factsOf(T n) {
+    return facts == null ? null : facts.apply(n);
+  }
+
+  private static @Nullable IntSet union(@Nullable IntSet a, @Nullable IntSet b) {
+    if (a == null || a.isEmpty()) {
+      return b;
+    } else if (b == null || b.isEmpty()) {
+      return a;
+    }
+    BitVectorIntSet result = new BitVectorIntSet(a);
+    result.addAll(b);
+    return result;
+  }
+
+  private int newComponent() {
+    int c = components++;
+    if (c == parent.length) {
+      int size = 2 * c;
+      parent = Arrays.copyOf(parent, size);
+      succs = Arrays.copyOf(succs, size);
+      succCount = Arrays.copyOf(succCount, size);
+      preds = Arrays.copyOf(preds, size);
+      predCount = Arrays.copyOf(predCount, size);
+      ord = Arrays.copyOf(ord, size);
+      post = Arrays.copyOf(post, size);
+      low = Arrays.copyOf(low, size);
+      own = Arrays.copyOf(own, size);
+      sets = Arrays.copyOf(sets, size);
+      mark = Arrays.copyOf(mark, size);
+    }
+    parent[c] = c;
+    succs[c] = new int[2];
+    preds[c] = new int[2];
+    return c;
+  }
+
+  private void newNode(T n, int c) {
+    int id = nodes.size();
+    nodes.add(n);
+    nodeIds.put(n, id);
+    if (id == nodeComponent.length) {
+      nodeComponent = Arrays.copyOf(nodeComponent, 2 * id);
+    }
+    nodeComponent[id] = c;
+  }
+
+  private void addComponentEdge(int from, int to) {
+    if (succCount[from] == succs[from].length) {
+      succs[from] = Arrays.copyOf(succs[from], 2 * succCount[from]);
+    }
+    succs[from][succCount[from]++] = to;
+    if (predCount[to] == preds[to].length) {
+      preds[to] = Arrays.copyOf(preds[to], 2 * predCount[to]);
+    }
+    preds[to][predCount[to]++] = from;
+  }
+
+  private int find(int c) {
+    int root = c;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    while (parent[c] != root) {
+      int next = parent[c];
+      parent[c] = root;
+      c = next;
+    }
+    return root;
+  }
+
+  private int componentOf(Object n) {
+    Integer id = nodeIds.get(n);
+    if (id == null) {
+      throw new IllegalArgumentException("not in the index: " + n);
+    }
+    return find(nodeComponent[id]);
+  }
+
+  private void nextStamp() {
+    if (++stamp == Integer.MAX_VALUE) {
+      Arrays.fill(mark, 0);
+      stamp = 1;
+    }
+  }
+
+  /**
+   * Recompute the topological order and the intervals with a depth-first traversal of the
+   * condensed graph. The reverse post-order of the traversal is the new topological order.
+   */
+  private void relabel() {
+    if (atOrd.length < components) {
+      atOrd = new int[parent.length];
+    }
+    Arrays.fill(atOrd, -1);
+    int representatives = 0;
+    for (int c = 0; c < components; c++) {
+      if (parent[c] == c) {
+        representatives++;
+      }
+    }
+    positions = representatives;
+    postCounter = 0;
+    nextStamp();
+    int[] path = new int[representatives];
+    int[] nextEdge = new int[components];
+    int finished = 0;
+    for (int root = 0; root < components; root++) {
+      if (parent[root] != root || mark[root] == stamp || hasPred(root)) {
+        continue;
+      }
+      int depth = 0;
+      path[depth++] = root;
+      mark[root] = stamp;
+      low[root] = postCounter;
+      while (depth > 0) {
+        int c = path[depth - 1];
+        if (nextEdge[c] < succCount[c]) {
+          int s = find(succs[c][nextEdge[c]++]);
+          if (s != c && mark[s] != stamp) {
+            mark[s] = stamp;
+            low[s] = postCounter;
+            path[depth++] = s;
+          }
+        } else {
+          depth--;
+          post[c] = postCounter++;
+          int position = representatives - 1 - finished++;
+          ord[c] = position;
+          atOrd[position] = c;
+        }
+      }
+    }
+    stale = false;
+  }
+
+  private boolean hasPred(int c) {
+    for (int i = 0; i < predCount[c]; i++) {
+      if (find(preds[c][i]) != c) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void ensureLabels() {
+    if (stale) {
+      relabel();
+    }
+  }
+
+  /**
+   * @return whether a is in the interval of b, which implies that b reaches a
+   */
+  private boolean inInterval(int a, int b) {
+    return low[b] <= post[a] && post[a] <= post[b];
+  }
+
+  /**
+   * @return whether a path leads from component a to component b; both must be representatives
+   */
+  private boolean reachesComponent(int a, int b) {
+    if (a == b) {
+      return true;
+    }
+    if (ord[a] > ord[b]) {
+      return false;
+    }
+    if (inInterval(b, a)) {
+      return true;
+    }
+    IntSet s = sets[a];
+    IntSet t = own[b];
+    if (s != null && t != null && !t.isEmpty() && !s.containsAny(t)) {
+      return false;
+    }
+    nextStamp();
+    int[] stack = new int[16];
+    int sp = 0;
+    stack[sp++] = a;
+    mark[a] = stamp;
+    while (sp > 0) {
+      int c = stack[--sp];
+      for (int i = 0; i < succCount[c]; i++) {
+        int x = find(succs[c][i]);
+        if (x == b) {
+          return true;
+        }
+        if (mark[x] == stamp || ord[x] > ord[b]) {
+          continue;
+        }
+        if (inInterval(b, x)) {
+          return true;
+        }
+        mark[x] = stamp;
+        if (sp == stack.length) {
+          stack = Arrays.copyOf(stack, 2 * sp);
+        }
+        stack[sp++] = x;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether a path, possibly empty, leads from one node to another
+   * @throws IllegalArgumentException if either node is not in the index
+   */
+  public boolean reaches(T from, T to) {
+    int a = componentOf(from);
+    int b = componentOf(to);
+    ensureLabels();
+    return reachesComponent(a, b);
+  }
+
+  public boolean containsNode(Object n) {
+    return nodeIds.containsKey(n);
+  }
+
+  /**
+   * @return whether two nodes are in the same strongly connected component
+   */
+  public boolean isSameComponent(T a, T b) {
+    return componentOf(a) == componentOf(b);
+  }
+
+  /**
+   * @return the nodes reachable from n, including n itself
+   */
+  public Set<T> getReachableNodes(T n) {
+    int start = componentOf(n);
+    nextStamp();
+    List<Integer> reached = new ArrayList<>();
+    int[] stack = new int[16];
+    int sp = 0;
+    stack[sp++] = start;
+    mark[start] = stamp;
+    while (sp > 0) {
+      int c = stack[--sp];
+      reached.add(c);
+      for (int i = 0; i < succCount[c]; i++) {
+        int x = find(succs[c][i]);
+        if (mark[x] != stamp) {
+          mark[x] = stamp;
+          if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * sp);
+          }
+          stack[sp++] = x;
+        }
+      }
+    }
+    Set<T> result = HashSetFactory.make();
+    for (int i = 0; i < nodes.size(); i++) {
+      if (mark[find(nodeComponent[i])] == stamp) {
+        result.add(nodes.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the union of the facts of all nodes reachable from n, including n itself
+   * @throws IllegalArgumentException if n is not in the index
+   */
+  public IntSet getReachableFacts(Object n) {
+    int c = componentOf(n);
+    IntSet result = sets[c];
+    if (result == null) {
+      result = computeSets(c);
+    }
+    return result;
+  }
+
+  /** Compute the fact sets of c and of all its successors that lack one. */
+  private IntSet computeSets(int c) {
+    nextStamp();
+    int[] stack = new int[16];
+    int sp = 0;
+    stack[sp++] = c;
+    while (sp > 0) {
+      int x = stack[sp - 1];
+      if (mark[x] == stamp) {
+        // all successors are done
+        sp--;
+        if (sets[x] == null) {
+          computeSet(x);
+        }
+        continue;
+      }
+      mark[x] = stamp;
+      for (int i = 0; i < succCount[x]; i++) {
+        int s = find(succs[x][i]);
+        if (s != x && sets[s] == null && mark[s] != stamp) {
+          if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * sp);
+          }
+          stack[sp++] = s;
+        }
+      }
+    }
+    IntSet result = sets[c];
+    assert result != null;
+    return result;
+  }
+
+  /** Compute the fact set of c from those of its successors, which must all be computed. */
+  private void computeSet(int c) {
+    IntSet ownFacts = own[c];
+    IntSet shared = null;
+    boolean distinct = false;
+    for (int i = 0; i < succCount[c]; i++) {
+      int s = find(succs[c][i]);
+      IntSet set = s == c ? null : sets[s];
+      if (set != null && !set.isEmpty()) {
+        if (shared == null) {
+          shared = set;
+        } else if (set != shared) {
+          distinct = true;
+        }
+      }
+    }
+    if (shared == null) {
+      sets[c] = ownFacts == null ? EmptyIntSet.instance : ownFacts;
+    } else if ((ownFacts == null || ownFacts.isEmpty()) && !distinct) {
+      sets[c] = shared;
+    } else {
+      BitVectorIntSet result = new BitVectorIntSet();
+      if (ownFacts != null) {
+        result.addAll(ownFacts);
+      }
+      for (int i = 0; i < succCount[c]; i++) {
+        int s = find(succs[c][i]);
+        IntSet set = s == c ? null : sets[s];
+        if (set != null) {
+          result.addAll(set);
+        }
+      }
+      sets[c] = result;
+    }
+  }
+
+  /**
+   * Compute the fact sets of all components. Components that do not reach each other are solved
+   * concurrently, on up to numberOfThreads threads.
+   *
+   * @throws IllegalArgumentException if numberOfThreads is not positive
+   */
+  public void solve(int numberOfThreads, @Nullable IProgressMonitor monitor)
+      throws CancelException {
+    ThreadPoolUtil.checkNumberOfThreads(numberOfThreads);
+    ensureLabels();
+    // flatten the union-find forest, so that find() does not write while solving in parallel
+    for (int c = 0; c < components; c++) {
+      find(c);
+    }
+
+    // group the components without a set by their height in the condensed graph, counting only
+    // components without a set; successors come later in the topological order
+    int[] height = new int[components];
+    int levels = 0;
+    int pending = 0;
+    for (int p = positions - 1; p >= 0; p--) {
+      int c = atOrd[p];
+      if (c == -1 || sets[c] != null) {
+        continue;
+      }
+      pending++;
+      for (int i = 0; i < succCount[c]; i++) {
+        int s = find(succs[c][i]);
+        if (s != c && sets[s] == null) {
+          height[c] = Math.max(height[c], height[s] + 1);
+        }
+      }
+      levels = Math.max(levels, height[c] + 1);
+    }
+    int[] levelStart = new int[levels + 1];
+    for (int p = 0; p < positions; p++) {
+      int c = atOrd[p];
+      if (c != -1 && sets[c] == null) {
+        levelStart[height[c] + 1]++;
+      }
+    }
+    for (int l = 0; l < levels; l++) {
+      levelStart[l + 1] += levelStart[l];
+    }
+    int[] byLevel = new int[pending];
+    int[] next = Arrays.copyOf(levelStart, levels);
+    for (int p = 0; p < positions; p++) {
+      int c = atOrd[p];
+      if (c != -1 && sets[c] == null) {
+        byLevel[next[height[c]]++] = c;
+      }
+    }
+
+    ForkJoinPool pool = numberOfThreads > 1 ? new ForkJoinPool(numberOfThreads) : null;
+    try {
+      for (int l = 0; l < levels; l++) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        int from = levelStart[l], to = levelStart[l + 1];
+        if (pool == null || to - from < MIN_PARALLEL_LEVEL) {
+          for (int i = from; i < to; i++) {
+            computeSet(byLevel[i]);
+          }
+        } else {
+          try {
+            ThreadPoolUtil.run(
+                pool,
+                () -> IntStream.range(from, to).parallel().forEach(i -> computeSet(byLevel[i])));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw CancelException.make("interrupted while solving reachability");
+          }
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Add a node without edges.
+   *
+   * @return false if the node already was in the index
+   */
+  public boolean addNode(T n) {
+    if (nodeIds.containsKey(n)) {
+      return false;
+    }
+    int c = newComponent();
+    newNode(n, c);
+    own[c] = factsOf(n);
+    if (atOrd.length == positions) {
+      atOrd = Arrays.copyOf(atOrd, 2 * positions + 1);
+    }
+    ord[c] = positions;
+    atOrd[positions++] = c;
+    post[c] = low[c] = postCounter++;
+    return true;
+  }
+
+  /** Add an edge, and the nodes if they are not in the index yet. */
+  public void addEdge(T from, T to) {
+    addNode(from);
+    addNode(to);
+    ensureLabels();
+    int a = componentOf(from);
+    int b = componentOf(to);
+    if (reachesComponent(a, b)) {
+      return;
+    }
+    // the facts reachable from a and its ancestors grow
+    discardSets(a);
+    if (reachesComponent(b, a)) {
+      merge(a, b);
+      return;
+    }
+    addComponentEdge(a, b);
+    if (ord[a] > ord[b]) {
+      reorder(a, b);
+    }
+  }
+
+  /** Discard the fact sets of c and of all its ancestors. */
+  private void discardSets(int c) {
+    if (sets[c] == null) {
+      // a component can only have a set if all its successors have one
+      return;
+    }
+    int[] stack = new int[16];
+    int sp = 0;
+    stack[sp++] = c;
+    sets[c] = null;
+    while (sp > 0) {
+      int x = stack[--sp];
+      for (int i = 0; i < predCount[x]; i++) {
+        int p = find(preds[x][i]);
+        if (sets[p] != null) {
+          sets[p] = null;
+          if (sp == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * sp);
+          }
+          stack[sp++] = p;
+        }
+      }
+    }
+  }
+
+  /**
+   * Collect the components reachable from c through components at positions at most bound, or,
+   * backward, reaching c through components at positions at least bound.
+   */
+  private List<Integer> search(int c, int bound, boolean forward) {
+    nextStamp();
+    List<Integer> result = new ArrayList<>();
+    result.add(c);
+    mark[c] = stamp;
+    for (int i = 0; i < result.size(); i++) {
+      int x = result.get(i);
+      int count = forward ? succCount[x] : predCount[x];
+      int[] edges = forward ? succs[x] : preds[x];
+      for (int j = 0; j < count; j++) {
+        int y = find(edges[j]);
+        if (mark[y] != stamp && (forward ? ord[y] <= bound : ord[y] >= bound)) {
+          mark[y] = stamp;
+          result.add(y);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Repair the topological order after adding an edge from a to b with ord[a] > ord[b]: the
+   * ancestors of a between the two positions move, in order, before the descendants of b.
+   */
+  private void reorder(int a, int b) {
+    List<Integer> forward = search(b, ord[a], true);
+    List<Integer> backward = search(a, ord[b], false);
+    forward.sort((x, y) -> Integer.compare(ord[x], ord[y]));
+    backward.sort((x, y) -> Integer.compare(ord[x], ord[y]));
+    int[] slots = new int[forward.size() + backward.size()];
+    int k = 0;
+    for (int x : backward) {
+      slots[k++] = ord[x];
+    }
+    for (int x : forward) {
+      slots[k++] = ord[x];
+    }
+    Arrays.sort(slots);
+    k = 0;
+    for (int x : backward) {
+      ord[x] = slots[k];
+      atOrd[slots[k++]] = x;
+    }
+    for (int x : forward) {
+      ord[x] = slots[k];
+      atOrd[slots[k++]] = x;
+    }
+  }
+
+  /** Merge the components on the paths from b to a, after adding an edge from a to b. */
+  private void merge(int a, int b) {
+    List<Integer> forward = search(b, ord[a], true);
+    nextStamp();
+    int backStamp = stamp;
+    for (int x : search(a, ord[b], false)) {
+      mark[x] = backStamp;
+    }
+    int representative = a;
+    IntSet ownFacts = own[a];
+    for (int x : forward) {
+      if (x == a || mark[x] != backStamp) {
+        continue;
+      }
+      parent[x] = representative;
+      ownFacts = union(ownFacts, own[x]);
+      own[x] = null;
+      sets[x] = null;
+      for (int i = 0; i < succCount[x]; i++) {
+        addComponentEdge(representative, succs[x][i]);
+      }
+      for (int i = 0; i < predCount[x]; i++) {
+        addComponentEdge(preds[x][i], representative);
+      }
+      succCount[x] = predCount[x] = 0;
+    }
+    own[representative] = ownFacts;
+    stale = true;
+  }
+}
@@ -183,7 +183,8 @@ public class BitVector extends BitVectorBase<BitVector> {
 
   /**
    * Logically ORs this bit set with the specified set of bits. This is performance-critical, and
-   * so, a little ugly in an attempt to help out the compiler.
+   * so, a little ugly in an attempt to help out the compiler: the loop is a forward, branch-free
+   * pass that the JIT can unroll and compile to population count instructions.
    *
    * @return the number of bits added to this.
    * @throws IllegalArgumentException if set is null
@@ -195,18 +196,14 @@ public class BitVector extends BitVectorBase<BitVector> {
     int delta = 0;
 
     ensureCapacity(set);
+    int[] bits = this.bits;
     int[] otherBits = set.bits;
     int n = Math.min(bits.length, otherBits.length);
-    for (int i = n - 1; i >= 0; ) {
+    for (int i = 0; i < n; i++) {
       int v1 = bits[i];
-      int v2 = otherBits[i];
-      if (v1 != v2) {
-        delta -= Bits.populationCount(v1);
-        int v3 = v1 | v2;
-        delta += Bits.populationCount(v3);
-        bits[i] = v3;
-      }
-      i--;
+      int v3 = v1 | otherBits[i];
+      delta += Integer.bitCount(v3) - Integer.bitCount(v1);
+      bits[i] = v3;
     }
     return delta;
   }
@@ -310,13 +307,8 @@ public class BitVector extends BitVectorBase<BitVector> {
         if (B.bits[i] != 0) return false;
       }
     }
-    for (int i = n - 1; i >= 0; ) {
-      if (bits[i] != B.bits[i]) {
-        return false;
-      }
-      i--;
-    }
-    return true;
+    // Arrays.equals is a vectorized intrinsic
+    return Arrays.equals(bits, 0, n, B.bits, 0, n);
   }
 
   /**
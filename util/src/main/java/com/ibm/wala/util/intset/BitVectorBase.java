@@ -79,7 +79,7 @@ public abstract class BitVectorBase<T extends BitVectorBase> implements Cloneabl
   public final int populationCount() {
     int count = 0;
     for (int bit : bits) {
-      count += Bits.populationCount(bit);
+      count += Integer.bitCount(bit);
     }
     return count;
   }
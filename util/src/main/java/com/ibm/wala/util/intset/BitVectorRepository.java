@@ -10,28 +10,51 @@
  */
 package com.ibm.wala.util.intset;
 
-import com.ibm.wala.util.collections.HashMapFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jspecify.annotations.Nullable;
 
-/** A repository for shared bit vectors as described by Heintze */
-@SuppressWarnings("Java8MapApi")
+/**
+ * A repository for shared bit vectors as described by Heintze
+ *
+ * <p>Representatives are hash-consed by content: a concurrent map from content hash to the
+ * representatives with that hash finds an equal representative without locking. Failing that, the
+ * {@link #PROBE_LIMIT} most recently created representatives of each of the next smaller sizes are
+ * tested as subsets of the query. Only the creation of a representative locks, and then only the
+ * bin of its content hash, so that two threads never create equal representatives.
+ *
+ * <p>Representatives are weakly referenced, and forgotten once they are collected. They must never
+ * be mutated.
+ */
 public class BitVectorRepository {
 
   private static final boolean STATS = false;
 
   private static final int STATS_WINDOW = 100;
 
-  private static int queries = 0;
+  private static final AtomicInteger queries = new AtomicInteger();
 
-  private static int hits = 0;
+  private static final AtomicInteger hits = new AtomicInteger();
 
   private static final int SUBSET_DELTA = 5;
 
-  private static final Map<Integer, LinkedList<WeakReference<BitVectorIntSet>>> buckets =
-      HashMapFactory.make();
+  /** how many recent representatives of each size are tested as subsets of a query */
+  private static final int PROBE_LIMIT = 8;
+
+  /** representatives by content hash; each bin is an immutable array, replaced as a whole */
+  private static final ConcurrentHashMap<Integer, Representative[]> byContent =
+      new ConcurrentHashMap<>();
+
+  /** recently created representatives, by size */
+  private static final ConcurrentHashMap<Integer, Ring> bySize = new ConcurrentHashMap<>();
+
+  /** representatives that have been collected, to be removed from {@link #byContent} */
+  private static final ReferenceQueue<BitVectorIntSet> cleared = new ReferenceQueue<>();
 
   /**
    * @return the BitVector in this repository which is the canonical shared subset representative of
@@ -39,64 +62,162 @@ public class BitVectorRepository {
    *     SUBSET_DELTA bits.
    * @throws IllegalArgumentException if value is null
    */
-  public static synchronized BitVectorIntSet findOrCreateSharedSubset(BitVectorIntSet value) {
+  public static BitVectorIntSet findOrCreateSharedSubset(BitVectorIntSet value) {
     if (value == null) {
       throw new IllegalArgumentException("value is null");
     }
     if (STATS) {
-      queries++;
-      if (queries % STATS_WINDOW == 0) {
+      if (queries.incrementAndGet() % STATS_WINDOW == 0) {
         reportStats();
       }
     }
     int size = value.size();
-    for (int i = size; i > size - SUBSET_DELTA; i--) {
-      LinkedList<WeakReference<BitVectorIntSet>> m = buckets.get(i);
-      if (m != null) {
-        Iterator<WeakReference<BitVectorIntSet>> it = m.iterator();
-        while (it.hasNext()) {
-          WeakReference<BitVectorIntSet> wr = it.next();
-          BitVectorIntSet bv = wr.get();
-          if (bv != null) {
-            if (bv.isSubset(value)) {
-              // FOUND ONE!
-              if (STATS) {
-                hits++;
-              }
+    int hash = contentHash(value.getBitVector());
+    BitVectorIntSet result = findEqual(byContent.get(hash), value, size);
+    if (result == null) {
+      result = findSubset(value, size);
+    }
+    if (result != null) {
+      if (STATS) {
+        hits.incrementAndGet();
+      }
+      return result;
+    }
+    // didn't find one. create one.
+    expungeCleared();
+    BitVectorIntSet[] created = new BitVectorIntSet[1];
+    byContent.compute(
+        hash,
+        (h, bin) -> {
+          created[0] = findEqual(bin, value, size);
+          if (created[0] != null) {
+            // another thread created it first
+            return bin;
+          }
+          BitVectorIntSet bv = new BitVectorIntSet(value);
+          // compute the population count now, since representatives are read concurrently
+          bv.size();
+          created[0] = bv;
+          Representative r = new Representative(bv, hash);
+          bySize.computeIfAbsent(size, s -> new Ring()).add(r);
+          if (bin == null) {
+            return new Representative[] {r};
+          }
+          Representative[] grown = Arrays.copyOf(bin, bin.length + 1);
+          grown[bin.length] = r;
+          return grown;
+        });
+    return created[0];
+  }
+
+  /**
+   * @return a live representative in bin with the same bits as value, or null if there is none
+   */
+  private static @Nullable BitVectorIntSet findEqual(
+      Representative @Nullable [] bin, BitVectorIntSet value, int size) {
+    if (bin != null) {
+      for (Representative r : bin) {
+        BitVectorIntSet bv = r.get();
+        if (bv != null && bv.size() == size && bv.sameValue(value)) {
+          return bv;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return a recent representative that is a proper subset of value and lacks fewer than
+   *     SUBSET_DELTA of its bits, or null if there is none
+   */
+  private static @Nullable BitVectorIntSet findSubset(BitVectorIntSet value, int size) {
+    for (int i = size - 1; i > size - SUBSET_DELTA; i--) {
+      Ring ring = bySize.get(i);
+      if (ring != null) {
+        for (int j = 0; j < PROBE_LIMIT; j++) {
+          Representative r = ring.get(j);
+          if (r != null) {
+            BitVectorIntSet bv = r.get();
+            if (bv != null && bv.isSubset(value)) {
               return bv;
             }
-          } else {
-            // remove the weak reference to avoid leaks
-            it.remove();
           }
         }
       }
     }
-    // didn't find one. create one.
-    LinkedList<WeakReference<BitVectorIntSet>> m;
-    m = buckets.get(size);
-    if (m == null) {
-      @SuppressWarnings("JdkObsolete") // performance-tuned
-      LinkedList<WeakReference<BitVectorIntSet>> tmp = new LinkedList<>();
-      m = tmp;
-      buckets.put(size, m);
+    return null;
+  }
+
+  /** Remove collected representatives from their bins. */
+  private static void expungeCleared() {
+    for (Reference<? extends BitVectorIntSet> ref; (ref = cleared.poll()) != null; ) {
+      Representative r = (Representative) ref;
+      byContent.computeIfPresent(
+          r.hash,
+          (h, bin) -> {
+            Representative[] rest =
+                Arrays.stream(bin).filter(x -> x != r).toArray(Representative[]::new);
+            return rest.length == 0 ? null : rest;
+          });
+    }
+  }
+
+  /**
+   * @return a hash of the bits of v, which, unlike {@link BitVector#hashCode()}, does not depend on
+   *     trailing zero words
+   */
+  private static int contentHash(BitVector v) {
+    int[] words = v.bits;
+    int n = words.length;
+    while (n > 0 && words[n - 1] == 0) {
+      n--;
+    }
+    int h = 1;
+    for (int i = 0; i < n; i++) {
+      h = 31 * h + words[i];
+    }
+    return h;
+  }
+
+  /** A weak reference to a representative, which remembers its content hash. */
+  private static final class Representative extends WeakReference<BitVectorIntSet> {
+
+    final int hash;
+
+    Representative(BitVectorIntSet referent, int hash) {
+      super(referent, cleared);
+      this.hash = hash;
+    }
+  }
+
+  /** The {@link #PROBE_LIMIT} most recently added representatives of some size. */
+  private static final class Ring {
+
+    private final AtomicReferenceArray<Representative> slots =
+        new AtomicReferenceArray<>(PROBE_LIMIT);
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    void add(Representative r) {
+      slots.set(Math.floorMod(next.getAndIncrement(), PROBE_LIMIT), r);
+    }
+
+    @Nullable Representative get(int i) {
+      return slots.get(i);
     }
-    BitVectorIntSet bv = new BitVectorIntSet(value);
-    m.add(new WeakReference<>(bv));
-    return bv;
   }
 
   private static void reportStats() {
-    double percent = 100.0 * hits / queries;
+    double percent = 100.0 * hits.get() / queries.get();
     System.err.println(("BitVectorRepository: queries " + queries + " hits " + percent));
     System.err.println(("                     entries " + countEntries()));
   }
 
   private static int countEntries() {
     int result = 0;
-    for (LinkedList<WeakReference<BitVectorIntSet>> l : buckets.values()) {
+    for (Representative[] bin : byContent.values()) {
       // don't worry about cleared WeakReferences; count will be rough
-      result += l.size();
+      result += bin.length;
     }
     return result;
   }
@@ -252,7 +252,7 @@ public final class FixedSizeBitVector implements Cloneable, java.io.Serializable
   public int populationCount() {
     int count = 0;
     for (int bit : bits) {
-      count += Bits.populationCount(bit);
+      count += Integer.bitCount(bit);
     }
     return count;
   }
@@ -277,14 +277,7 @@ public final class FixedSizeBitVector implements Cloneable, java.io.Serializable
       if (this == obj) { // should help alias analysis
         return true;
       }
-      int n = bits.length;
-      if (n != set.bits.length) return false;
-      for (int i = n; i-- > 0; ) {
-        if (bits[i] != set.bits[i]) {
-          return false;
-        }
-      }
-      return true;
+      return Arrays.equals(bits, set.bits);
     }
     return false;
   }
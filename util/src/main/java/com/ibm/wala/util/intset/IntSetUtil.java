@@ -87,6 +87,8 @@ public class IntSetUtil {
       return new MutableSharedBitVectorIntSet(mutableSharedBitVectorIntSet);
     } else if (set instanceof SemiSparseMutableIntSet semiSparseMutableIntSet) {
       return new SemiSparseMutableIntSet(semiSparseMutableIntSet);
+    } else if (set instanceof RoaringIntSet) {
+      return new RoaringIntSet(set);
     } else if (set instanceof DebuggingMutableIntSet debuggingMutableIntSet) {
       MutableIntSet pCopy = makeMutableCopy(debuggingMutableIntSet.primaryImpl());
       MutableIntSet sCopy = makeMutableCopy(debuggingMutableIntSet.secondaryImpl());
@@ -144,6 +146,8 @@ public class IntSetUtil {
     } else if (A instanceof SemiSparseMutableIntSet sparseMutableIntSet
         && B instanceof SemiSparseMutableIntSet semiSparseMutableIntSet) {
       return SemiSparseMutableIntSet.diff(sparseMutableIntSet, semiSparseMutableIntSet);
+    } else if (A instanceof RoaringIntSet a && B instanceof RoaringIntSet b) {
+      return new RoaringIntSet(a).removeAll(b);
     } else {
       return defaultSlowDiff(A, B, factory);
     }
@@ -167,6 +171,8 @@ public class IntSetUtil {
         System.err.println("call SemiSparseMutableIntSet.removeAll");
       }
       return sparseMutableIntSet.removeAll(semiSparseMutableIntSet);
+    } else if (A instanceof RoaringIntSet a && B instanceof RoaringIntSet b) {
+      return a.removeAll(b);
     } else {
       for (IntIterator it = B.intIterator(); it.hasNext(); ) {
         int I = it.next();
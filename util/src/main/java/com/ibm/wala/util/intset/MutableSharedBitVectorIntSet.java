@@ -308,7 +308,7 @@ public class MutableSharedBitVectorIntSet implements MutableIntSet {
       return that.sameValue(makeSparseCopy());
     } else if (that instanceof BitVectorIntSet bitVectorIntSet) {
       return sameValue(bitVectorIntSet);
-    } else if (that instanceof SemiSparseMutableIntSet) {
+    } else if (that instanceof SemiSparseMutableIntSet || that instanceof RoaringIntSet) {
       return that.sameValue(this);
     } else {
       return Assertions.UNREACHABLE("unexpected class " + that.getClass());
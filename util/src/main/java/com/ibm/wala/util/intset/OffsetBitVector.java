@@ -276,26 +276,26 @@ public final class OffsetBitVector extends BitVectorBase<OffsetBitVector> {
     int i = 0;
 
     if (wordDiff < 0) {
-      for (; i < -wordDiff; i++) {
+      for (; i < Math.min(-wordDiff, bits.length); i++) {
         if (bits[i] != 0) {
           return false;
         }
       }
     } else {
-      for (int j = 0; j < wordDiff; j++) {
+      for (int j = 0; j < Math.min(wordDiff, set.bits.length); j++) {
         if (set.bits[j] != 0) {
           return false;
         }
       }
     }
 
-    for (; i < maxWord; i++) {
-      if (bits[i] != set.bits[i + wordDiff]) {
-        return false;
-      }
+    if (i < maxWord
+        && !Arrays.equals(bits, i, maxWord, set.bits, i + wordDiff, maxWord + wordDiff)) {
+      return false;
     }
+    i = Math.max(i, maxWord);
 
-    for (int j = maxWord + wordDiff; j < set.bits.length; j++) {
+    for (int j = Math.max(0, maxWord + wordDiff); j < set.bits.length; j++) {
       if (set.bits[j] != 0) {
         return false;
       }
@@ -0,0 +1,1150 @@
+package com.ibm.wala.util.intset;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A compressed bitmap implementation of {@link MutableIntSet}, in the style of Roaring bitmaps.
+ *
+ * <p>The non-negative ints are split into chunks of 2^16 by their high 16 bits. Each chunk that
+ * holds an element of the set has a <em>container</em> for the low 16 bits of its elements, kept
+ * in whichever of three forms is smallest:
+ *
+ * <ul>
+ *   <li>an <em>array</em> container, a sorted array of up to {@value #ARRAY_MAX} chars;
+ *   <li>a <em>bitmap</em> container, 2^16 bits in 1024 longs;
+ *   <li>a <em>run</em> container, a sorted array of (start, length - 1) pairs of chars.
+ * </ul>
+ *
+ * Containers are sorted by chunk, so a set of IDs that cluster in a few regions of a huge range,
+ * such as the instance keys a points-to set refers to, costs space proportional to its clusters
+ * rather than to its maximum element, unlike a {@link BitVectorIntSet}, and bulk operations with
+ * another {@code RoaringIntSet} work a container, or 64 elements of a bitmap, at a time, unlike a
+ * {@link SparseIntSet}.
+ *
+ * <p>Single-element updates keep the array and bitmap forms; run containers come from bulk
+ * operations ({@link #addAll}, {@link #union}, {@link #intersection}, {@link #copySet} and the
+ * like), which choose the smallest form for each container they produce.
+ */
+public final class RoaringIntSet implements MutableIntSet {
+
+  @Serial private static final long serialVersionUID = -3056418203598713472L;
+
+  /** the largest number of elements in an array container; beyond it, a bitmap is smaller */
+  static final int ARRAY_MAX = 4096;
+
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  private static final char[] NO_KEYS = new char[0];
+
+  private static final Container[] NO_CONTAINERS = new Container[0];
+
+  /** the high 16 bits of the elements of each container, sorted */
+  private char[] keys = NO_KEYS;
+
+  private Container[] containers = NO_CONTAINERS;
+
+  /** the number of containers in use */
+  private int count;
+
+  /** the number of elements */
+  private int size;
+
+  public RoaringIntSet() {}
+
+  /**
+   * @throws IllegalArgumentException if set is null
+   */
+  public RoaringIntSet(IntSet set) {
+    copySet(set);
+  }
+
+  /**
+   * @return a new set of the given elements
+   * @throws IllegalArgumentException if elements is null
+   */
+  public static RoaringIntSet make(int[] elements) {
+    if (elements == null) {
+      throw new IllegalArgumentException("null elements");
+    }
+    int[] sorted = elements.clone();
+    Arrays.sort(sorted);
+    if (sorted.length > 0 && sorted[0] < 0) {
+      throw new IllegalArgumentException("illegal element: " + sorted[0]);
+    }
+    RoaringIntSet result = new RoaringIntSet();
+    for (int i = 0; i < sorted.length; ) {
+      // build each chunk with a container of the right size, rather than element by element
+      char high = high(sorted[i]);
+      int end = i;
+      while (end < sorted.length && high(sorted[end]) == high) {
+        end++;
+      }
+      char[] values = new char[end - i];
+      int n = 0;
+      for (int j = i; j < end; j++) {
+        if (n == 0 || values[n - 1] != low(sorted[j])) {
+          values[n++] = low(sorted[j]);
+        }
+      }
+      if (n <= ARRAY_MAX) {
+        char[] exact = n == values.length ? values : Arrays.copyOf(values, n);
+        result.append(high, new ArrayContainer(exact, n));
+      } else {
+        long[] words = new long[BITMAP_WORDS];
+        for (int j = 0; j < n; j++) {
+          words[values[j] >>> 6] |= 1L << values[j];
+        }
+        result.append(high, RoaringIntSet.fromWords(words));
+      }
+      i = end;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean contains(int i) {
+    if (i < 0) {
+      return false;
+    }
+    int index = find(high(i));
+    return index >= 0 && containers[index].contains(low(i));
+  }
+
+  @Override
+  public boolean containsAny(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set instanceof RoaringIntSet that) {
+      for (int i = 0, j = 0; i < count && j < that.count; ) {
+        if (keys[i] < that.keys[j]) {
+          i++;
+        } else if (keys[i] > that.keys[j]) {
+          j++;
+        } else if (intersects(containers[i++], that.containers[j++])) {
+          return true;
+        }
+      }
+      return false;
+    }
+    for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+      if (contains(it.next())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public RoaringIntSet intersection(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    RoaringIntSet result = new RoaringIntSet();
+    if (that instanceof RoaringIntSet other) {
+      result.ensureCapacity(Math.min(count, other.count));
+      for (int i = 0, j = 0; i < count && j < other.count; ) {
+        if (keys[i] < other.keys[j]) {
+          i++;
+        } else if (keys[i] > other.keys[j]) {
+          j++;
+        } else {
+          result.append(keys[i], and(containers[i++], other.containers[j++]));
+        }
+      }
+    } else {
+      foreach(
+          x -> {
+            if (that.contains(x)) {
+              result.add(x);
+            }
+          });
+    }
+    return result;
+  }
+
+  @Override
+  public RoaringIntSet union(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    RoaringIntSet result = new RoaringIntSet(this);
+    result.addAll(that);
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public IntIterator intIterator() {
+    return new IntIterator() {
+      private int next = 0;
+
+      private int[] chunk = new int[0];
+
+      private int position = 0;
+
+      @Override
+      public boolean hasNext() {
+        return position < chunk.length || next < count;
+      }
+
+      @Override
+      public int next() {
+        if (position == chunk.length) {
+          if (next == count) {
+            throw new NoSuchElementException();
+          }
+          chunk = containers[next].toArray(keys[next] << 16);
+          next++;
+          position = 0;
+        }
+        return chunk[position++];
+      }
+    };
+  }
+
+  @Override
+  public void foreach(IntSetAction action) {
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    for (int i = 0; i < count; i++) {
+      containers[i].forEach(keys[i] << 16, action);
+    }
+  }
+
+  @Override
+  public void foreachExcluding(IntSet X, IntSetAction action) {
+    if (X == null) {
+      throw new IllegalArgumentException("null X");
+    }
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    if (X instanceof RoaringIntSet that) {
+      for (int i = 0, j = 0; i < count; i++) {
+        while (j < that.count && that.keys[j] < keys[i]) {
+          j++;
+        }
+        Container c = containers[i];
+        if (j < that.count && that.keys[j] == keys[i]) {
+          c = andNot(c, that.containers[j]);
+        }
+        if (c != null) {
+          c.forEach(keys[i] << 16, action);
+        }
+      }
+    } else {
+      foreach(
+          x -> {
+            if (!X.contains(x)) {
+              action.act(x);
+            }
+          });
+    }
+  }
+
+  /**
+   * @return the largest element, or -1 if this set is empty
+   */
+  @Override
+  public int max() {
+    return count == 0 ? -1 : (keys[count - 1] << 16) | containers[count - 1].last();
+  }
+
+  @Override
+  public boolean sameValue(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    if (that instanceof RoaringIntSet other) {
+      if (size != other.size || count != other.count) {
+        return false;
+      }
+      for (int i = 0; i < count; i++) {
+        if (keys[i] != other.keys[i] || !subset(containers[i], other.containers[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return size == that.size() && isSubset(that);
+  }
+
+  @Override
+  public boolean isSubset(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    if (that instanceof RoaringIntSet other) {
+      if (size > other.size) {
+        return false;
+      }
+      int j = 0;
+      for (int i = 0; i < count; i++) {
+        while (j < other.count && other.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j == other.count
+            || other.keys[j] != keys[i]
+            || !subset(containers[i], other.containers[j])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      if (!that.contains(it.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void copySet(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set == this) {
+      return;
+    }
+    clear();
+    if (set instanceof RoaringIntSet that) {
+      ensureCapacity(that.count);
+      for (int i = 0; i < that.count; i++) {
+        keys[i] = that.keys[i];
+        containers[i] = that.containers[i].copy();
+      }
+      count = that.count;
+      size = that.size;
+    } else {
+      addAll(set);
+    }
+  }
+
+  @Override
+  public boolean addAll(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set == this) {
+      return false;
+    }
+    if (!(set instanceof RoaringIntSet that)) {
+      int oldSize = size;
+      set.foreach(this::add);
+      return size != oldSize;
+    }
+    if (that.count == 0) {
+      return false;
+    }
+    int oldSize = size;
+    char[] newKeys = new char[count + that.count];
+    Container[] newContainers = new Container[newKeys.length];
+    int n = 0;
+    int i = 0;
+    int j = 0;
+    size = 0;
+    while (i < count || j < that.count) {
+      Container c;
+      if (j == that.count || (i < count && keys[i] < that.keys[j])) {
+        newKeys[n] = keys[i];
+        c = containers[i++];
+      } else if (i == count || keys[i] > that.keys[j]) {
+        newKeys[n] = that.keys[j];
+        c = that.containers[j++].copy();
+      } else {
+        newKeys[n] = keys[i];
+        c = containers[i++].orInPlace(that.containers[j++]);
+      }
+      newContainers[n++] = c;
+      size += c.cardinality();
+    }
+    keys = newKeys;
+    containers = newContainers;
+    count = n;
+    return size != oldSize;
+  }
+
+  @Override
+  public boolean add(int i) {
+    if (i < 0) {
+      throw new IllegalArgumentException("negative i: " + i);
+    }
+    char high = high(i);
+    char low = low(i);
+    int index = find(high);
+    if (index < 0) {
+      insert(-index - 1, high, new ArrayContainer(low));
+    } else if (containers[index].contains(low)) {
+      return false;
+    } else {
+      containers[index] = containers[index].add(low);
+    }
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(int i) {
+    if (!contains(i)) {
+      return false;
+    }
+    int index = find(high(i));
+    Container c = containers[index].remove(low(i));
+    if (c == null) {
+      System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+      System.arraycopy(containers, index + 1, containers, index, count - index - 1);
+      containers[--count] = null;
+    } else {
+      containers[index] = c;
+    }
+    size--;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    keys = NO_KEYS;
+    containers = NO_CONTAINERS;
+    count = 0;
+    size = 0;
+  }
+
+  @Override
+  public void intersectWith(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    RoaringIntSet result = intersection(set);
+    keys = result.keys;
+    containers = result.containers;
+    count = result.count;
+    size = result.size;
+  }
+
+  @Override
+  public boolean addAllInIntersection(IntSet other, IntSet filter) {
+    if (other == null) {
+      throw new IllegalArgumentException("null other");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("null filter");
+    }
+    if (other instanceof RoaringIntSet that) {
+      return addAll(that.intersection(filter));
+    }
+    int oldSize = size;
+    other.foreach(
+        x -> {
+          if (filter.contains(x)) {
+            add(x);
+          }
+        });
+    return size != oldSize;
+  }
+
+  /**
+   * Remove the elements of set from this.
+   *
+   * @return this
+   */
+  public RoaringIntSet removeAll(RoaringIntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    int n = 0;
+    size = 0;
+    for (int i = 0, j = 0; i < count; i++) {
+      while (j < set.count && set.keys[j] < keys[i]) {
+        j++;
+      }
+      Container c = containers[i];
+      if (j < set.count && set.keys[j] == keys[i]) {
+        c = andNot(c, set.containers[j]);
+      }
+      if (c != null) {
+        keys[n] = keys[i];
+        containers[n++] = c;
+        size += c.cardinality();
+      }
+    }
+    Arrays.fill(containers, n, count, null);
+    count = n;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{ ");
+    foreach(x -> sb.append(x).append(' '));
+    return sb.append('}').toString();
+  }
+
+  private static char high(int i) {
+    return (char) (i >>> 16);
+  }
+
+  private static char low(int i) {
+    return (char) i;
+  }
+
+  /**
+   * @return the index of the container for the chunk high, or (-(insertion point) - 1)
+   */
+  private int find(char high) {
+    if (count > 0 && keys[count - 1] == high) {
+      // elements are often added in increasing order
+      return count - 1;
+    }
+    return Arrays.binarySearch(keys, 0, count, high);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (keys.length < capacity) {
+      int newLength = Math.max(capacity, 2 * keys.length);
+      keys = Arrays.copyOf(keys, newLength);
+      containers = Arrays.copyOf(containers, newLength);
+    }
+  }
+
+  private void insert(int index, char high, Container c) {
+    ensureCapacity(count + 1);
+    System.arraycopy(keys, index, keys, index + 1, count - index);
+    System.arraycopy(containers, index, containers, index + 1, count - index);
+    keys[index] = high;
+    containers[index] = c;
+    count++;
+  }
+
+  /** Append a container for a chunk above all others, unless it is null. */
+  private void append(char high, Container c) {
+    if (c != null) {
+      ensureCapacity(count + 1);
+      keys[count] = high;
+      containers[count++] = c;
+      size += c.cardinality();
+    }
+  }
+
+  /**
+   * @return a new container for the union of a and b
+   */
+  private static Container or(Container a, Container b) {
+    if (a instanceof ArrayContainer x
+        && b instanceof ArrayContainer y
+        && x.cardinality + y.cardinality <= ARRAY_MAX) {
+      return x.or(y);
+    }
+    long[] words = a.toWords();
+    b.orInto(words);
+    return fromWords(words);
+  }
+
+  /**
+   * @return a new container for the intersection of a and b, or null if it is empty
+   */
+  private static Container and(Container a, Container b) {
+    if (a instanceof ArrayContainer x) {
+      return x.filter(b, true);
+    } else if (b instanceof ArrayContainer y) {
+      return y.filter(a, true);
+    }
+    long[] words = a.toWords();
+    long[] other = b.words();
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      words[w] &= other[w];
+    }
+    return fromWords(words);
+  }
+
+  /**
+   * @return a new container for the elements of a that are not in b, or null if there are none
+   */
+  private static Container andNot(Container a, Container b) {
+    if (a instanceof ArrayContainer x) {
+      return x.filter(b, false);
+    }
+    long[] words = a.toWords();
+    if (b instanceof ArrayContainer y) {
+      for (int k = 0; k < y.cardinality; k++) {
+        words[y.values[k] >>> 6] &= ~(1L << y.values[k]);
+      }
+    } else {
+      long[] other = b.words();
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] &= ~other[w];
+      }
+    }
+    return fromWords(words);
+  }
+
+  /**
+   * @return true iff a and b have an element in common
+   */
+  private static boolean intersects(Container a, Container b) {
+    if (b instanceof ArrayContainer) {
+      Container t = a;
+      a = b;
+      b = t;
+    }
+    if (a instanceof ArrayContainer x) {
+      for (int k = 0; k < x.cardinality; k++) {
+        if (b.contains(x.values[k])) {
+          return true;
+        }
+      }
+      return false;
+    }
+    long[] words = a.words();
+    long[] other = b.words();
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      if ((words[w] & other[w]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true iff every element of a is in b
+   */
+  private static boolean subset(Container a, Container b) {
+    if (a.cardinality() > b.cardinality()) {
+      return false;
+    }
+    if (a instanceof ArrayContainer x) {
+      for (int k = 0; k < x.cardinality; k++) {
+        if (!b.contains(x.values[k])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    long[] words = a.words();
+    long[] other = b.words();
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      if ((words[w] & ~other[w]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the smallest container for the bits of words, which it may take over, or null if there
+   *     are none
+   */
+  private static Container fromWords(long[] words) {
+    int cardinality = 0;
+    int runs = 0;
+    long previous = 0;
+    for (long w : words) {
+      cardinality += Long.bitCount(w);
+      // a run starts at each set bit whose predecessor is clear
+      runs += Long.bitCount(w & ~((w << 1) | (previous >>> 63)));
+      previous = w;
+    }
+    if (cardinality == 0) {
+      return null;
+    } else if (2 * runs < Math.min(cardinality, ARRAY_MAX)) {
+      // a run takes 4 bytes, an array element 2, and a bitmap 8192
+      return RunContainer.fromWords(words, runs, cardinality);
+    } else if (cardinality <= ARRAY_MAX) {
+      return ArrayContainer.fromWords(words, cardinality);
+    } else {
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+
+  /** The low 16 bits of the elements of a set in one chunk. */
+  private abstract static class Container implements Serializable {
+
+    @Serial private static final long serialVersionUID = 4395766404307633018L;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char x);
+
+    /**
+     * Add x, which this does not contain.
+     *
+     * @return the container that holds the result, this or a new one
+     */
+    abstract Container add(char x);
+
+    /**
+     * Remove x, which this contains.
+     *
+     * @return the container that holds the result, this or a new one, or null if it is empty
+     */
+    abstract Container remove(char x);
+
+    /**
+     * @return the container that holds the union of this and other, this or a new one
+     */
+    Container orInPlace(Container other) {
+      return or(this, other);
+    }
+
+    abstract int last();
+
+    abstract void forEach(int high, IntSetAction action);
+
+    /**
+     * @return the elements, each or'ed with high, in increasing order
+     */
+    abstract int[] toArray(int high);
+
+    /** Set the bits of the elements of this in words. */
+    abstract void orInto(long[] words);
+
+    /**
+     * @return a fresh bitmap of the elements
+     */
+    long[] toWords() {
+      long[] words = new long[BITMAP_WORDS];
+      orInto(words);
+      return words;
+    }
+
+    /**
+     * @return a bitmap of the elements, which the caller must not change
+     */
+    long[] words() {
+      return toWords();
+    }
+
+    abstract Container copy();
+  }
+
+  /** A container that holds a sorted array of elements. */
+  private static final class ArrayContainer extends Container {
+
+    @Serial private static final long serialVersionUID = -1790264405391470405L;
+
+    private char[] values;
+
+    private int cardinality;
+
+    ArrayContainer(char x) {
+      values = new char[] {x, 0, 0, 0};
+      cardinality = 1;
+    }
+
+    private ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    static ArrayContainer fromWords(long[] words, int cardinality) {
+      char[] values = new char[cardinality];
+      int n = 0;
+      for (int w = 0; w < words.length; w++) {
+        for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+          values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(bits));
+        }
+      }
+      return new ArrayContainer(values, cardinality);
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char x) {
+      return Arrays.binarySearch(values, 0, cardinality, x) >= 0;
+    }
+
+    @Override
+    Container add(char x) {
+      if (cardinality == ARRAY_MAX) {
+        long[] words = toWords();
+        words[x >>> 6] |= 1L << x;
+        return new BitmapContainer(words, cardinality + 1);
+      }
+      int index = -Arrays.binarySearch(values, 0, cardinality, x) - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_MAX, 2 * cardinality));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = x;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char x) {
+      if (cardinality == 1) {
+        return null;
+      }
+      int index = Arrays.binarySearch(values, 0, cardinality, x);
+      System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+      cardinality--;
+      return this;
+    }
+
+    /**
+     * @return a new container for the union of this and that, which has room for it
+     */
+    ArrayContainer or(ArrayContainer that) {
+      char[] result = new char[cardinality + that.cardinality];
+      int n = 0;
+      int i = 0;
+      int j = 0;
+      while (i < cardinality && j < that.cardinality) {
+        char x = values[i];
+        char y = that.values[j];
+        if (x <= y) {
+          i++;
+          if (x == y) {
+            j++;
+          }
+          result[n++] = x;
+        } else {
+          j++;
+          result[n++] = y;
+        }
+      }
+      System.arraycopy(values, i, result, n, cardinality - i);
+      n += cardinality - i;
+      System.arraycopy(that.values, j, result, n, that.cardinality - j);
+      n += that.cardinality - j;
+      return new ArrayContainer(result, n);
+    }
+
+    /**
+     * @return a new container for the elements of this that other does (or does not) contain, or
+     *     null if there are none
+     */
+    ArrayContainer filter(Container other, boolean contained) {
+      char[] result = new char[cardinality];
+      int n = 0;
+      for (int k = 0; k < cardinality; k++) {
+        if (other.contains(values[k]) == contained) {
+          result[n++] = values[k];
+        }
+      }
+      return n == 0 ? null : new ArrayContainer(result, n);
+    }
+
+    @Override
+    int last() {
+      return values[cardinality - 1];
+    }
+
+    @Override
+    void forEach(int high, IntSetAction action) {
+      for (int k = 0; k < cardinality; k++) {
+        action.act(high | values[k]);
+      }
+    }
+
+    @Override
+    int[] toArray(int high) {
+      int[] result = new int[cardinality];
+      for (int k = 0; k < cardinality; k++) {
+        result[k] = high | values[k];
+      }
+      return result;
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (int k = 0; k < cardinality; k++) {
+        words[values[k] >>> 6] |= 1L << values[k];
+      }
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+  }
+
+  /** A container that holds a bit for each of the 2^16 possible elements. */
+  private static final class BitmapContainer extends Container {
+
+    @Serial private static final long serialVersionUID = 6372983347218104537L;
+
+    private final long[] words;
+
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char x) {
+      return (words[x >>> 6] & (1L << x)) != 0;
+    }
+
+    @Override
+    Container add(char x) {
+      words[x >>> 6] |= 1L << x;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char x) {
+      words[x >>> 6] &= ~(1L << x);
+      cardinality--;
+      return cardinality <= ARRAY_MAX ? ArrayContainer.fromWords(words, cardinality) : this;
+    }
+
+    @Override
+    Container orInPlace(Container other) {
+      other.orInto(words);
+      cardinality = 0;
+      for (long w : words) {
+        cardinality += Long.bitCount(w);
+      }
+      return this;
+    }
+
+    @Override
+    int last() {
+      int w = BITMAP_WORDS - 1;
+      while (words[w] == 0) {
+        w--;
+      }
+      return (w << 6) | (63 - Long.numberOfLeadingZeros(words[w]));
+    }
+
+    @Override
+    void forEach(int high, IntSetAction action) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+          action.act(high | (w << 6) | Long.numberOfTrailingZeros(bits));
+        }
+      }
+    }
+
+    @Override
+    int[] toArray(int high) {
+      int[] result = new int[cardinality];
+      int n = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+          result[n++] = high | (w << 6) | Long.numberOfTrailingZeros(bits);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        words[w] |= this.words[w];
+      }
+    }
+
+    @Override
+    long[] toWords() {
+      return words.clone();
+    }
+
+    @Override
+    long[] words() {
+      return words;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+  }
+
+  /** A container that holds maximal runs of consecutive elements. */
+  private static final class RunContainer extends Container {
+
+    @Serial private static final long serialVersionUID = -2418913207011530318L;
+
+    /** for each run, its first element and then its length - 1 */
+    private char[] runs;
+
+    private int runCount;
+
+    private int cardinality;
+
+    private RunContainer(char[] runs, int runCount, int cardinality) {
+      this.runs = runs;
+      this.runCount = runCount;
+      this.cardinality = cardinality;
+    }
+
+    static RunContainer fromWords(long[] words, int runCount, int cardinality) {
+      char[] runs = new char[2 * runCount];
+      int n = 0;
+      for (int start = nextBit(words, 0, 0); start < 1 << 16; ) {
+        int end = nextBit(words, start, -1L);
+        runs[n++] = (char) start;
+        runs[n++] = (char) (end - 1 - start);
+        start = nextBit(words, end, 0);
+      }
+      return new RunContainer(runs, runCount, cardinality);
+    }
+
+    /**
+     * @param flip 0 to find a set bit, -1 to find a clear one
+     * @return the first bit at or after from that is set (clear), or 2^16 if there is none
+     */
+    private static int nextBit(long[] words, int from, long flip) {
+      if (from >= 1 << 16) {
+        return 1 << 16;
+      }
+      int w = from >>> 6;
+      long word = (words[w] ^ flip) & (-1L << from);
+      while (word == 0) {
+        if (++w == BITMAP_WORDS) {
+          return 1 << 16;
+        }
+        word = words[w] ^ flip;
+      }
+      return (w << 6) | Long.numberOfTrailingZeros(word);
+    }
+
+    private int start(int run) {
+      return runs[2 * run];
+    }
+
+    private int end(int run) {
+      return runs[2 * run] + runs[2 * run + 1];
+    }
+
+    /**
+     * @return the index of the last run that starts at or before x, or -1 if there is none
+     */
+    private int runAtOrBefore(char x) {
+      int low = 0;
+      int high = runCount - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (start(mid) <= x) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return high;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(char x) {
+      int run = runAtOrBefore(x);
+      return run >= 0 && x <= end(run);
+    }
+
+    @Override
+    Container add(char x) {
+      int run = runAtOrBefore(x);
+      boolean extendsPrevious = run >= 0 && end(run) + 1 == x;
+      boolean extendsNext = run + 1 < runCount && start(run + 1) == x + 1;
+      if (extendsPrevious && extendsNext) {
+        runs[2 * run + 1] = (char) (end(run + 1) - start(run));
+        System.arraycopy(runs, 2 * run + 4, runs, 2 * run + 2, 2 * (runCount - run - 2));
+        runCount--;
+      } else if (extendsPrevious) {
+        runs[2 * run + 1]++;
+      } else if (extendsNext) {
+        runs[2 * run + 2]--;
+        runs[2 * run + 3]++;
+      } else {
+        if (2 * runCount == runs.length) {
+          runs = Arrays.copyOf(runs, 4 * runCount + 2);
+        }
+        System.arraycopy(runs, 2 * run + 2, runs, 2 * run + 4, 2 * (runCount - run - 1));
+        runs[2 * run + 2] = x;
+        runs[2 * run + 3] = 0;
+        runCount++;
+      }
+      cardinality++;
+      return 2 * runCount < Math.min(cardinality, ARRAY_MAX)
+          ? this
+          : RoaringIntSet.fromWords(toWords());
+    }
+
+    @Override
+    Container remove(char x) {
+      long[] words = toWords();
+      words[x >>> 6] &= ~(1L << x);
+      return RoaringIntSet.fromWords(words);
+    }
+
+    @Override
+    int last() {
+      return end(runCount - 1);
+    }
+
+    @Override
+    void forEach(int high, IntSetAction action) {
+      for (int run = 0; run < runCount; run++) {
+        for (int x = start(run), end = end(run); x <= end; x++) {
+          action.act(high | x);
+        }
+      }
+    }
+
+    @Override
+    int[] toArray(int high) {
+      int[] result = new int[cardinality];
+      int n = 0;
+      for (int run = 0; run < runCount; run++) {
+        for (int x = start(run), end = end(run); x <= end; x++) {
+          result[n++] = high | x;
+        }
+      }
+      return result;
+    }
+
+    @Override
+    void orInto(long[] words) {
+      for (int run = 0; run < runCount; run++) {
+        int start = start(run);
+        int end = end(run);
+        int first = start >>> 6;
+        int last = end >>> 6;
+        if (first == last) {
+          words[first] |= (-1L >>> (63 - (end & 63))) & (-1L << start);
+        } else {
+          words[first] |= -1L << start;
+          Arrays.fill(words, first + 1, last, -1L);
+          words[last] |= -1L >>> (63 - (end & 63));
+        }
+      }
+    }
+
+    @Override
+    Container copy() {
+      return new RunContainer(Arrays.copyOf(runs, 2 * runCount), runCount, cardinality);
+    }
+  }
+}
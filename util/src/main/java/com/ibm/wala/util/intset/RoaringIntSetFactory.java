@@ -0,0 +1,37 @@
+package com.ibm.wala.util.intset;
+
+/**
+ * An object that creates {@link RoaringIntSet}s.
+ *
+ * <p>To make these the default, call {@link IntSetUtil#setDefaultIntSetFactory} with an instance,
+ * or set the system property {@value IntSetUtil#INT_SET_FACTORY_CONFIG_PROPERTY_NAME} to the name
+ * of this class.
+ */
+public class RoaringIntSetFactory implements MutableIntSetFactory<RoaringIntSet> {
+
+  /**
+   * @throws IllegalArgumentException if set is null
+   */
+  @Override
+  public RoaringIntSet make(int[] set) {
+    return RoaringIntSet.make(set);
+  }
+
+  @Override
+  public RoaringIntSet parse(String string) throws NumberFormatException {
+    return RoaringIntSet.make(SparseIntSet.parseIntArray(string));
+  }
+
+  /**
+   * @throws IllegalArgumentException if x is null
+   */
+  @Override
+  public RoaringIntSet makeCopy(IntSet x) {
+    return new RoaringIntSet(x);
+  }
+
+  @Override
+  public RoaringIntSet make() {
+    return new RoaringIntSet();
+  }
+}
@@ -167,6 +167,8 @@ public class SparseIntSet implements IntSet {
       return that.sameValue(this);
     } else if (that instanceof MutableSharedBitVectorIntSet mutableSharedBitVectorIntSet) {
       return sameValue(mutableSharedBitVectorIntSet.makeSparseCopy());
+    } else if (that instanceof RoaringIntSet) {
+      return that.sameValue(this);
     } else {
       return Assertions.UNREACHABLE(that.getClass().toString());
     }
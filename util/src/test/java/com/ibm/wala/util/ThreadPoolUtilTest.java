@@ -0,0 +1,65 @@
+package com.ibm.wala.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ThreadPoolUtil}. */
+class ThreadPoolUtilTest {
+
+  @Test
+  void testCheckNumberOfThreads() {
+    assertThat(ThreadPoolUtil.checkNumberOfThreads(3)).isEqualTo(3);
+    assertThatIllegalArgumentException().isThrownBy(() -> ThreadPoolUtil.checkNumberOfThreads(0));
+  }
+
+  @Test
+  void testRunUsesThePoolThreads() throws InterruptedException {
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    ThreadPoolUtil.run(
+        2,
+        () -> IntStream.range(0, 1000).parallel().forEach(i -> threads.add(Thread.currentThread())));
+    assertThat(threads).isNotEmpty().doesNotContain(Thread.currentThread());
+  }
+
+  @Test
+  void testRunRethrowsUncheckedExceptions() {
+    assertThatThrownBy(
+            () ->
+                ThreadPoolUtil.run(
+                    2,
+                    () ->
+                        IntStream.range(0, 10)
+                            .parallel()
+                            .forEach(
+                                i -> {
+                                  throw new IllegalStateException("failed");
+                                })))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("failed");
+    assertThatThrownBy(
+            () ->
+                ThreadPoolUtil.run(
+                    1,
+                    () -> {
+                      throw new AssertionError("failed");
+                    }))
+        .isInstanceOf(AssertionError.class)
+        .hasMessageContaining("failed");
+  }
+
+  @Test
+  void testGetKeepsCheckedExceptions() {
+    Exception failure = new Exception("failed");
+    assertThatThrownBy(() -> ThreadPoolUtil.get(CompletableFuture.failedFuture(failure)))
+        .isInstanceOf(ExecutionException.class)
+        .hasCause(failure);
+  }
+}
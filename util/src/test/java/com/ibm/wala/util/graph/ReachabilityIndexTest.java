@@ -0,0 +1,129 @@
+package com.ibm.wala.util.graph;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.graph.traverse.DFS;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link ReachabilityIndex}. */
+public class ReachabilityIndexTest {
+
+  private static SlowSparseNumberedGraph<Integer> randomGraph(Random random, int n, int edges) {
+    SlowSparseNumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < n; i++) {
+      g.addNode(i);
+    }
+    for (int i = 0; i < edges; i++) {
+      g.addEdge(random.nextInt(n), random.nextInt(n));
+    }
+    return g;
+  }
+
+  /** every even node has its own number as its only fact */
+  private static ReachabilityIndex<Integer> evenFacts(Graph<Integer> g) {
+    return new ReachabilityIndex<>(g, i -> i % 2 == 0 ? SparseIntSet.singleton(i) : null);
+  }
+
+  private static void assertMatches(Graph<Integer> g, ReachabilityIndex<Integer> index) {
+    for (Integer from : g) {
+      Set<Integer> expected = DFS.getReachableNodes(g, Set.of(from));
+      assertThat(index.getReachableNodes(from)).isEqualTo(expected);
+      for (Integer to : g) {
+        assertThat(index.reaches(from, to)).isEqualTo(expected.contains(to));
+      }
+      IntSet facts = index.getReachableFacts(from);
+      for (Integer to : g) {
+        assertThat(facts.contains(to)).isEqualTo(to % 2 == 0 && expected.contains(to));
+      }
+    }
+  }
+
+  @Test
+  public void matchesDepthFirstSearch() {
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      int n = 1 + random.nextInt(40);
+      SlowSparseNumberedGraph<Integer> g = randomGraph(random, n, random.nextInt(2 * n));
+      assertMatches(g, evenFacts(g));
+    }
+  }
+
+  @Test
+  public void solveMatchesDepthFirstSearch() throws CancelException {
+    Random random = new Random(7);
+    for (int round = 0; round < 5; round++) {
+      int n = 2000;
+      SlowSparseNumberedGraph<Integer> g = randomGraph(random, n, n);
+      ReachabilityIndex<Integer> parallel = evenFacts(g);
+      parallel.solve(4, null);
+      ReachabilityIndex<Integer> sequential = evenFacts(g);
+      for (Integer i : g) {
+        IntSet expected = sequential.getReachableFacts(i);
+        assertThat(parallel.getReachableFacts(i).sameValue(expected)).isTrue();
+      }
+    }
+  }
+
+  @Test
+  public void updatesOnEdgeInsertion() throws CancelException {
+    Random random = new Random(3);
+    for (int round = 0; round < 20; round++) {
+      int n = 1 + random.nextInt(30);
+      SlowSparseNumberedGraph<Integer> g = randomGraph(random, n, random.nextInt(n));
+      ReachabilityIndex<Integer> index = evenFacts(g);
+      index.solve(1, null);
+      for (int i = 0; i < n; i++) {
+        Integer from = random.nextInt(n + 5);
+        Integer to = random.nextInt(n + 5);
+        for (Integer v : new Integer[] {from, to}) {
+          if (!g.containsNode(v)) {
+            g.addNode(v);
+          }
+        }
+        g.addEdge(from, to);
+        index.addEdge(from, to);
+        if (random.nextBoolean()) {
+          assertMatches(g, index);
+        }
+      }
+      assertMatches(g, index);
+    }
+  }
+
+  @Test
+  public void cycleMergesComponents() {
+    SlowSparseNumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < 4; i++) {
+      g.addNode(i);
+    }
+    g.addEdge(0, 1);
+    g.addEdge(1, 2);
+    g.addEdge(2, 3);
+    ReachabilityIndex<Integer> index = evenFacts(g);
+    assertThat(index.isSameComponent(0, 2)).isFalse();
+    assertThat(index.reaches(2, 0)).isFalse();
+
+    index.addEdge(2, 0);
+    assertThat(index.isSameComponent(0, 2)).isTrue();
+    assertThat(index.isSameComponent(0, 3)).isFalse();
+    assertThat(index.reaches(2, 1)).isTrue();
+    assertThat(index.reaches(3, 0)).isFalse();
+  }
+
+  @Test
+  public void rejectsUnknownNodes() {
+    ReachabilityIndex<Integer> index = new ReachabilityIndex<>(SlowSparseNumberedGraph.make());
+    assertThat(index.containsNode(0)).isFalse();
+    assertThatThrownBy(() -> index.reaches(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(index.addNode(0)).isTrue();
+    assertThat(index.addNode(0)).isFalse();
+    assertThat(index.reaches(0, 0)).isTrue();
+  }
+}
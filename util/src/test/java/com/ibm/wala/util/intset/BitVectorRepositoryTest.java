@@ -0,0 +1,77 @@
+package com.ibm.wala.util.intset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BitVectorRepository}. */
+class BitVectorRepositoryTest {
+
+  private static final int THREADS = 8;
+
+  private static final int SETS = 500;
+
+  /** each set lies in its own stretch of this many ints, so that no set is a subset of another */
+  private static final int STRIDE = 64;
+
+  private static BitVectorIntSet makeSet(int base, int size) {
+    BitVectorIntSet result = new BitVectorIntSet();
+    for (int i = 0; i < size; i++) {
+      result.add(base + i);
+    }
+    return result;
+  }
+
+  @Test
+  void testConcurrentSharingIsCanonical() throws Exception {
+    int base = 1 << 20;
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<BitVectorIntSet[]>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  BitVectorIntSet[] result = new BitVectorIntSet[SETS];
+                  for (int i = 0; i < SETS; i++) {
+                    result[i] =
+                        BitVectorRepository.findOrCreateSharedSubset(
+                            makeSet(base + i * STRIDE, 21 + i % 40));
+                  }
+                  return result;
+                }));
+      }
+      BitVectorIntSet[] first = futures.get(0).get();
+      for (int i = 0; i < SETS; i++) {
+        assertThat(first[i].sameValue(makeSet(base + i * STRIDE, 21 + i % 40))).isTrue();
+      }
+      for (Future<BitVectorIntSet[]> future : futures) {
+        BitVectorIntSet[] other = future.get();
+        for (int i = 0; i < SETS; i++) {
+          assertThat(other[i]).isSameAs(first[i]);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void testSharedSubset() {
+    int base = 1 << 22;
+    BitVectorIntSet shared = BitVectorRepository.findOrCreateSharedSubset(makeSet(base, 30));
+    BitVectorIntSet bigger = makeSet(base, 32);
+    BitVectorIntSet result = BitVectorRepository.findOrCreateSharedSubset(bigger);
+    assertThat(result.isSubset(bigger)).isTrue();
+    assertThat(result.size()).isGreaterThan(bigger.size() - 5);
+    assertThat(shared.size()).isEqualTo(30);
+  }
+}